@@ -1 +1,66 @@
-echo "GET http://localhost:8080/status" | vegeta attack -rate=10000 -duration=30s | tee results.bin | vegeta report
\ No newline at end of file
+#!/usr/bin/env bash
+#
+# Load test the gateway with vegeta.
+#
+#   ./load_test.sh                 attack an already running gateway on :8080
+#   ./load_test.sh transports      start the gateway once per transport (nio, epoll,
+#                                  io_uring) and compare throughput and latency
+#
+# RATE and DURATION can be overridden from the environment.
+
+set -euo pipefail
+
+RATE="${RATE:-10000}"
+DURATION="${DURATION:-30s}"
+PORT="${PORT:-8080}"
+TARGET="GET http://localhost:${PORT}/status"
+
+attack() {
+  local name="$1"
+  echo "$TARGET" | vegeta attack -rate="$RATE" -duration="$DURATION" | tee "results-${name}.bin" | vegeta report
+}
+
+if [[ "${1:-}" != "transports" ]]; then
+  attack default
+  exit 0
+fi
+
+JAR=$(ls target/dispatch-gateway-*.jar 2>/dev/null | grep -v original | head -n 1 || true)
+if [[ -z "$JAR" ]]; then
+  echo "No gateway jar found, run 'mvn package' first" >&2
+  exit 1
+fi
+
+for transport in nio epoll io_uring; do
+  config=$(mktemp --suffix=.yml)
+  cat > "$config" <<YAML
+server:
+  port: ${PORT}
+  transport: ${transport}
+
+routes:
+  - type: "static"
+    path: "/status"
+    response:
+      status: 200
+      body: '{"status": "healthy"}'
+      content_type: "application/json"
+YAML
+
+  java --enable-preview -jar "$JAR" "$config" > "gateway-${transport}.log" 2>&1 &
+  pid=$!
+  for _ in $(seq 1 50); do
+    curl -sf "http://localhost:${PORT}/status" > /dev/null && break
+    sleep 0.2
+  done
+
+  # An unavailable transport falls back, so report what actually ran
+  actual=$(grep -o "transport: [A-Z_]*" "gateway-${transport}.log" | head -n 1 || true)
+  echo "=== ${transport} (${actual:-unknown}) ==="
+  attack "$transport"
+  echo
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$config"
+done
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.dispatch.core.filter;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Per-request cost of walking a pipeline of trivial filters under the three filter
+ * styles: the old {@code supplyAsync} wrapping, async filters returning completed
+ * futures, and {@link SynchronousGatewayFilter}s run inline. Run with {@code -prof gc}
+ * to compare {@code gc.alloc.rate.norm} (bytes allocated per request).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class FilterPipelineBenchmark {
+    
+    @Param({"1", "4", "8"})
+    private int filterCount;
+    
+    private HttpRequest request;
+    private FilterPipeline supplyAsync;
+    private FilterPipeline completedFutures;
+    private FilterPipeline synchronous;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = new HttpRequest(HttpMethod.GET, "/api/users", new DefaultHttpHeaders(), new byte[0],
+            new InetSocketAddress("127.0.0.1", 8080));
+        supplyAsync = pipeline(SupplyAsyncFilter::new);
+        completedFutures = pipeline(CompletedFutureFilter::new);
+        synchronous = pipeline(InlineFilter::new);
+    }
+    
+    @Benchmark
+    public FilterResult supplyAsync() {
+        return supplyAsync.execute(request, new FilterContext(request)).join();
+    }
+    
+    @Benchmark
+    public FilterResult completedFutures() {
+        return completedFutures.execute(request, new FilterContext(request)).join();
+    }
+    
+    @Benchmark
+    public FilterResult synchronous() {
+        return synchronous.execute(request, new FilterContext(request)).join();
+    }
+    
+    private FilterPipeline pipeline(IntFunction<GatewayFilter> factory) {
+        List<GatewayFilter> filters = new ArrayList<>(filterCount);
+        for (int i = 0; i < filterCount; i++) {
+            filters.add(factory.apply(i));
+        }
+        return new FilterPipeline(filters);
+    }
+    
+    private record InlineFilter(int id) implements SynchronousGatewayFilter {
+        @Override
+        public String getName() {
+            return "inline-" + id;
+        }
+        
+        @Override
+        public boolean shouldApply(HttpRequest request) {
+            return true;
+        }
+        
+        @Override
+        public boolean alwaysApplies() {
+            return true;
+        }
+        
+        @Override
+        public FilterResult filter(HttpRequest request, FilterContext context) {
+            return FilterResult.proceed();
+        }
+    }
+    
+    private record CompletedFutureFilter(int id) implements GatewayFilter {
+        @Override
+        public String getName() {
+            return "completed-" + id;
+        }
+        
+        @Override
+        public boolean shouldApply(HttpRequest request) {
+            return true;
+        }
+        
+        @Override
+        public boolean alwaysApplies() {
+            return true;
+        }
+        
+        @Override
+        public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
+            return CompletableFuture.completedFuture(FilterResult.proceed());
+        }
+    }
+    
+    /**
+     * How the built-in filters were written before they became synchronous
+     */
+    private record SupplyAsyncFilter(int id) implements GatewayFilter {
+        @Override
+        public String getName() {
+            return "supply-async-" + id;
+        }
+        
+        @Override
+        public boolean shouldApply(HttpRequest request) {
+            return true;
+        }
+        
+        @Override
+        public boolean alwaysApplies() {
+            return true;
+        }
+        
+        @Override
+        public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
+            return CompletableFuture.supplyAsync(FilterResult::proceed);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.config.RouteConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old linear scan, which tested every route in turn and built a regex for
+ * each glob route, with the compiled {@link RadixRouter} for a mix of exact, prefix and
+ * glob routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class RouteMatchingBenchmark {
+    
+    @Param({"10", "100", "1000", "10000"})
+    private int routeCount;
+    
+    private List<RouteConfig> routes;
+    private RadixRouter<RouteConfig> router;
+    private String[] paths;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        routes = new ArrayList<>(routeCount);
+        router = new RadixRouter<>();
+        for (int i = 0; i < routeCount; i++) {
+            RouteConfig route = new RouteConfig();
+            route.setPath(switch (i % 3) {
+                case 0 -> "/api/service" + i + "/users";
+                case 1 -> "/api/service" + i + "/*";
+                default -> "/api/service" + i + "/*/posts";
+            });
+            routes.add(route);
+            router.add(route.getPath(), route);
+        }
+        
+        Random random = new Random(42);
+        paths = new String[1024];
+        for (int i = 0; i < paths.length; i++) {
+            int service = random.nextInt(routeCount);
+            paths[i] = switch (service % 3) {
+                case 0 -> "/api/service" + service + "/users";
+                case 1 -> "/api/service" + service + "/orders/" + i;
+                default -> "/api/service" + service + "/user" + i + "/posts";
+            };
+        }
+    }
+    
+    @Benchmark
+    public RouteConfig linearScan() {
+        String path = nextPath();
+        for (RouteConfig route : routes) {
+            if (linearScanMatches(route.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+    
+    @Benchmark
+    public RouteConfig radixTree() {
+        return router.match(nextPath());
+    }
+    
+    /**
+     * The matching the old linear scan did for each route, kept here as the baseline
+     */
+    private static boolean linearScanMatches(String pattern, String path) {
+        if (pattern.equals(path)) {
+            return true;
+        }
+        if (pattern.endsWith("/*")) {
+            return path.startsWith(pattern.substring(0, pattern.length() - 2));
+        }
+        if (pattern.contains("*")) {
+            return path.matches(pattern.replace("*", ".*"));
+        }
+        return false;
+    }
+    
+    private String nextPath() {
+        String path = paths[next];
+        next = (next + 1) & (paths.length - 1);
+        return path;
+    }
+}
\ No newline at end of file
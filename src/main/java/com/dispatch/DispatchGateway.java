@@ -1,10 +1,15 @@
 package com.dispatch;
 
+import com.dispatch.client.BackendClient;
+import com.dispatch.client.IBackendClient;
+import com.dispatch.client.NettyBackendClient;
 import com.dispatch.core.config.ConfigManager;
 import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.route.RouteManager;
 import com.dispatch.core.server.NettyServer;
+import com.dispatch.core.server.Transport;
 import com.dispatch.monitoring.HealthCheckFilter;
+import io.netty.channel.EventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +22,7 @@ public class DispatchGateway {
     private NettyServer server;
     private RouteManager routeManager;
     private DispatchConfig config;
+    private EventLoopGroup workerGroup;
     
     public DispatchGateway() {
         this.configManager = new ConfigManager();
@@ -28,15 +34,7 @@ public class DispatchGateway {
                 logger.info("Starting Dispatch Gateway...");
                 
                 config = configManager.loadConfig(configPath);
-                routeManager = new RouteManager(config);
-                
-                server = new NettyServer(
-                    config.getServer().getPort(),
-                    config.getServer().getSsl().isEnabled(),
-                    routeManager
-                );
-                
-                server.start().join();
+                startServer();
                 
             } catch (Exception e) {
                 logger.error("Failed to start Dispatch Gateway", e);
@@ -51,15 +49,7 @@ public class DispatchGateway {
                 logger.info("Starting Dispatch Gateway with default configuration...");
                 
                 config = configManager.loadDefaultConfig();
-                routeManager = new RouteManager(config);
-                
-                server = new NettyServer(
-                    config.getServer().getPort(),
-                    config.getServer().getSsl().isEnabled(),
-                    routeManager
-                );
-                
-                server.start().join();
+                startServer();
                 
             } catch (Exception e) {
                 logger.error("Failed to start Dispatch Gateway with default config", e);
@@ -68,6 +58,26 @@ public class DispatchGateway {
         });
     }
     
+    private void startServer() {
+        DispatchConfig.ServerConfig serverConfig = config.getServer();
+        Transport transport = Transport.select(serverConfig.getTransport());
+        
+        // The server's worker event loops also drive backend connections for the Netty client
+        workerGroup = transport.newEventLoopGroup(serverConfig.getWorkerThreads());
+        
+        DispatchConfig.ClientConfig clientConfig = config.getClient();
+        IBackendClient backendClient = clientConfig.isNetty()
+            ? new NettyBackendClient(workerGroup, transport.socketChannelClass(), clientConfig)
+            : new BackendClient(clientConfig);
+        logger.info("Using {} backend client", clientConfig.getType());
+        
+        routeManager = new RouteManager(config, backendClient);
+        
+        server = new NettyServer(serverConfig, routeManager, transport, workerGroup);
+        
+        server.start().join();
+    }
+    
     public CompletableFuture<Void> shutdown() {
         return CompletableFuture.runAsync(() -> {
             logger.info("Shutting down Dispatch Gateway...");
@@ -80,6 +90,10 @@ public class DispatchGateway {
                 routeManager.shutdown();
             }
             
+            if (workerGroup != null) {
+                workerGroup.shutdownGracefully();
+            }
+            
             logger.info("Dispatch Gateway shutdown complete");
         });
     }
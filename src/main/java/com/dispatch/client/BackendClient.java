@@ -1,16 +1,29 @@
 package com.dispatch.client;
 
+import com.dispatch.core.Constants;
+import com.dispatch.core.Timers;
+import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.filter.HttpRequest;
 import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.monitoring.MetricsRegistry;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 public class BackendClient implements IBackendClient {
     private static final Logger logger = LoggerFactory.getLogger(BackendClient.class);
@@ -18,16 +31,40 @@ public class BackendClient implements IBackendClient {
     private final HttpClient httpClient;
     private final Duration connectTimeout;
     private final Duration requestTimeout;
-    private final int maxRetries;
+    private final RetryPolicy retryPolicy;
+    private final double retryBudgetPercent;
+    private final int retryBudgetMinPerSecond;
+    private final ConcurrentMap<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
     
     public BackendClient() {
         this(Duration.ofSeconds(5), Duration.ofSeconds(30), 3);
     }
     
     public BackendClient(Duration connectTimeout, Duration requestTimeout, int maxRetries) {
+        this(connectTimeout, requestTimeout, new RetryPolicy(maxRetries));
+    }
+    
+    public BackendClient(DispatchConfig.ClientConfig config) {
+        this(Duration.ofMillis(config.getConnectTimeoutMs()), Duration.ofMillis(config.getRequestTimeoutMs()),
+            new RetryPolicy(config.getMaxRetries()), config.getRetryBudgetPercent(), config.getRetryBudgetMinPerSecond());
+    }
+    
+    public BackendClient(Duration connectTimeout, Duration requestTimeout, RetryPolicy retryPolicy) {
+        this(connectTimeout, requestTimeout, retryPolicy,
+            Constants.DEFAULT_RETRY_BUDGET_PERCENT, Constants.DEFAULT_RETRY_BUDGET_MIN_PER_SECOND);
+    }
+    
+    /**
+     * @param retryBudgetPercent Retries allowed per backend, per 100 recent successful requests
+     * @param retryBudgetMinPerSecond Retries per second always allowed per backend
+     */
+    public BackendClient(Duration connectTimeout, Duration requestTimeout, RetryPolicy retryPolicy,
+                         double retryBudgetPercent, int retryBudgetMinPerSecond) {
         this.connectTimeout = connectTimeout;
         this.requestTimeout = requestTimeout;
-        this.maxRetries = maxRetries;
+        this.retryPolicy = retryPolicy;
+        this.retryBudgetPercent = retryBudgetPercent;
+        this.retryBudgetMinPerSecond = retryBudgetMinPerSecond;
         
         this.httpClient = HttpClient.newBuilder()
             .executor(Executors.newVirtualThreadPerTaskExecutor())
@@ -59,23 +96,38 @@ public class BackendClient implements IBackendClient {
                 default -> throw new IllegalArgumentException("Unsupported HTTP method: " + request.method());
             }
             
-            request.headers().forEach(entry -> {
-                String name = entry.getKey();
-                String value = entry.getValue();
-                
-                if (!isHopByHopHeader(name)) {
-                    builder.header(name, value);
-                }
-            });
+            copyRequestHeaders(request, builder);
             
             java.net.http.HttpRequest httpRequest = builder.build();
             
             logger.debug("Proxying request {} {} to {}", 
                 request.method(), request.path(), targetUri);
             
-            return httpClient.sendAsync(httpRequest, java.net.http.HttpResponse.BodyHandlers.ofByteArray())
-                .thenApply(this::convertResponse)
-                .exceptionally(throwable -> handleError(throwable, request, backendUrl, attempt));
+            CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+            CompletableFuture<java.net.http.HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(httpRequest, java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+            exchange.thenApply(this::convertResponse)
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        if (!result.isDone()) {
+                            handleError(throwable, request, backendUrl, attempt, result);
+                        }
+                        return;
+                    }
+                    if (response.statusCode() < 500) {
+                        retryBudget(backendUrl).recordSuccess();
+                    }
+                    if (!result.complete(response)) {
+                        response.release();
+                    }
+                });
+            // Cancelling the result, e.g. for a hedge that lost, abandons the exchange
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            return result;
                 
         } catch (Exception e) {
             logger.error("Error building proxy request for {}", backendUrl, e);
@@ -85,6 +137,64 @@ public class BackendClient implements IBackendClient {
         }
     }
     
+    /**
+     * Proxy a request without buffering either body. The request body (if any) is
+     * forwarded as it arrives from the client and the response completes as soon as
+     * the backend's headers are received, with the body following as a stream.
+     * Streaming requests are never retried since their body can only be read once.
+     */
+    public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+        try {
+            URI targetUri = buildTargetUri(backendUrl, request.path(), request.uri());
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
+                .uri(targetUri)
+                .timeout(requestTimeout)
+                .method(request.method().name(), streamingBodyPublisher(request));
+            
+            copyRequestHeaders(request, builder);
+            
+            logger.debug("Streaming request {} {} to {}", 
+                request.method(), request.path(), targetUri);
+            
+            return httpClient.sendAsync(builder.build(), java.net.http.HttpResponse.BodyHandlers.ofPublisher())
+                .thenApply(this::convertStreamingResponse)
+                .exceptionally(throwable -> {
+                    logger.error("Streaming proxy request failed: {} {} to {}", 
+                        request.method(), request.path(), backendUrl, throwable);
+                    return errorResponse(throwable);
+                });
+                
+        } catch (Exception e) {
+            logger.error("Error building streaming proxy request for {}", backendUrl, e);
+            return CompletableFuture.completedFuture(
+                HttpResponse.badGateway("Failed to proxy request: " + e.getMessage())
+            );
+        }
+    }
+    
+    private java.net.http.HttpRequest.BodyPublisher streamingBodyPublisher(HttpRequest request) {
+        if (!request.isStreaming()) {
+            return java.net.http.HttpRequest.BodyPublishers.noBody();
+        }
+        
+        Flow.Publisher<ByteBuffer> body = ByteBufPublishers.toByteBuffers(request.bodyStream());
+        long contentLength = request.headers().getInt(Constants.CONTENT_LENGTH_HEADER, -1);
+        return contentLength >= 0
+            ? java.net.http.HttpRequest.BodyPublishers.fromPublisher(body, contentLength)
+            : java.net.http.HttpRequest.BodyPublishers.fromPublisher(body);
+    }
+    
+    private void copyRequestHeaders(HttpRequest request, java.net.http.HttpRequest.Builder builder) {
+        request.headers().forEach(entry -> {
+            String name = entry.getKey();
+            String value = entry.getValue();
+            
+            if (!isHopByHopHeader(name)) {
+                builder.header(name, value);
+            }
+        });
+    }
+    
     private URI buildTargetUri(String backendUrl, String path, String originalUri) {
         try {
             URI baseUri = URI.create(backendUrl.endsWith("/") ? backendUrl.substring(0, backendUrl.length() - 1) : backendUrl);
@@ -113,7 +223,7 @@ public class BackendClient implements IBackendClient {
     }
     
     
-    private boolean isHopByHopHeader(String headerName) {
+    static boolean isHopByHopHeader(String headerName) {
         return switch (headerName.toLowerCase()) {
             case "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
                  "te", "trailers", "transfer-encoding", "upgrade", "content-length", "host" -> true;
@@ -121,7 +231,7 @@ public class BackendClient implements IBackendClient {
         };
     }
     
-    private boolean isHttp2PseudoHeader(String headerName) {
+    static boolean isHttp2PseudoHeader(String headerName) {
         return headerName.startsWith(":");
     }
     
@@ -140,23 +250,98 @@ public class BackendClient implements IBackendClient {
         return response;
     }
     
-    private HttpResponse handleError(Throwable throwable, HttpRequest request, String backendUrl, int attempt) {
+    private HttpResponse convertStreamingResponse(java.net.http.HttpResponse<Flow.Publisher<List<ByteBuffer>>> httpResponse) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        httpResponse.headers().map().forEach((name, values) -> {
+            if (!isHopByHopHeader(name) && !isHttp2PseudoHeader(name)) {
+                values.forEach(value -> headers.add(name, value));
+            }
+        });
+        
+        // The body is passed through unchanged, so the backend's length still holds
+        httpResponse.headers().firstValue(Constants.CONTENT_LENGTH_HEADER)
+            .ifPresent(length -> headers.set(Constants.CONTENT_LENGTH_HEADER, length));
+        
+        return HttpResponse.streaming(
+            httpResponse.statusCode(),
+            headers,
+            ByteBufPublishers.fromByteBuffers(httpResponse.body())
+        );
+    }
+    
+    /**
+     * Complete the result by retrying idempotent requests after a jittered backoff, or
+     * else with an error response. The next attempt is scheduled on the retry timer, so no
+     * thread waits out the delay, and cancelling the result cancels the pending retry.
+     */
+    private void handleError(Throwable throwable, HttpRequest request, String backendUrl, int attempt,
+                             CompletableFuture<HttpResponse> retried) {
         logger.error("Proxy request failed (attempt {}/{}): {} {} to {}", 
-            attempt + 1, maxRetries + 1, request.method(), request.path(), backendUrl, throwable);
+            attempt + 1, retryPolicy.maxRetries() + 1, request.method(), request.path(), backendUrl, throwable);
         
-        if (attempt < maxRetries && isRetryableError(throwable)) {
-            logger.info("Retrying request {} {} to {} (attempt {}/{})", 
-                request.method(), request.path(), backendUrl, attempt + 2, maxRetries + 1);
-            
-            try {
-                Thread.sleep(Math.min(1000 * (1L << attempt), 5000)); // Exponential backoff, max 5s
-                return proxyRequest(request, backendUrl, attempt + 1).join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return HttpResponse.serviceUnavailable("Request interrupted");
-            }
+        if (!retryPolicy.shouldRetry(request, throwable, attempt)) {
+            retried.complete(errorResponse(throwable));
+            return;
+        }
+        if (!retryBudget(backendUrl).tryAcquireRetry()) {
+            logger.warn("Retry budget for {} exhausted, not retrying {} {}", 
+                backendUrl, request.method(), request.path());
+            retried.complete(errorResponse(throwable));
+            return;
         }
         
+        long delayMs = retryPolicy.delayMillis(attempt);
+        logger.info("Retrying request {} {} to {} in {}ms (attempt {}/{})", 
+            request.method(), request.path(), backendUrl, delayMs, attempt + 2, retryPolicy.maxRetries() + 1);
+        
+        Timeout retry = Timers.shared().newTimeout(timeout -> {
+            if (retried.isDone()) {
+                return;
+            }
+            CompletableFuture<HttpResponse> next = proxyRequest(request, backendUrl, attempt + 1);
+            retried.whenComplete((response, error) -> {
+                if (retried.isCancelled()) {
+                    next.cancel(false);
+                }
+            });
+            next.whenComplete((response, error) -> {
+                if (error != null) {
+                    retried.completeExceptionally(error);
+                } else if (!retried.complete(response)) {
+                    response.release();
+                }
+            });
+        }, delayMs, TimeUnit.MILLISECONDS);
+        retried.whenComplete((response, error) -> {
+            if (retried.isCancelled()) {
+                retry.cancel();
+            }
+        });
+    }
+    
+    /**
+     * Retry budget for a backend, for inspection
+     */
+    public RetryBudget getRetryBudget(String backendUrl) {
+        return retryBudgets.get(backendUrl);
+    }
+    
+    private RetryBudget retryBudget(String backendUrl) {
+        RetryBudget budget = retryBudgets.get(backendUrl);
+        return budget != null ? budget : retryBudgets.computeIfAbsent(backendUrl, this::createRetryBudget);
+    }
+    
+    private RetryBudget createRetryBudget(String backendUrl) {
+        RetryBudget budget = new RetryBudget(retryBudgetPercent, retryBudgetMinPerSecond, Constants.RETRY_BUDGET_WINDOW_MS);
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.gauge("backend-client.retries.attempted[" + backendUrl + "]", budget, RetryBudget::getAttemptedCount);
+        registry.gauge("backend-client.retries.suppressed[" + backendUrl + "]", budget, RetryBudget::getSuppressedCount);
+        return budget;
+    }
+    
+    static HttpResponse errorResponse(Throwable throwable) {
+        throwable = RetryPolicy.unwrap(throwable);
+        
         if (throwable instanceof HttpTimeoutException) {
             return HttpResponse.serviceUnavailable("Backend service timeout");
         } else if (throwable instanceof java.net.ConnectException) {
@@ -166,12 +351,6 @@ public class BackendClient implements IBackendClient {
         }
     }
     
-    private boolean isRetryableError(Throwable throwable) {
-        return throwable instanceof HttpTimeoutException ||
-               throwable instanceof java.net.ConnectException ||
-               throwable instanceof java.io.IOException;
-    }
-    
     public void shutdown() {
         try {
             httpClient.close();
@@ -0,0 +1,410 @@
+package com.dispatch.client;
+
+import com.dispatch.core.filter.Body;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.core.server.InboundBodyPublisher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request/response exchange with a backend over a pooled connection.
+ * <p>
+ * Everything after {@link #start} runs on the connection's event loop. Buffered
+ * exchanges complete once the whole response has arrived; streaming exchanges
+ * complete as soon as the response head arrives and publish the body chunks as they
+ * are read, pausing reads from the backend while the client is not keeping up. The
+ * request timeout covers the wait for the response head; after that, a streamed body
+ * fails if the backend sends nothing for as long while it is being read.
+ */
+final class BackendExchange {
+    private static final Logger logger = LoggerFactory.getLogger(BackendExchange.class);
+    
+    private final NettyBackendClient client;
+    private final HttpRequest request;
+    private final NettyBackendClient.Backend backend;
+    private final boolean streaming;
+    private final CompletableFuture<HttpResponse> response;
+    
+    private Channel channel;
+    private ChannelPool pool;
+    private Runnable retry;
+    private ScheduledFuture<?> timeout;
+    private RequestBodyWriter requestBody;
+    private boolean finished;
+    
+    // Response state
+    private boolean responseStarted;
+    private boolean informational;
+    private boolean keepAlive;
+    private int status;
+    private HttpHeaders headers;
+    private CompositeByteBuf content;
+    private InboundBodyPublisher responseBody;
+    private long lastReadNanos;
+    
+    BackendExchange(NettyBackendClient client, HttpRequest request, NettyBackendClient.Backend backend,
+                    boolean streaming, CompletableFuture<HttpResponse> response) {
+        this.client = client;
+        this.request = request;
+        this.backend = backend;
+        this.streaming = streaming;
+        this.response = response;
+    }
+    
+    NettyBackendClient.Backend backend() {
+        return backend;
+    }
+    
+    /**
+     * Whether the request can be sent again. The backend may have acted on a request
+     * before the connection failed, so only idempotent ones are resent, and streamed
+     * request bodies can only be read once.
+     */
+    boolean isRetryable() {
+        return !request.isStreaming() && RetryPolicy.isIdempotent(request.method());
+    }
+    
+    /**
+     * A fresh exchange for the same request, completing the same response future
+     */
+    BackendExchange copy() {
+        return new BackendExchange(client, request, backend, streaming, response);
+    }
+    
+    void start(Channel channel, ChannelPool pool, Runnable retry) {
+        this.channel = channel;
+        this.pool = pool;
+        this.retry = retry;
+        NettyBackendClient.handler(channel).exchange = this;
+        
+        // A caller that gave up on the response (e.g. a hedged request that lost) frees the
+        // connection; it can't be reused since the response may be partly read
+        if (response.isCancelled()) {
+            finish(true);
+            return;
+        }
+        response.whenComplete((r, e) -> {
+            if (response.isCancelled()) {
+                channel.eventLoop().execute(this::abort);
+            }
+        });
+        channel.config().setAutoRead(true);
+        
+        timeout = channel.eventLoop().schedule(
+            () -> fail(new HttpTimeoutException("Backend did not respond within " + client.requestTimeoutMs() + "ms")),
+            client.requestTimeoutMs(),
+            TimeUnit.MILLISECONDS
+        );
+        
+        String uri = backend.basePath() + request.uri();
+        HttpHeaders outbound = new DefaultHttpHeaders();
+        request.headers().forEach(entry -> {
+            if (!BackendClient.isHopByHopHeader(entry.getKey())) {
+                outbound.add(entry.getKey(), entry.getValue());
+            }
+        });
+        outbound.set(HttpHeaderNames.HOST, backend.hostHeader());
+        
+        if (request.isStreaming()) {
+            DefaultHttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, request.method(), uri, outbound);
+            String contentLength = request.getHeader(HttpHeaderNames.CONTENT_LENGTH.toString());
+            if (contentLength != null) {
+                outbound.set(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+            } else {
+                HttpUtil.setTransferEncodingChunked(head, true);
+            }
+            channel.write(head).addListener(future -> {
+                if (!future.isSuccess()) {
+                    fail(future.cause());
+                }
+            });
+            requestBody = new RequestBodyWriter();
+            request.bodyStream().subscribe(requestBody);
+        } else {
+            int length = request.bodyLength();
+            if (length > 0 || request.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
+                outbound.set(HttpHeaderNames.CONTENT_LENGTH, length);
+            }
+            // Each attempt writes its own reference to the body, so a retry can resend it
+            DefaultFullHttpRequest fullRequest = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, request.method(), uri, request.content().retainedBuffer(), outbound, new DefaultHttpHeaders());
+            channel.writeAndFlush(fullRequest).addListener(future -> {
+                if (!future.isSuccess()) {
+                    fail(future.cause());
+                }
+            });
+        }
+    }
+    
+    void onResponse(HttpObject msg) {
+        try {
+            if (msg instanceof io.netty.handler.codec.http.HttpResponse head) {
+                // 1xx responses (e.g. 100 Continue) are followed by the real response
+                informational = head.status().codeClass() == HttpStatusClass.INFORMATIONAL;
+                if (!informational) {
+                    onResponseHead(head);
+                }
+            }
+            
+            if (msg instanceof HttpContent chunk) {
+                if (informational) {
+                    if (chunk instanceof LastHttpContent) {
+                        informational = false;
+                    }
+                    return;
+                }
+                onResponseContent(chunk);
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+    
+    private void onResponseHead(io.netty.handler.codec.http.HttpResponse head) {
+        responseStarted = true;
+        status = head.status().code();
+        keepAlive = HttpUtil.isKeepAlive(head);
+        headers = new DefaultHttpHeaders();
+        head.headers().forEach(entry -> {
+            if (!BackendClient.isHopByHopHeader(entry.getKey())) {
+                headers.add(entry.getKey(), entry.getValue());
+            }
+        });
+        
+        if (streaming) {
+            // The body is passed through unchanged, so the backend's length still holds
+            String contentLength = head.headers().get(HttpHeaderNames.CONTENT_LENGTH);
+            if (contentLength != null) {
+                headers.set(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+            }
+            cancelTimeout();
+            lastReadNanos = System.nanoTime();
+            scheduleReadIdleCheck(client.requestTimeoutMs());
+            responseBody = new InboundBodyPublisher(channel, this::abort);
+            response.complete(HttpResponse.streaming(status, headers, responseBody));
+        } else {
+            content = channel.alloc().compositeBuffer();
+        }
+    }
+    
+    private void onResponseContent(HttpContent chunk) {
+        if (finished || !responseStarted) {
+            return;
+        }
+        
+        if (streaming) {
+            lastReadNanos = System.nanoTime();
+            responseBody.onContent(chunk);
+        } else if (chunk.content().isReadable()) {
+            content.addComponent(true, chunk.content().retain());
+        }
+        
+        if (chunk instanceof LastHttpContent) {
+            complete();
+        }
+    }
+    
+    private void complete() {
+        if (!streaming) {
+            cancelTimeout();
+            // The response takes over the aggregated buffer instead of copying it
+            HttpResponse fullResponse = new HttpResponse(status, headers, Body.of(content));
+            content = null;
+            if (!response.complete(fullResponse)) {
+                fullResponse.release();
+            }
+        }
+        
+        // The request body may still be in flight if the backend answered early
+        finish(keepAlive && (requestBody == null || requestBody.completed));
+    }
+    
+    void fail(Throwable cause) {
+        if (finished) {
+            return;
+        }
+        
+        if (retry != null && !responseStarted && cause instanceof IOException && !(cause instanceof HttpTimeoutException)) {
+            logger.debug("Reused backend connection {} failed, retrying on another connection", channel, cause);
+            finish(false);
+            retry.run();
+            return;
+        }
+        
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+        if (responseBody != null) {
+            responseBody.onError(cause);
+        }
+        if (!response.isDone()) {
+            logger.error("Proxy request failed: {} {} to {}", request.method(), request.path(), backend.hostHeader(), cause);
+            response.complete(BackendClient.errorResponse(cause));
+        }
+        finish(false);
+    }
+    
+    /**
+     * Fail before a connection was acquired, e.g. because the pool is exhausted
+     */
+    void failToAcquire(Throwable cause) {
+        logger.warn("Could not acquire backend connection for {}: {}", backend.hostHeader(), cause.getMessage());
+        if (cause instanceof IOException) {
+            response.complete(BackendClient.errorResponse(cause));
+        } else {
+            response.complete(HttpResponse.serviceUnavailable("Backend connection pool exhausted"));
+        }
+    }
+    
+    void onWritable() {
+        if (requestBody != null) {
+            requestBody.resume();
+        }
+    }
+    
+    /**
+     * The client stopped reading the streamed response, so the connection can't be reused
+     */
+    private void abort() {
+        finish(false);
+    }
+    
+    private void finish(boolean reusable) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        cancelTimeout();
+        if (requestBody != null) {
+            requestBody.cancel();
+        }
+        client.release(channel, pool, reusable);
+    }
+    
+    /**
+     * Fail a streamed response whose backend has sent nothing for the request timeout.
+     * Reads paused because the client isn't keeping up don't count as idle.
+     */
+    private void scheduleReadIdleCheck(long delayMs) {
+        timeout = channel.eventLoop().schedule(() -> {
+            long now = System.nanoTime();
+            if (!channel.config().isAutoRead()) {
+                lastReadNanos = now;
+            }
+            long remainingMs = client.requestTimeoutMs() - TimeUnit.NANOSECONDS.toMillis(now - lastReadNanos);
+            if (remainingMs <= 0) {
+                fail(new HttpTimeoutException("Backend sent no data for " + client.requestTimeoutMs() + "ms"));
+            } else {
+                scheduleReadIdleCheck(remainingMs);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+    
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+    }
+    
+    /**
+     * Writes a streamed request body to the backend, requesting the next chunk only
+     * while the connection is writable. Chunks are written as received, without copying.
+     */
+    private class RequestBodyWriter implements Flow.Subscriber<ByteBuf> {
+        private volatile Flow.Subscription subscription;
+        private boolean paused;
+        private boolean completed;
+        private boolean cancelled;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            channel.eventLoop().execute(() -> {
+                if (cancelled) {
+                    subscription.cancel();
+                } else {
+                    channel.flush();
+                    subscription.request(1);
+                }
+            });
+        }
+        
+        @Override
+        public void onNext(ByteBuf chunk) {
+            channel.eventLoop().execute(() -> {
+                // Once finished the connection may already belong to another exchange
+                if (finished) {
+                    chunk.release();
+                    return;
+                }
+                channel.writeAndFlush(new DefaultHttpContent(chunk)).addListener(future -> {
+                    if (!future.isSuccess()) {
+                        fail(future.cause());
+                    } else if (channel.isWritable()) {
+                        subscription.request(1);
+                    } else {
+                        paused = true;
+                    }
+                });
+            });
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            channel.eventLoop().execute(() -> fail(throwable));
+        }
+        
+        @Override
+        public void onComplete() {
+            channel.eventLoop().execute(() -> {
+                completed = true;
+                if (!finished) {
+                    channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+                }
+            });
+        }
+        
+        void resume() {
+            if (paused && !cancelled) {
+                paused = false;
+                subscription.request(1);
+            }
+        }
+        
+        void cancel() {
+            if (!completed && !cancelled) {
+                cancelled = true;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
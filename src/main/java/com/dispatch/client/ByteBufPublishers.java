@@ -0,0 +1,70 @@
+package com.dispatch.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * Adapters between the gateway's {@code ByteBuf} body streams and the {@code ByteBuffer}
+ * publishers used by the JDK HTTP client. Demand is passed straight through, so
+ * backpressure from either side reaches the other.
+ */
+final class ByteBufPublishers {
+    
+    private ByteBufPublishers() {
+    }
+    
+    /**
+     * Adapt a request body stream for the JDK client. Buffers are copied because the
+     * client may hold on to them after onNext returns, then released.
+     */
+    static Flow.Publisher<ByteBuffer> toByteBuffers(Flow.Publisher<ByteBuf> source) {
+        return new MappedPublisher<>(source, buf -> {
+            try {
+                return ByteBuffer.wrap(ByteBufUtil.getBytes(buf));
+            } finally {
+                buf.release();
+            }
+        });
+    }
+    
+    /**
+     * Adapt a JDK client response body stream; buffers are wrapped rather than copied
+     */
+    static Flow.Publisher<ByteBuf> fromByteBuffers(Flow.Publisher<List<ByteBuffer>> source) {
+        return new MappedPublisher<>(source, buffers -> Unpooled.wrappedBuffer(buffers.toArray(new ByteBuffer[0])));
+    }
+    
+    private record MappedPublisher<T, R>(Flow.Publisher<T> source, Function<T, R> mapper) implements Flow.Publisher<R> {
+        
+        @Override
+        public void subscribe(Flow.Subscriber<? super R> subscriber) {
+            source.subscribe(new Flow.Subscriber<T>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+                
+                @Override
+                public void onNext(T item) {
+                    subscriber.onNext(mapper.apply(item));
+                }
+                
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+                
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
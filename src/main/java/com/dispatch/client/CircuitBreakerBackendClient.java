@@ -1,53 +1,90 @@
 package com.dispatch.client;
 
 import com.dispatch.core.circuit.CircuitBreaker;
-import com.dispatch.core.error.StandardErrors;
-import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.circuit.CircuitBreakerOpenException;
+import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.filter.HttpRequest;
 import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.monitoring.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
- * Backend client with circuit breaker protection
+ * Backend client with circuit breaker protection, one breaker per backend URL. Requests a
+ * breaker rejects fail with {@link CircuitBreakerOpenException} without reaching the backend.
  */
 public class CircuitBreakerBackendClient implements IBackendClient {
     private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerBackendClient.class);
     
     private final IBackendClient delegate;
     private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private volatile DispatchConfig.CircuitBreakerConfig config;
     
     public CircuitBreakerBackendClient(IBackendClient delegate) {
+        this(delegate, new DispatchConfig.CircuitBreakerConfig());
+    }
+    
+    public CircuitBreakerBackendClient(IBackendClient delegate, DispatchConfig.CircuitBreakerConfig config) {
         this.delegate = delegate;
+        this.config = config;
     }
     
     @Override
     public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+        return withCircuitBreaker(backendUrl, () -> delegate.proxyRequest(request, backendUrl));
+    }
+    
+    @Override
+    public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+        return withCircuitBreaker(backendUrl, () -> delegate.proxyStreamingRequest(request, backendUrl));
+    }
+    
+    private CompletableFuture<HttpResponse> withCircuitBreaker(String backendUrl,
+                                                               Supplier<CompletableFuture<HttpResponse>> call) {
         CircuitBreaker circuitBreaker = getCircuitBreaker(backendUrl);
         
-        if (!circuitBreaker.allowRequest()) {
-            logger.warn("Circuit breaker is OPEN for backend: {}", backendUrl);
-            return CompletableFuture.failedFuture(
-                new RuntimeException("Circuit breaker is OPEN for backend: " + backendUrl));
+        CircuitBreaker.Permit permit = circuitBreaker.acquirePermission();
+        if (permit == null) {
+            logger.debug("Circuit breaker is OPEN for backend: {}", backendUrl);
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(backendUrl));
         }
         
-        return delegate.proxyRequest(request, backendUrl)
-            .thenApply(response -> {
+        long startNanos = System.nanoTime();
+        CompletableFuture<HttpResponse> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            permit.onError(System.nanoTime() - startNanos);
+            throw e;
+        }
+        
+        // The delegate's future is returned as is, so cancelling it still reaches the backend
+        response.whenComplete((r, error) -> {
+            long durationNanos = System.nanoTime() - startNanos;
+            if (error instanceof CancellationException) {
+                permit.release();
+            } else if (error != null || r.statusCode() >= 500) {
                 // Consider 5xx responses as failures
-                if (response.statusCode() >= 500) {
-                    circuitBreaker.recordFailure();
-                } else {
-                    circuitBreaker.recordSuccess();
-                }
-                return response;
-            })
-            .exceptionally(throwable -> {
-                circuitBreaker.recordFailure();
-                throw new RuntimeException(throwable);
-            });
+                permit.onError(durationNanos);
+            } else {
+                permit.onSuccess(durationNanos);
+            }
+        });
+        return response;
+    }
+    
+    /**
+     * Apply new breaker settings to existing breakers and ones created from now on,
+     * keeping each breaker's state
+     */
+    public void setConfig(DispatchConfig.CircuitBreakerConfig config) {
+        this.config = config;
+        circuitBreakers.values().forEach(breaker -> breaker.setConfig(config));
     }
     
     @Override
@@ -59,9 +96,21 @@ public class CircuitBreakerBackendClient implements IBackendClient {
      * Get or create a circuit breaker for the given backend URL
      */
     private CircuitBreaker getCircuitBreaker(String backendUrl) {
+        CircuitBreaker existing = circuitBreakers.get(backendUrl);
+        if (existing != null) {
+            return existing;
+        }
         return circuitBreakers.computeIfAbsent(backendUrl, k -> {
             logger.debug("Creating new circuit breaker for backend: {}", backendUrl);
-            return new CircuitBreaker();
+            CircuitBreaker breaker = new CircuitBreaker(backendUrl, config);
+            MetricsRegistry registry = MetricsRegistry.global();
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                String label = state.name().toLowerCase().replace('_', '-') + "[" + backendUrl + "]";
+                // One 0/1 gauge per state, so the value stays meaningful when summed
+                registry.gauge("circuit-breaker.state." + label, breaker, b -> b.getState() == state ? 1 : 0);
+                registry.gauge("circuit-breaker.transitions." + label, breaker, b -> b.getTransitionCount(state));
+            }
+            return breaker;
         });
     }
     
@@ -19,6 +19,15 @@ public interface IBackendClient {
      */
     CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl);
     
+    /**
+     * Proxy an HTTP request without buffering the request or response body
+     * 
+     * @param request The HTTP request to proxy, optionally with a streamed body
+     * @param backendUrl The backend service URL
+     * @return A CompletableFuture completed once response headers arrive, with a streamed body
+     */
+    CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl);
+    
     /**
      * Shutdown the backend client and clean up resources
      */
@@ -0,0 +1,296 @@
+package com.dispatch.client;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backend client built directly on Netty.
+ * <p>
+ * Connections run on the same event loops as the server, and each backend origin gets
+ * a bounded pool of keep-alive connections: at most {@code max-connections-per-backend}
+ * are open at once, further requests wait in a queue of {@code max-pending-acquires},
+ * and connections are closed once idle for {@code idle-timeout-ms} or older than
+ * {@code max-lifetime-ms}. Streamed bodies are passed through as the ByteBufs read
+ * from the other side, without being copied.
+ */
+public class NettyBackendClient implements IBackendClient {
+    private static final Logger logger = LoggerFactory.getLogger(NettyBackendClient.class);
+    
+    private static final AttributeKey<Long> CREATED_AT = AttributeKey.valueOf("dispatch.backend.created-at");
+    private static final AttributeKey<Boolean> REUSED = AttributeKey.valueOf("dispatch.backend.reused");
+    
+    private final DispatchConfig.ClientConfig config;
+    private final Bootstrap bootstrap;
+    private final SslContext sslContext;
+    private final long maxLifetimeNanos;
+    private final BackendPools pools = new BackendPools();
+    private final ConcurrentMap<String, Backend> backends = new ConcurrentHashMap<>();
+    
+    public NettyBackendClient(EventLoopGroup group, DispatchConfig.ClientConfig config) {
+        this(group, NioSocketChannel.class, config);
+    }
+    
+    public NettyBackendClient(EventLoopGroup group, Class<? extends SocketChannel> channelClass,
+                              DispatchConfig.ClientConfig config) {
+        this.config = config;
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxLifetimeMs());
+        this.bootstrap = new Bootstrap()
+            .group(group)
+            .channel(channelClass)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMs())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.SO_KEEPALIVE, true);
+        
+        try {
+            this.sslContext = SslContextBuilder.forClient().build();
+        } catch (SSLException e) {
+            throw new IllegalStateException("Failed to initialize backend SSL context", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+        return proxy(request, backendUrl, false);
+    }
+    
+    @Override
+    public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+        return proxy(request, backendUrl, true);
+    }
+    
+    private CompletableFuture<HttpResponse> proxy(HttpRequest request, String backendUrl, boolean streaming) {
+        Backend backend;
+        try {
+            backend = backends.computeIfAbsent(backendUrl, Backend::parse);
+        } catch (Exception e) {
+            logger.error("Invalid backend URL {}", backendUrl, e);
+            return CompletableFuture.completedFuture(
+                HttpResponse.badGateway("Failed to proxy request: " + e.getMessage())
+            );
+        }
+        
+        logger.debug("Proxying request {} {} to {}", request.method(), request.path(), backendUrl);
+        
+        CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+        send(new BackendExchange(this, request, backend, streaming, response), true);
+        return response;
+    }
+    
+    /**
+     * Acquire a pooled connection for the exchange and start it on that connection's
+     * event loop. An idempotent request that fails on a reused connection before any
+     * response arrived (the backend closed it while idle) is retried once on another
+     * connection.
+     */
+    private void send(BackendExchange exchange, boolean retryStale) {
+        FixedChannelPool pool = pools.get(exchange.backend().origin());
+        pool.acquire().addListener((Future<Channel> acquired) -> {
+            if (!acquired.isSuccess()) {
+                exchange.failToAcquire(acquired.cause());
+                return;
+            }
+            
+            Channel channel = acquired.getNow();
+            boolean reused = channel.attr(REUSED).get() != null;
+            Runnable retry = retryStale && reused && exchange.isRetryable()
+                ? () -> send(exchange.copy(), false)
+                : null;
+            channel.eventLoop().execute(() -> exchange.start(channel, pool, retry));
+        });
+    }
+    
+    /**
+     * Hand a connection back to its pool, closing it first if it can't be reused
+     */
+    void release(Channel channel, ChannelPool pool, boolean reusable) {
+        handler(channel).exchange = null;
+        if (reusable && channel.isActive() && !isExpired(channel)) {
+            channel.attr(REUSED).set(Boolean.TRUE);
+        } else {
+            channel.close();
+        }
+        pool.release(channel);
+    }
+    
+    static BackendChannelHandler handler(Channel channel) {
+        return channel.pipeline().get(BackendChannelHandler.class);
+    }
+    
+    private boolean isExpired(Channel channel) {
+        return System.nanoTime() - channel.attr(CREATED_AT).get() >= maxLifetimeNanos;
+    }
+    
+    long requestTimeoutMs() {
+        return config.getRequestTimeoutMs();
+    }
+    
+    @Override
+    public void shutdown() {
+        pools.close();
+        logger.info("Netty backend client shutdown complete");
+    }
+    
+    /**
+     * Connection pools keyed by backend origin
+     */
+    private class BackendPools extends AbstractChannelPoolMap<Origin, FixedChannelPool> {
+        
+        @Override
+        protected FixedChannelPool newPool(Origin origin) {
+            logger.debug("Creating connection pool for {}:{}", origin.host(), origin.port());
+            return new FixedChannelPool(
+                bootstrap.clone().remoteAddress(InetSocketAddress.createUnresolved(origin.host(), origin.port())),
+                new PoolHandler(origin),
+                channel -> channel.eventLoop().newSucceededFuture(channel.isActive() && !isExpired(channel)),
+                FixedChannelPool.AcquireTimeoutAction.FAIL,
+                config.getRequestTimeoutMs(),
+                config.getMaxConnectionsPerBackend(),
+                config.getMaxPendingAcquires(),
+                true,
+                true
+            );
+        }
+    }
+    
+    private class PoolHandler extends AbstractChannelPoolHandler {
+        private final Origin origin;
+        
+        PoolHandler(Origin origin) {
+            this.origin = origin;
+        }
+        
+        @Override
+        public void channelCreated(Channel channel) {
+            channel.attr(CREATED_AT).set(System.nanoTime());
+            
+            ChannelPipeline pipeline = channel.pipeline();
+            if (origin.secure()) {
+                SslHandler sslHandler = sslContext.newHandler(channel.alloc(), origin.host(), origin.port());
+                SSLParameters parameters = sslHandler.engine().getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslHandler.engine().setSSLParameters(parameters);
+                pipeline.addLast(sslHandler);
+            }
+            pipeline.addLast(new HttpClientCodec());
+            pipeline.addLast(new IdleStateHandler(0, 0, config.getIdleTimeoutMs(), TimeUnit.MILLISECONDS));
+            pipeline.addLast(new BackendChannelHandler());
+        }
+    }
+    
+    /**
+     * Routes a connection's events to the exchange currently using it, and closes the
+     * connection when it has sat idle in the pool.
+     */
+    static class BackendChannelHandler extends ChannelInboundHandlerAdapter {
+        BackendExchange exchange;
+        
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (exchange != null && msg instanceof HttpObject httpObject) {
+                exchange.onResponse(httpObject);
+            } else {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+        
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            if (exchange != null && ctx.channel().isWritable()) {
+                exchange.onWritable();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+        
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent && exchange == null) {
+                logger.debug("Closing idle backend connection {}", ctx.channel());
+                ctx.close();
+                return;
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+        
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (exchange != null) {
+                exchange.fail(new ClosedChannelException());
+            }
+            super.channelInactive(ctx);
+        }
+        
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (exchange != null) {
+                exchange.fail(cause);
+            } else {
+                logger.debug("Error on idle backend connection {}", ctx.channel(), cause);
+            }
+            ctx.close();
+        }
+    }
+    
+    record Origin(boolean secure, String host, int port) {
+    }
+    
+    /**
+     * A parsed backend URL: where to connect, the path prefix and the Host header to send
+     */
+    record Backend(Origin origin, String basePath, String hostHeader) {
+        
+        static Backend parse(String backendUrl) {
+            URI uri = URI.create(backendUrl);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Invalid backend URL: " + backendUrl);
+            }
+            
+            boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+            int defaultPort = secure ? 443 : 80;
+            int port = uri.getPort() != -1 ? uri.getPort() : defaultPort;
+            
+            String basePath = uri.getRawPath() != null ? uri.getRawPath() : "";
+            if (basePath.endsWith("/")) {
+                basePath = basePath.substring(0, basePath.length() - 1);
+            }
+            
+            String hostHeader = port == defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+            return new Backend(new Origin(secure, uri.getHost(), port), basePath, hostHeader);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.dispatch.client;
+
+import com.dispatch.monitoring.SlidingWindowCounter;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps retries to one backend at a percentage of its recent successful requests, plus
+ * a small fixed rate so low-traffic backends can still retry. When a backend goes down
+ * successes stop, the budget drains, and retries stop multiplying the load on it.
+ * <p>
+ * Successes and retries are counted over a sliding window without locks.
+ */
+public class RetryBudget {
+    private static final int WINDOW_BUCKETS = 10;
+    
+    private final double retryRatio;
+    private final long minRetries;
+    private final SlidingWindowCounter successes;
+    private final SlidingWindowCounter retries;
+    private final LongAdder attempted = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    
+    /**
+     * @param retryPercent Retries allowed per 100 successful requests in the window
+     * @param minRetriesPerSecond Retries always allowed, regardless of traffic
+     * @param windowMs Length of the sliding window
+     */
+    public RetryBudget(double retryPercent, int minRetriesPerSecond, long windowMs) {
+        this(retryPercent, minRetriesPerSecond, windowMs, System::nanoTime);
+    }
+    
+    RetryBudget(double retryPercent, int minRetriesPerSecond, long windowMs, LongSupplier clock) {
+        this.retryRatio = retryPercent / 100.0;
+        this.minRetries = minRetriesPerSecond * windowMs / 1000;
+        this.successes = new SlidingWindowCounter(windowMs, WINDOW_BUCKETS, clock);
+        this.retries = new SlidingWindowCounter(windowMs, WINDOW_BUCKETS, clock);
+    }
+    
+    public void recordSuccess() {
+        successes.increment();
+    }
+    
+    /**
+     * Take one retry from the budget, or record it as suppressed if there's none left
+     */
+    public boolean tryAcquireRetry() {
+        long allowed = minRetries + (long) (successes.sum() * retryRatio);
+        if (retries.sum() >= allowed) {
+            suppressed.increment();
+            return false;
+        }
+        retries.increment();
+        attempted.increment();
+        return true;
+    }
+    
+    public long getAttemptedCount() {
+        return attempted.sum();
+    }
+    
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.dispatch.client;
+
+import com.dispatch.core.Constants;
+import com.dispatch.core.filter.HttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed backend request is retried and how long to wait first.
+ * <p>
+ * Only idempotent methods with a buffered body are retried, since the backend may have
+ * acted on the first attempt before failing. Delays use "full jitter": a uniformly random
+ * wait between zero and the exponential backoff cap, so clients that failed together
+ * don't retry together.
+ */
+public class RetryPolicy {
+    private final int maxRetries;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    
+    public RetryPolicy(int maxRetries) {
+        this(maxRetries, Constants.MIN_RETRY_DELAY_MS, Constants.MAX_RETRY_DELAY_MS, Constants.RETRY_BACKOFF_MULTIPLIER);
+    }
+    
+    public RetryPolicy(int maxRetries, long minDelayMs, long maxDelayMs, double multiplier) {
+        this.maxRetries = maxRetries;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.multiplier = multiplier;
+    }
+    
+    public int maxRetries() {
+        return maxRetries;
+    }
+    
+    /**
+     * Whether the given attempt (zero-based) failing with this error should be retried
+     */
+    public boolean shouldRetry(HttpRequest request, Throwable failure, int attempt) {
+        return attempt < maxRetries
+            && !request.isStreaming()
+            && isIdempotent(request.method())
+            && isRetryableError(unwrap(failure));
+    }
+    
+    /**
+     * Random delay before retrying after the given attempt (zero-based) failed
+     */
+    public long delayMillis(int attempt) {
+        double cap = Math.min(maxDelayMs, minDelayMs * Math.pow(multiplier, attempt));
+        return ThreadLocalRandom.current().nextLong((long) cap + 1);
+    }
+    
+    /**
+     * Methods RFC 9110 defines as idempotent, so sending them twice has the same effect as once
+     */
+    public static boolean isIdempotent(HttpMethod method) {
+        return method.equals(HttpMethod.GET)
+            || method.equals(HttpMethod.HEAD)
+            || method.equals(HttpMethod.OPTIONS)
+            || method.equals(HttpMethod.TRACE)
+            || method.equals(HttpMethod.PUT)
+            || method.equals(HttpMethod.DELETE);
+    }
+    
+    static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+    
+    // Timeouts and refused connections are IOExceptions too
+    private static boolean isRetryableError(Throwable throwable) {
+        return throwable instanceof IOException;
+    }
+}
\ No newline at end of file
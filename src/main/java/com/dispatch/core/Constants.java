@@ -1,5 +1,7 @@
 package com.dispatch.core;
 
+import java.util.List;
+
 /**
  * Application-wide constants and default values
  */
@@ -15,16 +17,55 @@ public final class Constants {
     public static final int DEFAULT_REQUEST_TIMEOUT_MS = 30000; // 30 seconds
     public static final int DEFAULT_MAX_RETRIES = 3;
     
+    // Backend Connection Pool
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_BACKEND = 100;
+    public static final int DEFAULT_MAX_PENDING_ACQUIRES = 1000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 60000;     // 1 minute
+    public static final long DEFAULT_MAX_LIFETIME_MS = 300000;    // 5 minutes
+    
     // Retry Configuration
     public static final long MIN_RETRY_DELAY_MS = 100;
     public static final long MAX_RETRY_DELAY_MS = 5000;
     public static final double RETRY_BACKOFF_MULTIPLIER = 2.0;
+    public static final double DEFAULT_RETRY_BUDGET_PERCENT = 20.0;     // retries per 100 recent successes
+    public static final int DEFAULT_RETRY_BUDGET_MIN_PER_SECOND = 10;
+    public static final long RETRY_BUDGET_WINDOW_MS = 10000;            // 10 seconds
+    
+    // Hedged Requests
+    public static final double DEFAULT_HEDGE_PERCENTILE = 95.0;
+    public static final int DEFAULT_HEDGE_MIN_DELAY_MS = 5;
+    public static final int DEFAULT_HEDGE_MIN_SAMPLES = 100;
+    public static final long HEDGE_LATENCY_WINDOW_MS = 30000;          // 30 seconds
+    
+    // Request Coalescing
+    public static final int DEFAULT_SINGLE_FLIGHT_MAX_WAITERS = 100;
+    public static final int DEFAULT_SINGLE_FLIGHT_MAX_AGE_MS = 1000;
+    
+    // Request headers that identify the caller, whose responses mustn't be shared
+    public static final List<String> DEFAULT_CREDENTIAL_HEADERS = List.of("Authorization", "Cookie", "X-API-Key");
     
     // Health Check Configuration
     public static final String HEALTH_PATH = "/health";
     public static final String HEALTH_READY_PATH = "/health/ready";
     public static final String HEALTH_LIVE_PATH = "/health/live";
     
+    // Upstream Health Checks
+    public static final long DEFAULT_UPSTREAM_CHECK_INTERVAL_MS = 5000;
+    public static final long DEFAULT_UPSTREAM_CHECK_TIMEOUT_MS = 2000;
+    public static final int DEFAULT_UPSTREAM_HEALTHY_THRESHOLD = 2;
+    public static final int DEFAULT_UPSTREAM_UNHEALTHY_THRESHOLD = 3;
+    
+    // Outlier Detection
+    public static final int DEFAULT_OUTLIER_CONSECUTIVE_5XX = 5;
+    public static final int DEFAULT_OUTLIER_CONSECUTIVE_GATEWAY_FAILURES = 5;
+    public static final long DEFAULT_OUTLIER_INTERVAL_MS = 10000;
+    public static final long DEFAULT_OUTLIER_BASE_EJECTION_TIME_MS = 30000;
+    public static final long DEFAULT_OUTLIER_MAX_EJECTION_TIME_MS = 300000;
+    public static final int DEFAULT_OUTLIER_MAX_EJECTION_PERCENT = 10;
+    public static final double DEFAULT_OUTLIER_LATENCY_FACTOR = 3.0;
+    public static final int DEFAULT_OUTLIER_LATENCY_MIN_REQUESTS = 100;
+    public static final int OUTLIER_LATENCY_MIN_ENDPOINTS = 3;
+    
     // HTTP Headers
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String CONTENT_TYPE_HEADER = "Content-Type";
@@ -46,19 +87,28 @@ public final class Constants {
     // Rate Limiting
     public static final int DEFAULT_RATE_LIMIT_PER_MINUTE = 1000;
     public static final int DEFAULT_BURST_CAPACITY = 100;
+    public static final int DEFAULT_RATE_LIMIT_MAX_BUCKETS = 100_000;
+    public static final long DEFAULT_RATE_LIMIT_EVICTION_INTERVAL_MS = 5000; // 5 seconds
+    public static final int DEFAULT_RATE_LIMIT_SHARED_TABLE_SLOTS = 65536;    // 1MB file
     
     // Error Messages
     public static final String ERROR_NO_ROUTE_FOUND = "No matching route found";
     public static final String ERROR_NO_BACKEND_CONFIGURED = "No backend configured";
     public static final String ERROR_BACKEND_UNAVAILABLE = "Backend service unavailable";
+    public static final String ERROR_CIRCUIT_OPEN = "Backend circuit breaker is open";
     public static final String ERROR_AUTHENTICATION_FAILED = "Authentication failed";
     public static final String ERROR_RATE_LIMIT_EXCEEDED = "Rate limit exceeded";
     public static final String ERROR_INVALID_REQUEST = "Invalid request";
     
     // Circuit Breaker
-    public static final int CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
-    public static final long CIRCUIT_BREAKER_TIMEOUT_MS = 60000; // 1 minute
-    public static final long CIRCUIT_BREAKER_RETRY_TIMEOUT_MS = 10000; // 10 seconds
+    public static final double CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = 50.0;
+    public static final double CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD = 100.0;
+    public static final long CIRCUIT_BREAKER_SLOW_CALL_DURATION_MS = 5000;
+    public static final String CIRCUIT_BREAKER_WINDOW_TYPE = "count";
+    public static final int CIRCUIT_BREAKER_WINDOW_SIZE = 100;
+    public static final int CIRCUIT_BREAKER_MINIMUM_CALLS = 20;
+    public static final long CIRCUIT_BREAKER_WAIT_IN_OPEN_MS = 10000; // 10 seconds
+    public static final int CIRCUIT_BREAKER_HALF_OPEN_CALLS = 5;
     
     private Constants() {
         // Utility class - prevent instantiation
@@ -0,0 +1,23 @@
+package com.dispatch.core;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer shared by everything that schedules short delays off the event loops, such as
+ * retry backoffs and request hedges. A 10ms tick is plenty for these.
+ */
+public final class Timers {
+    private static final Timer shared = new HashedWheelTimer(
+        new DefaultThreadFactory("dispatch-timer", true), 10, TimeUnit.MILLISECONDS);
+    
+    private Timers() {
+    }
+    
+    public static Timer shared() {
+        return shared;
+    }
+}
\ No newline at end of file
@@ -1,27 +1,41 @@
 package com.dispatch.core.circuit;
 
-import com.dispatch.core.Constants;
+import com.dispatch.core.config.DispatchConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
- * Circuit breaker implementation to prevent cascade failures
+ * Circuit breaker implementation to prevent cascade failures.
+ * <p>
+ * While closed, call outcomes are tallied over a sliding window (the last N calls or the
+ * last N seconds). Once the window holds {@code minimum-calls}, a failure rate or slow-call
+ * rate at or above its threshold opens the breaker and calls fail fast. After
+ * {@code wait-in-open-ms} the breaker goes half-open and lets a fixed number of trial calls
+ * through, rejecting the rest, so a recovering backend isn't stampeded; the trial calls'
+ * rates then close or reopen it.
+ * <p>
+ * Each state is an object holding its own counters, and transitions are a CAS on the
+ * current state, so no locks are taken. A call is admitted with a {@link Permit} tied to
+ * the state that admitted it, and its outcome is recorded against that state only, so a
+ * slow call admitted while closed can't count as a trial call once the breaker is
+ * half-open, and a result reported against an old state can't affect the new one.
  */
 public class CircuitBreaker {
     private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
     
-    private final int failureThreshold;
-    private final long timeoutMs;
-    private final long retryTimeoutMs;
+    private final String name;
+    private final LongSupplier clock;
+    private volatile DispatchConfig.CircuitBreakerConfig config;
     
-    private final AtomicInteger failureCount = new AtomicInteger(0);
-    private final AtomicLong lastFailureTime = new AtomicLong(0);
-    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicReference<CircuitState> state;
+    private final LongAdder[] transitions = new LongAdder[State.values().length];
     
     public enum State {
         CLOSED,     // Normal operation
@@ -30,74 +44,108 @@ public class CircuitBreaker {
     }
     
     public CircuitBreaker() {
-        this(Constants.CIRCUIT_BREAKER_FAILURE_THRESHOLD, 
-             Constants.CIRCUIT_BREAKER_TIMEOUT_MS, 
-             Constants.CIRCUIT_BREAKER_RETRY_TIMEOUT_MS);
+        this("default", new DispatchConfig.CircuitBreakerConfig());
     }
     
-    public CircuitBreaker(int failureThreshold, long timeoutMs, long retryTimeoutMs) {
-        this.failureThreshold = failureThreshold;
-        this.timeoutMs = timeoutMs;
-        this.retryTimeoutMs = retryTimeoutMs;
+    public CircuitBreaker(String name, DispatchConfig.CircuitBreakerConfig config) {
+        this(name, config, System::nanoTime);
+    }
+    
+    CircuitBreaker(String name, DispatchConfig.CircuitBreakerConfig config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.state = new AtomicReference<>(closed());
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new LongAdder();
+        }
     }
     
     /**
-     * Check if the circuit breaker allows the request to proceed
-     * 
-     * @return true if request should proceed, false if it should fail fast
+     * Admit a call, or return null if it should fail fast. The caller must report the
+     * call's outcome through the permit, or release it if the call was abandoned.
      */
-    public boolean allowRequest() {
-        State currentState = state.get();
-        
-        switch (currentState) {
-            case CLOSED:
-                return true;
+    public Permit acquirePermission() {
+        while (true) {
+            CircuitState current = state.get();
+            switch (current.state) {
+                case CLOSED:
+                    return new Permit(current);
                 
-            case OPEN:
-                if (shouldAttemptReset()) {
-                    logger.info("Circuit breaker transitioning to HALF_OPEN");
-                    state.set(State.HALF_OPEN);
-                    return true;
-                }
-                return false;
+                case OPEN:
+                    long waitInOpenNanos = TimeUnit.MILLISECONDS.toNanos(config.getWaitInOpenMs());
+                    if (clock.getAsLong() - current.openedAtNanos < waitInOpenNanos) {
+                        return null;
+                    }
+                    transition(current, halfOpen());
+                    break;
                 
-            case HALF_OPEN:
-                return true;
+                case HALF_OPEN:
+                    return current.tryAcquirePermit() ? new Permit(current) : null;
                 
-            default:
-                return false;
+                default:
+                    return null;
+            }
         }
     }
     
     /**
-     * Record a successful request
+     * Check if the circuit breaker allows the request to proceed, for callers that report
+     * outcomes with {@link #recordSuccess} and {@link #recordFailure}
+     * 
+     * @return true if request should proceed, false if it should fail fast
+     */
+    public boolean allowRequest() {
+        return acquirePermission() != null;
+    }
+    
+    /**
+     * Record a successful request against the current state
      */
     public void recordSuccess() {
-        State currentState = state.get();
-        
-        if (currentState == State.HALF_OPEN) {
-            logger.info("Circuit breaker transitioning to CLOSED after successful request");
-            state.set(State.CLOSED);
-        }
-        
-        failureCount.set(0);
+        record(state.get(), false, 0);
     }
     
     /**
-     * Record a failed request
+     * Record a failed request against the current state
      */
     public void recordFailure() {
-        lastFailureTime.set(Instant.now().toEpochMilli());
-        int failures = failureCount.incrementAndGet();
-        
-        State currentState = state.get();
+        record(state.get(), true, 0);
+    }
+    
+    private void record(CircuitState current, boolean failed, long durationNanos) {
+        if (current.window == null || current != state.get()) {
+            return; // Open, or a late result from a state the breaker has left
+        }
+        DispatchConfig.CircuitBreakerConfig config = this.config;
+        current.window.record(failed, durationNanos >= TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMs()));
         
-        if (currentState == State.HALF_OPEN) {
-            logger.info("Circuit breaker transitioning to OPEN after failure in HALF_OPEN state");
-            state.set(State.OPEN);
-        } else if (currentState == State.CLOSED && failures >= failureThreshold) {
-            logger.warn("Circuit breaker transitioning to OPEN after {} failures", failures);
-            state.set(State.OPEN);
+        if (current.state == State.CLOSED) {
+            if (exceedsThresholds(current.window, config.getMinimumCalls())) {
+                transition(current, open());
+            }
+        } else if (current.window.calls() >= current.trialCalls) {
+            transition(current, exceedsThresholds(current.window, 1) ? open() : closed());
+        }
+    }
+    
+    private boolean exceedsThresholds(OutcomeWindow window, int minimumCalls) {
+        int calls = window.calls();
+        if (calls < Math.max(1, minimumCalls)) {
+            return false;
+        }
+        return window.failures() * 100.0 / calls >= config.getFailureRateThreshold()
+            || window.slowCalls() * 100.0 / calls >= config.getSlowCallRateThreshold();
+    }
+    
+    private void transition(CircuitState from, CircuitState to) {
+        if (state.compareAndSet(from, to)) {
+            transitions[to.state.ordinal()].increment();
+            if (to.state == State.OPEN) {
+                logger.warn("Circuit breaker {} transitioning from {} to OPEN", name, from.state);
+            } else {
+                logger.info("Circuit breaker {} transitioning from {} to {}", name, from.state, to.state);
+            }
         }
     }
     
@@ -105,32 +153,121 @@ public class CircuitBreaker {
      * Get the current state of the circuit breaker
      */
     public State getState() {
-        return state.get();
+        return state.get().state;
     }
     
     /**
-     * Get the current failure count
+     * Failure percentage over the current window, or -1 if it holds no calls or the
+     * breaker is open
      */
-    public int getFailureCount() {
-        return failureCount.get();
+    public double getFailureRate() {
+        OutcomeWindow window = state.get().window;
+        if (window == null || window.calls() == 0) {
+            return -1;
+        }
+        return window.failures() * 100.0 / window.calls();
     }
     
     /**
-     * Check if we should attempt to reset the circuit breaker
+     * Times the breaker has moved into the given state
      */
-    private boolean shouldAttemptReset() {
-        long currentTime = Instant.now().toEpochMilli();
-        long timeSinceLastFailure = currentTime - lastFailureTime.get();
-        return timeSinceLastFailure >= retryTimeoutMs;
+    public long getTransitionCount(State to) {
+        return transitions[to.ordinal()].sum();
+    }
+    
+    /**
+     * Apply new settings without resetting the breaker: thresholds and timings apply to
+     * calls from now on, and window sizes to the next window the breaker starts, so an
+     * open breaker stays open across a configuration reload.
+     */
+    public void setConfig(DispatchConfig.CircuitBreakerConfig config) {
+        this.config = config;
     }
     
     /**
      * Manually reset the circuit breaker (for testing or admin purposes)
      */
     public void reset() {
-        logger.info("Circuit breaker manually reset");
-        state.set(State.CLOSED);
-        failureCount.set(0);
-        lastFailureTime.set(0);
+        logger.info("Circuit breaker {} manually reset", name);
+        state.set(closed());
+    }
+    
+    private CircuitState closed() {
+        OutcomeWindow window = OutcomeWindow.create(config.getSlidingWindowType(), config.getSlidingWindowSize(), clock);
+        return new CircuitState(State.CLOSED, window, 0, 0);
+    }
+    
+    private CircuitState open() {
+        return new CircuitState(State.OPEN, null, clock.getAsLong(), 0);
+    }
+    
+    private CircuitState halfOpen() {
+        int permitted = Math.max(1, config.getPermittedHalfOpenCalls());
+        return new CircuitState(State.HALF_OPEN, new OutcomeWindow.CountWindow(permitted), 0, permitted);
+    }
+    
+    /**
+     * Permission for one call, bound to the state that admitted it. Only the first of
+     * its methods to be called has an effect.
+     */
+    public final class Permit {
+        private final CircuitState admittedBy;
+        private final AtomicBoolean used = new AtomicBoolean();
+        
+        private Permit(CircuitState admittedBy) {
+            this.admittedBy = admittedBy;
+        }
+        
+        public void onSuccess(long durationNanos) {
+            if (used.compareAndSet(false, true)) {
+                record(admittedBy, false, durationNanos);
+            }
+        }
+        
+        public void onError(long durationNanos) {
+            if (used.compareAndSet(false, true)) {
+                record(admittedBy, true, durationNanos);
+            }
+        }
+        
+        /**
+         * Give back a half-open trial permit for a call abandoned before it completed
+         */
+        public void release() {
+            if (used.compareAndSet(false, true) && admittedBy.state == State.HALF_OPEN) {
+                admittedBy.permits.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * One period in a state, with the counters that period uses
+     */
+    private static final class CircuitState {
+        final State state;
+        final OutcomeWindow window;
+        final long openedAtNanos;
+        final int trialCalls;
+        final AtomicInteger permits;
+        
+        CircuitState(State state, OutcomeWindow window, long openedAtNanos, int permits) {
+            this.state = state;
+            this.window = window;
+            this.openedAtNanos = openedAtNanos;
+            this.trialCalls = permits;
+            this.permits = new AtomicInteger(permits);
+        }
+        
+        boolean tryAcquirePermit() {
+            while (true) {
+                int available = permits.get();
+                if (available <= 0) {
+                    return false;
+                }
+                if (permits.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.dispatch.core.circuit;
+
+/**
+ * Thrown in place of sending a request when the backend's circuit breaker rejects it
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    
+    public CircuitBreakerOpenException(String backendUrl) {
+        super("Circuit breaker is OPEN for backend: " + backendUrl, null, false, false);
+    }
+}
\ No newline at end of file
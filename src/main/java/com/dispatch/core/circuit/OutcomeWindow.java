@@ -0,0 +1,129 @@
+package com.dispatch.core.circuit;
+
+import com.dispatch.monitoring.SlidingWindowCounter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free tally of recent call outcomes a circuit breaker judges failure and slow-call
+ * rates over: either the last N calls or the last N seconds
+ */
+abstract class OutcomeWindow {
+    
+    abstract void record(boolean failed, boolean slow);
+    
+    abstract int calls();
+    
+    abstract int failures();
+    
+    abstract int slowCalls();
+    
+    static OutcomeWindow create(String type, int size, LongSupplier clock) {
+        return switch (type.toLowerCase()) {
+            case "count" -> new CountWindow(size);
+            case "time" -> new TimeWindow(size, clock);
+            default -> throw new IllegalArgumentException("Unknown sliding window type: " + type);
+        };
+    }
+    
+    /**
+     * Ring buffer of the last N outcomes. Each writer claims the next slot and swaps its
+     * outcome in, then adjusts the running totals by the difference from the outcome it
+     * displaced.
+     */
+    static class CountWindow extends OutcomeWindow {
+        private static final int RECORDED = 1;
+        private static final int FAILED = 2;
+        private static final int SLOW = 4;
+        
+        private final AtomicIntegerArray slots;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+        
+        CountWindow(int size) {
+            this.slots = new AtomicIntegerArray(Math.max(1, size));
+        }
+        
+        @Override
+        void record(boolean failed, boolean slow) {
+            int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+            int index = (int) Math.floorMod(cursor.getAndIncrement(), (long) slots.length());
+            int displaced = slots.getAndSet(index, outcome);
+            if (displaced == 0) {
+                calls.incrementAndGet();
+            }
+            adjust(failures, displaced, outcome, FAILED);
+            adjust(slowCalls, displaced, outcome, SLOW);
+        }
+        
+        private static void adjust(AtomicInteger total, int displaced, int outcome, int flag) {
+            int delta = ((outcome & flag) != 0 ? 1 : 0) - ((displaced & flag) != 0 ? 1 : 0);
+            if (delta != 0) {
+                total.addAndGet(delta);
+            }
+        }
+        
+        @Override
+        int calls() {
+            return calls.get();
+        }
+        
+        @Override
+        int failures() {
+            return failures.get();
+        }
+        
+        @Override
+        int slowCalls() {
+            return slowCalls.get();
+        }
+    }
+    
+    /**
+     * Calls, failures and slow calls each counted by a {@link SlidingWindowCounter} with
+     * one bucket per second
+     */
+    static class TimeWindow extends OutcomeWindow {
+        private final SlidingWindowCounter calls;
+        private final SlidingWindowCounter failures;
+        private final SlidingWindowCounter slowCalls;
+        
+        TimeWindow(int seconds, LongSupplier clock) {
+            int buckets = Math.max(1, seconds);
+            this.calls = new SlidingWindowCounter(buckets * 1000L, buckets, clock);
+            this.failures = new SlidingWindowCounter(buckets * 1000L, buckets, clock);
+            this.slowCalls = new SlidingWindowCounter(buckets * 1000L, buckets, clock);
+        }
+        
+        @Override
+        void record(boolean failed, boolean slow) {
+            calls.increment();
+            if (failed) {
+                failures.increment();
+            }
+            if (slow) {
+                slowCalls.increment();
+            }
+        }
+        
+        @Override
+        int calls() {
+            return (int) calls.sum();
+        }
+        
+        @Override
+        int failures() {
+            return (int) failures.sum();
+        }
+        
+        @Override
+        int slowCalls() {
+            return (int) slowCalls.sum();
+        }
+    }
+}
\ No newline at end of file
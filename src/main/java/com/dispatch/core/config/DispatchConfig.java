@@ -17,6 +17,15 @@ public class DispatchConfig {
     @JsonProperty("global_filters")
     private List<FilterConfig> globalFilters = List.of();
     
+    @JsonProperty("client")
+    private ClientConfig client = new ClientConfig();
+    
+    @JsonProperty("upstreams")
+    private Map<String, UpstreamConfig> upstreams = Map.of();
+    
+    @JsonProperty("circuit-breaker")
+    private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+    
     public ServerConfig getServer() {
         return server;
     }
@@ -41,6 +50,36 @@ public class DispatchConfig {
         this.globalFilters = globalFilters != null ? globalFilters : List.of();
     }
     
+    public ClientConfig getClient() {
+        return client;
+    }
+    
+    public void setClient(ClientConfig client) {
+        this.client = client != null ? client : new ClientConfig();
+    }
+    
+    /**
+     * Named upstream clusters, which routes can use as their backend
+     */
+    public Map<String, UpstreamConfig> getUpstreams() {
+        return upstreams;
+    }
+    
+    public void setUpstreams(Map<String, UpstreamConfig> upstreams) {
+        this.upstreams = upstreams != null ? upstreams : Map.of();
+    }
+    
+    /**
+     * Circuit breaker settings for every backend proxied to
+     */
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker != null ? circuitBreaker : new CircuitBreakerConfig();
+    }
+    
     
     public static class ServerConfig {
         @JsonProperty("port")
@@ -49,6 +88,21 @@ public class DispatchConfig {
         @JsonProperty("ssl")
         private SslConfig ssl = new SslConfig();
         
+        @JsonProperty("max-content-length")
+        private int maxContentLength = Constants.DEFAULT_MAX_REQUEST_SIZE;
+        
+        @JsonProperty("transport")
+        private String transport = "auto";
+        
+        @JsonProperty("boss-threads")
+        private int bossThreads = 0;
+        
+        @JsonProperty("worker-threads")
+        private int workerThreads = 0;
+        
+        @JsonProperty("reuse-port")
+        private boolean reusePort = true;
+        
         public int getPort() {
             return port;
         }
@@ -64,6 +118,61 @@ public class DispatchConfig {
         public void setSsl(SslConfig ssl) {
             this.ssl = ssl;
         }
+        
+        /**
+         * Maximum size of a buffered request body; streaming routes are not limited
+         */
+        public int getMaxContentLength() {
+            return maxContentLength;
+        }
+        
+        public void setMaxContentLength(int maxContentLength) {
+            this.maxContentLength = maxContentLength;
+        }
+        
+        /**
+         * Netty transport: auto (io_uring, then epoll, then NIO), io_uring, epoll or nio
+         */
+        public String getTransport() {
+            return transport;
+        }
+        
+        public void setTransport(String transport) {
+            this.transport = transport;
+        }
+        
+        /**
+         * Acceptor threads; 0 means one per core with SO_REUSEPORT, otherwise one
+         */
+        public int getBossThreads() {
+            return bossThreads;
+        }
+        
+        public void setBossThreads(int bossThreads) {
+            this.bossThreads = bossThreads;
+        }
+        
+        /**
+         * I/O worker threads; 0 means Netty's default of twice the number of cores
+         */
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+        
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+        
+        /**
+         * Bind one server socket per boss thread with SO_REUSEPORT (native transports only)
+         */
+        public boolean isReusePort() {
+            return reusePort;
+        }
+        
+        public void setReusePort(boolean reusePort) {
+            this.reusePort = reusePort;
+        }
     }
     
     public static class SslConfig {
@@ -101,6 +210,470 @@ public class DispatchConfig {
         }
     }
     
+    /**
+     * Backend HTTP client settings. The "jdk" client uses java.net.http; the "netty"
+     * client shares the server's event loops and pools connections per backend.
+     */
+    public static class ClientConfig {
+        @JsonProperty("type")
+        private String type = "jdk";
+        
+        @JsonProperty("connect-timeout-ms")
+        private int connectTimeoutMs = Constants.DEFAULT_CONNECT_TIMEOUT_MS;
+        
+        @JsonProperty("request-timeout-ms")
+        private int requestTimeoutMs = Constants.DEFAULT_REQUEST_TIMEOUT_MS;
+        
+        @JsonProperty("max-connections-per-backend")
+        private int maxConnectionsPerBackend = Constants.DEFAULT_MAX_CONNECTIONS_PER_BACKEND;
+        
+        @JsonProperty("max-pending-acquires")
+        private int maxPendingAcquires = Constants.DEFAULT_MAX_PENDING_ACQUIRES;
+        
+        @JsonProperty("idle-timeout-ms")
+        private long idleTimeoutMs = Constants.DEFAULT_IDLE_TIMEOUT_MS;
+        
+        @JsonProperty("max-lifetime-ms")
+        private long maxLifetimeMs = Constants.DEFAULT_MAX_LIFETIME_MS;
+        
+        @JsonProperty("max-retries")
+        private int maxRetries = Constants.DEFAULT_MAX_RETRIES;
+        
+        @JsonProperty("retry-budget-percent")
+        private double retryBudgetPercent = Constants.DEFAULT_RETRY_BUDGET_PERCENT;
+        
+        @JsonProperty("retry-budget-min-per-second")
+        private int retryBudgetMinPerSecond = Constants.DEFAULT_RETRY_BUDGET_MIN_PER_SECOND;
+        
+        public String getType() {
+            return type;
+        }
+        
+        public void setType(String type) {
+            this.type = type != null ? type : "jdk";
+        }
+        
+        public boolean isNetty() {
+            return "netty".equals(type);
+        }
+        
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+        
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+        
+        public int getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+        
+        public void setRequestTimeoutMs(int requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+        
+        public int getMaxConnectionsPerBackend() {
+            return maxConnectionsPerBackend;
+        }
+        
+        public void setMaxConnectionsPerBackend(int maxConnectionsPerBackend) {
+            this.maxConnectionsPerBackend = maxConnectionsPerBackend;
+        }
+        
+        public int getMaxPendingAcquires() {
+            return maxPendingAcquires;
+        }
+        
+        public void setMaxPendingAcquires(int maxPendingAcquires) {
+            this.maxPendingAcquires = maxPendingAcquires;
+        }
+        
+        public long getIdleTimeoutMs() {
+            return idleTimeoutMs;
+        }
+        
+        public void setIdleTimeoutMs(long idleTimeoutMs) {
+            this.idleTimeoutMs = idleTimeoutMs;
+        }
+        
+        public long getMaxLifetimeMs() {
+            return maxLifetimeMs;
+        }
+        
+        public void setMaxLifetimeMs(long maxLifetimeMs) {
+            this.maxLifetimeMs = maxLifetimeMs;
+        }
+        
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+        
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+        
+        public double getRetryBudgetPercent() {
+            return retryBudgetPercent;
+        }
+        
+        public void setRetryBudgetPercent(double retryBudgetPercent) {
+            this.retryBudgetPercent = retryBudgetPercent;
+        }
+        
+        public int getRetryBudgetMinPerSecond() {
+            return retryBudgetMinPerSecond;
+        }
+        
+        public void setRetryBudgetMinPerSecond(int retryBudgetMinPerSecond) {
+            this.retryBudgetMinPerSecond = retryBudgetMinPerSecond;
+        }
+    }
+    
+    public static class UpstreamConfig {
+        @JsonProperty("endpoints")
+        private List<String> endpoints = List.of();
+        
+        @JsonProperty("load-balancer")
+        private String loadBalancer = "round-robin";
+        
+        @JsonProperty("health-check")
+        private HealthCheckConfig healthCheck;
+        
+        @JsonProperty("outlier-detection")
+        private OutlierDetectionConfig outlierDetection;
+        
+        public List<String> getEndpoints() {
+            return endpoints;
+        }
+        
+        public void setEndpoints(List<String> endpoints) {
+            this.endpoints = endpoints != null ? endpoints : List.of();
+        }
+        
+        public String getLoadBalancer() {
+            return loadBalancer;
+        }
+        
+        public void setLoadBalancer(String loadBalancer) {
+            this.loadBalancer = loadBalancer != null ? loadBalancer : "round-robin";
+        }
+        
+        /**
+         * Active health check settings, or null if endpoints aren't probed
+         */
+        public HealthCheckConfig getHealthCheck() {
+            return healthCheck;
+        }
+        
+        public void setHealthCheck(HealthCheckConfig healthCheck) {
+            this.healthCheck = healthCheck;
+        }
+        
+        /**
+         * Passive outlier detection settings, or null if endpoints are never ejected
+         */
+        public OutlierDetectionConfig getOutlierDetection() {
+            return outlierDetection;
+        }
+        
+        public void setOutlierDetection(OutlierDetectionConfig outlierDetection) {
+            this.outlierDetection = outlierDetection;
+        }
+    }
+    
+    public static class OutlierDetectionConfig {
+        @JsonProperty("consecutive-5xx")
+        private int consecutive5xx = Constants.DEFAULT_OUTLIER_CONSECUTIVE_5XX;
+        
+        @JsonProperty("consecutive-gateway-failures")
+        private int consecutiveGatewayFailures = Constants.DEFAULT_OUTLIER_CONSECUTIVE_GATEWAY_FAILURES;
+        
+        @JsonProperty("interval-ms")
+        private long intervalMs = Constants.DEFAULT_OUTLIER_INTERVAL_MS;
+        
+        @JsonProperty("base-ejection-time-ms")
+        private long baseEjectionTimeMs = Constants.DEFAULT_OUTLIER_BASE_EJECTION_TIME_MS;
+        
+        @JsonProperty("max-ejection-time-ms")
+        private long maxEjectionTimeMs = Constants.DEFAULT_OUTLIER_MAX_EJECTION_TIME_MS;
+        
+        @JsonProperty("max-ejection-percent")
+        private int maxEjectionPercent = Constants.DEFAULT_OUTLIER_MAX_EJECTION_PERCENT;
+        
+        @JsonProperty("latency-factor")
+        private double latencyFactor = Constants.DEFAULT_OUTLIER_LATENCY_FACTOR;
+        
+        @JsonProperty("latency-min-requests")
+        private int latencyMinRequests = Constants.DEFAULT_OUTLIER_LATENCY_MIN_REQUESTS;
+        
+        /**
+         * Consecutive 5xx responses that eject an endpoint; 0 disables
+         */
+        public int getConsecutive5xx() {
+            return consecutive5xx;
+        }
+        
+        public void setConsecutive5xx(int consecutive5xx) {
+            this.consecutive5xx = consecutive5xx;
+        }
+        
+        /**
+         * Consecutive connection failures, timeouts, 502s, 503s or 504s that eject an
+         * endpoint; 0 disables
+         */
+        public int getConsecutiveGatewayFailures() {
+            return consecutiveGatewayFailures;
+        }
+        
+        public void setConsecutiveGatewayFailures(int consecutiveGatewayFailures) {
+            this.consecutiveGatewayFailures = consecutiveGatewayFailures;
+        }
+        
+        /**
+         * How often ejections are expired and latencies compared
+         */
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+        
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+        
+        /**
+         * Ejection time for a first offence; doubled for each repeat
+         */
+        public long getBaseEjectionTimeMs() {
+            return baseEjectionTimeMs;
+        }
+        
+        public void setBaseEjectionTimeMs(long baseEjectionTimeMs) {
+            this.baseEjectionTimeMs = baseEjectionTimeMs;
+        }
+        
+        public long getMaxEjectionTimeMs() {
+            return maxEjectionTimeMs;
+        }
+        
+        public void setMaxEjectionTimeMs(long maxEjectionTimeMs) {
+            this.maxEjectionTimeMs = maxEjectionTimeMs;
+        }
+        
+        /**
+         * Most of the cluster that may be ejected at once; one endpoint always may be
+         */
+        public int getMaxEjectionPercent() {
+            return maxEjectionPercent;
+        }
+        
+        public void setMaxEjectionPercent(int maxEjectionPercent) {
+            this.maxEjectionPercent = maxEjectionPercent;
+        }
+        
+        /**
+         * How many times the cluster's median mean latency an endpoint's must exceed to
+         * be ejected; 0 disables
+         */
+        public double getLatencyFactor() {
+            return latencyFactor;
+        }
+        
+        public void setLatencyFactor(double latencyFactor) {
+            this.latencyFactor = latencyFactor;
+        }
+        
+        /**
+         * Requests an endpoint must serve in an interval to be compared on latency
+         */
+        public int getLatencyMinRequests() {
+            return latencyMinRequests;
+        }
+        
+        public void setLatencyMinRequests(int latencyMinRequests) {
+            this.latencyMinRequests = latencyMinRequests;
+        }
+    }
+    
+    public static class CircuitBreakerConfig {
+        @JsonProperty("enabled")
+        private boolean enabled = true;
+        
+        @JsonProperty("failure-rate-threshold")
+        private double failureRateThreshold = Constants.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD;
+        
+        @JsonProperty("slow-call-rate-threshold")
+        private double slowCallRateThreshold = Constants.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD;
+        
+        @JsonProperty("slow-call-duration-ms")
+        private long slowCallDurationMs = Constants.CIRCUIT_BREAKER_SLOW_CALL_DURATION_MS;
+        
+        @JsonProperty("sliding-window-type")
+        private String slidingWindowType = Constants.CIRCUIT_BREAKER_WINDOW_TYPE;
+        
+        @JsonProperty("sliding-window-size")
+        private int slidingWindowSize = Constants.CIRCUIT_BREAKER_WINDOW_SIZE;
+        
+        @JsonProperty("minimum-calls")
+        private int minimumCalls = Constants.CIRCUIT_BREAKER_MINIMUM_CALLS;
+        
+        @JsonProperty("wait-in-open-ms")
+        private long waitInOpenMs = Constants.CIRCUIT_BREAKER_WAIT_IN_OPEN_MS;
+        
+        @JsonProperty("permitted-half-open-calls")
+        private int permittedHalfOpenCalls = Constants.CIRCUIT_BREAKER_HALF_OPEN_CALLS;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * Percentage of failed calls in the window that opens the breaker
+         */
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+        
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+        
+        /**
+         * Percentage of calls slower than {@code slow-call-duration-ms} that opens the breaker
+         */
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+        
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+        
+        public long getSlowCallDurationMs() {
+            return slowCallDurationMs;
+        }
+        
+        public void setSlowCallDurationMs(long slowCallDurationMs) {
+            this.slowCallDurationMs = slowCallDurationMs;
+        }
+        
+        /**
+         * "count" for a window of the last N calls, "time" for the last N seconds
+         */
+        public String getSlidingWindowType() {
+            return slidingWindowType;
+        }
+        
+        public void setSlidingWindowType(String slidingWindowType) {
+            this.slidingWindowType = slidingWindowType != null ? slidingWindowType : Constants.CIRCUIT_BREAKER_WINDOW_TYPE;
+        }
+        
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+        
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+        
+        /**
+         * Calls the window must hold before rates are compared with the thresholds
+         */
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+        
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+        
+        public long getWaitInOpenMs() {
+            return waitInOpenMs;
+        }
+        
+        public void setWaitInOpenMs(long waitInOpenMs) {
+            this.waitInOpenMs = waitInOpenMs;
+        }
+        
+        /**
+         * Trial calls let through while half-open; their outcome closes or reopens the breaker
+         */
+        public int getPermittedHalfOpenCalls() {
+            return permittedHalfOpenCalls;
+        }
+        
+        public void setPermittedHalfOpenCalls(int permittedHalfOpenCalls) {
+            this.permittedHalfOpenCalls = permittedHalfOpenCalls;
+        }
+    }
+    
+    public static class HealthCheckConfig {
+        @JsonProperty("path")
+        private String path = Constants.HEALTH_PATH;
+        
+        @JsonProperty("interval-ms")
+        private long intervalMs = Constants.DEFAULT_UPSTREAM_CHECK_INTERVAL_MS;
+        
+        @JsonProperty("timeout-ms")
+        private long timeoutMs = Constants.DEFAULT_UPSTREAM_CHECK_TIMEOUT_MS;
+        
+        @JsonProperty("healthy-threshold")
+        private int healthyThreshold = Constants.DEFAULT_UPSTREAM_HEALTHY_THRESHOLD;
+        
+        @JsonProperty("unhealthy-threshold")
+        private int unhealthyThreshold = Constants.DEFAULT_UPSTREAM_UNHEALTHY_THRESHOLD;
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path != null ? path : Constants.HEALTH_PATH;
+        }
+        
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+        
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+        
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+        
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+        
+        /**
+         * Consecutive passing probes before a down endpoint is marked up
+         */
+        public int getHealthyThreshold() {
+            return healthyThreshold;
+        }
+        
+        public void setHealthyThreshold(int healthyThreshold) {
+            this.healthyThreshold = healthyThreshold;
+        }
+        
+        /**
+         * Consecutive failing probes before an up endpoint is marked down
+         */
+        public int getUnhealthyThreshold() {
+            return unhealthyThreshold;
+        }
+        
+        public void setUnhealthyThreshold(int unhealthyThreshold) {
+            this.unhealthyThreshold = unhealthyThreshold;
+        }
+    }
+    
     // Using FilterConfig from RouteConfig
     public static class FilterConfig extends RouteConfig.FilterConfig {
         // Additional methods for backward compatibility
@@ -1,5 +1,6 @@
 package com.dispatch.core.config;
 
+import com.dispatch.core.Constants;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -30,6 +31,21 @@ public class RouteConfig {
     @JsonProperty("enabled")
     private boolean enabled = true;
     
+    @JsonProperty("streaming")
+    private boolean streaming = false;
+    
+    @JsonProperty("hedge")
+    private HedgeConfig hedge;
+    
+    @JsonProperty("load-balancer")
+    private String loadBalancer;
+    
+    @JsonProperty("cache")
+    private CacheConfig cache;
+    
+    @JsonProperty("single-flight")
+    private SingleFlightConfig singleFlight;
+    
     
     // Getters and setters
     public String getPath() {
@@ -96,6 +112,62 @@ public class RouteConfig {
         this.enabled = enabled;
     }
     
+    /**
+     * Whether request and response bodies are streamed through instead of being buffered
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+    
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    /**
+     * Hedged request settings, or null if the route doesn't hedge
+     */
+    public HedgeConfig getHedge() {
+        return hedge;
+    }
+    
+    public void setHedge(HedgeConfig hedge) {
+        this.hedge = hedge;
+    }
+    
+    /**
+     * Load balancer for a backend that names an upstream cluster, overriding the
+     * cluster's own; null to use the cluster's
+     */
+    public String getLoadBalancer() {
+        return loadBalancer;
+    }
+    
+    public void setLoadBalancer(String loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+    
+    /**
+     * Response cache overrides for this route, or null to use the cache filter's defaults
+     */
+    public CacheConfig getCache() {
+        return cache;
+    }
+    
+    public void setCache(CacheConfig cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Request coalescing settings, or null if every request goes to the backend
+     */
+    public SingleFlightConfig getSingleFlight() {
+        return singleFlight;
+    }
+    
+    public void setSingleFlight(SingleFlightConfig singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+    
     
     /**
      * Check if this route is a proxy route
@@ -112,7 +184,8 @@ public class RouteConfig {
     }
     
     /**
-     * Check if this route matches the given path
+     * Check if this route matches the given path. A trailing {@code /*} matches any
+     * path with the same prefix; any other {@code *} matches within a single path segment.
      */
     public boolean matches(String requestPath) {
         if (path.equals(requestPath)) {
@@ -120,17 +193,40 @@ public class RouteConfig {
         }
         
         if (path.endsWith("/*")) {
-            String prefix = path.substring(0, path.length() - 2);
-            return requestPath.startsWith(prefix);
+            return globMatches(path.substring(0, path.length() - 2), 0, requestPath, 0, true);
         }
         
         if (path.contains("*")) {
-            return requestPath.matches(path.replace("*", ".*"));
+            return globMatches(path, 0, requestPath, 0, false);
         }
         
         return false;
     }
     
+    private static boolean globMatches(String pattern, int patternIndex, String text, int textIndex, boolean prefix) {
+        while (patternIndex < pattern.length()) {
+            char c = pattern.charAt(patternIndex);
+            if (c == '*') {
+                int segmentEnd = text.indexOf('/', textIndex);
+                if (segmentEnd < 0) {
+                    segmentEnd = text.length();
+                }
+                for (int end = textIndex; end <= segmentEnd; end++) {
+                    if (globMatches(pattern, patternIndex + 1, text, end, prefix)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (textIndex >= text.length() || text.charAt(textIndex) != c) {
+                return false;
+            }
+            patternIndex++;
+            textIndex++;
+        }
+        return prefix || textIndex == text.length();
+    }
+    
     /**
      * Transform the request path according to route configuration
      */
@@ -226,11 +322,166 @@ public class RouteConfig {
             return defaultValue;
         }
         
+        public Double getConfigDouble(String key, Double defaultValue) {
+            Object value = config.get(key);
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            }
+            return defaultValue;
+        }
+        
         public Boolean getConfigBoolean(String key, Boolean defaultValue) {
             return getConfigValue(key, Boolean.class, defaultValue);
         }
     }
     
+    /**
+     * Send a second copy of slow GET and HEAD requests once the first has been outstanding
+     * for longer than the given percentile of the route's recent latencies
+     */
+    public static class HedgeConfig {
+        @JsonProperty("percentile")
+        private double percentile = Constants.DEFAULT_HEDGE_PERCENTILE;
+        
+        @JsonProperty("min-delay-ms")
+        private int minDelayMs = Constants.DEFAULT_HEDGE_MIN_DELAY_MS;
+        
+        @JsonProperty("min-samples")
+        private int minSamples = Constants.DEFAULT_HEDGE_MIN_SAMPLES;
+        
+        @JsonProperty("backend")
+        private String backend;
+        
+        public double getPercentile() {
+            return percentile;
+        }
+        
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+        
+        public int getMinDelayMs() {
+            return minDelayMs;
+        }
+        
+        public void setMinDelayMs(int minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+        
+        /**
+         * Latencies the route must have recorded before it starts hedging
+         */
+        public int getMinSamples() {
+            return minSamples;
+        }
+        
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+        
+        /**
+         * Endpoint for the hedge, or null to send it to the route's own backend
+         */
+        public String getBackend() {
+            return backend;
+        }
+        
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+    }
+    
+    /**
+     * Per-route settings for the response cache filter
+     */
+    public static class CacheConfig {
+        @JsonProperty("enabled")
+        private boolean enabled = true;
+        
+        @JsonProperty("ttl-ms")
+        private Long ttlMs;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * How long responses stay fresh, in place of what their headers say, or null to
+         * follow the headers. Responses marked no-store or private are never cached.
+         */
+        public Long getTtlMs() {
+            return ttlMs;
+        }
+        
+        public void setTtlMs(Long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+    
+    public static class SingleFlightConfig {
+        @JsonProperty("max-waiters")
+        private int maxWaiters = Constants.DEFAULT_SINGLE_FLIGHT_MAX_WAITERS;
+        
+        @JsonProperty("max-age-ms")
+        private int maxAgeMs = Constants.DEFAULT_SINGLE_FLIGHT_MAX_AGE_MS;
+        
+        @JsonProperty("key-headers")
+        private List<String> keyHeaders = List.of("Accept", "Accept-Encoding", "Accept-Language");
+        
+        @JsonProperty("credential-headers")
+        private List<String> credentialHeaders = Constants.DEFAULT_CREDENTIAL_HEADERS;
+        
+        /**
+         * Requests that may wait for one backend request before others go on their own
+         */
+        public int getMaxWaiters() {
+            return maxWaiters;
+        }
+        
+        public void setMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+        }
+        
+        /**
+         * How long after a backend request is sent new requests may still wait for it
+         */
+        public int getMaxAgeMs() {
+            return maxAgeMs;
+        }
+        
+        public void setMaxAgeMs(int maxAgeMs) {
+            this.maxAgeMs = maxAgeMs;
+        }
+        
+        /**
+         * Request headers that must match, besides the method, host and URI, for requests
+         * to share a backend request
+         */
+        public List<String> getKeyHeaders() {
+            return keyHeaders;
+        }
+        
+        public void setKeyHeaders(List<String> keyHeaders) {
+            this.keyHeaders = keyHeaders;
+        }
+        
+        /**
+         * Request headers carrying credentials; requests with any of them always send
+         * their own backend request
+         */
+        public List<String> getCredentialHeaders() {
+            return credentialHeaders;
+        }
+        
+        public void setCredentialHeaders(List<String> credentialHeaders) {
+            this.credentialHeaders = credentialHeaders;
+        }
+    }
+    
     public static class StaticResponseConfig {
         @JsonProperty("status")
         private int status = 200;
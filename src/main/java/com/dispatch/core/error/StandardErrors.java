@@ -23,6 +23,10 @@ public final class StandardErrors {
         return createErrorResult(502, Constants.ERROR_BACKEND_UNAVAILABLE, null, requestId);
     }
     
+    public static FilterResult circuitOpen(String requestId) {
+        return createErrorResult(503, Constants.ERROR_CIRCUIT_OPEN, null, requestId);
+    }
+    
     public static FilterResult authenticationFailed(String requestId) {
         return createErrorResult(401, Constants.ERROR_AUTHENTICATION_FAILED, null, requestId);
     }
@@ -0,0 +1,110 @@
+package com.dispatch.core.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Typed handle for a {@link FilterContext} attribute. Each key owns a fixed slot in the
+ * context's attribute array, so typed reads and writes involve no hashing.
+ * <p>
+ * Keys are registered globally by name and should be created once, as static
+ * constants, so they exist before requests are processed. Registering the same name
+ * again returns the existing key. String-keyed context access to a registered name
+ * uses the same slot, so typed and dynamic filters see the same value.
+ */
+public final class AttributeKey<T> {
+    private static final ConcurrentMap<String, Object> registry = new ConcurrentHashMap<>();
+    private static final AtomicInteger objectSlots = new AtomicInteger();
+    private static final AtomicInteger longSlots = new AtomicInteger();
+    
+    private final String name;
+    private final Class<? super T> type;
+    private final int index;
+    
+    private AttributeKey(String name, Class<? super T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+    
+    /**
+     * Get or register the key for an attribute name
+     * 
+     * @throws IllegalArgumentException if the name is registered with a different type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AttributeKey<T> of(String name, Class<? super T> type) {
+        Object key = registry.computeIfAbsent(name, n -> new AttributeKey<T>(n, type, objectSlots.getAndIncrement()));
+        if (key instanceof AttributeKey<?> existing && existing.type == type) {
+            return (AttributeKey<T>) existing;
+        }
+        throw new IllegalArgumentException("Attribute '" + name + "' is already registered as " + describe(key));
+    }
+    
+    /**
+     * Get or register a long-valued key, stored without boxing
+     * 
+     * @throws IllegalArgumentException if the name is registered as an object attribute
+     */
+    static LongAttributeKey ofLong(String name) {
+        Object key = registry.computeIfAbsent(name, n -> new LongAttributeKey(n, longSlots.getAndIncrement()));
+        if (key instanceof LongAttributeKey existing) {
+            return existing;
+        }
+        throw new IllegalArgumentException("Attribute '" + name + "' is already registered as " + describe(key));
+    }
+    
+    /**
+     * The registered {@link AttributeKey} or {@link LongAttributeKey} for a name, or null
+     */
+    static Object lookup(String name) {
+        return registry.get(name);
+    }
+    
+    /**
+     * Visit the name of every registered attribute
+     */
+    static void forEachName(Consumer<String> action) {
+        registry.keySet().forEach(action);
+    }
+    
+    static int objectSlotCount() {
+        return objectSlots.get();
+    }
+    
+    static int longSlotCount() {
+        return longSlots.get();
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    public Class<? super T> type() {
+        return type;
+    }
+    
+    int index() {
+        return index;
+    }
+    
+    @SuppressWarnings("unchecked")
+    T cast(Object value) {
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Attribute '" + name + "' expects " + type.getName()
+                + ", got " + value.getClass().getName());
+        }
+        return (T) value;
+    }
+    
+    private static String describe(Object key) {
+        return key instanceof AttributeKey<?> existing ? existing.type.getName() : "long";
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+}
\ No newline at end of file
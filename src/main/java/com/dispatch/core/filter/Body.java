@@ -0,0 +1,112 @@
+package com.dispatch.core.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A buffered request or response body backed by a reference-counted {@link ByteBuf}.
+ * <p>
+ * The body is read-only: its length, string form and NIO view come straight from the
+ * buffer, and a byte array is only materialized (once) when {@link #bytes()} is called.
+ * A body owns one reference to its buffer, which {@link #release()} gives up. The
+ * server releases request bodies once the response has been written and response
+ * bodies as they are written, so filters only need to release a body they discard,
+ * e.g. a backend response they replace with one of their own.
+ */
+public final class Body {
+    private static final Body EMPTY = new Body(Unpooled.EMPTY_BUFFER);
+    
+    private final ByteBuf buffer;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile byte[] bytes;
+    
+    private Body(ByteBuf buffer) {
+        this.buffer = buffer;
+    }
+    
+    public static Body empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Wrap a byte array without copying it. The array must not be modified afterwards.
+     */
+    public static Body wrap(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        Body body = new Body(Unpooled.wrappedBuffer(bytes));
+        body.bytes = bytes;
+        return body;
+    }
+    
+    /**
+     * Take ownership of a buffer's readable bytes. The caller hands over one reference,
+     * which is released by {@link #release()}.
+     */
+    public static Body of(ByteBuf buffer) {
+        if (!buffer.isReadable()) {
+            buffer.release();
+            return EMPTY;
+        }
+        return new Body(buffer);
+    }
+    
+    public int length() {
+        return buffer.readableBytes();
+    }
+    
+    public boolean isEmpty() {
+        return length() == 0;
+    }
+    
+    /**
+     * The body as a byte array, copied out of the buffer on first use and shared
+     * afterwards. The returned array must not be modified.
+     */
+    public byte[] bytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            result = ByteBufUtil.getBytes(buffer, buffer.readerIndex(), buffer.readableBytes(), false);
+            bytes = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Decode the body as UTF-8 without materializing a byte array
+     */
+    public String asString() {
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * A read-only NIO view of the body. Composite buffers are merged into one.
+     */
+    public ByteBuffer nioBuffer() {
+        return buffer.nioBuffer().asReadOnlyBuffer();
+    }
+    
+    /**
+     * A new reference to the body's content, e.g. for writing it to a channel. The
+     * returned buffer has its own indexes and must be released by the caller.
+     */
+    public ByteBuf retainedBuffer() {
+        return buffer.retainedDuplicate();
+    }
+    
+    /**
+     * Give up the body's reference to its buffer. Calling this more than once has no
+     * further effect.
+     */
+    public void release() {
+        if (this != EMPTY && released.compareAndSet(false, true)) {
+            buffer.release();
+        }
+    }
+}
\ No newline at end of file
@@ -99,11 +99,14 @@ public class FilterChain {
             });
     }
     
+    /**
+     * Run response filters in reverse order, so the first request filter sees the response last
+     */
     public CompletableFuture<FilterResult> executeResponseFilters(
             HttpResponse response, 
             FilterContext context) {
         
-        List<GatewayFilter> responseFilters = filters.stream()
+        List<GatewayFilter> responseFilters = getFilters().reversed().stream()
             .filter(filter -> {
                 try {
                     return filter.shouldApply(context.getOriginalRequest());
@@ -1,29 +1,121 @@
 package com.dispatch.core.filter;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class FilterContext {
-    private final Map<String, Object> attributes;
+    private static final Logger logger = LoggerFactory.getLogger(FilterContext.class);
+    
+    static {
+        StandardAttributes.ensureRegistered();
+    }
+    
+    // Typed attribute slots, indexed by AttributeKey/LongAttributeKey; dynamic names go to the map
+    private Object[] values;
+    private long[] longValues;
+    private boolean[] longPresent;
+    private volatile Map<String, Object> dynamicAttributes;
     private final HttpRequest originalRequest;
     private final Instant startTime;
     private volatile boolean shouldTerminate;
+    private List<Consumer<FilterResult>> completionHandlers;
+    private FilterResult completedResult;
+    private boolean completed;
     
     public FilterContext(HttpRequest originalRequest) {
-        this.attributes = new ConcurrentHashMap<>();
+        this.values = new Object[AttributeKey.objectSlotCount()];
+        this.longValues = new long[AttributeKey.longSlotCount()];
+        this.longPresent = new boolean[longValues.length];
         this.originalRequest = originalRequest;
         this.startTime = Instant.now();
         this.shouldTerminate = false;
     }
     
+    public <T> void set(AttributeKey<T> key, T value) {
+        int index = key.index();
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, AttributeKey.objectSlotCount());
+        }
+        values[index] = value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T get(AttributeKey<T> key) {
+        int index = key.index();
+        return index < values.length ? (T) values[index] : null;
+    }
+    
+    public void setLong(LongAttributeKey key, long value) {
+        int index = key.index();
+        if (index >= longValues.length) {
+            int slots = AttributeKey.longSlotCount();
+            longValues = Arrays.copyOf(longValues, slots);
+            longPresent = Arrays.copyOf(longPresent, slots);
+        }
+        longValues[index] = value;
+        longPresent[index] = true;
+    }
+    
+    /**
+     * The attribute's value, or the default if it hasn't been set
+     */
+    public long getLong(LongAttributeKey key, long defaultValue) {
+        int index = key.index();
+        return index < longPresent.length && longPresent[index] ? longValues[index] : defaultValue;
+    }
+    
+    public boolean has(LongAttributeKey key) {
+        int index = key.index();
+        return index < longPresent.length && longPresent[index];
+    }
+    
+    /**
+     * Grow the typed slots to cover every registered key, so filters running concurrently
+     * write to distinct slots of the same arrays instead of racing to resize them
+     */
+    void reserveSlots() {
+        if (values.length < AttributeKey.objectSlotCount()) {
+            values = Arrays.copyOf(values, AttributeKey.objectSlotCount());
+        }
+        int slots = AttributeKey.longSlotCount();
+        if (longValues.length < slots) {
+            longValues = Arrays.copyOf(longValues, slots);
+            longPresent = Arrays.copyOf(longPresent, slots);
+        }
+    }
+    
+    /**
+     * Set an attribute by name. Names registered as an {@link AttributeKey} or
+     * {@link LongAttributeKey} are stored in their typed slot; others go to a map.
+     * 
+     * @throws IllegalArgumentException if the value doesn't match a registered key's type
+     */
     public void setAttribute(String key, Object value) {
-        attributes.put(key, value);
+        Object registered = AttributeKey.lookup(key);
+        if (registered instanceof AttributeKey<?> typed) {
+            setTyped(typed, value);
+        } else if (registered instanceof LongAttributeKey longKey) {
+            if (!(value instanceof Number number)) {
+                throw new IllegalArgumentException("Attribute '" + key + "' expects a number, got " + value);
+            }
+            setLong(longKey, number.longValue());
+        } else {
+            dynamicAttributes().put(key, value);
+        }
     }
     
     @SuppressWarnings("unchecked")
     public <T> T getAttribute(String key, Class<T> type) {
-        Object value = attributes.get(key);
+        Object value = getAttribute(key);
         if (value != null && type.isInstance(value)) {
             return (T) value;
         }
@@ -31,7 +123,15 @@ public class FilterContext {
     }
     
     public Object getAttribute(String key) {
-        return attributes.get(key);
+        Object registered = AttributeKey.lookup(key);
+        if (registered instanceof AttributeKey<?> typed) {
+            return get(typed);
+        }
+        if (registered instanceof LongAttributeKey longKey) {
+            return has(longKey) ? getLong(longKey, 0) : null;
+        }
+        Map<String, Object> dynamic = dynamicAttributes;
+        return dynamic != null ? dynamic.get(key) : null;
     }
     
     public void terminate() {
@@ -50,7 +150,86 @@ public class FilterContext {
         return startTime;
     }
     
+    /**
+     * A snapshot of every attribute that has been set, typed and dynamic
+     */
     public Map<String, Object> getAttributes() {
-        return Map.copyOf(attributes);
+        Map<String, Object> snapshot = new HashMap<>();
+        Map<String, Object> dynamic = dynamicAttributes;
+        if (dynamic != null) {
+            snapshot.putAll(dynamic);
+        }
+        AttributeKey.forEachName(key -> {
+            Object value = getAttribute(key);
+            if (value != null) {
+                snapshot.put(key, value);
+            }
+        });
+        return Map.copyOf(snapshot);
+    }
+    
+    private <T> void setTyped(AttributeKey<T> key, Object value) {
+        set(key, key.cast(value));
+    }
+    
+    private Map<String, Object> dynamicAttributes() {
+        Map<String, Object> dynamic = dynamicAttributes;
+        if (dynamic == null) {
+            synchronized (this) {
+                dynamic = dynamicAttributes;
+                if (dynamic == null) {
+                    dynamic = new ConcurrentHashMap<>();
+                    dynamicAttributes = dynamic;
+                }
+            }
+        }
+        return dynamic;
+    }
+    
+    /**
+     * Run a handler once the route pipeline has produced its result, e.g. to release
+     * resources held for the duration of a backend call. Runs immediately if the
+     * pipeline has already completed.
+     */
+    public void onComplete(Consumer<FilterResult> handler) {
+        synchronized (this) {
+            if (!completed) {
+                if (completionHandlers == null) {
+                    completionHandlers = new ArrayList<>(2);
+                }
+                completionHandlers.add(handler);
+                return;
+            }
+        }
+        runHandler(handler, completedResult);
+    }
+    
+    /**
+     * Mark the pipeline complete and run the completion handlers; later calls are ignored
+     */
+    public void complete(FilterResult result) {
+        List<Consumer<FilterResult>> handlers;
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            completedResult = result;
+            handlers = completionHandlers;
+            completionHandlers = null;
+        }
+        if (handlers != null) {
+            for (Consumer<FilterResult> handler : handlers) {
+                runHandler(handler, result);
+            }
+        }
+    }
+    
+    private static void runHandler(Consumer<FilterResult> handler, FilterResult result) {
+        try {
+            handler.accept(result);
+        } catch (Exception e) {
+            logger.error("Request completion handler failed", e);
+        }
     }
 }
\ No newline at end of file
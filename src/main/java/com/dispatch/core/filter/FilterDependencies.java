@@ -0,0 +1,42 @@
+package com.dispatch.core.filter;
+
+import java.util.Set;
+
+/**
+ * The context attributes a filter reads and writes, declared so compiled pipelines can
+ * run adjacent filters without conflicting dependencies concurrently. Request headers
+ * count as the pseudo-attribute {@link #REQUEST_HEADERS}.
+ * <p>
+ * A blocking filter may wait on I/O (e.g. a remote token verifier) and is run on its
+ * own virtual thread when it's part of a concurrent group; other synchronous filters
+ * in the group run inline on the calling thread.
+ */
+public record FilterDependencies(Set<String> reads, Set<String> writes, boolean blocking) {
+    
+    public static final String REQUEST_HEADERS = "request.headers";
+    
+    public FilterDependencies {
+        reads = Set.copyOf(reads);
+        writes = Set.copyOf(writes);
+    }
+    
+    public static FilterDependencies of(Set<String> reads, Set<String> writes) {
+        return new FilterDependencies(reads, writes, false);
+    }
+    
+    /**
+     * Whether running both filters concurrently could change what either of them sees
+     */
+    public boolean conflictsWith(FilterDependencies other) {
+        return intersects(writes, other.writes) || intersects(writes, other.reads) || intersects(reads, other.writes);
+    }
+    
+    private static boolean intersects(Set<String> a, Set<String> b) {
+        for (String name : a) {
+            if (b.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -6,12 +6,16 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Shared filter execution logic to avoid duplication between FilterChain and RouteManager
  */
 public class FilterExecutor {
     private static final Logger logger = LoggerFactory.getLogger(FilterExecutor.class);
+    private static final ExecutorService blockingFilterExecutor = Executors.newVirtualThreadPerTaskExecutor();
     
     /**
      * Execute a list of filters sequentially
@@ -25,40 +29,294 @@ public class FilterExecutor {
             List<GatewayFilter> filters,
             HttpRequest request,
             FilterContext context) {
-        return executeFiltersSequentially(filters, request, context, 0);
+        return executeFilters(new FilterPipeline(filters), request, context);
     }
     
+    /**
+     * Execute a precompiled pipeline in order. Once a filter responds, the response
+     * filters of that filter and every filter before it run in reverse order. Concurrent
+     * groups compiled into the pipeline run together and are joined before the next filter.
+     * 
+     * @param pipeline The compiled pipeline to execute
+     * @param request The HTTP request
+     * @param context The filter context
+     * @return A CompletableFuture containing the final filter result
+     */
+    public static CompletableFuture<FilterResult> executeFilters(
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context) {
+        return executeFiltersSequentially(pipeline, request, context, 0);
+    }
+    
+    /**
+     * Run filters from the given index. Synchronous filters are called inline in a loop;
+     * the first asynchronous filter continues the rest of the pipeline from its future.
+     */
     private static CompletableFuture<FilterResult> executeFiltersSequentially(
-            List<GatewayFilter> filters,
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context,
+            int index) {
+        
+        while (true) {
+            index = nextApplicableFilter(pipeline, request, index);
+            
+            if (index >= pipeline.size() || context.shouldTerminate()) {
+                return CompletableFuture.completedFuture(FilterResult.proceed());
+            }
+            
+            GatewayFilter filter = pipeline.filter(index);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Executing filter: {} for request: {} {}", 
+                    filter.getName(), request.method(), request.path());
+            }
+            
+            if (pipeline.groupEnd(index) > index + 1) {
+                return executeGroup(pipeline, request, context, index);
+            }
+            
+            if (!pipeline.isSynchronous(index)) {
+                return executeAsync(filter, pipeline, request, context, index);
+            }
+            
+            FilterResult result;
+            try {
+                result = ((SynchronousGatewayFilter) filter).filter(request, context);
+            } catch (Exception e) {
+                return respondFrom(pipeline, request, context, filterFailed(filter, e), index - 1);
+            }
+            
+            if (!(result instanceof FilterResult.Proceed)) {
+                return respondFrom(pipeline, request, context, stopChain(filter, result), index);
+            }
+            index++;
+        }
+    }
+    
+    private static CompletableFuture<FilterResult> executeAsync(
+            GatewayFilter filter,
+            FilterPipeline pipeline,
             HttpRequest request,
             FilterContext context,
             int index) {
         
-        if (index >= filters.size() || context.shouldTerminate()) {
-            return CompletableFuture.completedFuture(FilterResult.proceed());
+        CompletableFuture<FilterResult> future;
+        try {
+            future = filter.process(request, context);
+        } catch (Exception e) {
+            return respondFrom(pipeline, request, context, filterFailed(filter, e), index - 1);
         }
         
-        GatewayFilter filter = filters.get(index);
+        return future
+            .handle((result, throwable) -> {
+                if (throwable != null) {
+                    return respondFrom(pipeline, request, context, filterFailed(filter, throwable), index - 1);
+                }
+                return result instanceof FilterResult.Proceed
+                    ? executeFiltersSequentially(pipeline, request, context, index + 1)
+                    : respondFrom(pipeline, request, context, stopChain(filter, result), index);
+            })
+            .thenCompose(next -> next);
+    }
+    
+    /**
+     * Run a concurrent group: asynchronous members are started, blocking members are
+     * forked onto virtual threads and the rest run inline, then all are joined. The
+     * outcome is the one sequential execution would have produced, i.e. the first
+     * failure or response in pipeline order; any other responses are released.
+     */
+    private static CompletableFuture<FilterResult> executeGroup(
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context,
+            int start) {
         
-        logger.debug("Executing filter: {} for request: {} {}", 
-            filter.getName(), request.method(), request.path());
+        int end = pipeline.groupEnd(start);
+        context.reserveSlots();
         
-        return filter.process(request, context)
-            .thenCompose(result -> {
-                if (result instanceof FilterResult.Respond) {
-                    logger.debug("Filter {} returned response, stopping chain", filter.getName());
-                    return CompletableFuture.completedFuture(result);
-                } else if (result instanceof FilterResult.Proceed) {
-                    return executeFiltersSequentially(filters, request, context, index + 1);
-                } else {
-                    logger.warn("Unknown filter result type from filter: {}", filter.getName());
-                    return CompletableFuture.completedFuture(FilterResult.proceed());
+        @SuppressWarnings("unchecked")
+        CompletableFuture<FilterResult>[] results = new CompletableFuture[end - start];
+        for (int i = start; i < end; i++) {
+            if (i > start && !applies(pipeline, request, i)) {
+                results[i - start] = CompletableFuture.completedFuture(FilterResult.proceed());
+            } else {
+                results[i - start] = startGroupMember(pipeline, request, context, i);
+            }
+        }
+        
+        return CompletableFuture.allOf(results)
+            .handle((ignored, throwable) -> {
+                int responder = -1;
+                FilterResult outcome = null;
+                for (int i = start; i < end; i++) {
+                    CompletableFuture<FilterResult> future = results[i - start];
+                    if (future.isCompletedExceptionally()) {
+                        if (responder < 0) {
+                            responder = i - 1;
+                            outcome = filterFailed(pipeline.filter(i), unwrap(future));
+                        }
+                        continue;
+                    }
+                    FilterResult result = future.join();
+                    if (result instanceof FilterResult.Proceed) {
+                        continue;
+                    }
+                    if (responder < 0) {
+                        responder = i;
+                        outcome = stopChain(pipeline.filter(i), result);
+                    } else if (result instanceof FilterResult.Respond respond) {
+                        respond.response().release();
+                    }
                 }
+                return outcome == null
+                    ? executeFiltersSequentially(pipeline, request, context, end)
+                    : respondFrom(pipeline, request, context, outcome, responder);
             })
-            .exceptionally(throwable -> {
-                logger.error("Filter {} threw exception", filter.getName(), throwable);
-                return FilterResult.error(500, 
-                    Constants.ERROR_BACKEND_UNAVAILABLE + ": " + filter.getName());
-            });
+            .thenCompose(next -> next);
+    }
+    
+    private static CompletableFuture<FilterResult> startGroupMember(
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context,
+            int index) {
+        
+        GatewayFilter filter = pipeline.filter(index);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Executing filter: {} concurrently for request: {} {}", 
+                filter.getName(), request.method(), request.path());
+        }
+        
+        if (pipeline.isSynchronous(index) && pipeline.isBlocking(index)) {
+            SynchronousGatewayFilter synchronous = (SynchronousGatewayFilter) filter;
+            return CompletableFuture.supplyAsync(() -> synchronous.filter(request, context), blockingFilterExecutor);
+        }
+        try {
+            return filter.process(request, context);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static Throwable unwrap(CompletableFuture<FilterResult> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+    
+    private static CompletableFuture<FilterResult> respondFrom(
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context,
+            FilterResult result,
+            int index) {
+        
+        if (result instanceof FilterResult.Respond respond) {
+            return executeResponseFilters(pipeline, request, context, respond, index);
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+    
+    /**
+     * Run response filters from the given index down to the first filter. Filters that
+     * only adjust headers return {@link FilterResult#proceed()} and mutate the response
+     * in place; one that returns a different response replaces it, releasing the old one.
+     */
+    private static CompletableFuture<FilterResult> executeResponseFilters(
+            FilterPipeline pipeline,
+            HttpRequest request,
+            FilterContext context,
+            FilterResult.Respond result,
+            int index) {
+        
+        for (; index >= 0; index--) {
+            if (!pipeline.hasResponseFilter(index) || !applies(pipeline, request, index)) {
+                continue;
+            }
+            
+            GatewayFilter filter = pipeline.filter(index);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Executing response filter: {}", filter.getName());
+            }
+            
+            if (pipeline.isSynchronous(index)) {
+                try {
+                    FilterResult processed = ((SynchronousGatewayFilter) filter).filterResponse(result.response(), context);
+                    result = replaceResponse(result, processed);
+                } catch (Exception e) {
+                    logger.error("Response filter {} threw exception", filter.getName(), e);
+                }
+                continue;
+            }
+            
+            FilterResult.Respond current = result;
+            int nextIndex = index - 1;
+            CompletableFuture<FilterResult> future;
+            try {
+                future = filter.processResponse(current.response(), context);
+            } catch (Exception e) {
+                logger.error("Response filter {} threw exception", filter.getName(), e);
+                continue;
+            }
+            return future
+                .handle((response, throwable) -> {
+                    if (throwable != null) {
+                        logger.error("Response filter {} threw exception", filter.getName(), throwable);
+                        return current;
+                    }
+                    return replaceResponse(current, response);
+                })
+                .thenCompose(next -> executeResponseFilters(pipeline, request, context, next, nextIndex));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+    
+    private static FilterResult.Respond replaceResponse(FilterResult.Respond current, FilterResult result) {
+        if (result instanceof FilterResult.Respond replacement && replacement.response() != current.response()) {
+            current.response().release();
+            return replacement;
+        }
+        return current;
+    }
+    
+    private static FilterResult stopChain(GatewayFilter filter, FilterResult result) {
+        if (result instanceof FilterResult.Respond) {
+            logger.debug("Filter {} returned response, stopping chain", filter.getName());
+            return result;
+        }
+        logger.warn("Unknown filter result type from filter: {}", filter.getName());
+        return FilterResult.proceed();
+    }
+    
+    private static FilterResult filterFailed(GatewayFilter filter, Throwable throwable) {
+        logger.error("Filter {} threw exception", filter.getName(), throwable);
+        return FilterResult.error(500, 
+            Constants.ERROR_BACKEND_UNAVAILABLE + ": " + filter.getName());
+    }
+    
+    private static boolean applies(FilterPipeline pipeline, HttpRequest request, int index) {
+        if (!pipeline.isConditional(index)) {
+            return true;
+        }
+        GatewayFilter filter = pipeline.filter(index);
+        try {
+            return filter.shouldApply(request);
+        } catch (Exception e) {
+            logger.error("Error checking if filter {} should apply", filter.getName(), e);
+            return false;
+        }
+    }
+    
+    private static int nextApplicableFilter(FilterPipeline pipeline, HttpRequest request, int index) {
+        while (index < pipeline.size() && !applies(pipeline, request, index)) {
+            index++;
+        }
+        return index;
     }
 }
\ No newline at end of file
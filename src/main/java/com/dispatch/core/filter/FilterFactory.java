@@ -4,8 +4,11 @@ import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.config.RouteConfig;
 import com.dispatch.filters.LoggingFilter;
 import com.dispatch.filters.auth.AuthenticationFilter;
+import com.dispatch.filters.cache.ResponseCacheFilter;
+import com.dispatch.filters.concurrency.AdaptiveConcurrencyFilter;
 import com.dispatch.filters.ratelimit.RateLimitingFilter;
 import com.dispatch.filters.transform.HeaderTransformerFilter;
+import com.dispatch.monitoring.MetricsFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +33,9 @@ public class FilterFactory {
             case "authentication" -> new AuthenticationFilter(convertToDispatchFilterConfig(filterConfig));
             case "rate-limiting" -> new RateLimitingFilter(convertToDispatchFilterConfig(filterConfig));
             case "header-transformer" -> new HeaderTransformerFilter(convertToDispatchFilterConfig(filterConfig));
+            case "metrics" -> new MetricsFilter(convertToDispatchFilterConfig(filterConfig));
+            case "adaptive-concurrency" -> new AdaptiveConcurrencyFilter(convertToDispatchFilterConfig(filterConfig));
+            case "response-cache" -> new ResponseCacheFilter(convertToDispatchFilterConfig(filterConfig));
             default -> {
                 logger.warn("Unknown filter type: {}", filterName);
                 yield null;
@@ -52,6 +58,9 @@ public class FilterFactory {
             case "authentication" -> new AuthenticationFilter(filterConfig);
             case "rate-limiting" -> new RateLimitingFilter(filterConfig);
             case "header-transformer" -> new HeaderTransformerFilter(filterConfig);
+            case "metrics" -> new MetricsFilter(filterConfig);
+            case "adaptive-concurrency" -> new AdaptiveConcurrencyFilter(filterConfig);
+            case "response-cache" -> new ResponseCacheFilter(filterConfig);
             default -> {
                 logger.warn("Unknown filter type: {}", filterName);
                 yield null;
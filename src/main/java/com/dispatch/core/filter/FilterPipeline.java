@@ -0,0 +1,156 @@
+package com.dispatch.core.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable, precompiled filter pipeline for a single route.
+ * <p>
+ * Filters are instantiated once when the pipeline is built and the hot path only
+ * walks a prebuilt array. Filters that report {@link GatewayFilter#alwaysApplies()}
+ * skip the per-request {@code shouldApply} check, and {@link SynchronousGatewayFilter}s
+ * run inline without allocating a future. Response filters run in reverse order,
+ * skipping filters that don't override the response hook.
+ * <p>
+ * Runs of adjacent filters with declared, non-conflicting {@link FilterDependencies}
+ * form concurrent groups, provided at least one member is asynchronous or blocking.
+ */
+public final class FilterPipeline {
+    
+    private final GatewayFilter[] filters;
+    private final boolean[] conditional;
+    private final boolean[] synchronous;
+    private final boolean[] responseFilter;
+    private final boolean[] blocking;
+    private final int[] groupEnd;
+    
+    public FilterPipeline(List<GatewayFilter> filters) {
+        this.filters = filters.toArray(new GatewayFilter[0]);
+        this.conditional = new boolean[this.filters.length];
+        this.synchronous = new boolean[this.filters.length];
+        this.responseFilter = new boolean[this.filters.length];
+        this.blocking = new boolean[this.filters.length];
+        for (int i = 0; i < this.filters.length; i++) {
+            conditional[i] = !this.filters[i].alwaysApplies();
+            synchronous[i] = this.filters[i] instanceof SynchronousGatewayFilter;
+            responseFilter[i] = overridesResponseHook(this.filters[i]);
+            FilterDependencies dependencies = this.filters[i].dependencies();
+            blocking[i] = dependencies != null && dependencies.blocking();
+        }
+        this.groupEnd = groupConcurrentFilters(this.filters, synchronous, blocking);
+    }
+    
+    /**
+     * Execute the pipeline for a request, including response filters, then run the
+     * context's completion handlers
+     */
+    public CompletableFuture<FilterResult> execute(HttpRequest request, FilterContext context) {
+        return FilterExecutor.executeFilters(this, request, context)
+            .whenComplete((result, error) -> context.complete(result));
+    }
+    
+    public int size() {
+        return filters.length;
+    }
+    
+    public GatewayFilter filter(int index) {
+        return filters[index];
+    }
+    
+    /**
+     * Whether the filter at the given index needs a per-request shouldApply check
+     */
+    public boolean isConditional(int index) {
+        return conditional[index];
+    }
+    
+    /**
+     * Whether the filter at the given index is a {@link SynchronousGatewayFilter}
+     */
+    public boolean isSynchronous(int index) {
+        return synchronous[index];
+    }
+    
+    /**
+     * Whether the filter at the given index declared that it may block
+     */
+    public boolean isBlocking(int index) {
+        return blocking[index];
+    }
+    
+    /**
+     * Exclusive end of the concurrent group starting at the given index; {@code index + 1}
+     * if the filter there runs on its own
+     */
+    public int groupEnd(int index) {
+        return groupEnd[index];
+    }
+    
+    /**
+     * Whether the filter at the given index processes responses
+     */
+    public boolean hasResponseFilter(int index) {
+        return responseFilter[index];
+    }
+    
+    public List<GatewayFilter> getFilters() {
+        return List.of(filters);
+    }
+    
+    /**
+     * Greedily extend a group while the next filter's dependencies don't conflict with
+     * any member's. Groups where every member is synchronous and non-blocking would
+     * only add overhead, so those filters run on their own.
+     */
+    private static int[] groupConcurrentFilters(GatewayFilter[] filters, boolean[] synchronous, boolean[] blocking) {
+        int[] ends = new int[filters.length];
+        int start = 0;
+        while (start < filters.length) {
+            int end = start + 1;
+            boolean worthForking = !synchronous[start] || blocking[start];
+            if (filters[start].dependencies() != null) {
+                List<FilterDependencies> members = new ArrayList<>();
+                members.add(filters[start].dependencies());
+                while (end < filters.length && fitsGroup(members, filters[end].dependencies())) {
+                    members.add(filters[end].dependencies());
+                    worthForking |= !synchronous[end] || blocking[end];
+                    end++;
+                }
+            }
+            if (end - start < 2 || !worthForking) {
+                end = start + 1;
+            }
+            for (int i = start; i < end; i++) {
+                ends[i] = i == start ? end : i + 1;
+            }
+            start = end;
+        }
+        return ends;
+    }
+    
+    private static boolean fitsGroup(List<FilterDependencies> members, FilterDependencies candidate) {
+        if (candidate == null) {
+            return false;
+        }
+        for (FilterDependencies member : members) {
+            if (member.conflictsWith(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Synchronous filters are asked for {@code filterResponse}, others for {@code processResponse}
+     */
+    private static boolean overridesResponseHook(GatewayFilter filter) {
+        String hook = filter instanceof SynchronousGatewayFilter ? "filterResponse" : "processResponse";
+        try {
+            Class<?> owner = filter.getClass().getMethod(hook, HttpResponse.class, FilterContext.class).getDeclaringClass();
+            return owner != GatewayFilter.class && owner != SynchronousGatewayFilter.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
\ No newline at end of file
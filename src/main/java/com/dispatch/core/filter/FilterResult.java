@@ -3,7 +3,7 @@ package com.dispatch.core.filter;
 public sealed interface FilterResult {
     
     static FilterResult proceed() { 
-        return new Proceed(); 
+        return Proceed.INSTANCE; 
     }
     
     static FilterResult respond(HttpResponse response) { 
@@ -14,6 +14,9 @@ public sealed interface FilterResult {
         return new Respond(new HttpResponse(statusCode, message)); 
     }
     
-    record Proceed() implements FilterResult {}
+    record Proceed() implements FilterResult {
+        // Stateless, so every filter can share one instance
+        private static final Proceed INSTANCE = new Proceed();
+    }
     record Respond(HttpResponse response) implements FilterResult {}
 }
\ No newline at end of file
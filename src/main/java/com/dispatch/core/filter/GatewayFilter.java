@@ -13,4 +13,20 @@ public interface GatewayFilter {
     default CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
         return CompletableFuture.completedFuture(FilterResult.proceed());
     }
+    
+    /**
+     * Whether shouldApply returns true for every request, so compiled pipelines can skip the check
+     */
+    default boolean alwaysApplies() {
+        return false;
+    }
+    
+    /**
+     * The context attributes this filter reads and writes, or null if unknown. Adjacent
+     * filters that declare non-conflicting dependencies may run concurrently, and all of
+     * them run even if one responds; filters with unknown dependencies always run alone.
+     */
+    default FilterDependencies dependencies() {
+        return null;
+    }
 }
\ No newline at end of file
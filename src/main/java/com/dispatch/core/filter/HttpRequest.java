@@ -1,5 +1,6 @@
 package com.dispatch.core.filter;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.QueryStringDecoder;
@@ -7,22 +8,47 @@ import io.netty.handler.codec.http.QueryStringDecoder;
 import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
 
 public class HttpRequest {
     private final HttpMethod method;
     private final String uri;
     private final String path;
     private final HttpHeaders headers;
-    private final byte[] body;
+    private final Body body;
     private final Map<String, List<String>> queryParams;
     private final InetSocketAddress remoteAddress;
+    private final Flow.Publisher<ByteBuf> bodyStream;
     
     public HttpRequest(HttpMethod method, String uri, HttpHeaders headers, byte[] body, InetSocketAddress remoteAddress) {
+        this(method, uri, headers, body, remoteAddress, null);
+    }
+    
+    /**
+     * Create a request that owns the given body, see {@link Body} for release rules
+     */
+    public HttpRequest(HttpMethod method, String uri, HttpHeaders headers, Body body, InetSocketAddress remoteAddress) {
+        this(method, uri, headers, body, remoteAddress, null);
+    }
+    
+    /**
+     * Create a request whose body is streamed from the client rather than buffered.
+     * The stream can be subscribed to once and each delivered buffer must be released
+     * by the subscriber; {@link #body()} is empty for streaming requests.
+     */
+    public HttpRequest(HttpMethod method, String uri, HttpHeaders headers, byte[] body, InetSocketAddress remoteAddress,
+                       Flow.Publisher<ByteBuf> bodyStream) {
+        this(method, uri, headers, Body.wrap(body), remoteAddress, bodyStream);
+    }
+    
+    private HttpRequest(HttpMethod method, String uri, HttpHeaders headers, Body body, InetSocketAddress remoteAddress,
+                        Flow.Publisher<ByteBuf> bodyStream) {
         this.method = method;
         this.uri = uri;
         this.headers = headers;
-        this.body = body != null ? body.clone() : new byte[0];
+        this.body = body;
         this.remoteAddress = remoteAddress;
+        this.bodyStream = bodyStream;
         
         QueryStringDecoder decoder = new QueryStringDecoder(uri);
         this.path = decoder.path();
@@ -49,12 +75,50 @@ public class HttpRequest {
         return headers.get(name);
     }
     
+    /**
+     * The body as a byte array, materialized on first use. The array is shared and
+     * must not be modified; prefer {@link #bodyLength()} or {@link #content()} where
+     * the bytes themselves aren't needed.
+     */
     public byte[] body() {
-        return body.clone();
+        return body.bytes();
+    }
+    
+    public Body content() {
+        return body;
+    }
+    
+    public int bodyLength() {
+        return body.length();
     }
     
     public String bodyAsString() {
-        return new String(body);
+        return body.asString();
+    }
+    
+    /**
+     * A copy of this request with a different URI, sharing its headers and body
+     */
+    public HttpRequest withUri(String uri) {
+        return new HttpRequest(method, uri, headers, body, remoteAddress, bodyStream);
+    }
+    
+    /**
+     * Release the buffered body, see {@link Body#release()}
+     */
+    public void release() {
+        body.release();
+    }
+    
+    /**
+     * The streamed request body, or null if the body was buffered
+     */
+    public Flow.Publisher<ByteBuf> bodyStream() {
+        return bodyStream;
+    }
+    
+    public boolean isStreaming() {
+        return bodyStream != null;
     }
     
     public Map<String, List<String>> queryParams() {
@@ -1,12 +1,16 @@
 package com.dispatch.core.filter;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 
+import java.util.concurrent.Flow;
+
 public class HttpResponse {
     private final int statusCode;
     private final HttpHeaders headers;
-    private final byte[] body;
+    private final Body body;
+    private final Flow.Publisher<ByteBuf> bodyStream;
     
     public HttpResponse(int statusCode, String body) {
         this(statusCode, new DefaultHttpHeaders(), body.getBytes());
@@ -17,9 +21,30 @@ public class HttpResponse {
     }
     
     public HttpResponse(int statusCode, HttpHeaders headers, byte[] body) {
+        this(statusCode, headers, Body.wrap(body), null);
+    }
+    
+    /**
+     * Create a response that owns the given body, see {@link Body} for release rules
+     */
+    public HttpResponse(int statusCode, HttpHeaders headers, Body body) {
+        this(statusCode, headers, body, null);
+    }
+    
+    private HttpResponse(int statusCode, HttpHeaders headers, Body body, Flow.Publisher<ByteBuf> bodyStream) {
         this.statusCode = statusCode;
         this.headers = headers;
-        this.body = body != null ? body.clone() : new byte[0];
+        this.body = body;
+        this.bodyStream = bodyStream;
+    }
+    
+    /**
+     * Create a response whose body is streamed to the client as it arrives. The stream
+     * can be subscribed to once and each delivered buffer must be released by the
+     * subscriber; {@link #body()} is empty for streaming responses.
+     */
+    public static HttpResponse streaming(int statusCode, HttpHeaders headers, Flow.Publisher<ByteBuf> bodyStream) {
+        return new HttpResponse(statusCode, headers, Body.empty(), bodyStream);
     }
     
     public int statusCode() {
@@ -30,12 +55,43 @@ public class HttpResponse {
         return headers;
     }
     
+    /**
+     * The body as a byte array, materialized on first use. The array is shared and
+     * must not be modified; prefer {@link #bodyLength()} or {@link #content()} where
+     * the bytes themselves aren't needed.
+     */
     public byte[] body() {
-        return body.clone();
+        return body.bytes();
+    }
+    
+    public Body content() {
+        return body;
+    }
+    
+    public int bodyLength() {
+        return body.length();
     }
     
     public String bodyAsString() {
-        return new String(body);
+        return body.asString();
+    }
+    
+    /**
+     * Release the buffered body, see {@link Body#release()}
+     */
+    public void release() {
+        body.release();
+    }
+    
+    /**
+     * The streamed response body, or null if the body was buffered
+     */
+    public Flow.Publisher<ByteBuf> bodyStream() {
+        return bodyStream;
+    }
+    
+    public boolean isStreaming() {
+        return bodyStream != null;
     }
     
     public void setHeader(String name, String value) {
@@ -0,0 +1,38 @@
+package com.dispatch.core.filter;
+
+/**
+ * Handle for a {@code long} {@link FilterContext} attribute, kept in a primitive slot
+ * so counters, timings and limits are stored without boxing. Registered in the same
+ * namespace as {@link AttributeKey}.
+ */
+public final class LongAttributeKey {
+    private final String name;
+    private final int index;
+    
+    LongAttributeKey(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+    
+    /**
+     * Get or register the key for an attribute name
+     * 
+     * @throws IllegalArgumentException if the name is registered as an object attribute
+     */
+    public static LongAttributeKey of(String name) {
+        return AttributeKey.ofLong(name);
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    int index() {
+        return index;
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.dispatch.core.filter;
+
+import com.dispatch.core.config.RouteConfig;
+
+import java.util.List;
+
+/**
+ * Context attributes set by the gateway itself and shared between filters
+ */
+public final class StandardAttributes {
+    
+    public static final AttributeKey<String> REQUEST_ID = AttributeKey.of("requestId", String.class);
+    
+    // Set by the route manager before the route pipeline runs
+    public static final AttributeKey<RouteConfig> ROUTE_CONFIG = AttributeKey.of("route.config", RouteConfig.class);
+    public static final AttributeKey<String> ROUTE_PATH = AttributeKey.of("route.path", String.class);
+    
+    // Set by the proxy filter
+    public static final AttributeKey<String> PROXY_ROUTE = AttributeKey.of("proxy.route", String.class);
+    public static final AttributeKey<String> PROXY_BACKEND = AttributeKey.of("proxy.backend", String.class);
+    public static final AttributeKey<String> PROXY_ORIGINAL_PATH = AttributeKey.of("proxy.original-path", String.class);
+    public static final AttributeKey<String> PROXY_TARGET_PATH = AttributeKey.of("proxy.target-path", String.class);
+    public static final LongAttributeKey PROXY_RTT_NANOS = LongAttributeKey.of("proxy.rtt-nanos");
+    
+    // Set by the static response filter
+    public static final LongAttributeKey STATIC_STATUS = LongAttributeKey.of("static.status");
+    public static final AttributeKey<String> STATIC_BODY = AttributeKey.of("static.body", String.class);
+    public static final AttributeKey<String> STATIC_CONTENT_TYPE = AttributeKey.of("static.content-type", String.class);
+    
+    // Set by the authentication filter
+    public static final AttributeKey<String> USER_ID = AttributeKey.of("user.id", String.class);
+    public static final AttributeKey<List<String>> USER_ROLES = AttributeKey.of("user.roles", List.class);
+    
+    private StandardAttributes() {
+    }
+    
+    /**
+     * Force registration, so string-keyed access to these names uses the typed slots
+     * even before any filter refers to a constant
+     */
+    static void ensureRegistered() {
+    }
+}
\ No newline at end of file
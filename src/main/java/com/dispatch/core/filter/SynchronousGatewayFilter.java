@@ -0,0 +1,36 @@
+package com.dispatch.core.filter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A filter that does its work without blocking, so it can run inline on the calling
+ * thread. Compiled pipelines call {@link #filter} directly and only allocate a future
+ * once they reach a filter that needs one; {@link #process} wraps the result for
+ * callers that want the asynchronous contract.
+ */
+public interface SynchronousGatewayFilter extends GatewayFilter {
+    
+    FilterResult filter(HttpRequest request, FilterContext context);
+    
+    default FilterResult filterResponse(HttpResponse response, FilterContext context) {
+        return FilterResult.proceed();
+    }
+    
+    @Override
+    default CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
+        try {
+            return CompletableFuture.completedFuture(filter(request, context));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    @Override
+    default CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
+        try {
+            return CompletableFuture.completedFuture(filterResponse(response, context));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
\ No newline at end of file
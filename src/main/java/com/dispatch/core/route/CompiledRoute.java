@@ -0,0 +1,12 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.FilterPipeline;
+
+/**
+ * A route together with its precompiled filter pipeline (global filters, route
+ * filters and the proxy/static terminal filter). The pipeline is null for
+ * disabled routes.
+ */
+record CompiledRoute(RouteConfig config, FilterPipeline pipeline) {
+}
\ No newline at end of file
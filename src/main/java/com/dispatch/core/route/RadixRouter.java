@@ -0,0 +1,173 @@
+package com.dispatch.core.route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled radix tree router for route path patterns.
+ * <p>
+ * Supports exact paths ({@code /api/users}), prefix patterns ({@code /api/users/*},
+ * matching every path that starts with {@code /api/users}) and glob segments
+ * (<code>/api/&#42;/posts</code>, where {@code *} matches any characters within a
+ * single path segment). A lookup walks the request path once instead of testing
+ * every route. When several patterns match, the one added first wins, so routes
+ * keep their configuration order precedence.
+ * <p>
+ * The router is built once and then only read; instances are safely shared between
+ * threads once published.
+ */
+final class RadixRouter<T> {
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    
+    private final Node root = new Node("");
+    private final List<T> values = new ArrayList<>();
+    
+    /**
+     * Add a path pattern. Patterns added earlier take precedence over later ones.
+     */
+    void add(String pattern, T value) {
+        int ordinal = values.size();
+        values.add(value);
+        
+        boolean prefix = pattern.endsWith("/*");
+        String body = prefix ? pattern.substring(0, pattern.length() - 2) : pattern;
+        
+        Node node = root;
+        int start = 0;
+        while (true) {
+            int star = body.indexOf('*', start);
+            node = insertLiteral(node, star < 0 ? body.substring(start) : body.substring(start, star));
+            if (star < 0) {
+                break;
+            }
+            if (node.wildcard == null) {
+                node.wildcard = new Node("");
+            }
+            node = node.wildcard;
+            start = star + 1;
+        }
+        
+        if (prefix) {
+            node.prefixOrdinal = Math.min(node.prefixOrdinal, ordinal);
+        } else {
+            node.exactOrdinal = Math.min(node.exactOrdinal, ordinal);
+        }
+    }
+    
+    /**
+     * Find the highest precedence value whose pattern matches the path
+     * 
+     * @return the matching value, or null if no pattern matches
+     */
+    T match(String path) {
+        int best = search(root, path, 0, NO_MATCH);
+        return best == NO_MATCH ? null : values.get(best);
+    }
+    
+    int size() {
+        return values.size();
+    }
+    
+    private Node insertLiteral(Node node, String literal) {
+        int pos = 0;
+        while (pos < literal.length()) {
+            Node child = node.child(literal.charAt(pos));
+            if (child == null) {
+                child = new Node(literal.substring(pos));
+                node.addChild(child);
+                return child;
+            }
+            
+            int common = commonPrefixLength(child.label, literal, pos);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            node = child;
+            pos += common;
+        }
+        return node;
+    }
+    
+    /**
+     * Depth-first search; the node's label has already been matched up to pos
+     */
+    private int search(Node node, String path, int pos, int best) {
+        best = Math.min(best, node.prefixOrdinal);
+        if (pos == path.length()) {
+            best = Math.min(best, node.exactOrdinal);
+        } else {
+            Node child = node.child(path.charAt(pos));
+            if (child != null && path.startsWith(child.label, pos)) {
+                best = search(child, path, pos + child.label.length(), best);
+            }
+        }
+        
+        if (node.wildcard != null) {
+            int segmentEnd = path.indexOf('/', pos);
+            if (segmentEnd < 0) {
+                segmentEnd = path.length();
+            }
+            for (int end = pos; end <= segmentEnd; end++) {
+                best = search(node.wildcard, path, end, best);
+            }
+        }
+        return best;
+    }
+    
+    private static int commonPrefixLength(String label, String literal, int offset) {
+        int max = Math.min(label.length(), literal.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == literal.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static final class Node {
+        private String label;
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Node wildcard;
+        private int exactOrdinal = NO_MATCH;
+        private int prefixOrdinal = NO_MATCH;
+        
+        Node(String label) {
+            this.label = label;
+        }
+        
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        void addChild(Node child) {
+            int index = -(Arrays.binarySearch(keys, child.label.charAt(0)) + 1);
+            keys = insert(keys, index, child.label.charAt(0));
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+        
+        /**
+         * Split an existing child so its first {@code length} characters become a new intermediate node
+         */
+        Node split(Node child, int length) {
+            Node intermediate = new Node(child.label.substring(0, length));
+            child.label = child.label.substring(length);
+            intermediate.addChild(child);
+            children[Arrays.binarySearch(keys, intermediate.label.charAt(0))] = intermediate;
+            return intermediate;
+        }
+        
+        private static char[] insert(char[] array, int index, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, index);
+            grown[index] = value;
+            System.arraycopy(array, index, grown, index + 1, array.length - index);
+            return grown;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.Body;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for a route: while a GET or HEAD is waiting on the backend, identical
+ * requests wait for its response instead of sending their own, so a popular resource
+ * that just expired from the cache costs the backend one request rather than a burst.
+ * <p>
+ * Requests are identical if they share a method, host, URI and the configured
+ * {@code key-headers}. Requests carrying any of the {@code credential-headers}
+ * (Authorization, Cookie and X-API-Key by default) always go on their own, since their
+ * responses may be private. Each waiter gets its own copy of the response
+ * sharing the body's buffer. A response that is marked private or no-store, or that
+ * sets a cookie, goes only to the request that sent it; the others then send their own. At most {@code max-waiters} requests join a backend
+ * request, and none join once it has been out for {@code max-age-ms}; later requests
+ * start a new one.
+ */
+public class RequestCoalescer {
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private volatile RouteConfig.SingleFlightConfig config;
+    
+    public RequestCoalescer(RouteConfig.SingleFlightConfig config) {
+        this(config, System::nanoTime);
+    }
+    
+    RequestCoalescer(RouteConfig.SingleFlightConfig config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+    }
+    
+    /**
+     * Apply new settings to requests from now on, keeping the flights in progress and
+     * the coalesced count
+     */
+    public void setConfig(RouteConfig.SingleFlightConfig config) {
+        this.config = config;
+    }
+    
+    /**
+     * Wait for the response to an identical request already in flight, or else make the
+     * call and let identical requests wait for it
+     */
+    public CompletableFuture<HttpResponse> send(HttpRequest request, Supplier<CompletableFuture<HttpResponse>> call) {
+        if (!isCoalescable(request)) {
+            return call.get();
+        }
+        String key = key(request);
+        while (true) {
+            long now = clock.getAsLong();
+            Flight flight = flights.get(key);
+            if (flight != null) {
+                CompletableFuture<HttpResponse> joined = flight.join(now, call);
+                if (joined != null) {
+                    coalesced.increment();
+                    return joined;
+                }
+            }
+            
+            // Lead a new flight, replacing one that's full, too old or just finished
+            Flight started = new Flight(now);
+            CompletableFuture<HttpResponse> response = started.join(now, call);
+            boolean installed = flight == null
+                ? flights.putIfAbsent(key, started) == null
+                : flights.replace(key, flight, started);
+            if (installed) {
+                started.send(key, call);
+                return response;
+            }
+        }
+    }
+    
+    /**
+     * Requests that joined another's backend request instead of sending their own
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    private boolean isCoalescable(HttpRequest request) {
+        if (!request.method().equals(HttpMethod.GET) && !request.method().equals(HttpMethod.HEAD)) {
+            return false;
+        }
+        for (String header : config.getCredentialHeaders()) {
+            if (request.headers().contains(header)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether a response may go to requests other than the one that asked for it
+     */
+    private static boolean isShareable(HttpResponse response) {
+        if (response.headers().contains("Set-Cookie")) {
+            return false;
+        }
+        for (String cacheControl : response.headers().getAll("Cache-Control")) {
+            for (String directive : cacheControl.split(",")) {
+                String name = directive.trim().toLowerCase();
+                if (name.startsWith("private") || name.equals("no-store")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Send a waiter's request on its own, after the flight it joined got a response
+     * that can't be shared
+     */
+    private static void sendAlone(Waiter waiter) {
+        CompletableFuture<HttpResponse> response;
+        try {
+            response = waiter.call().get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((r, error) -> {
+            if (error != null) {
+                waiter.response().completeExceptionally(error);
+            } else if (!waiter.response().complete(r)) {
+                r.release();
+            }
+        });
+    }
+    
+    private String key(HttpRequest request) {
+        StringBuilder key = new StringBuilder()
+            .append(request.method().name()).append(' ')
+            .append(request.getHeader("Host")).append(' ')
+            .append(request.uri());
+        for (String header : config.getKeyHeaders()) {
+            key.append('\n').append(header).append(':').append(String.join(",", request.headers().getAll(header)));
+        }
+        return key.toString();
+    }
+    
+    /**
+     * One backend request and the requests waiting for its response, the first of which
+     * is the one that sent it
+     */
+    private final class Flight {
+        private final long startNanos;
+        // Null once the response has been handed out
+        private List<Waiter> waiters = new ArrayList<>();
+        
+        Flight(long startNanos) {
+            this.startNanos = startNanos;
+        }
+        
+        /**
+         * A future for the flight's response, or null if it can't be joined
+         */
+        synchronized CompletableFuture<HttpResponse> join(long nowNanos, Supplier<CompletableFuture<HttpResponse>> call) {
+            RouteConfig.SingleFlightConfig config = RequestCoalescer.this.config;
+            if (waiters == null || waiters.size() > config.getMaxWaiters()
+                || nowNanos - startNanos > TimeUnit.MILLISECONDS.toNanos(config.getMaxAgeMs())) {
+                return null;
+            }
+            Waiter waiter = new Waiter(new CompletableFuture<>(), call);
+            waiters.add(waiter);
+            return waiter.response();
+        }
+        
+        void send(String key, Supplier<CompletableFuture<HttpResponse>> call) {
+            CompletableFuture<HttpResponse> response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((r, error) -> {
+                // Requests arriving from now on start a new flight
+                flights.remove(key, this);
+                complete(r, error);
+            });
+        }
+        
+        private void complete(HttpResponse response, Throwable error) {
+            List<Waiter> joined;
+            synchronized (this) {
+                joined = waiters;
+                waiters = null;
+            }
+            if (error != null) {
+                joined.forEach(waiter -> waiter.response().completeExceptionally(error));
+                return;
+            }
+            if (!isShareable(response)) {
+                if (!joined.get(0).response().complete(response)) {
+                    response.release();
+                }
+                joined.subList(1, joined.size()).forEach(RequestCoalescer::sendAlone);
+                return;
+            }
+            // Response filters may change headers and the server releases each body it
+            // writes, so every waiter gets its own headers and reference to the buffer
+            for (Waiter waiter : joined) {
+                HttpResponse copy = new HttpResponse(response.statusCode(), response.headers().copy(),
+                    Body.of(response.content().retainedBuffer()));
+                if (!waiter.response().complete(copy)) {
+                    copy.release();
+                }
+            }
+            response.release();
+        }
+    }
+    
+    /**
+     * A request waiting on a flight, and how to send it on its own
+     */
+    private record Waiter(CompletableFuture<HttpResponse> response, Supplier<CompletableFuture<HttpResponse>> call) {
+    }
+}
\ No newline at end of file
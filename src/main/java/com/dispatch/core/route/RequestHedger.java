@@ -0,0 +1,202 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.Constants;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.monitoring.LatencyHistogram;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a request (the hedge) if the first hasn't answered within a
+ * percentile of the route's recent latencies, takes whichever successful response
+ * arrives first and cancels the other. Hedging at the p95 costs roughly 5% more backend
+ * requests and cuts off the slowest tail.
+ * <p>
+ * An attempt that fails, with an error or a 5xx response, doesn't settle the request
+ * while the other is still running; the request only fails once every attempt sent has.
+ * <p>
+ * No hedges are sent until the route has recorded {@code min-samples} latencies in the
+ * current window.
+ */
+public class RequestHedger {
+    private static final Logger logger = LoggerFactory.getLogger(RequestHedger.class);
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private final Timer timer;
+    private final LatencyHistogram latencies;
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private volatile RouteConfig.HedgeConfig config;
+    
+    // The percentile is recomputed at most every DELAY_REFRESH_NANOS, not per request
+    private volatile long cachedDelayNanos = -1;
+    private volatile long cachedAtNanos = System.nanoTime() - DELAY_REFRESH_NANOS;
+    
+    public RequestHedger(RouteConfig.HedgeConfig config, Timer timer) {
+        this(config, timer, new LatencyHistogram(Constants.HEDGE_LATENCY_WINDOW_MS));
+    }
+    
+    RequestHedger(RouteConfig.HedgeConfig config, Timer timer, LatencyHistogram latencies) {
+        this.config = config;
+        this.timer = timer;
+        this.latencies = latencies;
+    }
+    
+    /**
+     * Apply new settings, keeping the recorded latencies and the hedge counts
+     */
+    public void setConfig(RouteConfig.HedgeConfig config) {
+        this.config = config;
+        cachedAtNanos = System.nanoTime() - DELAY_REFRESH_NANOS;
+    }
+    
+    /**
+     * Send a request, hedging it if it's slow
+     * 
+     * @param send Sends the first attempt
+     * @param sendHedge Sends the hedge, e.g. to another endpoint
+     */
+    public CompletableFuture<HttpResponse> send(Supplier<CompletableFuture<HttpResponse>> send,
+                                                Supplier<CompletableFuture<HttpResponse>> sendHedge) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<HttpResponse> primary = send.get();
+        // Recorded even if the attempt is cancelled, so the tail that hedging cuts off
+        // still counts towards the percentile
+        primary.whenComplete((response, error) -> latencies.record(System.nanoTime() - startNanos));
+        
+        long delayNanos = hedgeDelayNanos();
+        if (delayNanos < 0) {
+            return primary;
+        }
+        
+        Attempts attempts = new Attempts();
+        AtomicReference<CompletableFuture<HttpResponse>> hedge = new AtomicReference<>();
+        
+        Timeout timeout = timer.newTimeout(t -> {
+            if (!attempts.startHedge()) {
+                return;
+            }
+            hedgesSent.increment();
+            logger.debug("Hedging request after {}us", delayNanos / 1000);
+            CompletableFuture<HttpResponse> second = sendHedge.get();
+            hedge.set(second);
+            second.whenComplete((response, error) -> {
+                if (attempts.settle(response, error)) {
+                    hedgesWon.increment();
+                    primary.cancel(false);
+                }
+            });
+            if (attempts.result.isDone() && !second.isDone()) {
+                second.cancel(false);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        
+        primary.whenComplete((response, error) -> {
+            boolean won = attempts.settle(response, error);
+            if (attempts.result.isDone()) {
+                timeout.cancel();
+            }
+            CompletableFuture<HttpResponse> second = hedge.get();
+            if (won && second != null) {
+                second.cancel(false);
+            }
+        });
+        return attempts.result;
+    }
+    
+    /**
+     * Current delay before a hedge is sent, or -1 if there are too few samples to hedge
+     */
+    public long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        if (now - cachedAtNanos < DELAY_REFRESH_NANOS) {
+            return cachedDelayNanos;
+        }
+        RouteConfig.HedgeConfig config = this.config;
+        long delay = latencies.count() < config.getMinSamples()
+            ? -1
+            : Math.max(TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMs()),
+                latencies.percentileNanos(config.getPercentile()));
+        cachedDelayNanos = delay;
+        cachedAtNanos = now;
+        return delay;
+    }
+    
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+    
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+    
+    private static boolean isSuccess(HttpResponse response, Throwable error) {
+        return error == null && response.statusCode() < 500;
+    }
+    
+    /**
+     * The attempts of one request: the first success completes the result, and a failure
+     * only does once no other attempt is still running
+     */
+    private static final class Attempts {
+        final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        private int running = 1;
+        // The first failure, kept to complete the result with if every attempt fails
+        private HttpResponse failedResponse;
+        private Throwable failedError;
+        
+        /**
+         * Count the hedge as running, unless the request is already settled
+         */
+        synchronized boolean startHedge() {
+            if (result.isDone()) {
+                return false;
+            }
+            running++;
+            return true;
+        }
+        
+        /**
+         * Record an attempt's outcome. Returns true if it was the successful response that
+         * completed the result; a response that doesn't complete it is released.
+         */
+        boolean settle(HttpResponse response, Throwable error) {
+            HttpResponse release = null;
+            boolean won = false;
+            synchronized (this) {
+                running--;
+                if (result.isDone()) {
+                    release = response;
+                } else if (isSuccess(response, error)) {
+                    won = result.complete(response);
+                    release = failedResponse;
+                } else if (failedResponse == null && failedError == null) {
+                    failedResponse = response;
+                    failedError = error;
+                } else {
+                    release = response;
+                }
+                if (!result.isDone() && running == 0) {
+                    if (failedError != null) {
+                        result.completeExceptionally(failedError);
+                    } else {
+                        result.complete(failedResponse);
+                    }
+                }
+            }
+            if (release != null) {
+                release.release();
+            }
+            return won;
+        }
+    }
+}
\ No newline at end of file
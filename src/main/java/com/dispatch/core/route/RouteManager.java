@@ -1,94 +1,276 @@
 package com.dispatch.core.route;
 
 import com.dispatch.client.BackendClient;
+import com.dispatch.client.CircuitBreakerBackendClient;
+import com.dispatch.client.IBackendClient;
+import com.dispatch.client.RetryPolicy;
 import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.config.RouteConfig;
 import com.dispatch.core.filter.*;
 import com.dispatch.core.Constants;
+import com.dispatch.core.Timers;
+import com.dispatch.core.circuit.CircuitBreakerOpenException;
 import com.dispatch.core.error.StandardErrors;
 import com.dispatch.core.filter.FilterExecutor;
 import com.dispatch.core.filter.FilterFactory;
+import com.dispatch.core.upstream.ActiveHealthCheck;
+import com.dispatch.core.upstream.Endpoint;
+import com.dispatch.core.upstream.LoadBalancer;
+import com.dispatch.core.upstream.LoadBalancers;
+import com.dispatch.core.upstream.OutlierDetector;
+import com.dispatch.core.upstream.UpstreamCluster;
+import com.dispatch.monitoring.MetricsRegistry;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class RouteManager implements IRouteManager {
     private static final Logger logger = LoggerFactory.getLogger(RouteManager.class);
     
-    private final List<RouteConfig> routes;
-    private final List<DispatchConfig.FilterConfig> globalFilters;
-    private final BackendClient backendClient;
+    private final IBackendClient backendClient;
+    // Kept across reloads, so breakers keep their state
+    private final CircuitBreakerBackendClient breakerClient;
+    private volatile IBackendClient proxyClient;
+    private volatile Map<String, UpstreamCluster> upstreams = Map.of();
+    private volatile Map<String, OutlierDetector> outlierDetectors = Map.of();
+    // By route path, kept across reloads so their counts and gauges carry over
+    private volatile Map<String, RequestHedger> hedgers = Map.of();
+    private volatile Map<String, RequestCoalescer> coalescers = Map.of();
+    private List<ActiveHealthCheck> healthChecks = List.of();
+    // Guarded by this, by probe timeout; kept across reloads
+    private final Map<Long, IBackendClient> probeClients = new HashMap<>();
+    private volatile RadixRouter<CompiledRoute> router;
+    private volatile boolean hasStreamingRoutes;
     
     public RouteManager(DispatchConfig config) {
-        this.routes = new ArrayList<>(config.getRoutes());
-        this.globalFilters = new ArrayList<>(config.getGlobalFilters());
-        this.backendClient = new BackendClient();
+        this(config, new BackendClient());
+    }
+    
+    public RouteManager(DispatchConfig config, IBackendClient backendClient) {
+        this.backendClient = backendClient;
+        this.breakerClient = backendClient != null
+            ? new CircuitBreakerBackendClient(backendClient, config.getCircuitBreaker()) : null;
+        this.upstreams = compileUpstreams(config);
+        this.outlierDetectors = startOutlierDetection(config);
+        this.proxyClient = createProxyClient(config);
+        this.hedgers = compileHedgers(config);
+        this.coalescers = compileCoalescers(config);
+        this.router = compileRoutes(config);
+        this.hasStreamingRoutes = hasStreamingRoutes(config);
+        startHealthChecks(config);
+    }
+    
+    /**
+     * Rebuild the compiled route pipelines from a new configuration. Requests already
+     * in flight keep running on the pipelines they started with.
+     */
+    public void reload(DispatchConfig config) {
+        this.upstreams = compileUpstreams(config);
+        this.outlierDetectors = startOutlierDetection(config);
+        this.proxyClient = createProxyClient(config);
+        this.hedgers = compileHedgers(config);
+        this.coalescers = compileCoalescers(config);
+        this.router = compileRoutes(config);
+        this.hasStreamingRoutes = hasStreamingRoutes(config);
+        startHealthChecks(config);
+        logger.info("Reloaded {} routes", router.size());
+    }
+    
+    /**
+     * Whether requests for the given path are proxied without buffering their bodies
+     */
+    public boolean isStreamingRoute(String path) {
+        if (!hasStreamingRoutes) {
+            return false;
+        }
+        CompiledRoute route = router.match(path);
+        return route != null && route.pipeline() != null && isStreaming(route.config());
     }
     
     public CompletableFuture<FilterResult> processRequest(HttpRequest request, FilterContext context) {
         // Find matching route
-        RouteConfig matchingRoute = findMatchingRoute(request.path());
+        CompiledRoute matchingRoute = router.match(request.path());
         
         if (matchingRoute == null) {
             logger.debug("No matching route found for path: {}", request.path());
-            String requestId = context.getAttribute("requestId", String.class);
+            String requestId = context.get(StandardAttributes.REQUEST_ID);
             return CompletableFuture.completedFuture(
                 StandardErrors.noRouteFound(requestId)
             );
         }
         
-        if (!matchingRoute.isEnabled()) {
-            logger.debug("Route {} is disabled", matchingRoute.getPath());
-            String requestId = context.getAttribute("requestId", String.class);
+        RouteConfig routeConfig = matchingRoute.config();
+        
+        if (matchingRoute.pipeline() == null) {
+            logger.debug("Route {} is disabled", routeConfig.getPath());
+            String requestId = context.get(StandardAttributes.REQUEST_ID);
             return CompletableFuture.completedFuture(
                 StandardErrors.backendUnavailable(requestId)
             );
         }
         
-        logger.debug("Found matching route: {} for path: {}", matchingRoute.getPath(), request.path());
+        logger.debug("Found matching route: {} for path: {}", routeConfig.getPath(), request.path());
         
         // Store route info in context
-        context.setAttribute("route.config", matchingRoute);
-        context.setAttribute("route.path", matchingRoute.getPath());
-        
-        // Create combined filter chain (global + route-specific)
-        List<GatewayFilter> filters = createFilterChain(matchingRoute);
+        context.set(StandardAttributes.ROUTE_CONFIG, routeConfig);
+        context.set(StandardAttributes.ROUTE_PATH, routeConfig.getPath());
         
-        // Add backend handler at the end based on route type
-        if (matchingRoute.isStaticRoute()) {
-            filters.add(new StaticResponseFilter(matchingRoute));
-        } else if (matchingRoute.isProxyRoute()) {
-            filters.add(new ProxyFilter(matchingRoute));
+        // Walk the route's precompiled pipeline (global + route filters + backend handler)
+        return matchingRoute.pipeline().execute(request, context);
+    }
+    
+    /**
+     * Upstream clusters by name
+     */
+    public Map<String, UpstreamCluster> getUpstreams() {
+        return upstreams;
+    }
+    
+    /**
+     * Build the upstream clusters, keeping clusters whose endpoints haven't changed so
+     * their statistics survive a reload. A cluster's gauges are registered once, when
+     * it's created, since gauges of the same name from each source are summed.
+     */
+    private Map<String, UpstreamCluster> compileUpstreams(DispatchConfig config) {
+        Map<String, UpstreamCluster> previous = upstreams;
+        Map<String, UpstreamCluster> clusters = new HashMap<>();
+        config.getUpstreams().forEach((name, upstream) -> {
+            UpstreamCluster existing = previous.get(name);
+            if (existing != null && existing.hasEndpoints(upstream.getEndpoints())) {
+                clusters.put(name, existing);
+                return;
+            }
+            UpstreamCluster cluster = new UpstreamCluster(name, upstream.getEndpoints());
+            MetricsRegistry registry = MetricsRegistry.global();
+            registry.gauge("upstream.healthy-endpoints[" + name + "]", cluster, UpstreamCluster::healthyCount);
+            registry.gauge("upstream.ejected-endpoints[" + name + "]", cluster, UpstreamCluster::ejectedCount);
+            registry.gauge("upstream.ejections[" + name + "]", cluster, UpstreamCluster::ejectionCount);
+            for (OutlierDetector.Reason reason : OutlierDetector.Reason.values()) {
+                registry.gauge("upstream.ejections." + reason.label() + "[" + name + "]", cluster,
+                    c -> c.ejections(reason));
+            }
+            clusters.put(name, cluster);
+        });
+        return Map.copyOf(clusters);
+    }
+    
+    /**
+     * The client proxied requests are sent through: the backend client behind a circuit
+     * breaker per backend URL, unless breakers are disabled. Health check probes bypass
+     * the breakers, since they're how an ejected endpoint shows it has recovered.
+     * A reload applies the new breaker settings but keeps each breaker's state.
+     */
+    private IBackendClient createProxyClient(DispatchConfig config) {
+        if (breakerClient == null) {
+            return backendClient;
         }
-        
-        // Execute filters sequentially using shared executor
-        return FilterExecutor.executeFilters(filters, request, context);
+        breakerClient.setConfig(config.getCircuitBreaker());
+        return config.getCircuitBreaker().isEnabled() ? breakerClient : backendClient;
     }
     
-    private RouteConfig findMatchingRoute(String path) {
-        return routes.stream()
-            .filter(route -> route.matches(path))
-            .findFirst()
-            .orElse(null);
+    /**
+     * Replace the running outlier detectors with ones for the current clusters. Stopping
+     * a detector returns the endpoints it ejected, so ejections don't outlive a reload.
+     */
+    private synchronized Map<String, OutlierDetector> startOutlierDetection(DispatchConfig config) {
+        outlierDetectors.values().forEach(OutlierDetector::stop);
+        Map<String, OutlierDetector> detectors = new HashMap<>();
+        upstreams.forEach((name, cluster) -> {
+            DispatchConfig.OutlierDetectionConfig outlierDetection = config.getUpstreams().get(name).getOutlierDetection();
+            if (outlierDetection == null) {
+                return;
+            }
+            OutlierDetector detector = new OutlierDetector(cluster, outlierDetection, Timers.shared());
+            detector.start();
+            detectors.put(name, detector);
+        });
+        return Map.copyOf(detectors);
     }
     
-    private List<GatewayFilter> createFilterChain(RouteConfig route) {
-        List<GatewayFilter> filters = new ArrayList<>();
-        
-        // Add global filters first
-        for (DispatchConfig.FilterConfig filterConfig : globalFilters) {
+    /**
+     * Replace the running health checks with ones for the current clusters. A cluster
+     * kept across a reload keeps its endpoints' health; one no longer checked has every
+     * endpoint marked up again.
+     */
+    private synchronized void startHealthChecks(DispatchConfig config) {
+        healthChecks.forEach(ActiveHealthCheck::stop);
+        List<ActiveHealthCheck> checks = new ArrayList<>();
+        upstreams.forEach((name, cluster) -> {
+            DispatchConfig.HealthCheckConfig healthCheck = config.getUpstreams().get(name).getHealthCheck();
+            if (healthCheck == null || backendClient == null) {
+                for (Endpoint endpoint : cluster.allEndpoints()) {
+                    cluster.setHealthy(endpoint, true);
+                }
+                return;
+            }
+            ActiveHealthCheck check = new ActiveHealthCheck(cluster, healthCheck, probeClient(healthCheck), Timers.shared());
+            check.start();
+            checks.add(check);
+        });
+        healthChecks = checks;
+    }
+    
+    /**
+     * The client to probe with. Probes through the JDK client use one that never retries,
+     * so they don't draw on the retry budget of live traffic, and whose request timeout is
+     * the probe timeout, so a probe that times out doesn't keep its request running.
+     */
+    private IBackendClient probeClient(DispatchConfig.HealthCheckConfig healthCheck) {
+        if (!(backendClient instanceof BackendClient)) {
+            return backendClient;
+        }
+        return probeClients.computeIfAbsent(healthCheck.getTimeoutMs(), timeoutMs -> {
+            Duration timeout = Duration.ofMillis(timeoutMs);
+            return new BackendClient(timeout, timeout, new RetryPolicy(0));
+        });
+    }
+    
+    private RadixRouter<CompiledRoute> compileRoutes(DispatchConfig config) {
+        // Global filters are instantiated once and shared by every route pipeline
+        List<GatewayFilter> globalFilters = new ArrayList<>();
+        for (DispatchConfig.FilterConfig filterConfig : config.getGlobalFilters()) {
             GatewayFilter filter = FilterFactory.createFilter(filterConfig);
             if (filter != null) {
-                filters.add(filter);
+                globalFilters.add(filter);
             }
         }
         
+        // Routes keep configuration order precedence inside the router
+        RadixRouter<CompiledRoute> compiled = new RadixRouter<>();
+        for (RouteConfig route : config.getRoutes()) {
+            if (route.getPath() == null) {
+                logger.warn("Ignoring route without a path (type: {})", route.getType());
+                continue;
+            }
+            compiled.add(route.getPath(), compileRoute(route, globalFilters, config));
+        }
+        return compiled;
+    }
+    
+    private static boolean hasStreamingRoutes(DispatchConfig config) {
+        return config.getRoutes().stream().anyMatch(RouteManager::isStreaming);
+    }
+    
+    private static boolean isStreaming(RouteConfig route) {
+        return route.isStreaming() && route.isProxyRoute();
+    }
+    
+    private CompiledRoute compileRoute(RouteConfig route, List<GatewayFilter> globalFilters, DispatchConfig config) {
+        if (!route.isEnabled()) {
+            return new CompiledRoute(route, null);
+        }
+        
+        List<GatewayFilter> filters = new ArrayList<>(globalFilters);
+        
         // Add route-specific filters
         for (RouteConfig.FilterConfig filterConfig : route.getFilters()) {
             GatewayFilter filter = FilterFactory.createFilter(filterConfig);
@@ -97,25 +279,102 @@ public class RouteManager implements IRouteManager {
             }
         }
         
-        return filters;
+        // Add backend handler at the end based on route type
+        if (route.isStaticRoute()) {
+            filters.add(new StaticResponseFilter(route));
+        } else if (route.isProxyRoute()) {
+            filters.add(new ProxyFilter(route, config.getUpstreams().get(route.getBackend())));
+        }
+        
+        logger.debug("Compiled route {} with {} filters", route.getPath(), filters.size());
+        return new CompiledRoute(route, new FilterPipeline(filters));
     }
     
-    
-    
     public void shutdown() {
+        synchronized (this) {
+            healthChecks.forEach(ActiveHealthCheck::stop);
+            outlierDetectors.values().forEach(OutlierDetector::stop);
+            probeClients.values().forEach(IBackendClient::shutdown);
+        }
         if (backendClient != null) {
             backendClient.shutdown();
         }
     }
     
+    /**
+     * Hedgers for the proxy routes that hedge, keeping the previous hedger for a path so
+     * a reload only changes its settings
+     */
+    private Map<String, RequestHedger> compileHedgers(DispatchConfig config) {
+        Map<String, RequestHedger> previous = hedgers;
+        Map<String, RequestHedger> compiled = new HashMap<>();
+        for (RouteConfig route : config.getRoutes()) {
+            if (route.getPath() == null || !route.isProxyRoute() || route.getHedge() == null || route.isStreaming()) {
+                continue;
+            }
+            RequestHedger hedger = previous.get(route.getPath());
+            if (hedger != null) {
+                hedger.setConfig(route.getHedge());
+            } else {
+                hedger = new RequestHedger(route.getHedge(), Timers.shared());
+                MetricsRegistry registry = MetricsRegistry.global();
+                registry.gauge("proxy.hedges.sent[" + route.getPath() + "]", hedger, RequestHedger::getHedgesSent);
+                registry.gauge("proxy.hedges.won[" + route.getPath() + "]", hedger, RequestHedger::getHedgesWon);
+            }
+            compiled.put(route.getPath(), hedger);
+        }
+        return Map.copyOf(compiled);
+    }
+    
+    /**
+     * Coalescers for the proxy routes with single-flight, kept across reloads the same way
+     * as hedgers
+     */
+    private Map<String, RequestCoalescer> compileCoalescers(DispatchConfig config) {
+        Map<String, RequestCoalescer> previous = coalescers;
+        Map<String, RequestCoalescer> compiled = new HashMap<>();
+        for (RouteConfig route : config.getRoutes()) {
+            if (route.getPath() == null || !route.isProxyRoute() || route.getSingleFlight() == null
+                || route.isStreaming()) {
+                continue;
+            }
+            RequestCoalescer coalescer = previous.get(route.getPath());
+            if (coalescer != null) {
+                coalescer.setConfig(route.getSingleFlight());
+            } else {
+                coalescer = new RequestCoalescer(route.getSingleFlight());
+                MetricsRegistry.global().gauge("proxy.coalesced[" + route.getPath() + "]", coalescer,
+                    RequestCoalescer::getCoalescedCount);
+            }
+            compiled.put(route.getPath(), coalescer);
+        }
+        return Map.copyOf(compiled);
+    }
+    
     /**
      * Internal static response filter implementation
      */
-    private class StaticResponseFilter implements GatewayFilter {
+    private class StaticResponseFilter implements SynchronousGatewayFilter {
         private final RouteConfig route;
+        private final RouteConfig.StaticResponseConfig staticConfig;
+        private final byte[] body;
+        private final DefaultHttpHeaders headers;
         
         public StaticResponseFilter(RouteConfig route) {
             this.route = route;
+            this.staticConfig = route.getResponse();
+            
+            if (staticConfig != null) {
+                // Response body and headers are fixed, so build them once per route
+                this.body = staticConfig.getBody().getBytes();
+                this.headers = new DefaultHttpHeaders();
+                staticConfig.getHeaders().forEach(headers::set);
+                headers.set("Content-Type", staticConfig.getContentType());
+                headers.set("Content-Length", String.valueOf(body.length));
+            } else {
+                this.body = null;
+                this.headers = null;
+            }
         }
         
         @Override
@@ -129,35 +388,32 @@ public class RouteManager implements IRouteManager {
         }
         
         @Override
-        public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
-            RouteConfig.StaticResponseConfig staticConfig = route.getResponse();
+        public boolean alwaysApplies() {
+            return true;
+        }
+        
+        @Override
+        public FilterResult filter(HttpRequest request, FilterContext context) {
             if (staticConfig == null) {
-                String requestId = context.getAttribute("requestId", String.class);
-                return CompletableFuture.completedFuture(
-                    StandardErrors.internalServerError("Static response configuration missing", requestId)
-                );
+                String requestId = context.get(StandardAttributes.REQUEST_ID);
+                return StandardErrors.internalServerError("Static response configuration missing", requestId);
             }
             
             logger.debug("Returning static response for {} {} (status: {}, body: '{}')", 
                 request.method(), request.path(), staticConfig.getStatus(), staticConfig.getBody());
             
-            context.setAttribute("static.status", staticConfig.getStatus());
-            context.setAttribute("static.body", staticConfig.getBody());
-            context.setAttribute("static.content-type", staticConfig.getContentType());
-            
-            // Create response headers
-            DefaultHttpHeaders responseHeaders = new DefaultHttpHeaders();
-            staticConfig.getHeaders().forEach(responseHeaders::set);
-            responseHeaders.set("Content-Type", staticConfig.getContentType());
-            responseHeaders.set("Content-Length", String.valueOf(staticConfig.getBody().getBytes().length));
+            context.setLong(StandardAttributes.STATIC_STATUS, staticConfig.getStatus());
+            context.set(StandardAttributes.STATIC_BODY, staticConfig.getBody());
+            context.set(StandardAttributes.STATIC_CONTENT_TYPE, staticConfig.getContentType());
             
+            // Response filters may modify headers, so each response gets its own copy
             HttpResponse response = new HttpResponse(
                 staticConfig.getStatus(),
-                responseHeaders,
-                staticConfig.getBody().getBytes()
+                headers.copy(),
+                body
             );
             
-            return CompletableFuture.completedFuture(FilterResult.respond(response));
+            return FilterResult.respond(response);
         }
     }
     
@@ -166,9 +422,32 @@ public class RouteManager implements IRouteManager {
      */
     private class ProxyFilter implements GatewayFilter {
         private final RouteConfig route;
+        private final UpstreamCluster cluster;
+        private final LoadBalancer balancer;
+        private final OutlierDetector outlierDetector;
+        private final RequestHedger hedger;
+        private final RequestCoalescer coalescer;
+        private final IBackendClient client;
         
-        public ProxyFilter(RouteConfig route) {
+        /**
+         * @param upstream The upstream cluster the route's backend names, or null if the
+         *                 backend is a URL
+         */
+        public ProxyFilter(RouteConfig route, DispatchConfig.UpstreamConfig upstream) {
             this.route = route;
+            if (upstream != null) {
+                this.cluster = upstreams.get(route.getBackend());
+                this.balancer = LoadBalancers.create(
+                    route.getLoadBalancer() != null ? route.getLoadBalancer() : upstream.getLoadBalancer());
+                this.outlierDetector = outlierDetectors.get(route.getBackend());
+            } else {
+                this.cluster = null;
+                this.balancer = null;
+                this.outlierDetector = null;
+            }
+            this.hedger = hedgers.get(route.getPath());
+            this.coalescer = coalescers.get(route.getPath());
+            this.client = proxyClient;
         }
         
         @Override
@@ -181,6 +460,11 @@ public class RouteManager implements IRouteManager {
             return true; // Already matched by route
         }
         
+        @Override
+        public boolean alwaysApplies() {
+            return true;
+        }
+        
         @Override
         public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
             String backend = route.getBackend();
@@ -193,28 +477,85 @@ public class RouteManager implements IRouteManager {
             String targetPath = route.transformPath(request.path());
             HttpRequest transformedRequest = transformRequest(request, targetPath);
             
+            Endpoint endpoint = cluster != null ? balancer.choose(cluster.endpoints()) : null;
+            String target = endpoint != null ? endpoint.url() : backend;
+            
             logger.debug("Proxying request {} {} to backend: {}", 
-                request.method(), request.path(), backend);
+                request.method(), request.path(), target);
             
-            context.setAttribute("proxy.route", route.getPath());
-            context.setAttribute("proxy.backend", backend);
-            context.setAttribute("proxy.original-path", request.path());
-            context.setAttribute("proxy.target-path", targetPath);
+            context.set(StandardAttributes.PROXY_ROUTE, route.getPath());
+            context.set(StandardAttributes.PROXY_BACKEND, target);
+            context.set(StandardAttributes.PROXY_ORIGINAL_PATH, request.path());
+            context.set(StandardAttributes.PROXY_TARGET_PATH, targetPath);
             
-            return backendClient.proxyRequest(transformedRequest, backend)
+            long startNanos = System.nanoTime();
+            Supplier<CompletableFuture<HttpResponse>> call;
+            if (hedger != null && isHedgeable(request)) {
+                call = () -> hedger.send(
+                    () -> send(transformedRequest, endpoint, target),
+                    () -> sendHedge(transformedRequest, target));
+            } else {
+                call = () -> send(transformedRequest, endpoint, target);
+            }
+            CompletableFuture<HttpResponse> backendResponse = coalescer != null
+                ? coalescer.send(transformedRequest, call)
+                : call.get();
+            
+            return backendResponse
+                .whenComplete((response, throwable) -> 
+                    context.setLong(StandardAttributes.PROXY_RTT_NANOS, System.nanoTime() - startNanos))
                 .thenApply(response -> {
                     logger.debug("Received response from backend: {} (status: {})", 
-                        backend, response.statusCode());
+                        target, response.statusCode());
                     return FilterResult.respond(response);
                 })
                 .exceptionally(throwable -> {
+                    String requestId = context.get(StandardAttributes.REQUEST_ID);
+                    if (throwable instanceof CircuitBreakerOpenException
+                            || throwable.getCause() instanceof CircuitBreakerOpenException) {
+                        logger.debug("Circuit breaker rejected {} {} to {}", request.method(), request.path(), target);
+                        return StandardErrors.circuitOpen(requestId);
+                    }
                     logger.error("Proxy request failed for {} {} to {}", 
-                        request.method(), request.path(), backend, throwable);
-                    String requestId = context.getAttribute("requestId", String.class);
+                        request.method(), request.path(), target, throwable);
                     return StandardErrors.backendUnavailable(requestId);
                 });
         }
         
+        private CompletableFuture<HttpResponse> send(HttpRequest request, Endpoint endpoint, String target) {
+            CompletableFuture<HttpResponse> response = route.isStreaming()
+                ? client.proxyStreamingRequest(request, target)
+                : client.proxyRequest(request, target);
+            if (endpoint == null) {
+                return response;
+            }
+            endpoint.track(response);
+            return outlierDetector != null ? outlierDetector.track(endpoint, response) : response;
+        }
+        
+        /**
+         * A hedge goes to the configured hedge backend, or else to an endpoint picked
+         * afresh from the cluster, or else to the same backend
+         */
+        private CompletableFuture<HttpResponse> sendHedge(HttpRequest request, String target) {
+            String hedgeBackend = route.getHedge().getBackend();
+            if (hedgeBackend != null) {
+                return client.proxyRequest(request, hedgeBackend);
+            }
+            if (cluster != null) {
+                Endpoint endpoint = balancer.choose(cluster.endpoints());
+                return send(request, endpoint, endpoint.url());
+            }
+            return client.proxyRequest(request, target);
+        }
+        
+        /**
+         * Only safe methods are hedged, since the backend may see the request twice
+         */
+        private boolean isHedgeable(HttpRequest request) {
+            return request.method().equals(HttpMethod.GET) || request.method().equals(HttpMethod.HEAD);
+        }
+        
         private HttpRequest transformRequest(HttpRequest originalRequest, String newPath) {
             String newUri = newPath;
             int queryIndex = originalRequest.uri().indexOf('?');
@@ -222,13 +563,8 @@ public class RouteManager implements IRouteManager {
                 newUri += originalRequest.uri().substring(queryIndex);
             }
             
-            return new HttpRequest(
-                originalRequest.method(),
-                newUri,
-                originalRequest.headers(),
-                originalRequest.body(),
-                originalRequest.remoteAddress()
-            );
+            // Shares the original body; the server releases it through the original request
+            return originalRequest.withUri(newUri);
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.dispatch.core.server;
 
+import com.dispatch.core.filter.Body;
 import com.dispatch.core.filter.FilterContext;
 import com.dispatch.core.filter.FilterResult;
 import com.dispatch.core.route.RouteManager;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -12,58 +14,119 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
 
-public class DispatchHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+public class DispatchHandler extends SimpleChannelInboundHandler<HttpObject> {
     private static final Logger logger = LoggerFactory.getLogger(DispatchHandler.class);
     
     private final RouteManager routeManager;
     private final ExecutorService virtualThreadExecutor;
     
+    // Event loop only: body of the streaming request being read and the response being written
+    private InboundBodyPublisher requestBody;
+    private ResponseBodyWriter responseBody;
+    
     public DispatchHandler(RouteManager routeManager, ExecutorService virtualThreadExecutor) {
         this.routeManager = routeManager;
         this.virtualThreadExecutor = virtualThreadExecutor;
     }
     
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest nettyRequest) {
-        // Copy the buffer content before async processing to avoid reference counting issues
-        byte[] body = new byte[nettyRequest.content().readableBytes()];
-        nettyRequest.content().readBytes(body);
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+        if (msg instanceof FullHttpRequest nettyRequest) {
+            handleFullRequest(ctx, nettyRequest);
+        } else if (msg instanceof HttpRequest nettyRequest) {
+            handleStreamingRequest(ctx, nettyRequest);
+        } else if (msg instanceof HttpContent content && requestBody != null) {
+            requestBody.onContent(content);
+            if (content instanceof LastHttpContent) {
+                requestBody = null;
+            }
+        }
+    }
+    
+    private void handleFullRequest(ChannelHandlerContext ctx, FullHttpRequest nettyRequest) {
+        // The aggregated content is released when this method returns, so keep our own
+        // reference instead of copying it; the request is released once it's been answered
+        Body body = Body.of(nettyRequest.content().retain());
         
         // Create a copy of the request data we need
         HttpMethod method = nettyRequest.method();
         String uri = nettyRequest.uri();
         HttpHeaders headers = nettyRequest.headers().copy();
         InetSocketAddress remoteAddress = (InetSocketAddress) ctx.channel().remoteAddress();
+        boolean keepAlive = HttpUtil.isKeepAlive(nettyRequest);
         
+        dispatch(ctx, () -> new com.dispatch.core.filter.HttpRequest(
+            method,
+            uri,
+            headers,
+            body,
+            remoteAddress
+        ), keepAlive, null);
+    }
+    
+    /**
+     * Start proxying a request to a streaming route. Filters run as soon as the
+     * headers arrive; the body follows through an {@link InboundBodyPublisher}.
+     */
+    private void handleStreamingRequest(ChannelHandlerContext ctx, HttpRequest nettyRequest) {
+        HttpMethod method = nettyRequest.method();
+        String uri = nettyRequest.uri();
+        HttpHeaders headers = nettyRequest.headers().copy();
+        InetSocketAddress remoteAddress = (InetSocketAddress) ctx.channel().remoteAddress();
+        boolean keepAlive = HttpUtil.isKeepAlive(nettyRequest);
+        
+        if (HttpUtil.is100ContinueExpected(nettyRequest)) {
+            ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
+            headers.remove(HttpHeaderNames.EXPECT);
+        }
+        
+        boolean hasBody = HttpUtil.isTransferEncodingChunked(nettyRequest)
+            || HttpUtil.getContentLength(nettyRequest, 0L) > 0;
+        InboundBodyPublisher body = hasBody ? new InboundBodyPublisher(ctx.channel()) : null;
+        requestBody = body;
+        
+        dispatch(ctx, () -> new com.dispatch.core.filter.HttpRequest(
+            method,
+            uri,
+            headers,
+            null,
+            remoteAddress,
+            body
+        ), keepAlive, body);
+    }
+    
+    private void dispatch(ChannelHandlerContext ctx, Supplier<com.dispatch.core.filter.HttpRequest> request,
+                          boolean keepAlive, InboundBodyPublisher body) {
         CompletableFuture.runAsync(() -> {
+            com.dispatch.core.filter.HttpRequest httpRequest = null;
             try {
-                processRequest(ctx, method, uri, headers, body, remoteAddress, nettyRequest);
+                httpRequest = request.get();
+                processRequest(ctx, httpRequest, keepAlive, body);
             } catch (Exception e) {
+                if (httpRequest != null) {
+                    httpRequest.release();
+                }
                 logger.error("Error processing request", e);
                 sendErrorResponse(ctx, HttpResponseStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
             }
         }, virtualThreadExecutor);
     }
     
-    private void processRequest(ChannelHandlerContext ctx, HttpMethod method, String uri, HttpHeaders headers, 
-                               byte[] body, InetSocketAddress remoteAddress, FullHttpRequest originalRequest) {
-        com.dispatch.core.filter.HttpRequest request = new com.dispatch.core.filter.HttpRequest(
-            method,
-            uri,
-            headers,
-            body,
-            remoteAddress
-        );
-        
+    private void processRequest(ChannelHandlerContext ctx, com.dispatch.core.filter.HttpRequest request,
+                                boolean keepAlive, InboundBodyPublisher body) {
         FilterContext context = new FilterContext(request);
         
         routeManager.processRequest(request, context)
+            .whenComplete((result, error) -> request.release())
             .thenAccept(result -> {
                 if (result instanceof FilterResult.Respond respond) {
-                    sendResponse(ctx, respond.response(), originalRequest);
+                    ctx.executor().execute(() -> sendResponse(ctx, respond.response(), keepAlive, body));
                 } else {
                     // If filters ran but none generated a response, it means no route was found
                     sendErrorResponse(ctx, HttpResponseStatus.NOT_FOUND, "Not Found");
@@ -76,21 +139,37 @@ public class DispatchHandler extends SimpleChannelInboundHandler<FullHttpRequest
             });
     }
     
-    private void sendResponse(ChannelHandlerContext ctx, com.dispatch.core.filter.HttpResponse response, FullHttpRequest originalRequest) {
+    private void sendResponse(ChannelHandlerContext ctx, com.dispatch.core.filter.HttpResponse response,
+                              boolean keepAlive, InboundBodyPublisher body) {
+        if (body != null && !body.isSubscribed()) {
+            // Nothing is going to read the request body, e.g. a filter rejected the request
+            body.discard();
+        }
+        
+        if (response.isStreaming()) {
+            sendStreamingResponse(ctx, response, keepAlive, body);
+            return;
+        }
+        
+        // Unless the whole request body has been read, the connection can't be reused
+        keepAlive = keepAlive && (body == null || body.isReceived());
+        
+        // The Netty response takes over the body's buffer and releases it once written
+        ByteBuf content = response.content().retainedBuffer();
+        response.release();
         FullHttpResponse nettyResponse = new DefaultFullHttpResponse(
             HttpVersion.HTTP_1_1,
             HttpResponseStatus.valueOf(response.statusCode()),
-            Unpooled.wrappedBuffer(response.body())
+            content
         );
         
         nettyResponse.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json");
-        nettyResponse.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.body().length);
+        nettyResponse.headers().set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
         
         response.headers().forEach(entry -> {
             nettyResponse.headers().set(entry.getKey(), entry.getValue());
         });
         
-        boolean keepAlive = HttpUtil.isKeepAlive(originalRequest);
         if (keepAlive) {
             nettyResponse.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
             ctx.writeAndFlush(nettyResponse);
@@ -99,6 +178,31 @@ public class DispatchHandler extends SimpleChannelInboundHandler<FullHttpRequest
         }
     }
     
+    /**
+     * Write the response head straight away and stream the body chunk by chunk,
+     * requesting the next chunk only while the client channel stays writable.
+     */
+    private void sendStreamingResponse(ChannelHandlerContext ctx, com.dispatch.core.filter.HttpResponse response,
+                                       boolean keepAlive, InboundBodyPublisher body) {
+        HttpResponseStatus status = HttpResponseStatus.valueOf(response.statusCode());
+        DefaultHttpResponse head = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+        head.headers().add(response.headers());
+        
+        if (!head.headers().contains(HttpHeaderNames.CONTENT_LENGTH) && mayHaveBody(status)) {
+            HttpUtil.setTransferEncodingChunked(head, true);
+        }
+        HttpUtil.setKeepAlive(head, keepAlive);
+        
+        ctx.write(head);
+        responseBody = new ResponseBodyWriter(ctx, keepAlive, body);
+        response.bodyStream().subscribe(responseBody);
+    }
+    
+    private static boolean mayHaveBody(HttpResponseStatus status) {
+        int code = status.code();
+        return code >= 200 && code != 204 && code != 304;
+    }
+    
     private void sendErrorResponse(ChannelHandlerContext ctx, HttpResponseStatus status, String message) {
         FullHttpResponse response = new DefaultFullHttpResponse(
             HttpVersion.HTTP_1_1,
@@ -112,9 +216,124 @@ public class DispatchHandler extends SimpleChannelInboundHandler<FullHttpRequest
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
     
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable() && responseBody != null) {
+            responseBody.resume();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+    
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (requestBody != null) {
+            requestBody.onError(new ClosedChannelException());
+            requestBody = null;
+        }
+        if (responseBody != null) {
+            responseBody.cancel();
+        }
+        super.channelInactive(ctx);
+    }
+    
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         logger.error("Exception in channel handler", cause);
         sendErrorResponse(ctx, HttpResponseStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
     }
+    
+    /**
+     * Writes a streamed response body to the client, one chunk in flight at a time
+     */
+    private class ResponseBodyWriter implements Flow.Subscriber<ByteBuf> {
+        private final ChannelHandlerContext ctx;
+        private final boolean keepAlive;
+        private final InboundBodyPublisher requestBody;
+        
+        // Set once the subscription arrives, which may be after the client has gone
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private boolean paused;
+        
+        ResponseBodyWriter(ChannelHandlerContext ctx, boolean keepAlive, InboundBodyPublisher requestBody) {
+            this.ctx = ctx;
+            this.keepAlive = keepAlive;
+            this.requestBody = requestBody;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+                return;
+            }
+            ctx.flush();
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onNext(ByteBuf chunk) {
+            ctx.writeAndFlush(new DefaultHttpContent(chunk)).addListener(future -> {
+                if (!future.isSuccess()) {
+                    cancel();
+                    ctx.close();
+                } else if (ctx.channel().isWritable()) {
+                    subscription.request(1);
+                } else {
+                    paused = true;
+                }
+            });
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            // Headers are already on the wire, so all that's left is to cut the response short
+            logger.error("Streaming response failed", throwable);
+            ctx.executor().execute(() -> {
+                finished();
+                ctx.close();
+            });
+        }
+        
+        @Override
+        public void onComplete() {
+            ctx.executor().execute(() -> {
+                finished();
+                // A backend may answer before the whole request body has been sent
+                if (keepAlive && (requestBody == null || requestBody.isReceived())) {
+                    ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+                } else {
+                    ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+                }
+            });
+        }
+        
+        void resume() {
+            Flow.Subscription current = subscription;
+            if (paused && current != null) {
+                paused = false;
+                current.request(1);
+            }
+        }
+        
+        /**
+         * Stop the body. If the subscription hasn't arrived yet it's cancelled on arrival,
+         * which aborts the backend exchange.
+         */
+        void cancel() {
+            finished();
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+        
+        private void finished() {
+            if (responseBody == this) {
+                responseBody = null;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.dispatch.core.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes an HTTP message body as it is read from a channel: the body of a
+ * streaming request from the client, or of a streamed response from a backend.
+ * <p>
+ * Backpressure is applied by toggling the channel's autoRead: reading stops as soon
+ * as a chunk is waiting with no outstanding demand and resumes when the subscriber
+ * requests more. All state is confined to the channel's event loop.
+ */
+public final class InboundBodyPublisher implements Flow.Publisher<ByteBuf> {
+    
+    private final Channel channel;
+    private final Runnable onCancel;
+    private final Queue<ByteBuf> pending = new ArrayDeque<>();
+    
+    private Flow.Subscriber<? super ByteBuf> subscriber;
+    private long demand;
+    private boolean received;
+    private Throwable failure;
+    private boolean done;
+    
+    public InboundBodyPublisher(Channel channel) {
+        this(channel, () -> { });
+    }
+    
+    /**
+     * @param onCancel run on the event loop if the subscriber cancels before the body has been read
+     */
+    public InboundBodyPublisher(Channel channel, Runnable onCancel) {
+        this.channel = channel;
+        this.onCancel = onCancel;
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuf> subscriber) {
+        channel.eventLoop().execute(() -> {
+            if (this.subscriber != null || done) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+                    
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("Request body can only be subscribed to once"));
+                return;
+            }
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new BodySubscription());
+            drain();
+        });
+    }
+    
+    /**
+     * Called on the event loop for each content chunk of the request
+     */
+    public void onContent(HttpContent content) {
+        if (content instanceof LastHttpContent) {
+            received = true;
+        }
+        if (done) {
+            return;
+        }
+        
+        ByteBuf buf = content.content();
+        if (buf.isReadable()) {
+            pending.add(buf.retain());
+        }
+        drain();
+    }
+    
+    /**
+     * Fail the body stream, e.g. because the client went away mid-request
+     */
+    public void onError(Throwable cause) {
+        if (!received && failure == null) {
+            failure = cause;
+            drain();
+        }
+    }
+    
+    /**
+     * Whether a subscriber has started consuming the body
+     */
+    public boolean isSubscribed() {
+        return subscriber != null;
+    }
+    
+    /**
+     * Whether the whole body has been read from the client
+     */
+    public boolean isReceived() {
+        return received;
+    }
+    
+    /**
+     * Drop any unconsumed body, e.g. when a filter responded without reading it
+     */
+    public void discard() {
+        done = true;
+        releasePending();
+        updateAutoRead();
+    }
+    
+    private void drain() {
+        if (subscriber != null && !done) {
+            while (demand > 0 && !pending.isEmpty()) {
+                demand--;
+                subscriber.onNext(pending.poll());
+            }
+            
+            if (pending.isEmpty() && (received || failure != null)) {
+                done = true;
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+        }
+        updateAutoRead();
+    }
+    
+    private void updateAutoRead() {
+        // Keep reading only while there is demand and nothing queued
+        boolean autoRead = done || received || (pending.isEmpty() && demand > 0);
+        if (channel.config().isAutoRead() != autoRead) {
+            channel.config().setAutoRead(autoRead);
+        }
+    }
+    
+    private void releasePending() {
+        ByteBuf buf;
+        while ((buf = pending.poll()) != null) {
+            buf.release();
+        }
+    }
+    
+    private class BodySubscription implements Flow.Subscription {
+        
+        @Override
+        public void request(long n) {
+            channel.eventLoop().execute(() -> {
+                if (n <= 0) {
+                    onError(new IllegalArgumentException("Requested " + n + " items, must be positive"));
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                drain();
+            });
+        }
+        
+        @Override
+        public void cancel() {
+            channel.eventLoop().execute(() -> {
+                boolean unread = !received && !done;
+                discard();
+                if (unread) {
+                    onCancel.run();
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
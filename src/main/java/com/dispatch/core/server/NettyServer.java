@@ -1,12 +1,11 @@
 package com.dispatch.core.server;
 
+import com.dispatch.core.Constants;
+import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.route.RouteManager;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
 import io.netty.handler.ssl.SslContext;
@@ -17,6 +16,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -27,35 +28,77 @@ public class NettyServer {
     private final int port;
     private final boolean sslEnabled;
     private final RouteManager routeManager;
+    private final int maxContentLength;
+    private final Transport transport;
+    private final int bossThreads;
+    private final int workerThreads;
+    private final boolean reusePort;
+    private final EventLoopGroup sharedWorkerGroup;
     private final ExecutorService virtualThreadExecutor;
     
+    private final List<Channel> serverChannels = new ArrayList<>();
+    
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
-    private Channel serverChannel;
     private SslContext sslContext;
     
     public NettyServer(int port, boolean sslEnabled, RouteManager routeManager) {
-        this.port = port;
-        this.sslEnabled = sslEnabled;
+        this(port, sslEnabled, routeManager, Constants.DEFAULT_MAX_REQUEST_SIZE);
+    }
+    
+    public NettyServer(int port, boolean sslEnabled, RouteManager routeManager, int maxContentLength) {
+        this(nioConfig(port, sslEnabled, maxContentLength), routeManager, Transport.NIO, null);
+    }
+    
+    /**
+     * @param transport         the transport for the server's event loops and channels
+     * @param sharedWorkerGroup worker event loops owned by the caller (e.g. shared with the
+     *                          backend client), or null for the server to create its own
+     */
+    public NettyServer(DispatchConfig.ServerConfig config, RouteManager routeManager, Transport transport,
+                       EventLoopGroup sharedWorkerGroup) {
+        this.port = config.getPort();
+        this.sslEnabled = config.getSsl().isEnabled();
         this.routeManager = routeManager;
+        this.maxContentLength = config.getMaxContentLength();
+        this.transport = transport;
+        this.workerThreads = config.getWorkerThreads();
+        this.sharedWorkerGroup = sharedWorkerGroup;
         this.virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        
+        // With SO_REUSEPORT each boss thread runs its own acceptor, so default to one per core
+        this.reusePort = config.isReusePort() && transport.supportsReusePort();
+        if (config.getBossThreads() > 0) {
+            this.bossThreads = config.getBossThreads();
+        } else {
+            this.bossThreads = reusePort ? Runtime.getRuntime().availableProcessors() : 1;
+        }
+    }
+    
+    private static DispatchConfig.ServerConfig nioConfig(int port, boolean sslEnabled, int maxContentLength) {
+        DispatchConfig.ServerConfig config = new DispatchConfig.ServerConfig();
+        config.setPort(port);
+        config.getSsl().setEnabled(sslEnabled);
+        config.setMaxContentLength(maxContentLength);
+        config.setReusePort(false);
+        return config;
     }
     
     public CompletableFuture<Void> start() {
         return CompletableFuture.runAsync(() -> {
             try {
-                logger.info("Starting Dispatch server on port {} (SSL: {})", port, sslEnabled);
+                logger.info("Starting Dispatch server on port {} (SSL: {}, transport: {})", port, sslEnabled, transport);
                 
                 if (sslEnabled) {
                     initializeSsl();
                 }
                 
-                bossGroup = new NioEventLoopGroup(1);
-                workerGroup = new NioEventLoopGroup();
+                bossGroup = transport.newEventLoopGroup(bossThreads);
+                workerGroup = sharedWorkerGroup != null ? sharedWorkerGroup : transport.newEventLoopGroup(workerThreads);
                 
                 ServerBootstrap bootstrap = new ServerBootstrap()
                     .group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(transport.serverChannelClass())
                     .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel ch) {
@@ -66,8 +109,9 @@ public class NettyServer {
                             }
                             
                             pipeline.addLast(new HttpRequestDecoder());
-                            pipeline.addLast(new HttpObjectAggregator(1048576)); // 1MB max request size
+                            // Ahead of the aggregator so its 100 Continue / 413 responses get encoded
                             pipeline.addLast(new HttpResponseEncoder());
+                            pipeline.addLast(new StreamingAwareAggregator(routeManager, maxContentLength));
                             pipeline.addLast(new DispatchHandler(routeManager, virtualThreadExecutor));
                         }
                     })
@@ -75,12 +119,22 @@ public class NettyServer {
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
                     .childOption(ChannelOption.TCP_NODELAY, true);
                 
-                ChannelFuture future = bootstrap.bind(port).sync();
-                serverChannel = future.channel();
+                // Each bind registers on the next boss event loop, giving one acceptor per thread
+                int acceptors = 1;
+                if (reusePort) {
+                    transport.enableReusePort(bootstrap);
+                    acceptors = bossThreads;
+                }
+                for (int i = 0; i < acceptors; i++) {
+                    ChannelFuture future = bootstrap.bind(port).sync();
+                    serverChannels.add(future.channel());
+                }
                 
-                logger.info("Dispatch server started successfully on port {}", port);
+                logger.info("Dispatch server started successfully on port {} ({} acceptor(s))", port, acceptors);
                 
-                serverChannel.closeFuture().sync();
+                for (Channel serverChannel : serverChannels) {
+                    serverChannel.closeFuture().sync();
+                }
                 
             } catch (Exception e) {
                 logger.error("Failed to start server", e);
@@ -102,7 +156,7 @@ public class NettyServer {
             logger.info("Shutting down Dispatch server...");
             
             try {
-                if (serverChannel != null) {
+                for (Channel serverChannel : serverChannels) {
                     serverChannel.close().sync();
                 }
             } catch (InterruptedException e) {
@@ -110,7 +164,7 @@ public class NettyServer {
                 logger.warn("Interrupted while closing server channel", e);
             }
             
-            if (workerGroup != null) {
+            if (workerGroup != null && workerGroup != sharedWorkerGroup) {
                 workerGroup.shutdownGracefully();
             }
             if (bossGroup != null) {
@@ -124,7 +178,7 @@ public class NettyServer {
     }
     
     public boolean isRunning() {
-        return serverChannel != null && serverChannel.isActive();
+        return serverChannels.stream().anyMatch(Channel::isActive);
     }
     
     public int getPort() {
@@ -134,4 +188,8 @@ public class NettyServer {
     public boolean isSslEnabled() {
         return sslEnabled;
     }
+    
+    public Transport getTransport() {
+        return transport;
+    }
 }
\ No newline at end of file
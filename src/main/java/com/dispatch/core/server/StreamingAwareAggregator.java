@@ -0,0 +1,39 @@
+package com.dispatch.core.server;
+
+import com.dispatch.core.route.RouteManager;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Aggregates requests into a FullHttpRequest as usual, except for requests to
+ * streaming routes whose head and content chunks are passed through untouched so
+ * the body can be forwarded as it arrives.
+ */
+class StreamingAwareAggregator extends HttpObjectAggregator {
+    
+    private final RouteManager routeManager;
+    private boolean streaming;
+    
+    StreamingAwareAggregator(RouteManager routeManager, int maxContentLength) {
+        super(maxContentLength);
+        this.routeManager = routeManager;
+    }
+    
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (msg instanceof HttpRequest request) {
+            streaming = routeManager.isStreamingRoute(new QueryStringDecoder(request.uri()).path());
+        }
+        
+        if (streaming) {
+            if (msg instanceof LastHttpContent) {
+                streaming = false;
+            }
+            return false;
+        }
+        
+        return super.acceptInboundMessage(msg);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.dispatch.core.server;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Netty transports in order of preference. The native transports are only used on
+ * Linux when their native library loads; NIO works everywhere.
+ */
+public enum Transport {
+    IO_URING {
+        @Override
+        public boolean isAvailable() {
+            try {
+                return IOUring.isAvailable();
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+        
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new IOUringEventLoopGroup(threads);
+        }
+        
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return IOUringServerSocketChannel.class;
+        }
+        
+        @Override
+        public Class<? extends SocketChannel> socketChannelClass() {
+            return IOUringSocketChannel.class;
+        }
+        
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+        
+        @Override
+        void enableReusePort(ServerBootstrap bootstrap) {
+            bootstrap.option(IOUringChannelOption.SO_REUSEPORT, true);
+        }
+    },
+    
+    EPOLL {
+        @Override
+        public boolean isAvailable() {
+            try {
+                return Epoll.isAvailable();
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+        
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+        
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+        
+        @Override
+        public Class<? extends SocketChannel> socketChannelClass() {
+            return EpollSocketChannel.class;
+        }
+        
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+        
+        @Override
+        void enableReusePort(ServerBootstrap bootstrap) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+    },
+    
+    NIO {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+        
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+        
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+        
+        @Override
+        public Class<? extends SocketChannel> socketChannelClass() {
+            return NioSocketChannel.class;
+        }
+        
+        @Override
+        public boolean supportsReusePort() {
+            return false;
+        }
+        
+        @Override
+        void enableReusePort(ServerBootstrap bootstrap) {
+            logger.warn("SO_REUSEPORT is not supported by the NIO transport, binding a single acceptor");
+        }
+    };
+    
+    private static final Logger logger = LoggerFactory.getLogger(Transport.class);
+    
+    public abstract boolean isAvailable();
+    
+    /**
+     * Create an event loop group for this transport; 0 threads means Netty's default (2 x cores)
+     */
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+    
+    public abstract Class<? extends ServerChannel> serverChannelClass();
+    
+    public abstract Class<? extends SocketChannel> socketChannelClass();
+    
+    /**
+     * Whether several server channels can bind the same port, each with its own acceptor
+     */
+    public abstract boolean supportsReusePort();
+    
+    /**
+     * Set SO_REUSEPORT on the bootstrap's server channel; a no-op on transports that
+     * don't {@link #supportsReusePort() support} it
+     */
+    abstract void enableReusePort(ServerBootstrap bootstrap);
+    
+    /**
+     * Resolve a configured transport name. "auto" picks the best available transport
+     * (io_uring, then epoll, then NIO); a named transport that isn't available on this
+     * host falls back the same way with a warning.
+     */
+    public static Transport select(String name) {
+        if (name == null || name.isBlank() || "auto".equalsIgnoreCase(name)) {
+            return best();
+        }
+        
+        Transport requested;
+        try {
+            requested = valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown transport '" + name + "', expected auto, io_uring, epoll or nio");
+        }
+        
+        if (requested.isAvailable()) {
+            return requested;
+        }
+        
+        Transport fallback = best();
+        logger.warn("Transport {} is not available on this host, falling back to {}", requested, fallback);
+        return fallback;
+    }
+    
+    private static Transport best() {
+        for (Transport transport : values()) {
+            if (transport.isAvailable()) {
+                return transport;
+            }
+        }
+        return NIO;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.client.IBackendClient;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes every endpoint of an upstream cluster with a GET on a fixed interval and marks
+ * it down after {@code unhealthy-threshold} consecutive failures, and up again after
+ * {@code healthy-threshold} consecutive passes. A probe passes on a 2xx or 3xx response
+ * within the timeout.
+ * <p>
+ * Probes go through the given backend client, which shouldn't retry them, and are
+ * scheduled on a shared timer, so checking an endpoint costs a timer slot, not a thread.
+ * Each endpoint's first probe is spread randomly over one interval so endpoints aren't
+ * all probed at once.
+ */
+public class ActiveHealthCheck {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveHealthCheck.class);
+    
+    private final UpstreamCluster cluster;
+    private final DispatchConfig.HealthCheckConfig config;
+    private final IBackendClient client;
+    private final Timer timer;
+    private volatile boolean stopped;
+    
+    public ActiveHealthCheck(UpstreamCluster cluster, DispatchConfig.HealthCheckConfig config,
+                             IBackendClient client, Timer timer) {
+        this.cluster = cluster;
+        this.config = config;
+        this.client = client;
+        this.timer = timer;
+    }
+    
+    public void start() {
+        long intervalMs = Math.max(1, config.getIntervalMs());
+        for (Endpoint endpoint : cluster.allEndpoints()) {
+            new Probe(endpoint).schedule(ThreadLocalRandom.current().nextLong(intervalMs));
+        }
+        logger.info("Health checking {} endpoints of upstream '{}' at {} every {}ms",
+            cluster.allEndpoints().length, cluster.name(), config.getPath(), intervalMs);
+    }
+    
+    /**
+     * Stop probing; a probe in flight finishes but isn't rescheduled
+     */
+    public void stop() {
+        stopped = true;
+    }
+    
+    public UpstreamCluster cluster() {
+        return cluster;
+    }
+    
+    /**
+     * The probe loop for one endpoint. Probes for an endpoint never overlap, so the
+     * counters are only touched by one thread at a time.
+     */
+    private class Probe {
+        private final Endpoint endpoint;
+        private int successes;
+        private int failures;
+        
+        Probe(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+        
+        void schedule(long delayMs) {
+            if (!stopped) {
+                timer.newTimeout(t -> run(), delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        void run() {
+            if (stopped) {
+                return;
+            }
+            HttpRequest request = new HttpRequest(HttpMethod.GET, config.getPath(), new DefaultHttpHeaders(), new byte[0], null);
+            CompletableFuture<HttpResponse> response;
+            try {
+                response = client.proxyRequest(request, endpoint.url());
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            
+            // Cancelling frees the backend connection of a probe that's hung
+            CompletableFuture<HttpResponse> pending = response;
+            Timeout timeout = timer.newTimeout(t -> pending.cancel(false), config.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            pending.whenComplete((r, error) -> {
+                timeout.cancel();
+                boolean passed = error == null && r.statusCode() >= 200 && r.statusCode() < 400;
+                if (r != null) {
+                    r.release();
+                }
+                record(passed, error != null ? error.toString() : "status " + r.statusCode());
+                schedule(config.getIntervalMs());
+            });
+        }
+        
+        private void record(boolean passed, String outcome) {
+            if (passed) {
+                failures = 0;
+                successes++;
+                if (!endpoint.isHealthy() && successes >= config.getHealthyThreshold()) {
+                    cluster.setHealthy(endpoint, true);
+                    logger.info("Upstream '{}' endpoint {} is healthy", cluster.name(), endpoint);
+                }
+            } else {
+                successes = 0;
+                failures++;
+                if (endpoint.isHealthy() && failures >= config.getUnhealthyThreshold()) {
+                    cluster.setHealthy(endpoint, false);
+                    logger.warn("Upstream '{}' endpoint {} is unhealthy after {} failed checks, last: {}",
+                        cluster.name(), endpoint, failures, outcome);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.core.filter.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One backend URL in an {@link UpstreamCluster}, with the live statistics load balancers
+ * pick by: requests in flight and a peak-sensitive moving average of response latency.
+ * All updates are lock-free.
+ */
+public final class Endpoint {
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    
+    // Cost reported for an endpoint with requests in flight but no latency measured yet,
+    // so unproven endpoints don't attract every request
+    private static final double PENALTY = 1e12;
+    
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private volatile long ewmaStampNanos = System.nanoTime();
+    private volatile boolean healthy = true;
+    private volatile boolean ejected;
+    
+    public Endpoint(String url) {
+        this.url = url;
+    }
+    
+    public String url() {
+        return url;
+    }
+    
+    /**
+     * Whether active health checks consider the endpoint up; true if it isn't checked
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+    
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+    
+    /**
+     * Whether outlier detection has taken the endpoint out of rotation
+     */
+    public boolean isEjected() {
+        return ejected;
+    }
+    
+    void setEjected(boolean ejected) {
+        this.ejected = ejected;
+    }
+    
+    /**
+     * Whether requests may be sent here: healthy and not ejected
+     */
+    public boolean isAvailable() {
+        return healthy && !ejected;
+    }
+    
+    public int outstanding() {
+        return outstanding.get();
+    }
+    
+    /**
+     * Account for a request sent to this endpoint until its response completes
+     */
+    public CompletableFuture<HttpResponse> track(CompletableFuture<HttpResponse> response) {
+        outstanding.incrementAndGet();
+        long startNanos = System.nanoTime();
+        response.whenComplete((r, e) -> {
+            outstanding.decrementAndGet();
+            observeLatency(System.nanoTime() - startNanos);
+        });
+        return response;
+    }
+    
+    /**
+     * Fold a latency sample into the moving average. A sample above the average replaces
+     * it outright, so the average reacts to slowdowns at once and recovers gradually.
+     */
+    void observeLatency(long nanos) {
+        long now = System.nanoTime();
+        double weight = Math.exp(-(now - ewmaStampNanos) / DECAY_NANOS);
+        ewmaStampNanos = now;
+        while (true) {
+            long bits = ewmaBits.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = nanos > current ? nanos : current * weight + nanos * (1 - weight);
+            if (ewmaBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Peak-EWMA latency in nanoseconds, or 0 before the first response
+     */
+    public double latencyEwmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+    
+    /**
+     * Expected cost of sending one more request here: latency scaled by queue depth
+     */
+    double cost() {
+        double latency = latencyEwmaNanos();
+        int pending = outstanding.get();
+        if (latency == 0) {
+            return pending == 0 ? 0 : PENALTY + pending;
+        }
+        return latency * (pending + 1);
+    }
+    
+    @Override
+    public String toString() {
+        return url;
+    }
+}
\ No newline at end of file
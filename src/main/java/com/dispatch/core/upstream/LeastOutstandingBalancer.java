@@ -0,0 +1,28 @@
+package com.dispatch.core.upstream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the endpoint with the fewest requests in flight, scanning from a rotating start
+ * so ties are spread across endpoints. Scans every endpoint, so it suits small clusters;
+ * {@link PowerOfTwoChoicesBalancer} gives nearly the same balance in constant time.
+ */
+public class LeastOutstandingBalancer implements LoadBalancer {
+    private final AtomicInteger start = new AtomicInteger();
+    
+    @Override
+    public Endpoint choose(Endpoint[] endpoints) {
+        int offset = Math.floorMod(start.getAndIncrement(), endpoints.length);
+        Endpoint best = endpoints[offset];
+        int fewest = best.outstanding();
+        for (int i = 1; i < endpoints.length && fewest > 0; i++) {
+            Endpoint candidate = endpoints[(offset + i) % endpoints.length];
+            int outstanding = candidate.outstanding();
+            if (outstanding < fewest) {
+                best = candidate;
+                fewest = outstanding;
+            }
+        }
+        return best;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.dispatch.core.upstream;
+
+/**
+ * Chooses the endpoint of an upstream cluster for each proxied request.
+ * <p>
+ * Implementations are selected per route by name (see {@link LoadBalancers}) or by the
+ * fully qualified name of a class with a public no-argument constructor. A balancer is
+ * called on every proxied request from many threads, so it must not block or take locks.
+ */
+public interface LoadBalancer {
+    
+    /**
+     * Pick one of the given endpoints
+     * 
+     * @param endpoints The eligible endpoints; never empty, and must not be modified
+     */
+    Endpoint choose(Endpoint[] endpoints);
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.dispatch.core.upstream;
+
+/**
+ * Creates load balancers by name
+ */
+public final class LoadBalancers {
+    
+    private LoadBalancers() {
+    }
+    
+    /**
+     * Create a built-in balancer ({@code round-robin}, {@code least-outstanding},
+     * {@code power-of-two-choices} or {@code peak-ewma}), or a custom {@link LoadBalancer}
+     * given by class name
+     * 
+     * @throws IllegalArgumentException if the name isn't a known balancer or loadable class
+     */
+    public static LoadBalancer create(String type) {
+        return switch (type.toLowerCase()) {
+            case "round-robin" -> new RoundRobinBalancer();
+            case "least-outstanding" -> new LeastOutstandingBalancer();
+            case "power-of-two-choices", "p2c" -> new PowerOfTwoChoicesBalancer();
+            case "peak-ewma" -> new PeakEwmaBalancer();
+            default -> loadCustom(type);
+        };
+    }
+    
+    private static LoadBalancer loadCustom(String className) {
+        try {
+            Class<?> type = Class.forName(className);
+            if (!LoadBalancer.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException(className + " does not implement " + LoadBalancer.class.getName());
+            }
+            return (LoadBalancer) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown load balancer '" + className 
+                + "', expected round-robin, least-outstanding, power-of-two-choices, peak-ewma or a class name", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.core.Constants;
+import com.dispatch.core.circuit.CircuitBreakerOpenException;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Watches the responses an upstream cluster's endpoints return and ejects endpoints that
+ * stand out: a run of 5xx responses, a run of gateway failures (connection errors,
+ * timeouts, 502, 503, 504), or a mean latency over the last interval far above the
+ * cluster's median. An ejected endpoint gets no requests until its ejection time is up.
+ * <p>
+ * Ejection time doubles each time an endpoint is ejected again, and halves back one step
+ * for every interval it then stays in rotation. No more than {@code max-ejection-percent}
+ * of the cluster is ejected at once, so a cluster-wide problem can't empty it.
+ */
+public class OutlierDetector {
+    private static final Logger logger = LoggerFactory.getLogger(OutlierDetector.class);
+    
+    public enum Reason {
+        CONSECUTIVE_5XX("consecutive-5xx"),
+        CONSECUTIVE_GATEWAY_FAILURES("consecutive-gateway-failures"),
+        LATENCY("latency");
+        
+        private final String label;
+        
+        Reason(String label) {
+            this.label = label;
+        }
+        
+        public String label() {
+            return label;
+        }
+    }
+    
+    private final UpstreamCluster cluster;
+    private final DispatchConfig.OutlierDetectionConfig config;
+    private final Timer timer;
+    private final LongSupplier clock;
+    private final Map<Endpoint, Stats> stats;
+    private volatile boolean stopped;
+    private Timeout sweep;
+    
+    public OutlierDetector(UpstreamCluster cluster, DispatchConfig.OutlierDetectionConfig config, Timer timer) {
+        this(cluster, config, timer, System::nanoTime);
+    }
+    
+    OutlierDetector(UpstreamCluster cluster, DispatchConfig.OutlierDetectionConfig config, Timer timer,
+                    LongSupplier clock) {
+        this.cluster = cluster;
+        this.config = config;
+        this.timer = timer;
+        this.clock = clock;
+        Map<Endpoint, Stats> stats = new IdentityHashMap<>();
+        for (Endpoint endpoint : cluster.allEndpoints()) {
+            stats.put(endpoint, new Stats());
+        }
+        this.stats = Collections.unmodifiableMap(stats);
+    }
+    
+    public synchronized void start() {
+        if (!stopped) {
+            sweep = timer.newTimeout(t -> {
+                sweep();
+                start();
+            }, Math.max(1, config.getIntervalMs()), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Stop detecting and return every ejected endpoint to rotation
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (sweep != null) {
+            sweep.cancel();
+        }
+        for (Endpoint endpoint : cluster.allEndpoints()) {
+            cluster.setEjected(endpoint, false);
+        }
+    }
+    
+    /**
+     * Watch the outcome of a request sent to one of the cluster's endpoints
+     */
+    public CompletableFuture<HttpResponse> track(Endpoint endpoint, CompletableFuture<HttpResponse> response) {
+        Stats endpointStats = stats.get(endpoint);
+        if (endpointStats == null) {
+            return response;
+        }
+        long startNanos = clock.getAsLong();
+        response.whenComplete((r, error) -> {
+            if (!stopped && !isUnsent(error)) {
+                record(endpoint, endpointStats, r, error, clock.getAsLong() - startNanos);
+            }
+        });
+        return response;
+    }
+    
+    private void record(Endpoint endpoint, Stats endpointStats, HttpResponse response, Throwable error,
+                        long latencyNanos) {
+        endpointStats.requests.increment();
+        endpointStats.latencyNanos.add(latencyNanos);
+        
+        int status = error != null ? 0 : response.statusCode();
+        boolean serverError = error != null || status >= 500;
+        boolean gatewayFailure = error != null || status == 502 || status == 503 || status == 504;
+        
+        if (!serverError) {
+            endpointStats.consecutive5xx.set(0);
+        } else if (config.getConsecutive5xx() > 0
+                && endpointStats.consecutive5xx.incrementAndGet() >= config.getConsecutive5xx()) {
+            eject(endpoint, endpointStats, Reason.CONSECUTIVE_5XX);
+        }
+        
+        if (!gatewayFailure) {
+            endpointStats.consecutiveGatewayFailures.set(0);
+        } else if (config.getConsecutiveGatewayFailures() > 0
+                && endpointStats.consecutiveGatewayFailures.incrementAndGet() >= config.getConsecutiveGatewayFailures()) {
+            eject(endpoint, endpointStats, Reason.CONSECUTIVE_GATEWAY_FAILURES);
+        }
+    }
+    
+    private synchronized void eject(Endpoint endpoint, Stats endpointStats, Reason reason) {
+        if (stopped || endpoint.isEjected()) {
+            return;
+        }
+        int endpoints = cluster.allEndpoints().length;
+        int maxEjected = Math.max(1, endpoints * config.getMaxEjectionPercent() / 100);
+        if (cluster.ejectedCount() >= maxEjected) {
+            logger.debug("Not ejecting upstream '{}' endpoint {} ({}): {} of {} already ejected",
+                cluster.name(), endpoint, reason.label(), maxEjected, endpoints);
+            return;
+        }
+        
+        long ejectionMs = Math.min(config.getMaxEjectionTimeMs(),
+            config.getBaseEjectionTimeMs() << Math.min(endpointStats.multiplier, 20));
+        endpointStats.multiplier++;
+        endpointStats.ejectedUntilNanos = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        endpointStats.consecutive5xx.set(0);
+        endpointStats.consecutiveGatewayFailures.set(0);
+        cluster.setEjected(endpoint, true);
+        cluster.countEjection(reason);
+        logger.warn("Ejected upstream '{}' endpoint {} for {}ms ({})", cluster.name(), endpoint, ejectionMs, reason.label());
+    }
+    
+    /**
+     * Return endpoints whose ejection is over, then compare the interval's latencies.
+     * Runs every {@code interval-ms}.
+     */
+    synchronized void sweep() {
+        if (stopped) {
+            return;
+        }
+        long now = clock.getAsLong();
+        List<Endpoint> measured = new ArrayList<>();
+        List<Double> means = new ArrayList<>();
+        
+        for (Endpoint endpoint : cluster.allEndpoints()) {
+            Stats endpointStats = stats.get(endpoint);
+            long requests = endpointStats.requests.sumThenReset();
+            long latencyNanos = endpointStats.latencyNanos.sumThenReset();
+            if (endpoint.isEjected()) {
+                if (now - endpointStats.ejectedUntilNanos >= 0) {
+                    cluster.setEjected(endpoint, false);
+                    logger.info("Returned upstream '{}' endpoint {} to rotation", cluster.name(), endpoint);
+                }
+                continue;
+            }
+            if (endpointStats.multiplier > 0) {
+                endpointStats.multiplier--;
+            }
+            if (requests > 0 && requests >= config.getLatencyMinRequests()) {
+                measured.add(endpoint);
+                means.add((double) latencyNanos / requests);
+            }
+        }
+        
+        if (config.getLatencyFactor() <= 0 || measured.size() < Constants.OUTLIER_LATENCY_MIN_ENDPOINTS) {
+            return;
+        }
+        List<Double> sorted = new ArrayList<>(means);
+        Collections.sort(sorted);
+        double median = sorted.get(sorted.size() / 2);
+        for (int i = 0; i < measured.size(); i++) {
+            if (means.get(i) > median * config.getLatencyFactor()) {
+                eject(measured.get(i), stats.get(measured.get(i)), Reason.LATENCY);
+            }
+        }
+    }
+    
+    public UpstreamCluster cluster() {
+        return cluster;
+    }
+    
+    /**
+     * Ejections for the given reason since the cluster was created, including ones by
+     * detectors it had before a reload
+     */
+    public long getEjections(Reason reason) {
+        return cluster.ejections(reason);
+    }
+    
+    public long getEjectionCount() {
+        return cluster.ejectionCount();
+    }
+    
+    /**
+     * Whether the request was cancelled or rejected by a circuit breaker, so the outcome
+     * says nothing about the endpoint
+     */
+    private static boolean isUnsent(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof CancellationException || error instanceof CircuitBreakerOpenException;
+    }
+    
+    /**
+     * Per-endpoint counters. The streaks are updated lock-free on the response path; the
+     * ejection fields are guarded by the detector's lock.
+     */
+    private static class Stats {
+        final AtomicInteger consecutive5xx = new AtomicInteger();
+        final AtomicInteger consecutiveGatewayFailures = new AtomicInteger();
+        final LongAdder requests = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+        int multiplier;
+        long ejectedUntilNanos;
+    }
+}
\ No newline at end of file
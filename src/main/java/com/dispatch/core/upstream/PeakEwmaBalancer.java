@@ -0,0 +1,14 @@
+package com.dispatch.core.upstream;
+
+/**
+ * Power of two choices weighted by latency: each candidate's cost is its peak-EWMA
+ * response time multiplied by its requests in flight plus one. Slow endpoints shed load
+ * as soon as their latency spikes, and win it back as the average decays.
+ */
+public class PeakEwmaBalancer extends PowerOfTwoChoicesBalancer {
+    
+    @Override
+    protected Endpoint better(Endpoint first, Endpoint second) {
+        return second.cost() < first.cost() ? second : first;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.dispatch.core.upstream;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two distinct endpoints at random and picks the one with fewer requests in
+ * flight. Avoids the herding of least-outstanding, where every instance sends to the
+ * same idle endpoint, at constant cost per pick.
+ */
+public class PowerOfTwoChoicesBalancer implements LoadBalancer {
+    
+    @Override
+    public Endpoint choose(Endpoint[] endpoints) {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        Endpoint first = endpoints[ThreadLocalRandom.current().nextInt(endpoints.length)];
+        Endpoint second = endpoints[secondIndex(endpoints, first)];
+        return better(first, second);
+    }
+    
+    protected Endpoint better(Endpoint first, Endpoint second) {
+        return second.outstanding() < first.outstanding() ? second : first;
+    }
+    
+    private static int secondIndex(Endpoint[] endpoints, Endpoint first) {
+        int index = ThreadLocalRandom.current().nextInt(endpoints.length - 1);
+        return endpoints[index] == first ? endpoints.length - 1 : index;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.dispatch.core.upstream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cycles through the endpoints in order
+ */
+public class RoundRobinBalancer implements LoadBalancer {
+    private final AtomicInteger next = new AtomicInteger();
+    
+    @Override
+    public Endpoint choose(Endpoint[] endpoints) {
+        return endpoints[Math.floorMod(next.getAndIncrement(), endpoints.length)];
+    }
+}
\ No newline at end of file
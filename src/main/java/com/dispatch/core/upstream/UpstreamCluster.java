@@ -0,0 +1,133 @@
+package com.dispatch.core.upstream;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named group of interchangeable backend endpoints that routes can proxy to in place
+ * of a single backend URL
+ */
+public class UpstreamCluster {
+    private final String name;
+    private final Endpoint[] endpoints;
+    // Outlier ejections by reason, kept here so the counts survive a detector being replaced on reload
+    private final LongAdder[] ejections = new LongAdder[OutlierDetector.Reason.values().length];
+    
+    // Available endpoints, rebuilt whenever an endpoint's health or ejection changes
+    private volatile Endpoint[] available;
+    
+    public UpstreamCluster(String name, List<String> urls) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Upstream '" + name + "' has no endpoints");
+        }
+        this.name = name;
+        this.endpoints = urls.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+        this.available = endpoints;
+        for (int i = 0; i < ejections.length; i++) {
+            ejections[i] = new LongAdder();
+        }
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    /**
+     * The endpoints requests may be sent to; never empty. If every endpoint is down or
+     * ejected, all of them are returned, since failing some requests beats failing all of them.
+     * The array is shared and must not be modified.
+     */
+    public Endpoint[] endpoints() {
+        Endpoint[] healthy = available;
+        return healthy.length > 0 ? healthy : endpoints;
+    }
+    
+    /**
+     * Every endpoint, healthy or not. The array is shared and must not be modified.
+     */
+    public Endpoint[] allEndpoints() {
+        return endpoints;
+    }
+    
+    /**
+     * Endpoints that are healthy and not ejected
+     */
+    public int healthyCount() {
+        return available.length;
+    }
+    
+    /**
+     * Ejections for the given reason since the cluster was created
+     */
+    public long ejections(OutlierDetector.Reason reason) {
+        return ejections[reason.ordinal()].sum();
+    }
+    
+    public long ejectionCount() {
+        long total = 0;
+        for (LongAdder count : ejections) {
+            total += count.sum();
+        }
+        return total;
+    }
+    
+    void countEjection(OutlierDetector.Reason reason) {
+        ejections[reason.ordinal()].increment();
+    }
+    
+    public int ejectedCount() {
+        int ejected = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isEjected()) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+    
+    /**
+     * Mark an endpoint up or down, adding it to or removing it from {@link #endpoints()}
+     */
+    public void setHealthy(Endpoint endpoint, boolean healthy) {
+        synchronized (this) {
+            if (endpoint.isHealthy() == healthy) {
+                return;
+            }
+            endpoint.setHealthy(healthy);
+            refresh();
+        }
+    }
+    
+    /**
+     * Eject an endpoint from {@link #endpoints()} or return it
+     */
+    public void setEjected(Endpoint endpoint, boolean ejected) {
+        synchronized (this) {
+            if (endpoint.isEjected() == ejected) {
+                return;
+            }
+            endpoint.setEjected(ejected);
+            refresh();
+        }
+    }
+    
+    private void refresh() {
+        available = Arrays.stream(endpoints).filter(Endpoint::isAvailable).toArray(Endpoint[]::new);
+    }
+    
+    /**
+     * Whether the cluster has exactly these endpoint URLs, in order
+     */
+    public boolean hasEndpoints(List<String> urls) {
+        if (urls.size() != endpoints.length) {
+            return false;
+        }
+        for (int i = 0; i < endpoints.length; i++) {
+            if (!endpoints[i].url().equals(urls.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
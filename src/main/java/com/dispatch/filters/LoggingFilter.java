@@ -4,16 +4,19 @@ import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.filter.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 
-public class LoggingFilter implements GatewayFilter {
+public class LoggingFilter implements SynchronousGatewayFilter {
     private static final Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
+    private static final FilterDependencies DEPENDENCIES = FilterDependencies.of(
+        Set.of(FilterDependencies.REQUEST_HEADERS), Set.of());
     
-    private final String logLevel;
+    private final Level level;
     private final boolean includeBody;
     private final boolean includeHeaders;
     
@@ -22,13 +25,13 @@ public class LoggingFilter implements GatewayFilter {
     }
     
     public LoggingFilter(DispatchConfig.FilterConfig config) {
-        this.logLevel = config.getConfigString("level", "INFO");
+        this.level = parseLevel(config.getConfigString("level", "INFO"));
         this.includeBody = config.getConfigBoolean("include-body", false);
         this.includeHeaders = config.getConfigBoolean("include-headers", false);
     }
     
     public LoggingFilter(String logLevel, boolean includeBody, boolean includeHeaders) {
-        this.logLevel = logLevel;
+        this.level = parseLevel(logLevel);
         this.includeBody = includeBody;
         this.includeHeaders = includeHeaders;
     }
@@ -44,19 +47,29 @@ public class LoggingFilter implements GatewayFilter {
     }
     
     @Override
-    public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
+    public boolean alwaysApplies() {
+        return true;
+    }
+    
+    @Override
+    public FilterDependencies dependencies() {
+        return DEPENDENCIES;
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        if (logger.isEnabledForLevel(level)) {
             logRequest(request, context);
-            return FilterResult.proceed();
-        });
+        }
+        return FilterResult.proceed();
     }
     
     @Override
-    public CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
+    public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+        if (logger.isEnabledForLevel(level)) {
             logResponse(response, context);
-            return FilterResult.proceed();
-        });
+        }
+        return FilterResult.proceed();
     }
     
     private void logRequest(HttpRequest request, FilterContext context) {
@@ -83,7 +96,7 @@ public class LoggingFilter implements GatewayFilter {
             logMessage.append("}");
         }
         
-        if (includeBody && request.body().length > 0) {
+        if (includeBody && request.bodyLength() > 0) {
             String body = request.bodyAsString();
             if (body.length() > 1000) {
                 body = body.substring(0, 1000) + "... (truncated)";
@@ -120,7 +133,7 @@ public class LoggingFilter implements GatewayFilter {
             logMessage.append("}");
         }
         
-        if (includeBody && response.body().length > 0) {
+        if (includeBody && response.bodyLength() > 0) {
             String body = response.bodyAsString();
             if (body.length() > 1000) {
                 body = body.substring(0, 1000) + "... (truncated)";
@@ -132,12 +145,20 @@ public class LoggingFilter implements GatewayFilter {
     }
     
     private void logAtLevel(String message) {
-        switch (logLevel.toUpperCase()) {
-            case "DEBUG" -> logger.debug(message);
-            case "INFO" -> logger.info(message);
-            case "WARN" -> logger.warn(message);
-            case "ERROR" -> logger.error(message);
+        switch (level) {
+            case DEBUG -> logger.debug(message);
+            case WARN -> logger.warn(message);
+            case ERROR -> logger.error(message);
             default -> logger.info(message);
         }
     }
+    
+    private static Level parseLevel(String logLevel) {
+        return switch (logLevel.toUpperCase()) {
+            case "DEBUG" -> Level.DEBUG;
+            case "WARN" -> Level.WARN;
+            case "ERROR" -> Level.ERROR;
+            default -> Level.INFO;
+        };
+    }
 }
\ No newline at end of file
@@ -6,11 +6,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 
-public class AuthenticationFilter implements GatewayFilter {
+public class AuthenticationFilter implements SynchronousGatewayFilter {
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
     
+    public static final AttributeKey<UserInfo> USER_INFO = AttributeKey.of("user.info", UserInfo.class);
+    
     private final AuthenticationType authType;
     private final List<String> skipPaths;
     private final AuthProvider authProvider;
@@ -51,34 +53,43 @@ public class AuthenticationFilter implements GatewayFilter {
         return true;
     }
     
+    /**
+     * Custom providers may call out to a remote verifier, so they're treated as blocking
+     */
     @Override
-    public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                AuthResult result = authenticate(request);
-                
-                if (result.isSuccess()) {
-                    if (result.getUserInfo() != null) {
-                        context.setAttribute("user.id", result.getUserInfo().getUserId());
-                        context.setAttribute("user.roles", result.getUserInfo().getRoles());
-                        context.setAttribute("user.info", result.getUserInfo());
-                    }
-                    
-                    logger.debug("Authentication successful for request: {} {}", 
-                        request.method(), request.path());
-                    return FilterResult.proceed();
-                } else {
-                    logger.warn("Authentication failed for request: {} {} - {}", 
-                        request.method(), request.path(), result.getErrorMessage());
-                    return FilterResult.error(401, result.getErrorMessage());
+    public FilterDependencies dependencies() {
+        return new FilterDependencies(
+            Set.of(FilterDependencies.REQUEST_HEADERS),
+            Set.of(StandardAttributes.USER_ID.name(), StandardAttributes.USER_ROLES.name(), USER_INFO.name()),
+            authType == AuthenticationType.CUSTOM || !(authProvider instanceof DefaultAuthProvider));
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        try {
+            AuthResult result = authenticate(request);
+            
+            if (result.isSuccess()) {
+                if (result.getUserInfo() != null) {
+                    context.set(StandardAttributes.USER_ID, result.getUserInfo().getUserId());
+                    context.set(StandardAttributes.USER_ROLES, result.getUserInfo().getRoles());
+                    context.set(USER_INFO, result.getUserInfo());
                 }
                 
-            } catch (Exception e) {
-                logger.error("Authentication error for request: {} {}", 
-                    request.method(), request.path(), e);
-                return FilterResult.error(500, "Authentication service error");
+                logger.debug("Authentication successful for request: {} {}", 
+                    request.method(), request.path());
+                return FilterResult.proceed();
+            } else {
+                logger.warn("Authentication failed for request: {} {} - {}", 
+                    request.method(), request.path(), result.getErrorMessage());
+                return FilterResult.error(401, result.getErrorMessage());
             }
-        });
+            
+        } catch (Exception e) {
+            logger.error("Authentication error for request: {} {}", 
+                request.method(), request.path(), e);
+            return FilterResult.error(500, "Authentication service error");
+        }
     }
     
     private AuthResult authenticate(HttpRequest request) {
@@ -0,0 +1,60 @@
+package com.dispatch.filters.cache;
+
+/**
+ * The Cache-Control directives a shared cache acts on (RFC 9111). Unknown directives are
+ * ignored; a malformed max-age counts as absent.
+ */
+final class CacheControl {
+    static final CacheControl NONE = new CacheControl();
+    
+    boolean noStore;
+    boolean noCache;
+    boolean isPrivate;
+    boolean isPublic;
+    boolean mustRevalidate;
+    long maxAgeSeconds = -1;
+    long sMaxAgeSeconds = -1;
+    
+    static CacheControl parse(String header) {
+        if (header == null || header.isEmpty()) {
+            return NONE;
+        }
+        CacheControl cacheControl = new CacheControl();
+        for (String directive : header.split(",")) {
+            String name = directive;
+            String value = null;
+            int equals = directive.indexOf('=');
+            if (equals >= 0) {
+                name = directive.substring(0, equals);
+                value = directive.substring(equals + 1).trim();
+            }
+            switch (name.trim().toLowerCase()) {
+                case "no-store" -> cacheControl.noStore = true;
+                case "no-cache" -> cacheControl.noCache = true;
+                case "private" -> cacheControl.isPrivate = true;
+                case "public" -> cacheControl.isPublic = true;
+                case "must-revalidate", "proxy-revalidate" -> cacheControl.mustRevalidate = true;
+                case "max-age" -> cacheControl.maxAgeSeconds = seconds(value);
+                case "s-maxage" -> cacheControl.sMaxAgeSeconds = seconds(value);
+                default -> {
+                    // Not relevant to the gateway's cache
+                }
+            }
+        }
+        return cacheControl;
+    }
+    
+    private static long seconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
\ No newline at end of file
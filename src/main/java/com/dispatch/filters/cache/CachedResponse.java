@@ -0,0 +1,85 @@
+package com.dispatch.filters.cache;
+
+import com.dispatch.core.filter.Body;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A stored response, with the request header values it varies on and when it goes stale
+ */
+final class CachedResponse {
+    // Rough per-entry cost of the key, node and headers beyond the body itself
+    private static final int OVERHEAD_BYTES = 256;
+    
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Map<String, String> vary;
+    private final long storedAtMillis;
+    private final long expiresAtMillis;
+    
+    /**
+     * @param vary Request header values the response varies on, by lower-case name; a
+     *             missing header maps to an empty string
+     */
+    CachedResponse(int status, HttpHeaders headers, byte[] body, Map<String, String> vary,
+                   long storedAtMillis, long expiresAtMillis) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.vary = vary;
+        this.storedAtMillis = storedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+    
+    boolean isFresh(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+    
+    /**
+     * Whether the request sends the same values for the headers the response varies on
+     */
+    boolean matches(HttpRequest request) {
+        return matches(vary, request);
+    }
+    
+    /**
+     * A new response for a cache hit, sharing the stored body
+     */
+    HttpResponse toResponse(long nowMillis) {
+        HttpResponse response = new HttpResponse(status, headers.copy(), Body.wrap(body));
+        response.setHeader("Age", String.valueOf(ageSeconds(storedAtMillis, nowMillis)));
+        return response;
+    }
+    
+    int weight() {
+        int headerBytes = 0;
+        for (Map.Entry<String, String> header : headers) {
+            headerBytes += header.getKey().length() + header.getValue().length();
+        }
+        return body.length + headerBytes + OVERHEAD_BYTES;
+    }
+    
+    static boolean matches(Map<String, String> vary, HttpRequest request) {
+        for (Map.Entry<String, String> entry : vary.entrySet()) {
+            if (!Objects.equals(entry.getValue(), varyValue(request, entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static long ageSeconds(long storedAtMillis, long nowMillis) {
+        return Math.max(0, (nowMillis - storedAtMillis) / 1000);
+    }
+    
+    static String varyValue(HttpRequest request, String name) {
+        List<String> values = request.headers().getAll(name);
+        return values.isEmpty() ? "" : String.join(",", values);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.dispatch.filters.cache;
+
+/**
+ * Approximate access counts for TinyLFU admission: a count-min sketch of 4-bit counters,
+ * sixteen to a long. Each key increments one counter in four rows and its frequency is
+ * the smallest of the four. Once the sketch has counted ten increments per table slot,
+ * every counter is halved so old popularity fades.
+ * <p>
+ * Not thread-safe; the cache calls it under its policy lock.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+    
+    /**
+     * @param expectedEntries Rough number of entries the cache holds
+     */
+    FrequencySketch(int expectedEntries) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * length;
+    }
+    
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            added |= incrementAt(indexOf(hash, row), counterOffset(hash, row));
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+    
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < 4; row++) {
+            long word = table[indexOf(hash, row)];
+            frequency = Math.min(frequency, (int) ((word >>> counterOffset(hash, row)) & 0xfL));
+        }
+        return frequency;
+    }
+    
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Halve every counter. Counts lost to the odd bit are subtracted from the sample size.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & 0x1111111111111111L);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+    
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+    
+    private static int counterOffset(int hash, int row) {
+        // Sixteen 4-bit counters per long; each row picks a counter from different hash bits
+        return ((hash >>> (row << 3)) & 0xf) << 2;
+    }
+    
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package com.dispatch.filters.cache;
+
+import com.dispatch.core.filter.Body;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.buffer.UnpooledDirectByteBuf;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.IllegalReferenceCountException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache tier for large responses that keeps their headers and bodies in direct memory
+ * slabs, outside the Java heap, with only a small index entry per response on the heap.
+ * <p>
+ * Responses are appended to the newest slab. When every slab is in use the oldest one is
+ * evicted whole, together with the responses in it. A cache hit hands out a slice of the
+ * slab as the response body, which the server writes to the client without copying; the
+ * slice holds a reference to its slab, so a slab's memory is only reused once every
+ * response served from it has been written.
+ */
+final class OffHeapResponseStore {
+    private final int slabSize;
+    private final int maxSlabs;
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> freeMemory = new ConcurrentLinkedQueue<>();
+    private final LongAdder evictions = new LongAdder();
+    
+    // Guarded by this, oldest first; the last slab is the one being filled
+    private final ArrayDeque<Slab> slabs = new ArrayDeque<>();
+    private volatile int allocatedSlabs;
+    
+    /**
+     * @param capacityBytes Direct memory to use, rounded down to whole slabs
+     * @param slabSize Size of each slab, which is also the largest response stored
+     */
+    OffHeapResponseStore(long capacityBytes, int slabSize) {
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacityBytes / slabSize));
+    }
+    
+    /**
+     * Copy a response into the store, replacing any stored under the key. Returns false,
+     * storing nothing, if the response is bigger than a slab, or if no slab can be freed
+     * because the oldest is still being written to clients.
+     */
+    synchronized boolean put(String key, int status, HttpHeaders headers, ByteBuffer body,
+                             Map<String, String> vary, long storedAtMillis, long expiresAtMillis) {
+        byte[] encodedHeaders = encode(headers);
+        int length = encodedHeaders.length + body.remaining();
+        Slab slab = slabs.peekLast();
+        if (length > slabSize || (slab == null || slab.writeOffset + length > slabSize) && (slab = newSlab()) == null) {
+            index.remove(key);
+            return false;
+        }
+        
+        int offset = slab.writeOffset;
+        slab.memory.put(offset, encodedHeaders);
+        slab.memory.put(offset + encodedHeaders.length, body, body.position(), body.remaining());
+        slab.writeOffset += length;
+        slab.keys.add(key);
+        index.put(key, new Entry(status, vary, storedAtMillis, expiresAtMillis, slab, offset, encodedHeaders.length, length));
+        return true;
+    }
+    
+    /**
+     * A new response for a fresh entry matching the request, with a body that shares the
+     * slab's memory, or null if there isn't one
+     */
+    HttpResponse get(String key, HttpRequest request, long nowMillis) {
+        Entry entry = index.get(key);
+        if (entry == null || nowMillis >= entry.expiresAtMillis || !CachedResponse.matches(entry.vary, request)) {
+            return null;
+        }
+        ByteBuf content;
+        try {
+            content = entry.slab.retainedSlice(entry.offset, entry.length);
+        } catch (IllegalReferenceCountException e) {
+            // The slab was evicted and freed since the lookup
+            return null;
+        }
+        HttpHeaders headers = decode(content.readCharSequence(entry.headersLength, StandardCharsets.UTF_8));
+        HttpResponse response = new HttpResponse(entry.status, headers, Body.of(content));
+        response.setHeader("Age", String.valueOf(CachedResponse.ageSeconds(entry.storedAtMillis, nowMillis)));
+        return response;
+    }
+    
+    void remove(String key) {
+        index.remove(key);
+    }
+    
+    int size() {
+        return index.size();
+    }
+    
+    /**
+     * Direct memory allocated for slabs, whether or not it's in use
+     */
+    long allocatedBytes() {
+        return (long) allocatedSlabs * slabSize;
+    }
+    
+    long evictionCount() {
+        return evictions.sum();
+    }
+    
+    private Slab newSlab() {
+        ByteBuffer memory = freeMemory.poll();
+        if (memory == null && allocatedSlabs < maxSlabs) {
+            memory = ByteBuffer.allocateDirect(slabSize);
+            allocatedSlabs++;
+        }
+        if (memory == null && !slabs.isEmpty()) {
+            evictOldest();
+            memory = freeMemory.poll();
+        }
+        if (memory == null) {
+            return null;
+        }
+        Slab slab = new Slab(memory);
+        slabs.addLast(slab);
+        return slab;
+    }
+    
+    private void evictOldest() {
+        Slab oldest = slabs.pollFirst();
+        for (String key : oldest.keys) {
+            Entry entry = index.get(key);
+            if (entry != null && entry.slab == oldest && index.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+        oldest.release();
+    }
+    
+    private static byte[] encode(HttpHeaders headers) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> header : headers) {
+            encoded.append(header.getKey()).append(':').append(header.getValue()).append('\n');
+        }
+        return encoded.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static HttpHeaders decode(CharSequence encoded) {
+        HttpHeaders headers = new DefaultHttpHeaders(false);
+        int start = 0;
+        for (int end = indexOf(encoded, '\n', start); end >= 0; end = indexOf(encoded, '\n', start)) {
+            int colon = indexOf(encoded, ':', start);
+            headers.add(encoded.subSequence(start, colon).toString(), encoded.subSequence(colon + 1, end).toString());
+            start = end + 1;
+        }
+        return headers;
+    }
+    
+    private static int indexOf(CharSequence text, char c, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private record Entry(int status, Map<String, String> vary, long storedAtMillis, long expiresAtMillis,
+                         Slab slab, int offset, int headersLength, int length) {
+    }
+    
+    /**
+     * A reference-counted view of one slab of memory. The store holds one reference
+     * until it evicts the slab and each cache hit holds one until its response has been
+     * written; the memory is reused once the last is released.
+     */
+    private final class Slab extends UnpooledDirectByteBuf {
+        final ByteBuffer memory;
+        final List<String> keys = new ArrayList<>();
+        int writeOffset;
+        
+        Slab(ByteBuffer memory) {
+            super(UnpooledByteBufAllocator.DEFAULT, memory, memory.capacity());
+            this.memory = memory;
+        }
+        
+        @Override
+        protected void freeDirect(ByteBuffer buffer) {
+            // The memory belongs to the store
+        }
+        
+        @Override
+        protected void deallocate() {
+            super.deallocate();
+            freeMemory.add(memory);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.dispatch.filters.cache;
+
+import com.dispatch.core.Constants;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.AttributeKey;
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.core.filter.StandardAttributes;
+import com.dispatch.core.filter.SynchronousGatewayFilter;
+import com.dispatch.monitoring.MetricsRegistry;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared HTTP cache for GET and HEAD responses (RFC 9111), held in memory and bounded in
+ * bytes by a {@link TinyLfuCache}.
+ * <p>
+ * Entries are keyed by method, host, URI and any configured {@code key-headers}. A
+ * response is stored if its status is cacheable by default, it has a freshness lifetime
+ * (s-maxage, max-age, Expires, the route's {@code cache.ttl-ms} or the filter's
+ * {@code default-ttl-ms}), and it isn't marked no-store, no-cache or private or setting a
+ * cookie. A stored response is only served to requests that match it on every header
+ * named in its {@code Vary}. Requests sending no-cache or max-age=0 skip the lookup but
+ * may refresh the entry; no-store requests bypass the cache entirely.
+ * <p>
+ * With {@code off-heap-size-mb} set, responses with bodies of at least
+ * {@code off-heap-min-body-bytes} are kept in an {@link OffHeapResponseStore} instead, in
+ * direct memory that adds nothing to GC work and is written to clients without copying.
+ */
+public class ResponseCacheFilter implements SynchronousGatewayFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+    public static final AttributeKey<String> CACHE_KEY = AttributeKey.of("response-cache.key", String.class);
+    
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+    private static final int AVERAGE_ENTRY_BYTES = 4096;
+    
+    private final TinyLfuCache<String, CachedResponse> cache;
+    private final OffHeapResponseStore offHeap;
+    private final int offHeapMinBodyBytes;
+    private final long defaultTtlMs;
+    private final List<String> keyHeaders;
+    private final List<String> credentialHeaders;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    
+    public ResponseCacheFilter(DispatchConfig.FilterConfig config) {
+        this(
+            config.getConfigInt("max-size-mb", 64) * 1024L * 1024L,
+            config.getConfigInt("default-ttl-ms", 0),
+            config.getConfigStringList("key-headers", List.of()),
+            config.getConfigStringList("credential-headers", Constants.DEFAULT_CREDENTIAL_HEADERS),
+            offHeapStore(config),
+            config.getConfigInt("off-heap-min-body-bytes", 64 * 1024),
+            System::currentTimeMillis
+        );
+    }
+    
+    /**
+     * @param maxSizeBytes Total size of stored bodies and headers
+     * @param defaultTtlMs Lifetime of responses without freshness headers; 0 to not store them
+     * @param keyHeaders Request headers whose values are part of every key
+     */
+    public ResponseCacheFilter(long maxSizeBytes, long defaultTtlMs, List<String> keyHeaders) {
+        this(maxSizeBytes, defaultTtlMs, keyHeaders, Constants.DEFAULT_CREDENTIAL_HEADERS, null, 0,
+            System::currentTimeMillis);
+    }
+    
+    /**
+     * @param credentialHeaders Request headers that make a response private unless the backend says otherwise
+     * @param offHeap Tier for large responses, or null to keep every response on the heap
+     * @param offHeapMinBodyBytes Smallest body kept in the off-heap tier
+     */
+    ResponseCacheFilter(long maxSizeBytes, long defaultTtlMs, List<String> keyHeaders, List<String> credentialHeaders,
+                        OffHeapResponseStore offHeap, int offHeapMinBodyBytes, LongSupplier clock) {
+        int expectedEntries = (int) Math.min(Integer.MAX_VALUE, maxSizeBytes / AVERAGE_ENTRY_BYTES);
+        this.cache = new TinyLfuCache<>(maxSizeBytes, expectedEntries, CachedResponse::weight);
+        this.defaultTtlMs = defaultTtlMs;
+        this.keyHeaders = keyHeaders.stream().map(String::toLowerCase).toList();
+        this.credentialHeaders = credentialHeaders;
+        this.offHeap = offHeap;
+        this.offHeapMinBodyBytes = offHeapMinBodyBytes;
+        this.clock = clock;
+        
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.gauge("response-cache.hits", this, ResponseCacheFilter::getHitCount);
+        registry.gauge("response-cache.misses", this, ResponseCacheFilter::getMissCount);
+        registry.gauge("response-cache.evictions", this, ResponseCacheFilter::getEvictionCount);
+        registry.gauge("response-cache.entries", this, f -> f.cache.size());
+        registry.gauge("response-cache.size-bytes", this, f -> f.cache.weightedSize());
+        if (offHeap != null) {
+            registry.gauge("response-cache.off-heap.entries", this, f -> f.offHeap.size());
+            registry.gauge("response-cache.off-heap.allocated-bytes", this, f -> f.offHeap.allocatedBytes());
+            registry.gauge("response-cache.off-heap.evictions", this, f -> f.offHeap.evictionCount());
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "response-cache";
+    }
+    
+    @Override
+    public boolean shouldApply(HttpRequest request) {
+        return request.method().equals(HttpMethod.GET) || request.method().equals(HttpMethod.HEAD);
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        RouteConfig.CacheConfig routeCache = routeCache(context);
+        if (routeCache != null && !routeCache.isEnabled()) {
+            return FilterResult.proceed();
+        }
+        CacheControl requestCacheControl = CacheControl.parse(request.getHeader("Cache-Control"));
+        if (requestCacheControl.noStore) {
+            return FilterResult.proceed();
+        }
+        
+        String key = key(request);
+        boolean revalidate = requestCacheControl.noCache || requestCacheControl.maxAgeSeconds == 0
+            || "no-cache".equalsIgnoreCase(request.getHeader("Pragma"));
+        if (!revalidate) {
+            CachedResponse cached = cache.get(key);
+            long now = clock.getAsLong();
+            HttpResponse response = null;
+            if (cached != null && cached.isFresh(now) && cached.matches(request)) {
+                response = cached.toResponse(now);
+            } else if (offHeap != null) {
+                response = offHeap.get(key, request, now);
+            }
+            if (response != null) {
+                hits.increment();
+                response.setHeader("X-Cache", "HIT");
+                return FilterResult.respond(response);
+            }
+        }
+        misses.increment();
+        context.set(CACHE_KEY, key);
+        return FilterResult.proceed();
+    }
+    
+    @Override
+    public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+        String key = context.get(CACHE_KEY);
+        if (key == null) {
+            return FilterResult.proceed();
+        }
+        response.setHeader("X-Cache", "MISS");
+        
+        HttpRequest request = context.getOriginalRequest();
+        long now = clock.getAsLong();
+        long lifetimeMs = storableLifetimeMs(request, response, routeCache(context), now);
+        if (lifetimeMs <= 0) {
+            return FilterResult.proceed();
+        }
+        
+        Map<String, String> vary = new LinkedHashMap<>();
+        for (String name : response.headers().getAll("Vary")) {
+            for (String header : name.split(",")) {
+                String trimmed = header.trim().toLowerCase();
+                if (!trimmed.isEmpty()) {
+                    vary.put(trimmed, CachedResponse.varyValue(request, trimmed));
+                }
+            }
+        }
+        
+        HttpHeaders headers = response.headers().copy();
+        headers.remove("X-Cache");
+        headers.remove("Age");
+        if (offHeap != null && response.bodyLength() >= offHeapMinBodyBytes
+                && offHeap.put(key, response.statusCode(), headers, response.content().nioBuffer(), vary, now, now + lifetimeMs)) {
+            cache.remove(key);
+        } else {
+            cache.put(key, new CachedResponse(response.statusCode(), headers, response.body(), vary, now, now + lifetimeMs));
+            if (offHeap != null) {
+                offHeap.remove(key);
+            }
+        }
+        stores.increment();
+        logger.debug("Cached {} {} for {}ms", request.method(), request.uri(), lifetimeMs);
+        return FilterResult.proceed();
+    }
+    
+    private boolean hasCredentials(HttpRequest request) {
+        for (String header : credentialHeaders) {
+            if (request.headers().contains(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * How long the response may be served from the cache, or 0 if it mustn't be stored
+     */
+    private long storableLifetimeMs(HttpRequest request, HttpResponse response, RouteConfig.CacheConfig routeCache,
+                                    long now) {
+        if (response.isStreaming() || !CACHEABLE_STATUSES.contains(response.statusCode())
+                || response.headers().contains("Set-Cookie")) {
+            return 0;
+        }
+        String vary = response.getHeader("Vary");
+        if (vary != null && vary.contains("*")) {
+            return 0;
+        }
+        CacheControl cacheControl = CacheControl.parse(String.join(",", response.headers().getAll("Cache-Control")));
+        if (cacheControl.noStore || cacheControl.noCache || cacheControl.isPrivate) {
+            return 0;
+        }
+        // A shared cache may only reuse answers to credentialed requests the backend marked shareable
+        if (hasCredentials(request)
+                && !(cacheControl.isPublic || cacheControl.sMaxAgeSeconds >= 0 || cacheControl.mustRevalidate)) {
+            return 0;
+        }
+        
+        long lifetimeMs;
+        if (routeCache != null && routeCache.getTtlMs() != null) {
+            lifetimeMs = routeCache.getTtlMs();
+        } else if (cacheControl.sMaxAgeSeconds >= 0) {
+            lifetimeMs = TimeUnit.SECONDS.toMillis(cacheControl.sMaxAgeSeconds);
+        } else if (cacheControl.maxAgeSeconds >= 0) {
+            lifetimeMs = TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds);
+        } else if (response.getHeader("Expires") != null) {
+            Date expires = DateFormatter.parseHttpDate(response.getHeader("Expires"));
+            Date date = response.getHeader("Date") != null ? DateFormatter.parseHttpDate(response.getHeader("Date")) : null;
+            lifetimeMs = expires == null ? 0 : expires.getTime() - (date != null ? date.getTime() : now);
+        } else {
+            lifetimeMs = defaultTtlMs;
+        }
+        return lifetimeMs - TimeUnit.SECONDS.toMillis(parseAge(response.getHeader("Age")));
+    }
+    
+    private String key(HttpRequest request) {
+        StringBuilder key = new StringBuilder()
+            .append(request.method().name()).append(' ')
+            .append(request.getHeader("Host")).append(' ')
+            .append(request.uri());
+        for (String header : keyHeaders) {
+            key.append('\n').append(header).append(':').append(CachedResponse.varyValue(request, header));
+        }
+        return key.toString();
+    }
+    
+    private static OffHeapResponseStore offHeapStore(DispatchConfig.FilterConfig config) {
+        int sizeMb = config.getConfigInt("off-heap-size-mb", 0);
+        if (sizeMb <= 0) {
+            return null;
+        }
+        int slabSizeMb = config.getConfigInt("off-heap-slab-size-mb", 4);
+        return new OffHeapResponseStore(sizeMb * 1024L * 1024L, slabSizeMb * 1024 * 1024);
+    }
+    
+    private static RouteConfig.CacheConfig routeCache(FilterContext context) {
+        RouteConfig route = context.get(StandardAttributes.ROUTE_CONFIG);
+        return route != null ? route.getCache() : null;
+    }
+    
+    private static long parseAge(String age) {
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(age.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getEvictionCount() {
+        return cache.evictionCount();
+    }
+    
+    public long getStoreCount() {
+        return stores.sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.dispatch.filters.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache bounded by total weight (bytes, for responses) using the W-TinyLFU policy.
+ * <p>
+ * New entries land in a small LRU window (1% of the weight). Entries pushed out of the
+ * window join the probation segment of the main space, and when the cache is over its
+ * weight the newest of them competes with probation's oldest entry: whichever key the
+ * {@link FrequencySketch} says was requested more often stays. A probation entry that's
+ * read again is promoted to the protected segment (80% of the main space). The window
+ * lets bursts in, and the frequency filter keeps one-off requests from flushing out
+ * entries that are popular over time.
+ * <p>
+ * Reads go to a concurrent map without locking. Recording a read in the policy takes the
+ * policy lock only if it's free, so under contention some reads aren't counted, which
+ * costs a little accuracy but never blocks a reader. Writes take the lock.
+ */
+class TinyLfuCache<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = 3;
+    
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<V> weigher;
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Deque<K, V>[] queues;
+    private final long[] weights = new long[3];
+    private final LongAdder evictions = new LongAdder();
+    
+    @SuppressWarnings("unchecked")
+    TinyLfuCache(long maximumWeight, int expectedEntries, ToIntFunction<V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 80 / 100;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.queues = new Deque[] {new Deque<K, V>(), new Deque<K, V>(), new Deque<K, V>()};
+    }
+    
+    V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                if (node != null) {
+                    onAccess(node);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node != null ? node.value : null;
+    }
+    
+    /**
+     * Add or replace an entry. An entry heavier than the whole cache isn't stored.
+     */
+    void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maximumWeight) {
+            remove(key);
+            return;
+        }
+        policyLock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                weights[node.queue] += weight - node.weight;
+                node.weight = weight;
+                node.value = value;
+                onAccess(node);
+            } else {
+                node = new Node<>(key, value, weight);
+                data.put(key, node);
+                queues[WINDOW].addLast(node);
+                weights[WINDOW] += weight;
+            }
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+    
+    void remove(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+    
+    int size() {
+        return data.size();
+    }
+    
+    long weightedSize() {
+        policyLock.lock();
+        try {
+            return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+        } finally {
+            policyLock.unlock();
+        }
+    }
+    
+    long evictionCount() {
+        return evictions.sum();
+    }
+    
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW, PROTECTED -> queues[node.queue].moveToLast(node);
+            case PROBATION -> {
+                move(node, PROTECTED);
+                while (weights[PROTECTED] > protectedMaximum) {
+                    move(queues[PROTECTED].first(), PROBATION);
+                }
+            }
+            default -> {
+                // Removed while the read was in progress
+            }
+        }
+    }
+    
+    /**
+     * Move window overflow into probation, then evict until the cache is within its
+     * weight, each time keeping the more frequently used of the oldest probation entry
+     * and the oldest entry that just left the window
+     */
+    private void evict() {
+        Node<K, V> candidate = null;
+        while (weights[WINDOW] > windowMaximum) {
+            Node<K, V> node = queues[WINDOW].first();
+            move(node, PROBATION);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+        
+        while (weights[WINDOW] + weights[PROBATION] + weights[PROTECTED] > maximumWeight) {
+            Node<K, V> victim = queues[PROBATION].first();
+            if (victim == null) {
+                victim = queues[PROTECTED].first() != null ? queues[PROTECTED].first() : queues[WINDOW].first();
+                evict(victim);
+                continue;
+            }
+            if (candidate == null || candidate.queue != PROBATION || candidate == victim) {
+                candidate = candidate == victim ? victim.next : candidate;
+                evict(victim);
+                continue;
+            }
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                Node<K, V> next = candidate.next;
+                evict(candidate);
+                candidate = next;
+            }
+        }
+    }
+    
+    private void evict(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions.increment();
+    }
+    
+    private void move(Node<K, V> node, int queue) {
+        queues[node.queue].unlink(node);
+        weights[node.queue] -= node.weight;
+        node.queue = queue;
+        queues[queue].addLast(node);
+        weights[queue] += node.weight;
+    }
+    
+    private void unlink(Node<K, V> node) {
+        if (node.queue != REMOVED) {
+            queues[node.queue].unlink(node);
+            weights[node.queue] -= node.weight;
+            node.queue = REMOVED;
+        }
+    }
+    
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        int weight;
+        int queue = WINDOW;
+        Node<K, V> prev;
+        Node<K, V> next;
+        
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+    
+    /**
+     * Intrusive doubly-linked list in access order, oldest first
+     */
+    private static final class Deque<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        
+        Node<K, V> first() {
+            return head;
+        }
+        
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+        }
+        
+        void unlink(Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+        
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+    }
+}
\ No newline at end of file
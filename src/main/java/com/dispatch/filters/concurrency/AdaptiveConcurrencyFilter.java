@@ -0,0 +1,116 @@
+package com.dispatch.filters.concurrency;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.*;
+import com.dispatch.monitoring.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sheds load with 503 once a backend has more requests in flight than its adaptive
+ * concurrency limit allows (see {@link GradientLimit}).
+ * <p>
+ * Each proxied backend gets its own limit, fed with the backend RTT recorded by the
+ * route's proxy filter when the request completes. Requests for routes without a
+ * backend pass through untouched.
+ */
+public class AdaptiveConcurrencyFilter implements SynchronousGatewayFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyFilter.class);
+    
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final double smoothing;
+    private final int longWindow;
+    private final ConcurrentMap<String, GradientLimit> limits = new ConcurrentHashMap<>();
+    
+    public AdaptiveConcurrencyFilter() {
+        this(20, 1, 1000, 4, 0.2, 600);
+    }
+    
+    public AdaptiveConcurrencyFilter(DispatchConfig.FilterConfig config) {
+        this(
+            config.getConfigInt("initial-limit", 20),
+            config.getConfigInt("min-limit", 1),
+            config.getConfigInt("max-limit", 1000),
+            config.getConfigInt("queue-size", 4),
+            config.getConfigDouble("smoothing", 0.2),
+            config.getConfigInt("long-window", 600)
+        );
+    }
+    
+    public AdaptiveConcurrencyFilter(int initialLimit, int minLimit, int maxLimit, int queueSize, 
+                                     double smoothing, int longWindow) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+    }
+    
+    @Override
+    public String getName() {
+        return "adaptive-concurrency";
+    }
+    
+    @Override
+    public boolean shouldApply(HttpRequest request) {
+        return true;
+    }
+    
+    @Override
+    public boolean alwaysApplies() {
+        return true;
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        RouteConfig route = context.get(StandardAttributes.ROUTE_CONFIG);
+        String backend = route != null ? route.getBackend() : null;
+        if (backend == null || backend.isEmpty()) {
+            return FilterResult.proceed();
+        }
+        
+        GradientLimit limit = limits.computeIfAbsent(backend, this::createLimit);
+        if (!limit.tryAcquire()) {
+            logger.debug("Shedding {} {}: backend {} at concurrency limit {}", 
+                request.method(), request.path(), backend, limit.getLimit());
+            HttpResponse response = new HttpResponse(503, "Backend concurrency limit reached");
+            response.setHeader("Retry-After", "1");
+            return FilterResult.respond(response);
+        }
+        
+        int inFlight = limit.getInFlight();
+        context.onComplete(result -> {
+            limit.release();
+            if (context.has(StandardAttributes.PROXY_RTT_NANOS)) {
+                limit.onSample(context.getLong(StandardAttributes.PROXY_RTT_NANOS, 0), inFlight);
+            }
+        });
+        return FilterResult.proceed();
+    }
+    
+    /**
+     * Current limit for a backend, for inspection
+     */
+    public GradientLimit getLimit(String backend) {
+        return limits.get(backend);
+    }
+    
+    private GradientLimit createLimit(String backend) {
+        GradientLimit limit = new GradientLimit(initialLimit, minLimit, maxLimit, queueSize, smoothing, longWindow);
+        
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.gauge("adaptive-concurrency.limit[" + backend + "]", limit, GradientLimit::getLimit);
+        registry.gauge("adaptive-concurrency.in-flight[" + backend + "]", limit, GradientLimit::getInFlight);
+        registry.gauge("adaptive-concurrency.rtt-micros[" + backend + "]", limit, GradientLimit::getRttMicros);
+        registry.gauge("adaptive-concurrency.rejected[" + backend + "]", limit, GradientLimit::getRejectedCount);
+        return limit;
+    }
+}
\ No newline at end of file
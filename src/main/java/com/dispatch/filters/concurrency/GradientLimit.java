@@ -0,0 +1,133 @@
+package com.dispatch.filters.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit for one backend, using the gradient algorithm.
+ * <p>
+ * A long-term average RTT tracks what the backend normally delivers. Each sample
+ * compares it with the latest RTT: while latency holds steady the limit grows by a
+ * small queue allowance, and as latency rises the gradient {@code longRtt / rtt}
+ * drops below one and scales the limit down, before requests start queueing on a
+ * struggling origin. Growth is skipped while fewer than half the permitted requests
+ * are in flight, since the limit is not what constrains traffic then.
+ * <p>
+ * Admission is a lock-free check against the current limit. Samples are applied under
+ * a lock that is only tried, so a sample arriving while another is being applied is
+ * skipped rather than waited on.
+ */
+public final class GradientLimit {
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double RTT_TOLERANCE = 1.5;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final double smoothing;
+    private final int longWindow;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    
+    private volatile int limit;
+    private volatile double longRttNanos;
+    private double estimatedLimit;
+    private int samples;
+    
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, int queueSize, double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds: min " + minLimit + ", max " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+    
+    /**
+     * Take an in-flight slot if the limit allows it
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    /**
+     * Feed the RTT of a completed backend call
+     * 
+     * @param inFlightAtStart requests in flight when the call was admitted, including itself
+     */
+    public void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0 || !sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, inFlightAtStart);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+    
+    private void update(long rttNanos, int inFlightAtStart) {
+        double longRtt = longRttNanos;
+        if (samples < WARMUP_SAMPLES) {
+            samples++;
+            longRtt += (rttNanos - longRtt) / samples;
+        } else {
+            longRtt += (rttNanos - longRtt) / longWindow;
+        }
+        
+        // After a latency drop, let the long-term average catch up quickly
+        if (longRtt / rttNanos > 2) {
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+        
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / rttNanos));
+        double target = estimatedLimit * gradient + queueSize;
+        double smoothed = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        limit = (int) estimatedLimit;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Long-term average RTT in microseconds
+     */
+    public long getRttMicros() {
+        return (long) (longRttNanos / 1000);
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
\ No newline at end of file
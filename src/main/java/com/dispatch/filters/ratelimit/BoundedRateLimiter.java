@@ -0,0 +1,257 @@
+package com.dispatch.filters.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Base for rate limiters that keep one {@code long} of state per key in a bounded store,
+ * a concurrent map from each key to an {@link AtomicLong}.
+ * <p>
+ * Subclasses supply the algorithm as pure functions over the state; this class runs
+ * them in a compare-and-set loop, so a hot key never serializes callers behind a
+ * monitor, and denials only read the state. Keys whose state has become idle
+ * (indistinguishable from a new key) are evicted by a periodic sweep, the store
+ * never holds more than {@code maxBuckets} keys, and new keys beyond that are
+ * handled by the configured {@link OverflowPolicy}. The sweep is spread over the
+ * requests that follow it falling due, each checking at most {@value #SWEEP_BATCH}
+ * keys, so no request waits on a scan of the whole store.
+ * <p>
+ * Time is measured in microseconds from a monotonic origin taken when the limiter is
+ * created. States must never equal {@link #REJECT} or the internal eviction marker
+ * ({@code -1}); non-negative states always satisfy this.
+ */
+public abstract class BoundedRateLimiter implements RateLimiter {
+    
+    /** Returned by {@link #tryTake(long, long)} when the request must be denied */
+    protected static final long REJECT = -2L;
+    private static final long EVICTED = -1L;
+    /** Keys checked for idleness per call while a sweep is under way */
+    static final int SWEEP_BATCH = 64;
+    
+    private final ConcurrentMap<String, AtomicLong> states;
+    private final int maxBuckets;
+    private final OverflowPolicy overflowPolicy;
+    private final long evictionIntervalMicros;
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+    private final long originMillis;
+    
+    private final AtomicInteger bucketCount = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // Written while holding sweeping; the cursor is null between sweeps
+    private volatile long nextSweepMicros;
+    private volatile Iterator<Map.Entry<String, AtomicLong>> sweepCursor;
+    private final AtomicLong sharedState;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    
+    protected BoundedRateLimiter(int maxBuckets, OverflowPolicy overflowPolicy, long evictionIntervalMs, LongSupplier nanoClock) {
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("Max buckets must be positive, got " + maxBuckets);
+        }
+        this.states = new ConcurrentHashMap<>();
+        this.maxBuckets = maxBuckets;
+        this.overflowPolicy = overflowPolicy;
+        this.evictionIntervalMicros = evictionIntervalMs * 1000;
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+        this.originMillis = System.currentTimeMillis();
+        this.nextSweepMicros = evictionIntervalMicros;
+        this.sharedState = new AtomicLong(EVICTED);
+    }
+    
+    /**
+     * State of a key seen for the first time
+     */
+    protected abstract long initialState(long nowMicros);
+    
+    /**
+     * State after admitting one request, or {@link #REJECT} if it must be denied
+     */
+    protected abstract long tryTake(long state, long nowMicros);
+    
+    /**
+     * Result for an admitted request, given the state it produced
+     */
+    protected abstract RateLimitResult allowedResult(long state, long nowMicros, long nowMillis);
+    
+    /**
+     * Result for a denied request, given the state it was denied against
+     */
+    protected abstract RateLimitResult deniedResult(long state, long nowMicros, long nowMillis);
+    
+    /**
+     * Whether the state behaves exactly like a new key's, so it can be dropped
+     */
+    protected abstract boolean isIdle(long state, long nowMicros);
+    
+    /**
+     * Configured limit reported in results
+     */
+    protected abstract int limit();
+    
+    @Override
+    public RateLimitResult tryAcquire(String key) {
+        long elapsedNanos = nanoClock.getAsLong() - originNanos;
+        long nowMicros = elapsedNanos / 1000;
+        long nowMillis = originMillis + elapsedNanos / 1_000_000;
+        
+        sweepIfDue(nowMicros);
+        
+        while (true) {
+            AtomicLong state = states.get(key);
+            if (state == null) {
+                state = states.computeIfAbsent(key, k -> reserveSlot() ? new AtomicLong(initialState(nowMicros)) : null);
+                if (state == null) {
+                    return overflow(nowMicros, nowMillis);
+                }
+            }
+            
+            RateLimitResult result = acquire(state, nowMicros, nowMillis);
+            if (result != null) {
+                return result;
+            }
+            // Evicted between lookup and acquire; make sure it is gone and start over
+            discard(key, state);
+        }
+    }
+    
+    @Override
+    public void reset(String key) {
+        AtomicLong state = states.get(key);
+        if (state != null) {
+            discard(key, state);
+        }
+    }
+    
+    @Override
+    public void resetAll() {
+        for (Map.Entry<String, AtomicLong> entry : states.entrySet()) {
+            discard(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Number of keys currently tracked
+     */
+    public int getBucketCount() {
+        return bucketCount.get();
+    }
+    
+    /**
+     * Total idle keys evicted so far
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Total requests for new keys that arrived while the store was full
+     */
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+    
+    /**
+     * @return the result, or null if the state has been evicted
+     */
+    private RateLimitResult acquire(AtomicLong state, long nowMicros, long nowMillis) {
+        while (true) {
+            long current = state.get();
+            if (current == EVICTED) {
+                return null;
+            }
+            
+            long next = tryTake(current, nowMicros);
+            if (next == REJECT) {
+                return deniedResult(current, nowMicros, nowMillis);
+            }
+            if (state.compareAndSet(current, next)) {
+                return allowedResult(next, nowMicros, nowMillis);
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Start a sweep if one is due and check the next batch of keys of the sweep under
+     * way. A caller that finds another already sweeping goes straight on.
+     */
+    private void sweepIfDue(long nowMicros) {
+        if (sweepCursor == null && nowMicros - nextSweepMicros < 0 || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Map.Entry<String, AtomicLong>> cursor = sweepCursor;
+            if (cursor == null) {
+                if (nowMicros - nextSweepMicros < 0) {
+                    return;
+                }
+                nextSweepMicros = nowMicros + evictionIntervalMicros;
+                cursor = states.entrySet().iterator();
+            }
+            for (int i = 0; i < SWEEP_BATCH && cursor.hasNext(); i++) {
+                Map.Entry<String, AtomicLong> entry = cursor.next();
+                if (evictIfIdle(entry.getValue(), nowMicros)) {
+                    evictions.increment();
+                    discard(entry.getKey(), entry.getValue());
+                }
+            }
+            sweepCursor = cursor.hasNext() ? cursor : null;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+    
+    private boolean evictIfIdle(AtomicLong state, long nowMicros) {
+        while (true) {
+            long current = state.get();
+            if (current == EVICTED || !isIdle(current, nowMicros)) {
+                return false;
+            }
+            if (state.compareAndSet(current, EVICTED)) {
+                return true;
+            }
+        }
+    }
+    
+    private boolean reserveSlot() {
+        if (bucketCount.incrementAndGet() > maxBuckets) {
+            bucketCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    private void discard(String key, AtomicLong state) {
+        if (states.remove(key, state)) {
+            bucketCount.decrementAndGet();
+        }
+    }
+    
+    private RateLimitResult overflow(long nowMicros, long nowMillis) {
+        overflows.increment();
+        return switch (overflowPolicy) {
+            case SHARED -> {
+                sharedState.compareAndSet(EVICTED, initialState(nowMicros));
+                yield acquire(sharedState, nowMicros, nowMillis);
+            }
+            case ALLOW -> {
+                long initial = initialState(nowMicros);
+                long next = tryTake(initial, nowMicros);
+                yield next == REJECT ? deniedResult(initial, nowMicros, nowMillis) : allowedResult(next, nowMicros, nowMillis);
+            }
+            case DENY -> {
+                long retryAfterSeconds = Math.max(1, evictionIntervalMicros / 1_000_000);
+                yield RateLimitResult.denied(nowMillis / 1000 + retryAfterSeconds, limit(), retryAfterSeconds);
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.dispatch.filters.ratelimit;
+
+/**
+ * Generic cell rate algorithm arithmetic over a theoretical arrival time (TAT).
+ * <p>
+ * The TAT is the time at which a key would be back to its full burst allowance.
+ * Each admitted request pushes it forward by the emission interval
+ * ({@code 60s / requestsPerMinute}), and a request is denied when that would put it
+ * more than {@code burstCapacity} intervals ahead of now. Times are in microseconds
+ * from any origin shared by all callers. Only integer arithmetic is used.
+ */
+final class Gcra {
+    
+    private final int requestsPerMinute;
+    private final long emissionIntervalMicros;
+    private final long burstMicros;
+    
+    Gcra(int requestsPerMinute, int burstCapacity) {
+        if (requestsPerMinute < 1) {
+            throw new IllegalArgumentException("Requests per minute must be positive, got " + requestsPerMinute);
+        }
+        if (burstCapacity < 0) {
+            throw new IllegalArgumentException("Burst capacity must not be negative, got " + burstCapacity);
+        }
+        this.requestsPerMinute = requestsPerMinute;
+        this.emissionIntervalMicros = Math.max(1, 60_000_000L / requestsPerMinute);
+        this.burstMicros = emissionIntervalMicros * burstCapacity;
+    }
+    
+    /**
+     * TAT after admitting one more request, which conforms if {@link #conforms} holds
+     */
+    long next(long tat, long nowMicros) {
+        return Math.max(tat, nowMicros) + emissionIntervalMicros;
+    }
+    
+    boolean conforms(long nextTat, long nowMicros) {
+        return nextTat - nowMicros <= burstMicros;
+    }
+    
+    /**
+     * Whether the key is back to its full allowance, i.e. indistinguishable from a new key
+     */
+    static boolean isIdle(long tat, long nowMicros) {
+        return tat <= nowMicros;
+    }
+    
+    RateLimitResult allowed(long nextTat, long nowMicros, long nowMillis) {
+        int remaining = (int) ((burstMicros - (nextTat - nowMicros)) / emissionIntervalMicros);
+        return RateLimitResult.allowed(remaining, resetTime(nextTat, nowMicros, nowMillis), requestsPerMinute);
+    }
+    
+    RateLimitResult denied(long tat, long nowMicros, long nowMillis) {
+        long retryAfterMicros = next(tat, nowMicros) - nowMicros - burstMicros;
+        long retryAfterSeconds = Math.max(1, retryAfterMicros / 1_000_000);
+        return RateLimitResult.denied(resetTime(tat, nowMicros, nowMillis), requestsPerMinute, retryAfterSeconds);
+    }
+    
+    int requestsPerMinute() {
+        return requestsPerMinute;
+    }
+    
+    /**
+     * Wall-clock second at which the key is back to its full burst allowance
+     */
+    private static long resetTime(long tat, long nowMicros, long nowMillis) {
+        if (tat <= nowMicros) {
+            return nowMillis / 1000 + 60;
+        }
+        return (nowMillis + (tat - nowMicros) / 1000) / 1000;
+    }
+}
\ No newline at end of file
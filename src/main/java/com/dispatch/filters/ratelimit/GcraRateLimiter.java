@@ -0,0 +1,66 @@
+package com.dispatch.filters.ratelimit;
+
+import com.dispatch.core.Constants;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Generic cell rate algorithm (GCRA) rate limiter.
+ * <p>
+ * Behaves like a token bucket with the same rate and burst, but the only state per
+ * key is its theoretical arrival time (see {@link Gcra}): a single {@code long},
+ * updated with integer arithmetic only. The state is kept in the same store as the
+ * other {@link BoundedRateLimiter}s, so a key costs as much heap as it does there; the
+ * saving is in the arithmetic, not the footprint.
+ */
+public class GcraRateLimiter extends BoundedRateLimiter {
+    
+    private final Gcra model;
+    
+    public GcraRateLimiter(int requestsPerMinute, int burstCapacity) {
+        this(requestsPerMinute, burstCapacity, Constants.DEFAULT_RATE_LIMIT_MAX_BUCKETS, 
+            OverflowPolicy.SHARED, Constants.DEFAULT_RATE_LIMIT_EVICTION_INTERVAL_MS);
+    }
+    
+    public GcraRateLimiter(int requestsPerMinute, int burstCapacity, int maxBuckets, 
+                           OverflowPolicy overflowPolicy, long evictionIntervalMs) {
+        this(requestsPerMinute, burstCapacity, maxBuckets, overflowPolicy, evictionIntervalMs, System::nanoTime);
+    }
+    
+    GcraRateLimiter(int requestsPerMinute, int burstCapacity, int maxBuckets, 
+                    OverflowPolicy overflowPolicy, long evictionIntervalMs, LongSupplier nanoClock) {
+        super(maxBuckets, overflowPolicy, evictionIntervalMs, nanoClock);
+        this.model = new Gcra(requestsPerMinute, burstCapacity);
+    }
+    
+    @Override
+    protected long initialState(long nowMicros) {
+        return nowMicros;
+    }
+    
+    @Override
+    protected long tryTake(long tat, long nowMicros) {
+        long next = model.next(tat, nowMicros);
+        return model.conforms(next, nowMicros) ? next : REJECT;
+    }
+    
+    @Override
+    protected RateLimitResult allowedResult(long tat, long nowMicros, long nowMillis) {
+        return model.allowed(tat, nowMicros, nowMillis);
+    }
+    
+    @Override
+    protected RateLimitResult deniedResult(long tat, long nowMicros, long nowMillis) {
+        return model.denied(tat, nowMicros, nowMillis);
+    }
+    
+    @Override
+    protected boolean isIdle(long tat, long nowMicros) {
+        return Gcra.isIdle(tat, nowMicros);
+    }
+    
+    @Override
+    protected int limit() {
+        return model.requestsPerMinute();
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.dispatch.filters.ratelimit;
 
 import com.dispatch.core.filter.FilterContext;
 import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.StandardAttributes;
 
 @FunctionalInterface
 public interface KeyExtractor {
@@ -14,8 +15,8 @@ public interface KeyExtractor {
     
     static KeyExtractor byUserId() {
         return (request, context) -> {
-            Object userId = context.getAttribute("user.id");
-            return userId != null ? userId.toString() : request.getClientIp();
+            String userId = context.get(StandardAttributes.USER_ID);
+            return userId != null ? userId : request.getClientIp();
         };
     }
     
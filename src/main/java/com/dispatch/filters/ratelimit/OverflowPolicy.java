@@ -0,0 +1,22 @@
+package com.dispatch.filters.ratelimit;
+
+/**
+ * What a bounded rate limiter does with a new key once it already tracks its
+ * maximum number of buckets and none can be evicted.
+ */
+public enum OverflowPolicy {
+    /** Reject requests for untracked keys */
+    DENY,
+    /** Let requests for untracked keys through without limiting them */
+    ALLOW,
+    /** Limit all untracked keys together through one shared bucket */
+    SHARED;
+    
+    public static OverflowPolicy fromString(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown overflow policy '" + name + "', expected deny, allow or shared");
+        }
+    }
+}
\ No newline at end of file
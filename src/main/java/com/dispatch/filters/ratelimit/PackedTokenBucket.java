@@ -0,0 +1,133 @@
+package com.dispatch.filters.ratelimit;
+
+/**
+ * Token bucket arithmetic over a single packed {@code long}, so a bucket can be
+ * updated with one compare-and-set instead of a lock.
+ * <p>
+ * The high 42 bits hold the last refill time in microseconds (relative to a clock
+ * origin chosen by the caller, wrapping after roughly 50 days) and the low 22 bits
+ * hold the token count in fixed point with {@value #FRACTION_BITS} fractional bits,
+ * which limits burst capacity to {@value #MAX_CAPACITY} tokens. The token field can
+ * therefore never be all ones, so small negative values never occur as states.
+ * <p>
+ * Instances only hold the immutable rate configuration; every method is a pure
+ * function of its arguments.
+ */
+final class PackedTokenBucket {
+    static final int FRACTION_BITS = 6;
+    static final long ONE_TOKEN = 1L << FRACTION_BITS;
+    static final int TOKEN_BITS = 22;
+    static final int MAX_CAPACITY = (1 << (TOKEN_BITS - FRACTION_BITS)) - 1;
+    static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    static final long TIME_MASK = (1L << (Long.SIZE - TOKEN_BITS)) - 1;
+    
+    private final int requestsPerMinute;
+    private final long capacity;
+    private final double microsPerUnit;
+    
+    PackedTokenBucket(int requestsPerMinute, int burstCapacity) {
+        if (burstCapacity < 0 || burstCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Burst capacity must be between 0 and " + MAX_CAPACITY + ", got " + burstCapacity);
+        }
+        this.requestsPerMinute = requestsPerMinute;
+        this.capacity = burstCapacity * ONE_TOKEN;
+        this.microsPerUnit = 60_000_000.0 / (requestsPerMinute * (double) ONE_TOKEN);
+    }
+    
+    /**
+     * State of a full bucket at the given time
+     */
+    long full(long nowMicros) {
+        return pack(nowMicros, capacity);
+    }
+    
+    /**
+     * Add the tokens earned since the last refill. The refill time only advances by
+     * the time actually converted into tokens, so frequent updates do not lose
+     * fractional refill to rounding.
+     */
+    long refill(long state, long nowMicros) {
+        long tokens = tokens(state);
+        if (tokens >= capacity) {
+            return pack(nowMicros, capacity);
+        }
+        
+        long elapsed = (nowMicros - time(state)) & TIME_MASK;
+        double earned = elapsed / microsPerUnit;
+        if (earned >= capacity - tokens) {
+            return pack(nowMicros, capacity);
+        }
+        
+        long units = (long) earned;
+        if (units == 0) {
+            return state;
+        }
+        long consumed = Math.min(elapsed, (long) Math.ceil(units * microsPerUnit));
+        return pack(time(state) + consumed, tokens + units);
+    }
+    
+    /**
+     * Whether a refilled state holds at least one whole token
+     */
+    static boolean hasToken(long state) {
+        return tokens(state) >= ONE_TOKEN;
+    }
+    
+    /**
+     * Whether a refilled state is at capacity, i.e. indistinguishable from a new bucket
+     */
+    boolean isFull(long state) {
+        return tokens(state) >= capacity;
+    }
+    
+    /**
+     * Remove one token from a state that {@link #hasToken(long) has a token}
+     */
+    static long take(long state) {
+        return state - ONE_TOKEN;
+    }
+    
+    /**
+     * Whole tokens left in the bucket
+     */
+    static int remaining(long state) {
+        return (int) (tokens(state) >> FRACTION_BITS);
+    }
+    
+    /**
+     * Wall-clock second at which the bucket will be full again, matching the
+     * semantics of {@link RateLimitResult#getResetTime()}
+     */
+    long resetTime(long state, long nowMillis) {
+        long tokens = tokens(state);
+        if (tokens >= capacity) {
+            return nowMillis / 1000 + 60;
+        }
+        long timeToFill = (long) ((capacity - tokens) * microsPerUnit / 1000);
+        return (nowMillis + timeToFill) / 1000;
+    }
+    
+    /**
+     * Seconds until the next whole token, never less than one
+     */
+    long retryAfterSeconds(long state) {
+        long retryAfterMs = (long) ((ONE_TOKEN - tokens(state)) * microsPerUnit / 1000);
+        return Math.max(1, retryAfterMs / 1000);
+    }
+    
+    int requestsPerMinute() {
+        return requestsPerMinute;
+    }
+    
+    static long pack(long timeMicros, long tokens) {
+        return ((timeMicros & TIME_MASK) << TOKEN_BITS) | tokens;
+    }
+    
+    static long time(long state) {
+        return state >>> TOKEN_BITS;
+    }
+    
+    static long tokens(long state) {
+        return state & TOKEN_MASK;
+    }
+}
\ No newline at end of file
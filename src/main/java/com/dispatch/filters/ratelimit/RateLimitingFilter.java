@@ -1,34 +1,49 @@
 package com.dispatch.filters.ratelimit;
 
+import com.dispatch.core.Constants;
 import com.dispatch.core.config.DispatchConfig;
 import com.dispatch.core.filter.*;
+import com.dispatch.monitoring.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CompletableFuture;
+import java.nio.file.Path;
+import java.util.Set;
 
-public class RateLimitingFilter implements GatewayFilter {
+public class RateLimitingFilter implements SynchronousGatewayFilter {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitingFilter.class);
     
+    public static final AttributeKey<String> KEY = AttributeKey.of("rate-limit.key", String.class);
+    public static final LongAttributeKey REMAINING = LongAttributeKey.of("rate-limit.remaining");
+    public static final LongAttributeKey RESET_TIME = LongAttributeKey.of("rate-limit.reset-time");
+    
     private final RateLimiter rateLimiter;
     private final KeyExtractor keyExtractor;
+    private final FilterDependencies dependencies;
     
     public RateLimitingFilter() {
         this(60, 10, KeyExtractor.byClientIp());
     }
     
     public RateLimitingFilter(DispatchConfig.FilterConfig config) {
-        int requestsPerMinute = config.getConfigInt("requests-per-minute", 60);
-        int burstCapacity = config.getConfigInt("burst-capacity", 10);
         String keyType = config.getConfigString("key-type", "client-ip");
         
-        this.rateLimiter = new TokenBucketRateLimiter(requestsPerMinute, burstCapacity);
+        String sharedTable = config.getConfigString("shared-table", null);
+        
+        this.rateLimiter = sharedTable != null 
+            ? registerMetrics(createSharedRateLimiter(Path.of(sharedTable), config)) 
+            : registerMetrics(createRateLimiter(config));
         this.keyExtractor = createKeyExtractor(keyType, config);
+        Set<String> reads = "user-id".equalsIgnoreCase(keyType)
+            ? Set.of(FilterDependencies.REQUEST_HEADERS, StandardAttributes.USER_ID.name())
+            : Set.of(FilterDependencies.REQUEST_HEADERS);
+        this.dependencies = FilterDependencies.of(reads, Set.of(KEY.name(), REMAINING.name(), RESET_TIME.name()));
     }
     
     public RateLimitingFilter(int requestsPerMinute, int burstCapacity, KeyExtractor keyExtractor) {
-        this.rateLimiter = new TokenBucketRateLimiter(requestsPerMinute, burstCapacity);
+        this.rateLimiter = registerMetrics(new TokenBucketRateLimiter(requestsPerMinute, burstCapacity));
         this.keyExtractor = keyExtractor;
+        this.dependencies = null;
     }
     
     @Override
@@ -42,57 +57,115 @@ public class RateLimitingFilter implements GatewayFilter {
     }
     
     @Override
-    public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String key = keyExtractor.extractKey(request, context);
-                RateLimitResult result = rateLimiter.tryAcquire(key);
+    public boolean alwaysApplies() {
+        return true;
+    }
+    
+    /**
+     * Declared only for the built-in key types; a custom {@link KeyExtractor} may read anything
+     */
+    @Override
+    public FilterDependencies dependencies() {
+        return dependencies;
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        try {
+            String key = keyExtractor.extractKey(request, context);
+            RateLimitResult result = rateLimiter.tryAcquire(key);
+            
+            if (result.isAllowed()) {
+                logger.debug("Rate limit check passed for key: {} (remaining: {})", 
+                    key, result.getRemainingTokens());
+                
+                context.set(KEY, key);
+                context.setLong(REMAINING, result.getRemainingTokens());
+                context.setLong(RESET_TIME, result.getResetTime());
                 
-                if (result.isAllowed()) {
-                    logger.debug("Rate limit check passed for key: {} (remaining: {})", 
-                        key, result.getRemainingTokens());
-                    
-                    context.setAttribute("rate-limit.key", key);
-                    context.setAttribute("rate-limit.remaining", result.getRemainingTokens());
-                    context.setAttribute("rate-limit.reset-time", result.getResetTime());
-                    
-                    return FilterResult.proceed();
-                } else {
-                    logger.warn("Rate limit exceeded for key: {} (retry after: {}s)", 
-                        key, result.getRetryAfterSeconds());
-                    
-                    HttpResponse response = HttpResponse.tooManyRequests("Rate limit exceeded");
-                    response.setHeader("X-RateLimit-Limit", String.valueOf(result.getLimit()));
-                    response.setHeader("X-RateLimit-Remaining", "0");
-                    response.setHeader("X-RateLimit-Reset", String.valueOf(result.getResetTime()));
-                    response.setHeader("Retry-After", String.valueOf(result.getRetryAfterSeconds()));
-                    
-                    return FilterResult.respond(response);
-                }
+                return FilterResult.proceed();
+            } else {
+                logger.warn("Rate limit exceeded for key: {} (retry after: {}s)", 
+                    key, result.getRetryAfterSeconds());
                 
-            } catch (Exception e) {
-                logger.error("Rate limiting error for request: {} {}", 
-                    request.method(), request.path(), e);
-                return FilterResult.proceed(); 
+                HttpResponse response = HttpResponse.tooManyRequests("Rate limit exceeded");
+                response.setHeader("X-RateLimit-Limit", String.valueOf(result.getLimit()));
+                response.setHeader("X-RateLimit-Remaining", "0");
+                response.setHeader("X-RateLimit-Reset", String.valueOf(result.getResetTime()));
+                response.setHeader("Retry-After", String.valueOf(result.getRetryAfterSeconds()));
+                
+                return FilterResult.respond(response);
             }
-        });
+        
+        } catch (Exception e) {
+            logger.error("Rate limiting error for request: {} {}", 
+                request.method(), request.path(), e);
+            return FilterResult.proceed(); 
+        }
     }
     
     @Override
-    public CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            Object remaining = context.getAttribute("rate-limit.remaining");
-            Object resetTime = context.getAttribute("rate-limit.reset-time");
-            
-            if (remaining != null) {
-                response.setHeader("X-RateLimit-Remaining", remaining.toString());
-            }
-            if (resetTime != null) {
-                response.setHeader("X-RateLimit-Reset", resetTime.toString());
-            }
-            
-            return FilterResult.proceed();
-        });
+    public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+        if (context.has(REMAINING)) {
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(context.getLong(REMAINING, 0)));
+        }
+        if (context.has(RESET_TIME)) {
+            response.setHeader("X-RateLimit-Reset", String.valueOf(context.getLong(RESET_TIME, 0)));
+        }
+        
+        return FilterResult.proceed();
+    }
+    
+    private static BoundedRateLimiter createRateLimiter(DispatchConfig.FilterConfig config) {
+        String algorithm = config.getConfigString("algorithm", "token-bucket");
+        int requestsPerMinute = config.getConfigInt("requests-per-minute", 60);
+        int burstCapacity = config.getConfigInt("burst-capacity", 10);
+        int maxBuckets = config.getConfigInt("max-buckets", Constants.DEFAULT_RATE_LIMIT_MAX_BUCKETS);
+        OverflowPolicy overflowPolicy = OverflowPolicy.fromString(config.getConfigString("overflow-policy", "shared"));
+        int evictionIntervalMs = config.getConfigInt("eviction-interval-ms", 
+            (int) Constants.DEFAULT_RATE_LIMIT_EVICTION_INTERVAL_MS);
+        
+        return switch (algorithm.toLowerCase()) {
+            case "token-bucket" -> new TokenBucketRateLimiter(
+                requestsPerMinute, burstCapacity, maxBuckets, overflowPolicy, evictionIntervalMs);
+            case "sliding-window" -> new SlidingWindowRateLimiter(
+                requestsPerMinute, maxBuckets, overflowPolicy, evictionIntervalMs);
+            case "gcra" -> new GcraRateLimiter(
+                requestsPerMinute, burstCapacity, maxBuckets, overflowPolicy, evictionIntervalMs);
+            default -> throw new IllegalArgumentException(
+                "Unknown rate limiting algorithm '" + algorithm + "', expected token-bucket, sliding-window or gcra");
+        };
+    }
+    
+    private static SharedMemoryRateLimiter createSharedRateLimiter(Path file, DispatchConfig.FilterConfig config) {
+        String algorithm = config.getConfigString("algorithm", "token-bucket");
+        if (!"token-bucket".equalsIgnoreCase(algorithm) && !"gcra".equalsIgnoreCase(algorithm)) {
+            throw new IllegalArgumentException("Shared rate limit tables support the token-bucket and gcra algorithms, got '" 
+                + algorithm + "'");
+        }
+        
+        return new SharedMemoryRateLimiter(
+            file,
+            config.getConfigInt("shared-table-slots", Constants.DEFAULT_RATE_LIMIT_SHARED_TABLE_SLOTS),
+            config.getConfigInt("requests-per-minute", 60),
+            config.getConfigInt("burst-capacity", 10),
+            OverflowPolicy.fromString(config.getConfigString("overflow-policy", "shared"))
+        );
+    }
+    
+    private static SharedMemoryRateLimiter registerMetrics(SharedMemoryRateLimiter limiter) {
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.gauge("rate-limiting.shared.slots-in-use", limiter, SharedMemoryRateLimiter::getSlotsInUse);
+        registry.gauge("rate-limiting.overflows", limiter, SharedMemoryRateLimiter::getOverflowCount);
+        return limiter;
+    }
+    
+    private static BoundedRateLimiter registerMetrics(BoundedRateLimiter limiter) {
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.gauge("rate-limiting.buckets", limiter, BoundedRateLimiter::getBucketCount);
+        registry.gauge("rate-limiting.evictions", limiter, BoundedRateLimiter::getEvictionCount);
+        registry.gauge("rate-limiting.overflows", limiter, BoundedRateLimiter::getOverflowCount);
+        return limiter;
     }
     
     private KeyExtractor createKeyExtractor(String keyType, DispatchConfig.FilterConfig config) {
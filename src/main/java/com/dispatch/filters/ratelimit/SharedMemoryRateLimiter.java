@@ -0,0 +1,363 @@
+package com.dispatch.filters.ratelimit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * GCRA rate limiter whose state lives in a memory-mapped file shared by every
+ * gateway process on the host, so limits hold host-wide when several processes
+ * serve the same port.
+ * <p>
+ * The file holds a 64-byte header followed by an open-addressed hash table of
+ * 16-byte slots: the key's 64-bit hash and a state word packing a 16-bit key
+ * fingerprint with the key's theoretical arrival time (48 bits of microseconds since
+ * the table was created, enough for about eight years). All updates are atomic
+ * compare-and-sets on the mapped buffer. Keys are identified by hash only.
+ * <p>
+ * Slots are never explicitly freed. A slot whose key is idle (back to its full
+ * allowance) behaves exactly like an empty one, so new keys claim idle slots within
+ * their probe window. When none is available the {@link OverflowPolicy} applies.
+ * A slot's state is claimed before its key is written, so two processes seeing a new
+ * key at once can each claim a slot for it. After claiming, a process folds every
+ * later slot held by the key into the first, which is the one lookups find, so the
+ * key keeps a single allowance.
+ * <p>
+ * Time comes from the wall clock, the only clock all processes share. A clock that
+ * steps backwards makes limits temporarily stricter, never looser.
+ */
+public class SharedMemoryRateLimiter implements RateLimiter {
+    private static final long MAGIC = 0x4449535052544231L; // "DISPRTB1"
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int MAX_PROBES = 16;
+    private static final int MAX_SLOTS = 1 << 26;
+    
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SLOTS_OFFSET = 8;
+    private static final int EPOCH_OFFSET = 16;
+    private static final int SHARED_STATE_OFFSET = 24;
+    
+    private static final int TAT_BITS = 48;
+    private static final long TAT_MASK = (1L << TAT_BITS) - 1;
+    
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    
+    private final Gcra model;
+    private final OverflowPolicy overflowPolicy;
+    private final LongSupplier microClock;
+    private final MappedByteBuffer table;
+    private final int mask;
+    private final long epochMicros;
+    private final LongAdder overflows = new LongAdder();
+    
+    public SharedMemoryRateLimiter(Path file, int slots, int requestsPerMinute, int burstCapacity, 
+                                   OverflowPolicy overflowPolicy) {
+        this(file, slots, requestsPerMinute, burstCapacity, overflowPolicy, SharedMemoryRateLimiter::wallClockMicros);
+    }
+    
+    SharedMemoryRateLimiter(Path file, int slots, int requestsPerMinute, int burstCapacity, 
+                            OverflowPolicy overflowPolicy, LongSupplier microClock) {
+        if (slots < MAX_PROBES || slots > MAX_SLOTS || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two between " + MAX_PROBES 
+                + " and " + MAX_SLOTS + ", got " + slots);
+        }
+        this.model = new Gcra(requestsPerMinute, burstCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.microClock = microClock;
+        this.mask = slots - 1;
+        
+        try {
+            this.table = map(file, slots, microClock.getAsLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map shared rate limit table " + file, e);
+        }
+        this.epochMicros = (long) LONGS.getVolatile(table, EPOCH_OFFSET);
+    }
+    
+    @Override
+    public RateLimitResult tryAcquire(String key) {
+        long clock = microClock.getAsLong();
+        long nowMicros = Math.max(0, clock - epochMicros);
+        long nowMillis = clock / 1000;
+        long hash = hash(key);
+        long fingerprint = fingerprint(hash);
+        int start = (int) hash & mask;
+        
+        while (true) {
+            int free = -1;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = (start + probe) & mask;
+                if ((long) LONGS.getVolatile(table, keyOffset(slot)) == hash) {
+                    RateLimitResult result = acquire(stateOffset(slot), fingerprint, nowMicros, nowMillis);
+                    if (result != null) {
+                        return result;
+                    }
+                } else if (free < 0 && Gcra.isIdle(tat((long) LONGS.getVolatile(table, stateOffset(slot))), nowMicros)) {
+                    free = slot;
+                }
+            }
+            
+            if (free < 0) {
+                return overflow(nowMicros, nowMillis);
+            }
+            RateLimitResult result = claim(free, hash, fingerprint, nowMicros, nowMillis);
+            if (result != null) {
+                foldDuplicates(start, hash, fingerprint, nowMicros);
+                return result;
+            }
+        }
+    }
+    
+    @Override
+    public void reset(String key) {
+        long hash = hash(key);
+        long fingerprint = fingerprint(hash);
+        int start = (int) hash & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (start + probe) & mask;
+            if ((long) LONGS.getVolatile(table, keyOffset(slot)) == hash) {
+                long state = (long) LONGS.getVolatile(table, stateOffset(slot));
+                if (state >>> TAT_BITS == fingerprint) {
+                    LONGS.compareAndSet(table, stateOffset(slot), state, 0L);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reset every key in the table, for all processes sharing it
+     */
+    @Override
+    public void resetAll() {
+        for (int slot = 0; slot <= mask; slot++) {
+            LONGS.setVolatile(table, stateOffset(slot), 0L);
+        }
+        LONGS.setVolatile(table, SHARED_STATE_OFFSET, 0L);
+    }
+    
+    /**
+     * Number of slots holding a key that is not idle, across all processes
+     */
+    public int getSlotsInUse() {
+        long nowMicros = Math.max(0, microClock.getAsLong() - epochMicros);
+        int inUse = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!Gcra.isIdle(tat((long) LONGS.getVolatile(table, stateOffset(slot))), nowMicros)) {
+                inUse++;
+            }
+        }
+        return inUse;
+    }
+    
+    /**
+     * Total requests from this process for keys that found no free slot
+     */
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+    
+    /**
+     * @return the result, or null if the slot now belongs to a different key
+     */
+    private RateLimitResult acquire(int offset, long fingerprint, long nowMicros, long nowMillis) {
+        while (true) {
+            long state = (long) LONGS.getVolatile(table, offset);
+            if (state >>> TAT_BITS != fingerprint) {
+                return null;
+            }
+            
+            long tat = tat(state);
+            long next = model.next(tat, nowMicros);
+            if (!model.conforms(next, nowMicros)) {
+                return model.denied(tat, nowMicros, nowMillis);
+            }
+            if (LONGS.compareAndSet(table, offset, state, pack(fingerprint, next))) {
+                return model.allowed(next, nowMicros, nowMillis);
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Take over an idle slot for a new key
+     * 
+     * @return the result, or null if another request changed the slot first
+     */
+    private RateLimitResult claim(int slot, long hash, long fingerprint, long nowMicros, long nowMillis) {
+        long state = (long) LONGS.getVolatile(table, stateOffset(slot));
+        if (!Gcra.isIdle(tat(state), nowMicros)) {
+            return null;
+        }
+        
+        long next = model.next(nowMicros, nowMicros);
+        if (!model.conforms(next, nowMicros)) {
+            return model.denied(nowMicros, nowMicros, nowMillis);
+        }
+        if (!LONGS.compareAndSet(table, stateOffset(slot), state, pack(fingerprint, next))) {
+            return null;
+        }
+        LONGS.setVolatile(table, keyOffset(slot), hash);
+        return model.allowed(next, nowMicros, nowMillis);
+    }
+    
+    /**
+     * Fold the key's duplicate slots into its first, as after claiming a slot for it
+     */
+    void foldDuplicates(String key) {
+        long hash = hash(key);
+        foldDuplicates((int) hash & mask, hash, fingerprint(hash), Math.max(0, microClock.getAsLong() - epochMicros));
+    }
+    
+    /**
+     * Empty every slot held by the key after the first in its probe window, charging the
+     * allowance each had used to the first. Another process that claimed a slot for the
+     * same new key before either key was written is found here by at least one of the two.
+     */
+    private void foldDuplicates(int start, long hash, long fingerprint, long nowMicros) {
+        int first = -1;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (start + probe) & mask;
+            if ((long) LONGS.getVolatile(table, keyOffset(slot)) != hash) {
+                continue;
+            }
+            if (first < 0) {
+                if ((long) LONGS.getVolatile(table, stateOffset(slot)) >>> TAT_BITS == fingerprint) {
+                    first = slot;
+                }
+                continue;
+            }
+            long used = empty(stateOffset(slot), fingerprint, nowMicros);
+            if (used > 0) {
+                charge(stateOffset(first), fingerprint, used, nowMicros);
+            }
+        }
+    }
+    
+    /**
+     * Empty a slot held by the key
+     * 
+     * @return how much of its allowance the slot had used, in microseconds
+     */
+    private long empty(int offset, long fingerprint, long nowMicros) {
+        while (true) {
+            long state = (long) LONGS.getVolatile(table, offset);
+            if (state >>> TAT_BITS != fingerprint) {
+                return 0;
+            }
+            if (LONGS.compareAndSet(table, offset, state, 0L)) {
+                return Math.max(0, tat(state) - nowMicros);
+            }
+        }
+    }
+    
+    /**
+     * Use up more of a key's allowance, even past its burst; the key is denied until it
+     * has earned it back
+     */
+    private void charge(int offset, long fingerprint, long usedMicros, long nowMicros) {
+        while (true) {
+            long state = (long) LONGS.getVolatile(table, offset);
+            if (state >>> TAT_BITS != fingerprint) {
+                return;
+            }
+            if (LONGS.compareAndSet(table, offset, state, pack(fingerprint, Math.max(tat(state), nowMicros) + usedMicros))) {
+                return;
+            }
+        }
+    }
+    
+    private RateLimitResult overflow(long nowMicros, long nowMillis) {
+        overflows.increment();
+        return switch (overflowPolicy) {
+            case SHARED -> acquire(SHARED_STATE_OFFSET, 0, nowMicros, nowMillis);
+            case ALLOW -> model.allowed(model.next(nowMicros, nowMicros), nowMicros, nowMillis);
+            case DENY -> RateLimitResult.denied(nowMillis / 1000 + 1, model.requestsPerMinute(), 1);
+        };
+    }
+    
+    /**
+     * Map the table, creating and initializing the file if this is the first process to use it
+     */
+    private static MappedByteBuffer map(Path file, int slots, long nowMicros) throws IOException {
+        long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+        try (FileChannel channel = FileChannel.open(file, 
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            
+            boolean created = channel.size() == 0;
+            if (!created && channel.size() != size) {
+                throw new IllegalStateException("Shared rate limit table " + file + " has size " + channel.size() 
+                    + ", expected " + size + " for " + slots + " slots");
+            }
+            
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (created) {
+                LONGS.setVolatile(buffer, SLOTS_OFFSET, (long) slots);
+                LONGS.setVolatile(buffer, EPOCH_OFFSET, nowMicros);
+                LONGS.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+            } else if ((long) LONGS.getVolatile(buffer, MAGIC_OFFSET) != MAGIC 
+                || (long) LONGS.getVolatile(buffer, SLOTS_OFFSET) != slots) {
+                throw new IllegalStateException("File " + file + " is not a shared rate limit table with " + slots + " slots");
+            }
+            return buffer;
+        }
+    }
+    
+    /**
+     * 64-bit FNV-1a over the key's characters with a final avalanche, identical in every
+     * process. Never zero, since zero marks an empty slot.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash != 0 ? hash : 1;
+    }
+    
+    /**
+     * Non-zero 16-bit tag stored with the state, so a slot taken over by another key is detected
+     */
+    private static long fingerprint(long hash) {
+        long fingerprint = hash >>> TAT_BITS;
+        return fingerprint != 0 ? fingerprint : 1;
+    }
+    
+    private static long pack(long fingerprint, long tat) {
+        return (fingerprint << TAT_BITS) | (tat & TAT_MASK);
+    }
+    
+    private static long tat(long state) {
+        return state & TAT_MASK;
+    }
+    
+    private static int keyOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+    
+    private static int stateOffset(int slot) {
+        return keyOffset(slot) + 8;
+    }
+    
+    private static long wallClockMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+    }
+}
\ No newline at end of file
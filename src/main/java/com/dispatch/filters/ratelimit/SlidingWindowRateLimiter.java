@@ -0,0 +1,148 @@
+package com.dispatch.filters.ratelimit;
+
+import com.dispatch.core.Constants;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding window counter rate limiter enforcing a strict per-minute quota.
+ * <p>
+ * Requests are counted in fixed one-minute windows, and the count for the last 60
+ * seconds is estimated as the current window's count plus the previous window's count
+ * weighted by how much of it still overlaps the sliding window. Unlike a token bucket
+ * this never admits a full burst at the end of one minute followed by another at the
+ * start of the next.
+ * <p>
+ * The window index (23 bits) and both counts (20 bits each) are packed into one
+ * {@code long} per key, which limits the quota to {@value #MAX_LIMIT} requests per minute.
+ */
+public class SlidingWindowRateLimiter extends BoundedRateLimiter {
+    static final int MAX_LIMIT = (1 << 20) - 1;
+    
+    private static final long WINDOW_MICROS = 60_000_000L;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << 23) - 1;
+    
+    private final int requestsPerMinute;
+    
+    public SlidingWindowRateLimiter(int requestsPerMinute) {
+        this(requestsPerMinute, Constants.DEFAULT_RATE_LIMIT_MAX_BUCKETS, 
+            OverflowPolicy.SHARED, Constants.DEFAULT_RATE_LIMIT_EVICTION_INTERVAL_MS);
+    }
+    
+    public SlidingWindowRateLimiter(int requestsPerMinute, int maxBuckets, 
+                                    OverflowPolicy overflowPolicy, long evictionIntervalMs) {
+        this(requestsPerMinute, maxBuckets, overflowPolicy, evictionIntervalMs, System::nanoTime);
+    }
+    
+    SlidingWindowRateLimiter(int requestsPerMinute, int maxBuckets, 
+                             OverflowPolicy overflowPolicy, long evictionIntervalMs, LongSupplier nanoClock) {
+        super(maxBuckets, overflowPolicy, evictionIntervalMs, nanoClock);
+        if (requestsPerMinute < 1 || requestsPerMinute > MAX_LIMIT) {
+            throw new IllegalArgumentException("Requests per minute must be between 1 and " + MAX_LIMIT + ", got " + requestsPerMinute);
+        }
+        this.requestsPerMinute = requestsPerMinute;
+    }
+    
+    @Override
+    protected long initialState(long nowMicros) {
+        return pack(nowMicros / WINDOW_MICROS, 0, 0);
+    }
+    
+    @Override
+    protected long tryTake(long state, long nowMicros) {
+        long rolled = roll(state, nowMicros);
+        long previous = previous(rolled);
+        long current = current(rolled);
+        long remainingMicros = WINDOW_MICROS - nowMicros % WINDOW_MICROS;
+        
+        if (current >= requestsPerMinute 
+            || previous * remainingMicros + (current + 1) * WINDOW_MICROS > requestsPerMinute * WINDOW_MICROS) {
+            return REJECT;
+        }
+        return rolled + 1;
+    }
+    
+    @Override
+    protected RateLimitResult allowedResult(long state, long nowMicros, long nowMillis) {
+        long remainingMicros = WINDOW_MICROS - nowMicros % WINDOW_MICROS;
+        long weightedPrevious = Math.ceilDiv(previous(state) * remainingMicros, WINDOW_MICROS);
+        int remaining = (int) Math.max(0, requestsPerMinute - current(state) - weightedPrevious);
+        return RateLimitResult.allowed(remaining, resetTime(state, nowMicros, nowMillis), requestsPerMinute);
+    }
+    
+    @Override
+    protected RateLimitResult deniedResult(long state, long nowMicros, long nowMillis) {
+        long rolled = roll(state, nowMicros);
+        long previous = previous(rolled);
+        long current = current(rolled);
+        long elapsedMicros = nowMicros % WINDOW_MICROS;
+        
+        // Time until the weighted count leaves room for one more request
+        long waitMicros;
+        if (current < requestsPerMinute) {
+            long allowedAt = WINDOW_MICROS - (requestsPerMinute - current - 1) * WINDOW_MICROS / previous;
+            waitMicros = allowedAt - elapsedMicros;
+        } else {
+            long allowedAt = WINDOW_MICROS - (requestsPerMinute - 1) * WINDOW_MICROS / current;
+            waitMicros = WINDOW_MICROS - elapsedMicros + allowedAt;
+        }
+        long retryAfterSeconds = Math.max(1, waitMicros / 1_000_000);
+        return RateLimitResult.denied(resetTime(rolled, nowMicros, nowMillis), requestsPerMinute, retryAfterSeconds);
+    }
+    
+    @Override
+    protected boolean isIdle(long state, long nowMicros) {
+        long rolled = roll(state, nowMicros);
+        return previous(rolled) == 0 && current(rolled) == 0;
+    }
+    
+    @Override
+    protected int limit() {
+        return requestsPerMinute;
+    }
+    
+    /**
+     * Bring a state forward to the window containing now
+     */
+    static long roll(long state, long nowMicros) {
+        long window = (nowMicros / WINDOW_MICROS) & WINDOW_MASK;
+        long stored = state >>> (2 * COUNT_BITS);
+        if (stored == window) {
+            return state;
+        }
+        if (((window - stored) & WINDOW_MASK) == 1) {
+            return pack(window, current(state), 0);
+        }
+        return pack(window, 0, 0);
+    }
+    
+    /**
+     * Wall-clock second at which the quota is fully available again: the end of the
+     * window after the last one with requests
+     */
+    private static long resetTime(long state, long nowMicros, long nowMillis) {
+        long untilResetMicros;
+        if (current(state) > 0) {
+            untilResetMicros = 2 * WINDOW_MICROS - nowMicros % WINDOW_MICROS;
+        } else if (previous(state) > 0) {
+            untilResetMicros = WINDOW_MICROS - nowMicros % WINDOW_MICROS;
+        } else {
+            return nowMillis / 1000 + 60;
+        }
+        return (nowMillis + untilResetMicros / 1000) / 1000;
+    }
+    
+    static long pack(long window, long previous, long current) {
+        return ((window & WINDOW_MASK) << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | current;
+    }
+    
+    static long previous(long state) {
+        return (state >>> COUNT_BITS) & COUNT_MASK;
+    }
+    
+    static long current(long state) {
+        return state & COUNT_MASK;
+    }
+}
\ No newline at end of file
@@ -1,86 +1,67 @@
 package com.dispatch.filters.ratelimit;
 
-import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import com.dispatch.core.Constants;
 
-public class TokenBucketRateLimiter implements RateLimiter {
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token bucket rate limiter.
+ * <p>
+ * Each key's tokens and last refill time are packed into one {@code long} (see
+ * {@link PackedTokenBucket}). Buckets that have refilled to capacity are idle and
+ * evicted, which loses nothing since a new bucket starts full.
+ */
+public class TokenBucketRateLimiter extends BoundedRateLimiter {
     
-    private final int requestsPerMinute;
-    private final int burstCapacity;
-    private final ConcurrentMap<String, TokenBucket> buckets;
+    private final PackedTokenBucket model;
     
     public TokenBucketRateLimiter(int requestsPerMinute, int burstCapacity) {
-        this.requestsPerMinute = requestsPerMinute;
-        this.burstCapacity = burstCapacity;
-        this.buckets = new ConcurrentHashMap<>();
+        this(requestsPerMinute, burstCapacity, Constants.DEFAULT_RATE_LIMIT_MAX_BUCKETS, 
+            OverflowPolicy.SHARED, Constants.DEFAULT_RATE_LIMIT_EVICTION_INTERVAL_MS);
+    }
+    
+    public TokenBucketRateLimiter(int requestsPerMinute, int burstCapacity, int maxBuckets, 
+                                  OverflowPolicy overflowPolicy, long evictionIntervalMs) {
+        this(requestsPerMinute, burstCapacity, maxBuckets, overflowPolicy, evictionIntervalMs, System::nanoTime);
+    }
+    
+    TokenBucketRateLimiter(int requestsPerMinute, int burstCapacity, int maxBuckets, 
+                           OverflowPolicy overflowPolicy, long evictionIntervalMs, LongSupplier nanoClock) {
+        super(maxBuckets, overflowPolicy, evictionIntervalMs, nanoClock);
+        this.model = new PackedTokenBucket(requestsPerMinute, burstCapacity);
+    }
+    
+    @Override
+    protected long initialState(long nowMicros) {
+        return model.full(nowMicros);
+    }
+    
+    @Override
+    protected long tryTake(long state, long nowMicros) {
+        long refilled = model.refill(state, nowMicros);
+        return PackedTokenBucket.hasToken(refilled) ? PackedTokenBucket.take(refilled) : REJECT;
     }
     
     @Override
-    public RateLimitResult tryAcquire(String key) {
-        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(requestsPerMinute, burstCapacity));
-        return bucket.tryAcquire();
+    protected RateLimitResult allowedResult(long state, long nowMicros, long nowMillis) {
+        // Reset time is reported as of before this request's token was taken
+        return RateLimitResult.allowed(PackedTokenBucket.remaining(state), 
+            model.resetTime(state + PackedTokenBucket.ONE_TOKEN, nowMillis), limit());
     }
     
     @Override
-    public void reset(String key) {
-        buckets.remove(key);
+    protected RateLimitResult deniedResult(long state, long nowMicros, long nowMillis) {
+        long refilled = model.refill(state, nowMicros);
+        return RateLimitResult.denied(model.resetTime(refilled, nowMillis), limit(), model.retryAfterSeconds(refilled));
     }
     
     @Override
-    public void resetAll() {
-        buckets.clear();
+    protected boolean isIdle(long state, long nowMicros) {
+        return model.isFull(model.refill(state, nowMicros));
     }
     
-    private static class TokenBucket {
-        private final int requestsPerMinute;
-        private final int burstCapacity;
-        private final double refillRate; // tokens per millisecond
-        
-        private volatile double tokens;
-        private volatile long lastRefillTime;
-        
-        public TokenBucket(int requestsPerMinute, int burstCapacity) {
-            this.requestsPerMinute = requestsPerMinute;
-            this.burstCapacity = burstCapacity;
-            this.refillRate = requestsPerMinute / 60000.0; // per millisecond
-            this.tokens = burstCapacity;
-            this.lastRefillTime = System.currentTimeMillis();
-        }
-        
-        public synchronized RateLimitResult tryAcquire() {
-            long now = System.currentTimeMillis();
-            refill(now);
-            
-            long resetTime = calculateResetTime(now);
-            
-            if (tokens >= 1.0) {
-                tokens -= 1.0;
-                int remaining = (int) Math.floor(tokens);
-                return RateLimitResult.allowed(remaining, resetTime, requestsPerMinute);
-            } else {
-                long retryAfterMs = (long) ((1.0 - tokens) / refillRate);
-                long retryAfterSeconds = Math.max(1, retryAfterMs / 1000);
-                return RateLimitResult.denied(resetTime, requestsPerMinute, retryAfterSeconds);
-            }
-        }
-        
-        private void refill(long now) {
-            long timePassed = now - lastRefillTime;
-            double tokensToAdd = timePassed * refillRate;
-            
-            tokens = Math.min(burstCapacity, tokens + tokensToAdd);
-            lastRefillTime = now;
-        }
-        
-        private long calculateResetTime(long now) {
-            if (tokens >= burstCapacity) {
-                return now / 1000 + 60; // Next minute
-            }
-            
-            double tokensNeeded = burstCapacity - tokens;
-            long timeToFill = (long) (tokensNeeded / refillRate);
-            return (now + timeToFill) / 1000;
-        }
+    @Override
+    protected int limit() {
+        return model.requestsPerMinute();
     }
 }
\ No newline at end of file
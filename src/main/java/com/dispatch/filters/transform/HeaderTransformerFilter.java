@@ -8,9 +8,8 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
-public class HeaderTransformerFilter implements GatewayFilter {
+public class HeaderTransformerFilter implements SynchronousGatewayFilter {
     private static final Logger logger = LoggerFactory.getLogger(HeaderTransformerFilter.class);
     
     private final List<HeaderTransformation> requestTransformations;
@@ -41,39 +40,40 @@ public class HeaderTransformerFilter implements GatewayFilter {
     }
     
     @Override
-    public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                for (HeaderTransformation transformation : requestTransformations) {
-                    transformation.apply(request, context);
-                }
-                
-                logger.debug("Applied {} request header transformations", requestTransformations.size());
-                return FilterResult.proceed();
-                
-            } catch (Exception e) {
-                logger.error("Error applying request header transformations", e);
-                return FilterResult.proceed(); 
+    public boolean alwaysApplies() {
+        return true;
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        try {
+            for (HeaderTransformation transformation : requestTransformations) {
+                transformation.apply(request, context);
             }
-        });
+            
+            logger.debug("Applied {} request header transformations", requestTransformations.size());
+            return FilterResult.proceed();
+            
+        } catch (Exception e) {
+            logger.error("Error applying request header transformations", e);
+            return FilterResult.proceed(); 
+        }
     }
     
     @Override
-    public CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                for (HeaderTransformation transformation : responseTransformations) {
-                    transformation.applyToResponse(response, context);
-                }
-                
-                logger.debug("Applied {} response header transformations", responseTransformations.size());
-                return FilterResult.proceed();
-                
-            } catch (Exception e) {
-                logger.error("Error applying response header transformations", e);
-                return FilterResult.proceed();
+    public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+        try {
+            for (HeaderTransformation transformation : responseTransformations) {
+                transformation.applyToResponse(response, context);
             }
-        });
+            
+            logger.debug("Applied {} response header transformations", responseTransformations.size());
+            return FilterResult.proceed();
+            
+        } catch (Exception e) {
+            logger.error("Error applying response header transformations", e);
+            return FilterResult.proceed();
+        }
     }
     
     private List<HeaderTransformation> getDefaultRequestTransformations() {
@@ -0,0 +1,115 @@
+package com.dispatch.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free latency histogram over a rolling window, for percentiles on the request path.
+ * <p>
+ * Latencies are counted in log-linear microsecond buckets (four per power of two, so a
+ * percentile is accurate to within 25%). The window is split into two halves; the half
+ * being written is cleared when its time comes round again, so percentiles cover between
+ * one and two half-windows of recent samples.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 40 * SUB_BUCKETS;
+    
+    private final long halfWindowNanos;
+    private final LongSupplier clock;
+    private final AtomicLong[] epochs = {new AtomicLong(Long.MIN_VALUE), new AtomicLong(Long.MIN_VALUE)};
+    private final AtomicLongArray[] counts = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+    
+    public LatencyHistogram(long windowMs) {
+        this(windowMs, System::nanoTime);
+    }
+    
+    LatencyHistogram(long windowMs, LongSupplier clock) {
+        this.halfWindowNanos = Math.max(1, windowMs * 1_000_000 / 2);
+        this.clock = clock;
+    }
+    
+    public void record(long nanos) {
+        long epoch = clock.getAsLong() / halfWindowNanos;
+        int half = (int) (epoch & 1);
+        long current = epochs[half].get();
+        if (current < epoch && epochs[half].compareAndSet(current, epoch)) {
+            AtomicLongArray stale = counts[half];
+            for (int i = 0; i < BUCKETS; i++) {
+                stale.set(i, 0);
+            }
+        }
+        counts[half].incrementAndGet(bucket(nanos / 1000));
+    }
+    
+    /**
+     * Samples recorded in the current window
+     */
+    public long count() {
+        long total = 0;
+        long epoch = clock.getAsLong() / halfWindowNanos;
+        for (int half = 0; half < 2; half++) {
+            if (isLive(half, epoch)) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    total += counts[half].get(i);
+                }
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given percentile, in nanoseconds, or -1 if
+     * the window has no samples
+     */
+    public long percentileNanos(double percentile) {
+        long epoch = clock.getAsLong() / halfWindowNanos;
+        boolean first = isLive(0, epoch);
+        boolean second = isLive(1, epoch);
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = (first ? counts[0].get(i) : 0) + (second ? counts[1].get(i) : 0);
+            merged[i] = count;
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) * 1000;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) * 1000;
+    }
+    
+    private boolean isLive(int half, long epoch) {
+        long age = epoch - epochs[half].get();
+        return age >= 0 && age < 2;
+    }
+    
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, exponent * SUB_BUCKETS + sub);
+    }
+    
+    static long upperBoundMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
\ No newline at end of file
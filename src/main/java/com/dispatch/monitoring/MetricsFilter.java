@@ -0,0 +1,54 @@
+package com.dispatch.monitoring;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves a JSON snapshot of the {@link MetricsRegistry} at a fixed path ({@code /metrics} by default).
+ */
+public class MetricsFilter implements SynchronousGatewayFilter {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsFilter.class);
+    
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry registry;
+    private final String path;
+    
+    public MetricsFilter() {
+        this(MetricsRegistry.global(), "/metrics");
+    }
+    
+    public MetricsFilter(DispatchConfig.FilterConfig config) {
+        this(MetricsRegistry.global(), config.getConfigString("path", "/metrics"));
+    }
+    
+    public MetricsFilter(MetricsRegistry registry, String path) {
+        this.objectMapper = new ObjectMapper();
+        this.registry = registry;
+        this.path = path;
+    }
+    
+    @Override
+    public String getName() {
+        return "metrics";
+    }
+    
+    @Override
+    public boolean shouldApply(HttpRequest request) {
+        return path.equals(request.path());
+    }
+    
+    @Override
+    public FilterResult filter(HttpRequest request, FilterContext context) {
+        try {
+            HttpResponse response = new HttpResponse(200, objectMapper.writeValueAsString(registry.snapshot()));
+            response.setHeader("Content-Type", "application/json");
+            return FilterResult.respond(response);
+        } catch (Exception e) {
+            logger.error("Failed to render metrics", e);
+            return FilterResult.error(500, "Metrics error");
+        }
+    }
+}
\ No newline at end of file
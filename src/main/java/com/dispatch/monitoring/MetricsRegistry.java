@@ -0,0 +1,76 @@
+package com.dispatch.monitoring;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+/**
+ * Process-wide registry of named gauges.
+ * <p>
+ * A gauge reads a value from a source object held by weak reference, so filters
+ * replaced by a configuration reload drop out of the registry on their own. Several
+ * sources registered under the same name (e.g. one rate limiter per route) are
+ * reported as their sum.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    
+    private final ConcurrentMap<String, List<Gauge<?>>> gauges = new ConcurrentHashMap<>();
+    
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+    
+    /**
+     * Register a gauge. The function must not capture the source, or it will never be released.
+     */
+    public <T> void gauge(String name, T source, ToLongFunction<T> value) {
+        gauges.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>())
+            .add(new Gauge<>(new WeakReference<>(source), value));
+    }
+    
+    /**
+     * Current value of a gauge, summed over its live sources
+     */
+    public long value(String name) {
+        List<Gauge<?>> sources = gauges.get(name);
+        if (sources == null) {
+            return 0;
+        }
+        sources.removeIf(Gauge::isReleased);
+        
+        long total = 0;
+        for (Gauge<?> gauge : sources) {
+            total += gauge.read();
+        }
+        return total;
+    }
+    
+    /**
+     * Current value of every gauge, sorted by name
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (String name : gauges.keySet()) {
+            snapshot.put(name, value(name));
+        }
+        return snapshot;
+    }
+    
+    private record Gauge<T>(WeakReference<T> source, ToLongFunction<T> value) {
+        
+        long read() {
+            T target = source.get();
+            return target != null ? value.applyAsLong(target) : 0;
+        }
+        
+        boolean isReleased() {
+            return source.get() == null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.dispatch.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free event count over a sliding time window, kept as a ring of fixed-width
+ * buckets. Each bucket is tagged with the epoch (time / bucket width) it counts for;
+ * the first writer in a new epoch claims the bucket with a CAS on its tag and resets
+ * it. Increments racing with a reset can be lost, which is fine for budgets and rates.
+ * The clock is in nanoseconds.
+ */
+public class SlidingWindowCounter {
+    private final int buckets;
+    private final long bucketNanos;
+    private final LongSupplier clock;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray counts;
+    
+    public SlidingWindowCounter(long windowMs, int buckets, LongSupplier clock) {
+        this.buckets = buckets;
+        this.bucketNanos = Math.max(1, windowMs * 1_000_000 / buckets);
+        this.clock = clock;
+        this.epochs = new AtomicLongArray(buckets);
+        this.counts = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+    
+    public void increment() {
+        long epoch = clock.getAsLong() / bucketNanos;
+        int index = (int) Math.floorMod(epoch, buckets);
+        long current = epochs.get(index);
+        if (current < epoch && epochs.compareAndSet(index, current, epoch)) {
+            counts.set(index, 0);
+        }
+        counts.incrementAndGet(index);
+    }
+    
+    /**
+     * Events counted in the buckets that are still inside the window
+     */
+    public long sum() {
+        long epoch = clock.getAsLong() / bucketNanos;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long age = epoch - epochs.get(i);
+            if (age >= 0 && age < buckets) {
+                total += counts.get(i);
+            }
+        }
+        return total;
+    }
+}
\ No newline at end of file
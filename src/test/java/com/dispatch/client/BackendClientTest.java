@@ -0,0 +1,108 @@
+package com.dispatch.client;
+
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackendClientTest {
+    
+    private ServerSocket server;
+    private String backendUrl;
+    private final AtomicInteger connections = new AtomicInteger();
+    private BackendClient client;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        // Accepts and immediately drops every connection, so each attempt fails with an IOException
+        server = new ServerSocket(0);
+        backendUrl = "http://127.0.0.1:" + server.getLocalPort();
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    connections.incrementAndGet();
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        
+        client = new BackendClient(Duration.ofSeconds(1), Duration.ofSeconds(2), new RetryPolicy(2, 10, 50, 2.0));
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        server.close();
+    }
+    
+    @Test
+    void testIdempotentRequestIsRetried() {
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET), backendUrl).join();
+        
+        assertEquals(502, response.statusCode());
+        assertTrue(connections.get() >= 3, "attempts: " + connections.get());
+    }
+    
+    @Test
+    void testNonIdempotentRequestIsNotRetried() {
+        HttpResponse response = client.proxyRequest(request(HttpMethod.POST), backendUrl).join();
+        
+        assertEquals(502, response.statusCode());
+        assertEquals(1, connections.get());
+    }
+    
+    @Test
+    void testRetriesStopWhenBudgetIsExhausted() {
+        client.shutdown();
+        client = new BackendClient(Duration.ofSeconds(1), Duration.ofSeconds(2), new RetryPolicy(2, 10, 50, 2.0), 0, 0);
+        
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET), backendUrl).join();
+        
+        assertEquals(502, response.statusCode());
+        assertEquals(0, client.getRetryBudget(backendUrl).getAttemptedCount());
+        assertEquals(1, client.getRetryBudget(backendUrl).getSuppressedCount());
+    }
+    
+    @Test
+    void testCancelledRequestIsNotRetried() throws Exception {
+        client.shutdown();
+        CountDownLatch backingOff = new CountDownLatch(1);
+        client = new BackendClient(Duration.ofSeconds(1), Duration.ofSeconds(2), new RetryPolicy(2) {
+            @Override
+            public long delayMillis(int attempt) {
+                backingOff.countDown();
+                return 200;
+            }
+        });
+        
+        CompletableFuture<HttpResponse> response = client.proxyRequest(request(HttpMethod.GET), backendUrl);
+        assertTrue(backingOff.await(5, TimeUnit.SECONDS));
+        int attempts = connections.get();
+        response.cancel(false);
+        Thread.sleep(400);
+        
+        assertEquals(attempts, connections.get());
+    }
+    
+    private static HttpRequest request(HttpMethod method) {
+        return new HttpRequest(method, "/test", new DefaultHttpHeaders(), "body".getBytes(),
+            new InetSocketAddress("127.0.0.1", 8080));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,406 @@
+package com.dispatch.client;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NettyBackendClientTest {
+    
+    private HttpServer backend;
+    private String backendUrl;
+    private EventLoopGroup group;
+    private NettyBackendClient client;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch slowLatch = new CountDownLatch(1);
+    private byte[] download;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        download = new byte[2 * 1024 * 1024];
+        new Random(7).nextBytes(download);
+        
+        backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        backend.setExecutor(Executors.newCachedThreadPool());
+        backend.createContext("/echo", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            exchange.getResponseHeaders().add("X-Backend-Host", exchange.getRequestHeaders().getFirst("Host"));
+            exchange.getResponseHeaders().add("X-Backend-Path", exchange.getRequestURI().toString());
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        backend.createContext("/download", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(download);
+            }
+        });
+        backend.createContext("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, download.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(download, 0, 1024);
+            out.flush();
+            try {
+                slowLatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        backend.createContext("/slow", exchange -> {
+            try {
+                slowLatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        backend.start();
+        backendUrl = "http://127.0.0.1:" + backend.getAddress().getPort();
+        
+        group = new NioEventLoopGroup(2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        slowLatch.countDown();
+        if (client != null) {
+            client.shutdown();
+        }
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        backend.stop(0);
+    }
+    
+    @Test
+    void testBufferedRequestAndResponse() {
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        
+        HttpResponse response = client.proxyRequest(request(HttpMethod.POST, "/echo?x=1", "hello".getBytes()), backendUrl).join();
+        
+        assertEquals(200, response.statusCode());
+        assertEquals("hello", response.bodyAsString());
+        assertEquals("127.0.0.1:" + backend.getAddress().getPort(), response.getHeader("X-Backend-Host"));
+        assertEquals("/echo?x=1", response.getHeader("X-Backend-Path"));
+    }
+    
+    @Test
+    void testBackendPathPrefix() {
+        backend.createContext("/base/echo", exchange -> {
+            exchange.getResponseHeaders().add("X-Backend-Path", exchange.getRequestURI().toString());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl + "/base/").join();
+        
+        assertEquals(204, response.statusCode());
+        assertEquals("/base/echo", response.getHeader("X-Backend-Path"));
+    }
+    
+    @Test
+    void testConnectionsAreReused() {
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).join().statusCode());
+        }
+        
+        assertEquals(1, clientPorts.size());
+    }
+    
+    @Test
+    void testIdleConnectionsAreClosed() throws Exception {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setIdleTimeoutMs(100);
+        client = new NettyBackendClient(group, config);
+        
+        client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).join();
+        Thread.sleep(400);
+        client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).join();
+        
+        assertEquals(2, clientPorts.size());
+    }
+    
+    @Test
+    void testExpiredConnectionsAreReplaced() throws Exception {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setMaxLifetimeMs(50);
+        client = new NettyBackendClient(group, config);
+        
+        client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).join();
+        Thread.sleep(100);
+        client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).join();
+        
+        assertEquals(2, clientPorts.size());
+    }
+    
+    @Test
+    void testPendingAcquireQueueIsBounded() {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setMaxConnectionsPerBackend(1);
+        config.setMaxPendingAcquires(1);
+        client = new NettyBackendClient(group, config);
+        
+        CompletableFuture<HttpResponse> active = client.proxyRequest(request(HttpMethod.GET, "/slow", null), backendUrl);
+        CompletableFuture<HttpResponse> queued = client.proxyRequest(request(HttpMethod.GET, "/slow", null), backendUrl);
+        HttpResponse rejected = client.proxyRequest(request(HttpMethod.GET, "/slow", null), backendUrl).join();
+        
+        assertEquals(503, rejected.statusCode());
+        
+        slowLatch.countDown();
+        assertEquals(200, active.join().statusCode());
+        assertEquals(200, queued.join().statusCode());
+    }
+    
+    @Test
+    void testIdempotentRequestIsResentAfterStaleConnection() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        try (ServerSocket server = closeSecondRequestBackend(requests)) {
+            client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+            String url = "http://127.0.0.1:" + server.getLocalPort();
+            
+            assertEquals(200, client.proxyRequest(request(HttpMethod.GET, "/x", null), url).get(2, TimeUnit.SECONDS).statusCode());
+            assertEquals(200, client.proxyRequest(request(HttpMethod.GET, "/x", null), url).get(2, TimeUnit.SECONDS).statusCode());
+            assertEquals(3, requests.get());
+        }
+    }
+    
+    @Test
+    void testNonIdempotentRequestIsNotResentAfterStaleConnection() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        try (ServerSocket server = closeSecondRequestBackend(requests)) {
+            client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+            String url = "http://127.0.0.1:" + server.getLocalPort();
+            
+            assertEquals(200, client.proxyRequest(request(HttpMethod.POST, "/x", new byte[] {1}), url).get(2, TimeUnit.SECONDS).statusCode());
+            assertEquals(502, client.proxyRequest(request(HttpMethod.POST, "/x", new byte[] {1}), url).get(2, TimeUnit.SECONDS).statusCode());
+            assertEquals(2, requests.get());
+        }
+    }
+    
+    @Test
+    void testCancelledRequestFreesConnection() throws Exception {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setMaxConnectionsPerBackend(1);
+        client = new NettyBackendClient(group, config);
+        
+        CompletableFuture<HttpResponse> abandoned = client.proxyRequest(request(HttpMethod.GET, "/slow", null), backendUrl);
+        Thread.sleep(100);
+        abandoned.cancel(false);
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET, "/echo", null), backendUrl).get(2, TimeUnit.SECONDS);
+        
+        assertEquals(200, response.statusCode());
+    }
+    
+    @Test
+    void testRequestTimeout() {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setRequestTimeoutMs(200);
+        client = new NettyBackendClient(group, config);
+        
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET, "/slow", null), backendUrl).join();
+        
+        assertEquals(503, response.statusCode());
+    }
+    
+    @Test
+    void testConnectionRefused() throws Exception {
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        
+        HttpResponse response = client.proxyRequest(request(HttpMethod.GET, "/echo", null), "http://127.0.0.1:" + freePort()).join();
+        
+        assertEquals(502, response.statusCode());
+    }
+    
+    @Test
+    void testStreamingResponse() {
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        
+        HttpResponse response = client.proxyStreamingRequest(request(HttpMethod.GET, "/download", null), backendUrl).join();
+        
+        assertTrue(response.isStreaming());
+        assertArrayEquals(download, collect(response.bodyStream()).join());
+    }
+    
+    @Test
+    void testStalledStreamingResponseTimesOut() throws Exception {
+        DispatchConfig.ClientConfig config = new DispatchConfig.ClientConfig();
+        config.setRequestTimeoutMs(200);
+        client = new NettyBackendClient(group, config);
+        
+        HttpResponse response = client.proxyStreamingRequest(request(HttpMethod.GET, "/stall", null), backendUrl).join();
+        CompletableFuture<byte[]> body = collect(response.bodyStream());
+        
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> body.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(HttpTimeoutException.class, failure.getCause());
+    }
+    
+    @Test
+    void testStreamingRequestBody() {
+        client = new NettyBackendClient(group, new DispatchConfig.ClientConfig());
+        byte[] upload = Arrays.copyOf(download, 512 * 1024);
+        
+        List<ByteBuf> chunks = new ArrayList<>();
+        for (int offset = 0; offset < upload.length; offset += 16 * 1024) {
+            chunks.add(Unpooled.wrappedBuffer(upload, offset, 16 * 1024));
+        }
+        HttpHeaders headers = new DefaultHttpHeaders().set("Content-Length", upload.length);
+        HttpRequest request = new HttpRequest(HttpMethod.POST, "/echo", headers, null,
+            new InetSocketAddress("127.0.0.1", 8080), publisher(chunks));
+        
+        HttpResponse response = client.proxyStreamingRequest(request, backendUrl).join();
+        
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(upload, collect(response.bodyStream()).join());
+    }
+    
+    /**
+     * A backend that answers the first request on each connection and, like one that
+     * processed a request and then crashed, reads the second and closes the connection
+     */
+    private static ServerSocket closeSecondRequestBackend(AtomicInteger requests) throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    InputStream in = socket.getInputStream();
+                    readRequest(in);
+                    requests.incrementAndGet();
+                    socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes());
+                    if (readRequest(in)) {
+                        requests.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    // Next connection
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+    
+    /**
+     * Read one request with a Content-Length body, or return false at end of stream
+     */
+    private static boolean readRequest(InputStream in) throws Exception {
+        StringBuilder head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b < 0) {
+                return false;
+            }
+            head.append((char) b);
+        }
+        Matcher length = Pattern.compile("(?i)content-length: *(\\d+)").matcher(head);
+        in.readNBytes(length.find() ? Integer.parseInt(length.group(1)) : 0);
+        return true;
+    }
+    
+    private static HttpRequest request(HttpMethod method, String uri, byte[] body) {
+        return new HttpRequest(method, uri, new DefaultHttpHeaders(), body, new InetSocketAddress("127.0.0.1", 8080));
+    }
+    
+    /**
+     * Publishes the given chunks on the requesting thread, honouring demand
+     */
+    private static Flow.Publisher<ByteBuf> publisher(List<ByteBuf> chunks) {
+        return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private int next;
+            
+            @Override
+            public synchronized void request(long n) {
+                for (long i = 0; i < n && next < chunks.size(); i++) {
+                    subscriber.onNext(chunks.get(next++));
+                }
+                if (next == chunks.size()) {
+                    next++;
+                    subscriber.onComplete();
+                }
+            }
+            
+            @Override
+            public void cancel() {
+            }
+        });
+    }
+    
+    private static CompletableFuture<byte[]> collect(Flow.Publisher<ByteBuf> publisher) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(ByteBuf item) {
+                byte[] bytes = new byte[item.readableBytes()];
+                item.readBytes(bytes);
+                item.release();
+                out.writeBytes(bytes);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                result.complete(out.toByteArray());
+            }
+        });
+        return result;
+    }
+    
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
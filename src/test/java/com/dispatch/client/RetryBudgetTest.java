@@ -0,0 +1,58 @@
+package com.dispatch.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+    
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    
+    @Test
+    void testMinimumRetriesWithoutTraffic() {
+        RetryBudget budget = new RetryBudget(20, 1, 10_000, now::get);
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.tryAcquireRetry());
+        }
+        assertFalse(budget.tryAcquireRetry());
+        assertEquals(10, budget.getAttemptedCount());
+        assertEquals(1, budget.getSuppressedCount());
+    }
+    
+    @Test
+    void testBudgetGrowsWithSuccesses() {
+        RetryBudget budget = new RetryBudget(20, 0, 10_000, now::get);
+        
+        assertFalse(budget.tryAcquireRetry());
+        for (int i = 0; i < 50; i++) {
+            budget.recordSuccess();
+        }
+        
+        int granted = 0;
+        while (budget.tryAcquireRetry()) {
+            granted++;
+        }
+        assertEquals(10, granted);
+    }
+    
+    @Test
+    void testOldEventsLeaveTheWindow() {
+        RetryBudget budget = new RetryBudget(100, 0, 10_000, now::get);
+        for (int i = 0; i < 5; i++) {
+            budget.recordSuccess();
+        }
+        while (budget.tryAcquireRetry()) {
+            // drain the budget
+        }
+        
+        // Retries age out along with the successes that paid for them
+        now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertFalse(budget.tryAcquireRetry());
+        budget.recordSuccess();
+        assertTrue(budget.tryAcquireRetry());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.dispatch.client;
+
+import com.dispatch.core.filter.HttpRequest;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+    
+    private final RetryPolicy policy = new RetryPolicy(2, 100, 1000, 2.0);
+    
+    @Test
+    void testOnlyIdempotentMethodsAreRetried() {
+        IOException failure = new IOException("connection reset");
+        
+        assertTrue(policy.shouldRetry(request(HttpMethod.GET), failure, 0));
+        assertTrue(policy.shouldRetry(request(HttpMethod.PUT), failure, 0));
+        assertTrue(policy.shouldRetry(request(HttpMethod.DELETE), failure, 0));
+        assertFalse(policy.shouldRetry(request(HttpMethod.POST), failure, 0));
+        assertFalse(policy.shouldRetry(request(HttpMethod.PATCH), failure, 0));
+    }
+    
+    @Test
+    void testRetryableErrorsAndAttemptLimit() {
+        HttpRequest get = request(HttpMethod.GET);
+        
+        assertTrue(policy.shouldRetry(get, new CompletionException(new ConnectException("refused")), 0));
+        assertTrue(policy.shouldRetry(get, new HttpTimeoutException("timed out"), 1));
+        assertFalse(policy.shouldRetry(get, new IOException("reset"), 2));
+        assertFalse(policy.shouldRetry(get, new IllegalArgumentException("bad uri"), 0));
+    }
+    
+    @Test
+    void testDelaysAreJitteredWithinBackoffCap() {
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long first = policy.delayMillis(0);
+            long late = policy.delayMillis(10);
+            assertTrue(first >= 0 && first <= 100, "first delay " + first);
+            assertTrue(late >= 0 && late <= 1000, "capped delay " + late);
+            max = Math.max(max, late);
+        }
+        assertTrue(max > 100);
+    }
+    
+    private static HttpRequest request(HttpMethod method) {
+        return new HttpRequest(method, "/test", new DefaultHttpHeaders(), new byte[0],
+            new InetSocketAddress("127.0.0.1", 8080));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.dispatch.core.circuit;
+
+import com.dispatch.core.config.DispatchConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    
+    private final AtomicLong clock = new AtomicLong();
+    private final DispatchConfig.CircuitBreakerConfig config = new DispatchConfig.CircuitBreakerConfig();
+    
+    CircuitBreakerTest() {
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setWaitInOpenMs(1000);
+        config.setPermittedHalfOpenCalls(2);
+        config.setSlowCallDurationMs(100);
+    }
+    
+    @Test
+    void testOpensAtFailureRate() {
+        CircuitBreaker breaker = breaker();
+        
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Below the minimum calls");
+        
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.getTransitionCount(CircuitBreaker.State.OPEN));
+    }
+    
+    @Test
+    void testSuccessesKeepFailureRateBelowThreshold() {
+        CircuitBreaker breaker = breaker();
+        
+        for (int i = 0; i < 20; i++) {
+            breaker.recordSuccess();
+            breaker.recordSuccess();
+            breaker.recordFailure();
+        }
+        
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(40.0, breaker.getFailureRate(), 0.001);
+    }
+    
+    @Test
+    void testOpensAtSlowCallRate() {
+        config.setSlowCallRateThreshold(50);
+        CircuitBreaker breaker = breaker();
+        
+        breaker.acquirePermission().onSuccess(TimeUnit.MILLISECONDS.toNanos(150));
+        breaker.acquirePermission().onSuccess(TimeUnit.MILLISECONDS.toNanos(150));
+        breaker.acquirePermission().onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        breaker.acquirePermission().onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void testHalfOpenPermitsLimitedCallsThenCloses() {
+        CircuitBreaker breaker = openBreaker();
+        
+        advanceMillis(1000);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest(), "Only two trial calls are permitted");
+        
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+    
+    @Test
+    void testHalfOpenReopensOnFailedTrials() {
+        CircuitBreaker breaker = openBreaker();
+        advanceMillis(1000);
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+        
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTransitionCount(CircuitBreaker.State.OPEN));
+        assertFalse(breaker.allowRequest());
+    }
+    
+    @Test
+    void testReleasedPermitCanBeReused() {
+        CircuitBreaker breaker = openBreaker();
+        advanceMillis(1000);
+        CircuitBreaker.Permit first = breaker.acquirePermission();
+        assertNotNull(first);
+        assertNotNull(breaker.acquirePermission());
+        
+        first.release();
+        first.release();
+        
+        assertNotNull(breaker.acquirePermission());
+        assertNull(breaker.acquirePermission(), "A permit is only given back once");
+    }
+    
+    @Test
+    void testCallsAdmittedWhileClosedDontCountAsTrials() {
+        CircuitBreaker breaker = breaker();
+        CircuitBreaker.Permit slowCall = breaker.acquirePermission();
+        CircuitBreaker.Permit abandonedCall = breaker.acquirePermission();
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        
+        advanceMillis(1000);
+        CircuitBreaker.Permit trial = breaker.acquirePermission();
+        assertNotNull(trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        
+        // Neither closes the breaker nor frees a trial permit
+        slowCall.onSuccess(0);
+        abandonedCall.release();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotNull(breaker.acquirePermission());
+        assertNull(breaker.acquirePermission());
+        
+        trial.onSuccess(0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+    
+    @Test
+    void testTimeWindowForgetsOldFailures() {
+        config.setSlidingWindowType("time");
+        config.setSlidingWindowSize(5);
+        CircuitBreaker breaker = breaker();
+        
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        advanceMillis(5000);
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(25.0, breaker.getFailureRate(), 0.001);
+    }
+    
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+    
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", config, clock::get);
+    }
+    
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
\ No newline at end of file
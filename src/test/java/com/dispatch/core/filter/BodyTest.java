@@ -0,0 +1,107 @@
+package com.dispatch.core.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyTest {
+    
+    @Test
+    void testWrapDoesNotCopy() {
+        byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+        Body body = Body.wrap(bytes);
+        
+        assertSame(bytes, body.bytes());
+        assertEquals(5, body.length());
+        assertEquals("hello", body.asString());
+    }
+    
+    @Test
+    void testBytesAreMaterializedOnce() {
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer();
+        buffer.writeBytes("direct".getBytes(StandardCharsets.UTF_8));
+        Body body = Body.of(buffer);
+        
+        assertEquals(6, body.length());
+        assertEquals("direct", body.asString());
+        byte[] bytes = body.bytes();
+        assertArrayEquals("direct".getBytes(StandardCharsets.UTF_8), bytes);
+        assertSame(bytes, body.bytes());
+        
+        body.release();
+        assertEquals(0, buffer.refCnt());
+    }
+    
+    @Test
+    void testCompositeBufferIsReadWithoutCopying() {
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.copiedBuffer("foo", StandardCharsets.UTF_8));
+        composite.addComponent(true, Unpooled.copiedBuffer("bar", StandardCharsets.UTF_8));
+        Body body = Body.of(composite);
+        
+        assertEquals(6, body.length());
+        assertEquals("foobar", body.asString());
+        ByteBuffer view = body.nioBuffer();
+        assertTrue(view.isReadOnly());
+        assertEquals(6, view.remaining());
+        
+        body.release();
+        assertEquals(0, composite.refCnt());
+    }
+    
+    @Test
+    void testRetainedBufferOutlivesBody() {
+        ByteBuf buffer = Unpooled.copiedBuffer("payload", StandardCharsets.UTF_8);
+        Body body = Body.of(buffer);
+        
+        ByteBuf written = body.retainedBuffer();
+        written.skipBytes(3);
+        body.release();
+        body.release();
+        
+        assertEquals(1, buffer.refCnt());
+        assertEquals("load", written.toString(StandardCharsets.UTF_8));
+        assertEquals(7, body.length());
+        written.release();
+        assertEquals(0, buffer.refCnt());
+    }
+    
+    @Test
+    void testEmptyBufferIsReleasedImmediately() {
+        ByteBuf buffer = Unpooled.buffer();
+        Body body = Body.of(buffer);
+        
+        assertEquals(0, buffer.refCnt());
+        assertSame(Body.empty(), body);
+        assertTrue(body.isEmpty());
+        assertEquals(0, body.bytes().length);
+        body.release();
+    }
+    
+    @Test
+    void testRewrittenRequestSharesBody() {
+        ByteBuf buffer = Unpooled.copiedBuffer("{\"id\":1}", StandardCharsets.UTF_8);
+        HttpRequest request = new HttpRequest(HttpMethod.POST, "/api/users?x=1", new DefaultHttpHeaders(),
+            Body.of(buffer), new InetSocketAddress("127.0.0.1", 8080));
+        
+        HttpRequest rewritten = request.withUri("/users?x=1");
+        
+        assertEquals("/users", rewritten.path());
+        assertEquals("1", rewritten.getQueryParam("x"));
+        assertSame(request.content(), rewritten.content());
+        assertEquals(8, rewritten.bodyLength());
+        
+        request.release();
+        assertEquals(0, buffer.refCnt());
+    }
+}
\ No newline at end of file
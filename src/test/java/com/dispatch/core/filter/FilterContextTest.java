@@ -0,0 +1,98 @@
+package com.dispatch.core.filter;
+
+import com.dispatch.core.config.RouteConfig;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterContextTest {
+    
+    private final HttpRequest request = new HttpRequest(HttpMethod.GET, "/test", new DefaultHttpHeaders(),
+        new byte[0], new InetSocketAddress("127.0.0.1", 8080));
+    
+    @Test
+    void testTypedAttributes() {
+        FilterContext context = new FilterContext(request);
+        RouteConfig route = new RouteConfig();
+        
+        assertNull(context.get(StandardAttributes.ROUTE_CONFIG));
+        context.set(StandardAttributes.ROUTE_CONFIG, route);
+        context.set(StandardAttributes.USER_ROLES, List.of("admin"));
+        
+        assertSame(route, context.get(StandardAttributes.ROUTE_CONFIG));
+        assertEquals(List.of("admin"), context.get(StandardAttributes.USER_ROLES));
+    }
+    
+    @Test
+    void testLongAttributes() {
+        FilterContext context = new FilterContext(request);
+        
+        assertFalse(context.has(StandardAttributes.PROXY_RTT_NANOS));
+        assertEquals(-1, context.getLong(StandardAttributes.PROXY_RTT_NANOS, -1));
+        
+        context.setLong(StandardAttributes.PROXY_RTT_NANOS, 0);
+        
+        assertTrue(context.has(StandardAttributes.PROXY_RTT_NANOS));
+        assertEquals(0, context.getLong(StandardAttributes.PROXY_RTT_NANOS, -1));
+    }
+    
+    @Test
+    void testStringAccessSharesTypedSlots() {
+        FilterContext context = new FilterContext(request);
+        RouteConfig route = new RouteConfig();
+        
+        context.setAttribute("route.config", route);
+        context.setAttribute("proxy.rtt-nanos", 5_000_000);
+        context.set(StandardAttributes.USER_ID, "alice");
+        
+        assertSame(route, context.get(StandardAttributes.ROUTE_CONFIG));
+        assertEquals(5_000_000L, context.getLong(StandardAttributes.PROXY_RTT_NANOS, 0));
+        assertEquals(5_000_000L, context.getAttribute("proxy.rtt-nanos"));
+        assertEquals("alice", context.getAttribute("user.id", String.class));
+        assertThrows(IllegalArgumentException.class, () -> context.setAttribute("route.path", 42));
+    }
+    
+    @Test
+    void testDynamicAttributes() {
+        FilterContext context = new FilterContext(request);
+        
+        assertNull(context.getAttribute("custom.value"));
+        context.setAttribute("custom.value", 42);
+        context.set(StandardAttributes.ROUTE_PATH, "/test");
+        
+        assertEquals(42, context.getAttribute("custom.value"));
+        assertNull(context.getAttribute("custom.value", String.class));
+        Map<String, Object> attributes = context.getAttributes();
+        assertEquals(42, attributes.get("custom.value"));
+        assertEquals("/test", attributes.get("route.path"));
+        assertFalse(attributes.containsKey("route.config"));
+    }
+    
+    @Test
+    void testKeysRegisteredAfterContextCreation() {
+        FilterContext context = new FilterContext(request);
+        AttributeKey<String> late = AttributeKey.of("test.late-key", String.class);
+        LongAttributeKey lateLong = LongAttributeKey.of("test.late-long-key");
+        
+        context.set(late, "value");
+        context.setLong(lateLong, 7);
+        
+        assertEquals("value", context.get(late));
+        assertEquals(7, context.getLong(lateLong, 0));
+    }
+    
+    @Test
+    void testKeyRegistration() {
+        assertSame(StandardAttributes.ROUTE_PATH, AttributeKey.of("route.path", String.class));
+        assertSame(StandardAttributes.PROXY_RTT_NANOS, LongAttributeKey.of("proxy.rtt-nanos"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeKey.of("route.path", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> LongAttributeKey.of("route.path"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeKey.of("proxy.rtt-nanos", Long.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,352 @@
+package com.dispatch.core.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterPipelineTest {
+    
+    private final HttpRequest request = new HttpRequest(HttpMethod.GET, "/test", new DefaultHttpHeaders(),
+        new byte[0], new InetSocketAddress("127.0.0.1", 8080));
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    
+    @Test
+    void testSynchronousFiltersRunInlineOnCallingThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            sync("first", r -> {
+                threads.add(Thread.currentThread());
+                return FilterResult.proceed();
+            }),
+            sync("second", r -> {
+                threads.add(Thread.currentThread());
+                return FilterResult.proceed();
+            })
+        ));
+        
+        CompletableFuture<FilterResult> result = pipeline.execute(request, new FilterContext(request));
+        
+        assertTrue(result.isDone());
+        assertInstanceOf(FilterResult.Proceed.class, result.join());
+        assertEquals(List.of(caller, caller), threads);
+        assertTrue(pipeline.isSynchronous(0));
+    }
+    
+    @Test
+    void testMixedFiltersRunInOrder() {
+        CompletableFuture<FilterResult> pending = new CompletableFuture<>();
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            sync("a", r -> FilterResult.proceed()),
+            async("b", pending),
+            sync("c", r -> FilterResult.respond(HttpResponse.ok("done"))),
+            sync("d", r -> FilterResult.proceed())
+        ));
+        
+        CompletableFuture<FilterResult> result = pipeline.execute(request, new FilterContext(request));
+        
+        assertFalse(result.isDone());
+        assertEquals(List.of("a", "b"), calls);
+        
+        pending.complete(FilterResult.proceed());
+        
+        FilterResult.Respond respond = assertInstanceOf(FilterResult.Respond.class, result.join());
+        assertEquals("done", respond.response().bodyAsString());
+        assertEquals(List.of("a", "b", "c"), calls);
+        assertFalse(pipeline.isSynchronous(1));
+    }
+    
+    @Test
+    void testSynchronousFilterExceptionBecomesErrorResponse() {
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            sync("broken", r -> {
+                throw new IllegalStateException("boom");
+            }),
+            sync("never", r -> FilterResult.proceed())
+        ));
+        
+        FilterResult result = pipeline.execute(request, new FilterContext(request)).join();
+        
+        FilterResult.Respond respond = assertInstanceOf(FilterResult.Respond.class, result);
+        assertEquals(500, respond.response().statusCode());
+        assertEquals(List.of("broken"), calls);
+    }
+    
+    @Test
+    void testSynchronousFilterStillOffersFutureContract() {
+        SynchronousGatewayFilter filter = sync("broken", r -> {
+            throw new IllegalStateException("boom");
+        });
+        
+        CompletableFuture<FilterResult> result = filter.process(request, new FilterContext(request));
+        
+        assertTrue(result.isCompletedExceptionally());
+        assertInstanceOf(FilterResult.Proceed.class,
+            filter.processResponse(HttpResponse.ok("ok"), new FilterContext(request)).join());
+    }
+    
+    @Test
+    void testResponseFiltersRunInReverseOrderUpToResponder() {
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            syncWithResponse("a"),
+            asyncWithResponse("b"),
+            sync("c", r -> FilterResult.respond(HttpResponse.ok("done"))),
+            syncWithResponse("d")
+        ));
+        
+        HttpResponse response = ((FilterResult.Respond) pipeline.execute(request, new FilterContext(request)).join()).response();
+        
+        assertEquals(List.of("a", "b", "c", "b:response", "a:response"), calls);
+        assertEquals("b,a", String.join(",", response.headers().getAll("X-Seen-By")));
+        assertTrue(pipeline.hasResponseFilter(0));
+        assertFalse(pipeline.hasResponseFilter(2));
+    }
+    
+    @Test
+    void testReplacedResponseIsReleased() {
+        ByteBuf buffer = Unpooled.copiedBuffer("backend", StandardCharsets.UTF_8);
+        SynchronousGatewayFilter replacing = new SynchronousGatewayFilter() {
+            @Override
+            public String getName() {
+                return "replacing";
+            }
+            
+            @Override
+            public boolean shouldApply(HttpRequest request) {
+                return true;
+            }
+            
+            @Override
+            public FilterResult filter(HttpRequest request, FilterContext context) {
+                return FilterResult.proceed();
+            }
+            
+            @Override
+            public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+                return FilterResult.respond(HttpResponse.ok("replaced"));
+            }
+        };
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            replacing,
+            sync("backend", r -> FilterResult.respond(new HttpResponse(200, new DefaultHttpHeaders(), Body.of(buffer))))
+        ));
+        
+        FilterResult result = pipeline.execute(request, new FilterContext(request)).join();
+        
+        assertEquals("replaced", ((FilterResult.Respond) result).response().bodyAsString());
+        assertEquals(0, buffer.refCnt());
+    }
+    
+    @Test
+    void testIndependentBlockingFiltersRunConcurrently() {
+        // Each filter waits for the other, so this only completes if they overlap
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Function<HttpRequest, FilterResult> meet = r -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+                return FilterResult.proceed();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            declared("auth", Set.of("user.id"), true, meet),
+            declared("quota", Set.of("quota.remaining"), true, meet),
+            sync("proxy", r -> FilterResult.respond(HttpResponse.ok("done")))
+        ));
+        
+        FilterResult result = pipeline.execute(request, new FilterContext(request)).join();
+        
+        assertEquals(2, pipeline.groupEnd(0));
+        assertEquals("done", ((FilterResult.Respond) result).response().bodyAsString());
+        assertEquals("proxy", calls.get(2));
+    }
+    
+    @Test
+    void testGroupsOnlyFormForIndependentForkableFilters() {
+        FilterPipeline conflicting = new FilterPipeline(List.of(
+            declared("writer", Set.of("shared"), true, r -> FilterResult.proceed()),
+            new DeclaredFilter("reader", new FilterDependencies(Set.of("shared"), Set.of(), true), r -> FilterResult.proceed())
+        ));
+        FilterPipeline barrier = new FilterPipeline(List.of(
+            declared("a", Set.of("a"), true, r -> FilterResult.proceed()),
+            sync("undeclared", r -> FilterResult.proceed()),
+            declared("b", Set.of("b"), true, r -> FilterResult.proceed())
+        ));
+        FilterPipeline inline = new FilterPipeline(List.of(
+            declared("a", Set.of("a"), false, r -> FilterResult.proceed()),
+            declared("b", Set.of("b"), false, r -> FilterResult.proceed())
+        ));
+        
+        assertEquals(1, conflicting.groupEnd(0));
+        assertEquals(List.of(1, 2, 3), List.of(barrier.groupEnd(0), barrier.groupEnd(1), barrier.groupEnd(2)));
+        assertEquals(1, inline.groupEnd(0));
+    }
+    
+    @Test
+    void testFirstResponderInGroupWinsInPipelineOrder() {
+        ByteBuf buffer = Unpooled.copiedBuffer("slow down", StandardCharsets.UTF_8);
+        FilterPipeline pipeline = new FilterPipeline(List.of(
+            syncWithResponse("outer"),
+            declared("auth", Set.of("user.id"), true, r -> FilterResult.error(401, "Unauthorized")),
+            declared("quota", Set.of("quota.remaining"), true,
+                r -> FilterResult.respond(new HttpResponse(429, new DefaultHttpHeaders(), Body.of(buffer)))),
+            sync("proxy", r -> FilterResult.respond(HttpResponse.ok("done")))
+        ));
+        
+        FilterResult result = pipeline.execute(request, new FilterContext(request)).join();
+        
+        assertEquals(3, pipeline.groupEnd(1));
+        assertEquals(401, ((FilterResult.Respond) result).response().statusCode());
+        assertEquals(0, buffer.refCnt());
+        assertFalse(calls.contains("proxy"));
+        assertTrue(calls.contains("outer:response"));
+    }
+    
+    private SynchronousGatewayFilter declared(String name, Set<String> writes, boolean blocking,
+                                              Function<HttpRequest, FilterResult> body) {
+        return new DeclaredFilter(name, new FilterDependencies(Set.of(), writes, blocking), body);
+    }
+    
+    private class DeclaredFilter implements SynchronousGatewayFilter {
+        private final String name;
+        private final FilterDependencies dependencies;
+        private final Function<HttpRequest, FilterResult> body;
+        
+        DeclaredFilter(String name, FilterDependencies dependencies, Function<HttpRequest, FilterResult> body) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.body = body;
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public boolean shouldApply(HttpRequest request) {
+            return true;
+        }
+        
+        @Override
+        public FilterDependencies dependencies() {
+            return dependencies;
+        }
+        
+        @Override
+        public FilterResult filter(HttpRequest request, FilterContext context) {
+            calls.add(name);
+            return body.apply(request);
+        }
+    }
+    
+    private SynchronousGatewayFilter syncWithResponse(String name) {
+        return new SynchronousGatewayFilter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public boolean shouldApply(HttpRequest request) {
+                return true;
+            }
+            
+            @Override
+            public FilterResult filter(HttpRequest request, FilterContext context) {
+                calls.add(name);
+                return FilterResult.proceed();
+            }
+            
+            @Override
+            public FilterResult filterResponse(HttpResponse response, FilterContext context) {
+                calls.add(name + ":response");
+                response.addHeader("X-Seen-By", name);
+                return FilterResult.proceed();
+            }
+        };
+    }
+    
+    private GatewayFilter asyncWithResponse(String name) {
+        return new GatewayFilter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public boolean shouldApply(HttpRequest request) {
+                return true;
+            }
+            
+            @Override
+            public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
+                calls.add(name);
+                return CompletableFuture.completedFuture(FilterResult.proceed());
+            }
+            
+            @Override
+            public CompletableFuture<FilterResult> processResponse(HttpResponse response, FilterContext context) {
+                calls.add(name + ":response");
+                response.addHeader("X-Seen-By", name);
+                return CompletableFuture.supplyAsync(FilterResult::proceed);
+            }
+        };
+    }
+    
+    private SynchronousGatewayFilter sync(String name, Function<HttpRequest, FilterResult> body) {
+        return new SynchronousGatewayFilter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public boolean shouldApply(HttpRequest request) {
+                return true;
+            }
+            
+            @Override
+            public FilterResult filter(HttpRequest request, FilterContext context) {
+                calls.add(name);
+                return body.apply(request);
+            }
+        };
+    }
+    
+    private GatewayFilter async(String name, CompletableFuture<FilterResult> result) {
+        return new GatewayFilter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public boolean shouldApply(HttpRequest request) {
+                return true;
+            }
+            
+            @Override
+            public CompletableFuture<FilterResult> process(HttpRequest request, FilterContext context) {
+                calls.add(name);
+                return result;
+            }
+        };
+    }
+}
\ No newline at end of file
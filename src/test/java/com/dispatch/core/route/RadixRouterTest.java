@@ -0,0 +1,102 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.config.RouteConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixRouterTest {
+    
+    @Test
+    void testExactMatch() {
+        RadixRouter<String> router = router("/api/users", "/api/orders");
+        
+        assertEquals("/api/users", router.match("/api/users"));
+        assertEquals("/api/orders", router.match("/api/orders"));
+        assertNull(router.match("/api/users/1"));
+        assertNull(router.match("/api"));
+    }
+    
+    @Test
+    void testPrefixMatch() {
+        RadixRouter<String> router = router("/api/v1/*");
+        
+        assertEquals("/api/v1/*", router.match("/api/v1/posts/1"));
+        assertEquals("/api/v1/*", router.match("/api/v1"));
+        assertNull(router.match("/api/v2/posts"));
+    }
+    
+    @Test
+    void testGlobSegmentMatch() {
+        RadixRouter<String> router = router("/api/*/posts", "/files/*.json");
+        
+        assertEquals("/api/*/posts", router.match("/api/users/posts"));
+        assertEquals("/api/*/posts", router.match("/api/orders/posts"));
+        assertNull(router.match("/api/users/1/posts"));
+        assertEquals("/files/*.json", router.match("/files/data.json"));
+        assertNull(router.match("/files/data.xml"));
+    }
+    
+    @Test
+    void testGlobFollowedByPrefix() {
+        RadixRouter<String> router = router("/tenants/*/api/*");
+        
+        assertEquals("/tenants/*/api/*", router.match("/tenants/acme/api/users/1"));
+        assertNull(router.match("/tenants/acme/web/index"));
+    }
+    
+    @Test
+    void testConfigurationOrderPrecedence() {
+        RadixRouter<String> router = router("/api/*", "/api/users", "/*");
+        
+        assertEquals("/api/*", router.match("/api/users"));
+        assertEquals("/*", router.match("/other"));
+        
+        RadixRouter<String> reversed = router("/api/users", "/api/*");
+        assertEquals("/api/users", reversed.match("/api/users"));
+        assertEquals("/api/*", reversed.match("/api/orders"));
+    }
+    
+    @Test
+    void testSharedPrefixesAreSplit() {
+        RadixRouter<String> router = router("/api/users", "/api/user", "/apis", "/a");
+        
+        assertEquals("/api/users", router.match("/api/users"));
+        assertEquals("/api/user", router.match("/api/user"));
+        assertEquals("/apis", router.match("/apis"));
+        assertEquals("/a", router.match("/a"));
+        assertNull(router.match("/api"));
+    }
+    
+    @Test
+    void testAgreesWithRouteConfigMatches() {
+        List<String> patterns = List.of("/hello", "/api/v1/*", "/api/*/posts", "/static/*.css", "/*/health");
+        List<String> paths = List.of("/hello", "/hello/x", "/api/v1", "/api/v1/a/b", "/api/x/posts",
+            "/api/x/y/posts", "/static/site.css", "/static/a/site.css", "/svc/health", "/svc/x/health", "/");
+        
+        RadixRouter<String> router = router(patterns.toArray(new String[0]));
+        for (String path : paths) {
+            String expected = patterns.stream()
+                .filter(pattern -> routeConfig(pattern).matches(path))
+                .findFirst()
+                .orElse(null);
+            assertEquals(expected, router.match(path), "path " + path);
+        }
+    }
+    
+    private static RadixRouter<String> router(String... patterns) {
+        RadixRouter<String> router = new RadixRouter<>();
+        for (String pattern : patterns) {
+            router.add(pattern, pattern);
+        }
+        return router;
+    }
+    
+    private static RouteConfig routeConfig(String path) {
+        RouteConfig route = new RouteConfig();
+        route.setPath(path);
+        return route;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+    
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<HttpResponse> backend = new CompletableFuture<>();
+    
+    @Test
+    void testIdenticalRequestsShareOneBackendRequest() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        
+        CompletableFuture<HttpResponse> first = coalescer.send(request("/items"), this::call);
+        CompletableFuture<HttpResponse> second = coalescer.send(request("/items"), this::call);
+        CompletableFuture<HttpResponse> other = coalescer.send(request("/other"), this::call);
+        assertEquals(2, calls.get());
+        
+        backend.complete(HttpResponse.ok("items"));
+        
+        HttpResponse firstResponse = first.join();
+        HttpResponse secondResponse = second.join();
+        assertEquals("items", firstResponse.bodyAsString());
+        assertEquals("items", secondResponse.bodyAsString());
+        assertEquals("items", other.join().bodyAsString());
+        assertEquals(1, coalescer.getCoalescedCount());
+        
+        // Each waiter has its own headers and body reference
+        firstResponse.setHeader("X-First", "true");
+        assertNull(secondResponse.getHeader("X-First"));
+        firstResponse.release();
+        assertEquals("items", secondResponse.bodyAsString());
+        
+        // The flight is over, so the next request goes to the backend
+        coalescer.send(request("/items"), this::call);
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    void testFailureReachesEveryWaiter() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        
+        CompletableFuture<HttpResponse> first = coalescer.send(request("/items"), this::call);
+        CompletableFuture<HttpResponse> second = coalescer.send(request("/items"), this::call);
+        backend.completeExceptionally(new RuntimeException("connection reset"));
+        
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(1, calls.get());
+    }
+    
+    @Test
+    void testPrivateResponseGoesOnlyToLeader() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        CompletableFuture<HttpResponse> own = new CompletableFuture<>();
+        
+        CompletableFuture<HttpResponse> leader = coalescer.send(request("/session"), this::call);
+        CompletableFuture<HttpResponse> waiter = coalescer.send(request("/session"), () -> {
+            calls.incrementAndGet();
+            return own;
+        });
+        assertEquals(1, calls.get());
+        
+        HttpResponse minted = HttpResponse.ok("leader");
+        minted.setHeader("Set-Cookie", "session=abc");
+        backend.complete(minted);
+        
+        assertEquals("session=abc", leader.join().getHeader("Set-Cookie"));
+        assertFalse(waiter.isDone());
+        assertEquals(2, calls.get(), "The waiter sends its own request");
+        
+        own.complete(HttpResponse.ok("waiter"));
+        assertEquals("waiter", waiter.join().bodyAsString());
+        assertNull(waiter.join().getHeader("Set-Cookie"));
+    }
+    
+    @Test
+    void testNoStoreResponseIsNotShared() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        
+        coalescer.send(request("/items"), this::call);
+        coalescer.send(request("/items"), this::call);
+        HttpResponse response = HttpResponse.ok("items");
+        response.setHeader("Cache-Control", "max-age=0, no-store");
+        backend.complete(response);
+        
+        assertEquals(2, calls.get());
+    }
+    
+    @Test
+    void testWaitersAndAgeAreCapped() {
+        RouteConfig.SingleFlightConfig config = new RouteConfig.SingleFlightConfig();
+        config.setMaxWaiters(1);
+        config.setMaxAgeMs(100);
+        RequestCoalescer coalescer = new RequestCoalescer(config, clock::get);
+        
+        coalescer.send(request("/items"), this::call);
+        coalescer.send(request("/items"), this::call);
+        assertEquals(1, calls.get());
+        
+        // Full, so this request leads a new flight that the next one joins
+        coalescer.send(request("/items"), this::call);
+        coalescer.send(request("/items"), this::call);
+        assertEquals(2, calls.get());
+        
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(101));
+        coalescer.send(request("/items"), this::call);
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    void testPrivateAndUnsafeRequestsAreNotCoalesced() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        HttpRequest authorized = request("/items");
+        authorized.headers().set("Authorization", "Bearer token");
+        HttpRequest post = new HttpRequest(HttpMethod.POST, "/items", new DefaultHttpHeaders(), new byte[0],
+            new InetSocketAddress("127.0.0.1", 12345));
+        
+        coalescer.send(authorized, this::call);
+        coalescer.send(authorized, this::call);
+        coalescer.send(post, this::call);
+        coalescer.send(post, this::call);
+        
+        assertEquals(4, calls.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+    
+    @Test
+    void testRequestsWithApiKeysAreNotCoalesced() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        HttpRequest tenantA = request("/items");
+        tenantA.headers().set("X-API-Key", "key-a");
+        HttpRequest tenantB = request("/items");
+        tenantB.headers().set("X-API-Key", "key-b");
+        
+        coalescer.send(tenantA, this::call);
+        coalescer.send(tenantB, this::call);
+        
+        assertEquals(2, calls.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+    
+    @Test
+    void testCredentialHeadersAreConfigurable() {
+        RouteConfig.SingleFlightConfig config = new RouteConfig.SingleFlightConfig();
+        config.setCredentialHeaders(List.of("X-Tenant-Token"));
+        RequestCoalescer coalescer = new RequestCoalescer(config, clock::get);
+        HttpRequest tenant = request("/items");
+        tenant.headers().set("X-Tenant-Token", "secret");
+        
+        coalescer.send(tenant, this::call);
+        coalescer.send(tenant, this::call);
+        assertEquals(2, calls.get());
+    }
+    
+    @Test
+    void testKeyHeadersMustMatch() {
+        RequestCoalescer coalescer = new RequestCoalescer(new RouteConfig.SingleFlightConfig(), clock::get);
+        HttpRequest gzip = request("/items");
+        gzip.headers().set("Accept-Encoding", "gzip");
+        
+        coalescer.send(gzip, this::call);
+        coalescer.send(request("/items"), this::call);
+        
+        assertEquals(2, calls.get());
+    }
+    
+    private CompletableFuture<HttpResponse> call() {
+        calls.incrementAndGet();
+        return backend;
+    }
+    
+    private static HttpRequest request(String uri) {
+        return new HttpRequest(HttpMethod.GET, uri, new DefaultHttpHeaders(), new byte[0],
+            new InetSocketAddress("127.0.0.1", 12345));
+    }
+}
\ No newline at end of file
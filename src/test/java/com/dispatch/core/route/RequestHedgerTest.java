@@ -0,0 +1,133 @@
+package com.dispatch.core.route;
+
+import com.dispatch.core.Timers;
+import com.dispatch.core.circuit.CircuitBreakerOpenException;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHedgerTest {
+    
+    @Test
+    void testSlowRequestIsHedgedAndLoserCancelled() throws Exception {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> hedge = CompletableFuture.completedFuture(HttpResponse.ok("replica"));
+        
+        HttpResponse response = hedger.send(() -> primary, () -> hedge).orTimeout(2, TimeUnit.SECONDS).join();
+        
+        assertEquals("replica", response.bodyAsString());
+        // The loser is cancelled just after the winner completes the result
+        assertInstanceOf(CancellationException.class, primary.handle((r, e) -> e).get(2, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getHedgesSent());
+        assertEquals(1, hedger.getHedgesWon());
+    }
+    
+    @Test
+    void testFastRequestIsNotHedged() throws Exception {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = CompletableFuture.completedFuture(HttpResponse.ok("primary"));
+        
+        HttpResponse response = hedger.send(() -> primary, () -> primary).join();
+        Thread.sleep(50);
+        
+        assertEquals("primary", response.bodyAsString());
+        assertEquals(0, hedger.getHedgesSent());
+    }
+    
+    @Test
+    void testPrimaryWinningCancelsHedge() {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> hedge = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse>> sends = List.of(primary, hedge);
+        int[] calls = {0};
+        
+        CompletableFuture<HttpResponse> result = hedger.send(() -> sends.get(calls[0]++), () -> sends.get(calls[0]++));
+        while (hedger.getHedgesSent() == 0) {
+            Thread.onSpinWait();
+        }
+        primary.complete(HttpResponse.ok("primary"));
+        
+        assertEquals("primary", result.join().bodyAsString());
+        assertTrue(hedge.isCancelled());
+        assertEquals(0, hedger.getHedgesWon());
+    }
+    
+    @Test
+    void testFailedHedgeDoesNotSettleRequest() {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        
+        CompletableFuture<HttpResponse> result = hedger.send(() -> primary,
+            () -> CompletableFuture.failedFuture(new CircuitBreakerOpenException("http://replica")));
+        while (hedger.getHedgesSent() == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(result.isDone());
+        assertFalse(primary.isCancelled());
+        
+        primary.complete(HttpResponse.ok("primary"));
+        
+        assertEquals("primary", result.join().bodyAsString());
+        assertEquals(0, hedger.getHedgesWon());
+    }
+    
+    @Test
+    void testHedgeServerErrorDoesNotWin() {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        
+        CompletableFuture<HttpResponse> result = hedger.send(() -> primary,
+            () -> CompletableFuture.completedFuture(new HttpResponse(502, "bad gateway")));
+        while (hedger.getHedgesSent() == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(result.isDone());
+        
+        primary.complete(HttpResponse.ok("primary"));
+        
+        assertEquals("primary", result.join().bodyAsString());
+        assertEquals(0, hedger.getHedgesWon());
+    }
+    
+    @Test
+    void testFailsOnceEveryAttemptHasFailed() {
+        RequestHedger hedger = new RequestHedger(config(0), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        
+        CompletableFuture<HttpResponse> result = hedger.send(() -> primary,
+            () -> CompletableFuture.completedFuture(new HttpResponse(503, "unavailable")));
+        while (hedger.getHedgesSent() == 0) {
+            Thread.onSpinWait();
+        }
+        primary.completeExceptionally(new RuntimeException("connection reset"));
+        
+        assertEquals(503, result.join().statusCode());
+    }
+    
+    @Test
+    void testNoHedgingUntilEnoughSamples() {
+        RequestHedger hedger = new RequestHedger(config(10), Timers.shared());
+        CompletableFuture<HttpResponse> primary = new CompletableFuture<>();
+        
+        CompletableFuture<HttpResponse> result = hedger.send(() -> primary, () -> primary);
+        
+        assertSame(primary, result);
+        assertEquals(-1, hedger.hedgeDelayNanos());
+    }
+    
+    private static RouteConfig.HedgeConfig config(int minSamples) {
+        RouteConfig.HedgeConfig config = new RouteConfig.HedgeConfig();
+        config.setMinSamples(minSamples);
+        config.setMinDelayMs(10);
+        return config;
+    }
+}
\ No newline at end of file
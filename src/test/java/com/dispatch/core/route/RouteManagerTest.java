@@ -0,0 +1,371 @@
+package com.dispatch.core.route;
+
+import com.dispatch.client.BackendClient;
+import com.dispatch.client.IBackendClient;
+import com.dispatch.client.RetryPolicy;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.core.upstream.UpstreamCluster;
+import com.dispatch.monitoring.MetricsRegistry;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteManagerTest {
+    
+    private RouteManager routeManager;
+    
+    @AfterEach
+    void tearDown() {
+        if (routeManager != null) {
+            routeManager.shutdown();
+        }
+    }
+    
+    @Test
+    void testStaticRouteResponse() {
+        routeManager = new RouteManager(config(staticRoute("/hello", "Hello, World!")));
+        
+        FilterResult.Respond respond = process("/hello");
+        
+        assertEquals(200, respond.response().statusCode());
+        assertEquals("Hello, World!", respond.response().bodyAsString());
+        assertEquals("text/plain", respond.response().getHeader("Content-Type"));
+    }
+    
+    @Test
+    void testNoMatchingRoute() {
+        routeManager = new RouteManager(config(staticRoute("/hello", "Hello")));
+        
+        assertEquals(404, process("/missing").response().statusCode());
+    }
+    
+    @Test
+    void testDisabledRoute() {
+        RouteConfig route = staticRoute("/hello", "Hello");
+        route.setEnabled(false);
+        routeManager = new RouteManager(config(route));
+        
+        assertEquals(502, process("/hello").response().statusCode());
+    }
+    
+    @Test
+    void testFilterStateSurvivesAcrossRequests() {
+        RouteConfig route = staticRoute("/limited", "ok");
+        route.setFilters(List.of(filter("rate-limiting", Map.of("requests-per-minute", 60, "burst-capacity", 2))));
+        routeManager = new RouteManager(config(route));
+        
+        assertEquals(200, process("/limited").response().statusCode());
+        assertEquals(200, process("/limited").response().statusCode());
+        assertEquals(429, process("/limited").response().statusCode());
+    }
+    
+    @Test
+    void testResponseFiltersRunAfterTerminalFilter() {
+        RouteConfig route = staticRoute("/limited", "ok");
+        route.setFilters(List.of(filter("rate-limiting", Map.of("requests-per-minute", 60, "burst-capacity", 5))));
+        routeManager = new RouteManager(config(route));
+        
+        FilterResult.Respond respond = process("/limited");
+        
+        assertEquals(200, respond.response().statusCode());
+        assertEquals("4", respond.response().getHeader("X-RateLimit-Remaining"));
+        assertEquals("ok", respond.response().bodyAsString());
+    }
+    
+    @Test
+    void testShouldApplyIsHonoured() {
+        RouteConfig route = staticRoute("/public/info", "info");
+        route.setFilters(List.of(filter("authentication", Map.of("skip-paths", List.of("/public/*")))));
+        routeManager = new RouteManager(config(route));
+        
+        assertEquals(200, process("/public/info").response().statusCode());
+    }
+    
+    @Test
+    void testReloadReplacesRoutes() {
+        routeManager = new RouteManager(config(staticRoute("/old", "old")));
+        
+        routeManager.reload(config(staticRoute("/new", "new")));
+        
+        assertEquals(404, process("/old").response().statusCode());
+        assertEquals("new", process("/new").response().bodyAsString());
+    }
+    
+    @Test
+    void testUpstreamClusterIsBalanced() {
+        List<String> backends = new ArrayList<>();
+        DispatchConfig.UpstreamConfig upstream = new DispatchConfig.UpstreamConfig();
+        upstream.setEndpoints(List.of("http://users-1:8080", "http://users-2:8080"));
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/users/*");
+        route.setBackend("users");
+        DispatchConfig config = config(route);
+        config.setUpstreams(Map.of("users", upstream));
+        routeManager = new RouteManager(config, recordingClient(backends));
+        
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, process("/users/" + i).response().statusCode());
+        }
+        
+        assertEquals(List.of("http://users-1:8080", "http://users-2:8080", "http://users-1:8080", "http://users-2:8080"),
+            backends);
+        assertEquals(0, routeManager.getUpstreams().get("users").endpoints()[0].outstanding());
+        
+        routeManager.reload(config);
+        assertNotNull(routeManager.getUpstreams().get("users"));
+    }
+    
+    @Test
+    void testClusterGaugesSurviveReloadOnce() {
+        DispatchConfig.UpstreamConfig upstream = new DispatchConfig.UpstreamConfig();
+        upstream.setEndpoints(List.of("http://gauges-1:8080", "http://gauges-2:8080"));
+        upstream.setHealthCheck(new DispatchConfig.HealthCheckConfig());
+        upstream.setOutlierDetection(new DispatchConfig.OutlierDetectionConfig());
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/gauges/*");
+        route.setBackend("gauges");
+        DispatchConfig config = config(route);
+        config.setUpstreams(Map.of("gauges", upstream));
+        routeManager = new RouteManager(config, recordingClient(new ArrayList<>()));
+        
+        routeManager.reload(config);
+        routeManager.reload(config);
+        
+        assertEquals(2, MetricsRegistry.global().value("upstream.healthy-endpoints[gauges]"));
+        UpstreamCluster cluster = routeManager.getUpstreams().get("gauges");
+        cluster.setEjected(cluster.allEndpoints()[0], true);
+        assertEquals(1, MetricsRegistry.global().value("upstream.ejected-endpoints[gauges]"));
+    }
+    
+    @Test
+    void testCoalescerSurvivesReload() {
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/catalog/*");
+        route.setBackend("http://catalog:8080");
+        route.setSingleFlight(new RouteConfig.SingleFlightConfig());
+        DispatchConfig config = config(route);
+        CompletableFuture<HttpResponse> pending = new CompletableFuture<>();
+        List<String> backends = new ArrayList<>();
+        routeManager = new RouteManager(config, new IBackendClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                backends.add(backendUrl);
+                return pending;
+            }
+            
+            @Override
+            public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+                return proxyRequest(request, backendUrl);
+            }
+            
+            @Override
+            public void shutdown() {
+            }
+        });
+        
+        CompletableFuture<FilterResult> first = processAsync("/catalog/1");
+        routeManager.reload(config);
+        routeManager.reload(config);
+        CompletableFuture<FilterResult> second = processAsync("/catalog/1");
+        pending.complete(HttpResponse.ok("items"));
+        
+        assertEquals(200, ((FilterResult.Respond) first.join()).response().statusCode());
+        assertEquals(200, ((FilterResult.Respond) second.join()).response().statusCode());
+        assertEquals(1, backends.size(), "The request after the reload joins the one before it");
+        assertEquals(1, MetricsRegistry.global().value("proxy.coalesced[/catalog/*]"));
+    }
+    
+    @Test
+    void testHealthProbesDontUseLiveRetryBudget() throws Exception {
+        try (ServerSocket backend = new ServerSocket(0)) {
+            // Accepts and immediately drops every connection, so each probe fails
+            Thread acceptor = new Thread(() -> {
+                while (!backend.isClosed()) {
+                    try (Socket socket = backend.accept()) {
+                        socket.setSoLinger(true, 0);
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            
+            String endpoint = "http://127.0.0.1:" + backend.getLocalPort();
+            DispatchConfig.HealthCheckConfig healthCheck = new DispatchConfig.HealthCheckConfig();
+            healthCheck.setIntervalMs(20);
+            healthCheck.setUnhealthyThreshold(1);
+            DispatchConfig.UpstreamConfig upstream = new DispatchConfig.UpstreamConfig();
+            upstream.setEndpoints(List.of(endpoint));
+            upstream.setHealthCheck(healthCheck);
+            RouteConfig route = new RouteConfig();
+            route.setType("proxy");
+            route.setPath("/probed/*");
+            route.setBackend("probed");
+            DispatchConfig config = config(route);
+            config.setUpstreams(Map.of("probed", upstream));
+            BackendClient client = new BackendClient(Duration.ofSeconds(1), Duration.ofSeconds(2), new RetryPolicy(2, 10, 50, 2.0));
+            routeManager = new RouteManager(config, client);
+            
+            UpstreamCluster cluster = routeManager.getUpstreams().get("probed");
+            for (int i = 0; i < 500 && cluster.healthyCount() > 0; i++) {
+                Thread.sleep(10);
+            }
+            
+            assertEquals(0, cluster.healthyCount());
+            assertNull(client.getRetryBudget(endpoint), "Probes went through the live client");
+        }
+    }
+    
+    @Test
+    void testCircuitBreakerRejectsFailingBackend() {
+        List<String> backends = new ArrayList<>();
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/orders/*");
+        route.setBackend("http://orders:8080");
+        DispatchConfig config = config(route);
+        config.getCircuitBreaker().setMinimumCalls(2);
+        routeManager = new RouteManager(config, new IBackendClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                backends.add(backendUrl);
+                return CompletableFuture.completedFuture(new HttpResponse(500, "down"));
+            }
+            
+            @Override
+            public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+                return proxyRequest(request, backendUrl);
+            }
+            
+            @Override
+            public void shutdown() {
+            }
+        });
+        
+        assertEquals(500, process("/orders/1").response().statusCode());
+        assertEquals(500, process("/orders/2").response().statusCode());
+        assertEquals(503, process("/orders/3").response().statusCode());
+        assertEquals(2, backends.size());
+        
+        config.getCircuitBreaker().setEnabled(false);
+        routeManager.reload(config);
+        assertEquals(500, process("/orders/4").response().statusCode());
+    }
+    
+    @Test
+    void testOpenCircuitBreakerStaysOpenAcrossReload() {
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/payments/*");
+        route.setBackend("http://payments:8080");
+        DispatchConfig config = config(route);
+        config.getCircuitBreaker().setMinimumCalls(2);
+        routeManager = new RouteManager(config, new IBackendClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                return CompletableFuture.completedFuture(new HttpResponse(500, "down"));
+            }
+            
+            @Override
+            public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+                return proxyRequest(request, backendUrl);
+            }
+            
+            @Override
+            public void shutdown() {
+            }
+        });
+        
+        process("/payments/1");
+        process("/payments/2");
+        routeManager.reload(config);
+        routeManager.reload(config);
+        
+        assertEquals(503, process("/payments/3").response().statusCode());
+        MetricsRegistry registry = MetricsRegistry.global();
+        assertEquals(1, registry.value("circuit-breaker.state.open[http://payments:8080]"));
+        assertEquals(0, registry.value("circuit-breaker.state.closed[http://payments:8080]"));
+        assertEquals(1, registry.value("circuit-breaker.transitions.open[http://payments:8080]"));
+    }
+    
+    private static IBackendClient recordingClient(List<String> backends) {
+        return new IBackendClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                backends.add(backendUrl);
+                return CompletableFuture.completedFuture(HttpResponse.ok("ok"));
+            }
+            
+            @Override
+            public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+                return proxyRequest(request, backendUrl);
+            }
+            
+            @Override
+            public void shutdown() {
+            }
+        };
+    }
+    
+    private FilterResult.Respond process(String uri) {
+        FilterResult result = processAsync(uri).join();
+        assertTrue(result instanceof FilterResult.Respond);
+        return (FilterResult.Respond) result;
+    }
+    
+    private CompletableFuture<FilterResult> processAsync(String uri) {
+        HttpRequest request = new HttpRequest(
+            HttpMethod.GET,
+            uri,
+            new DefaultHttpHeaders(),
+            new byte[0],
+            new InetSocketAddress("127.0.0.1", 8080)
+        );
+        return routeManager.processRequest(request, new FilterContext(request));
+    }
+    
+    private static DispatchConfig config(RouteConfig... routes) {
+        DispatchConfig config = new DispatchConfig();
+        config.setRoutes(List.of(routes));
+        return config;
+    }
+    
+    private static RouteConfig staticRoute(String path, String body) {
+        RouteConfig.StaticResponseConfig response = new RouteConfig.StaticResponseConfig();
+        response.setBody(body);
+        
+        RouteConfig route = new RouteConfig();
+        route.setType("static");
+        route.setPath(path);
+        route.setResponse(response);
+        return route;
+    }
+    
+    private static RouteConfig.FilterConfig filter(String name, Map<String, Object> settings) {
+        RouteConfig.FilterConfig filter = new RouteConfig.FilterConfig();
+        filter.setName(name);
+        filter.setConfig(settings);
+        return filter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.dispatch.core.server;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.route.RouteManager;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingProxyTest {
+    
+    private static final int BODY_SIZE = 3 * 1024 * 1024;
+    
+    private HttpServer backend;
+    private RouteManager routeManager;
+    private NettyServer server;
+    private HttpClient client;
+    private byte[] download;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        download = randomBytes(BODY_SIZE);
+        
+        backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        backend.createContext("/echo", exchange -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        backend.createContext("/download", exchange -> {
+            exchange.sendResponseHeaders(200, download.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(download);
+            }
+        });
+        backend.start();
+        
+        String backendUrl = "http://127.0.0.1:" + backend.getAddress().getPort();
+        DispatchConfig config = new DispatchConfig();
+        config.setRoutes(List.of(
+            proxyRoute("/stream/*", backendUrl, true),
+            proxyRoute("/buffered/*", backendUrl, false)
+        ));
+        routeManager = new RouteManager(config);
+        
+        server = new NettyServer(freePort(), false, routeManager);
+        server.start();
+        for (int i = 0; i < 100 && !server.isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(server.isRunning());
+        
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.shutdown().join();
+        routeManager.shutdown();
+        backend.stop(0);
+    }
+    
+    @Test
+    void testStreamingRouteProxiesBodiesLargerThanAggregatorLimit() throws Exception {
+        byte[] upload = randomBytes(BODY_SIZE);
+        
+        HttpResponse<byte[]> response = client.send(
+            HttpRequest.newBuilder(gateway("/stream/echo"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(upload))
+                .build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(upload, response.body());
+    }
+    
+    @Test
+    void testStreamingRouteStreamsDownloads() throws Exception {
+        HttpResponse<byte[]> response = client.send(
+            HttpRequest.newBuilder(gateway("/stream/download")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        
+        assertEquals(200, response.statusCode());
+        assertEquals(String.valueOf(BODY_SIZE), response.headers().firstValue("Content-Length").orElse(null));
+        assertArrayEquals(download, response.body());
+    }
+    
+    @Test
+    void testConnectionIsReusedAfterStreamingRequest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            byte[] upload = randomBytes(64 * 1024);
+            HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(gateway("/stream/echo"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(upload))
+                    .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            assertArrayEquals(upload, response.body());
+        }
+    }
+    
+    @Test
+    void testBufferedRouteRejectsBodiesLargerThanAggregatorLimit() throws Exception {
+        HttpResponse<byte[]> response = client.send(
+            HttpRequest.newBuilder(gateway("/buffered/echo"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(randomBytes(BODY_SIZE)))
+                .build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        
+        assertEquals(413, response.statusCode());
+    }
+    
+    private URI gateway(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+    
+    private static RouteConfig proxyRoute(String path, String backend, boolean streaming) {
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath(path);
+        route.setBackend(backend);
+        route.setStreaming(streaming);
+        return route;
+    }
+    
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+    
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.dispatch.core.server;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.route.RouteManager;
+import io.netty.bootstrap.ServerBootstrap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TransportTest {
+    
+    @Test
+    void testSelectNio() {
+        assertEquals(Transport.NIO, Transport.select("nio"));
+        assertEquals(Transport.NIO, Transport.select("NIO"));
+    }
+    
+    @Test
+    void testAutoSelectsBestAvailableTransport() {
+        Transport selected = Transport.select("auto");
+        
+        assertTrue(selected.isAvailable());
+        for (Transport transport : Transport.values()) {
+            if (transport.ordinal() < selected.ordinal()) {
+                assertFalse(transport.isAvailable());
+            }
+        }
+        assertEquals(selected, Transport.select(null));
+    }
+    
+    @Test
+    void testUnavailableTransportFallsBack() {
+        Transport selected = Transport.select("io-uring");
+        
+        assertTrue(selected.isAvailable());
+        if (!Transport.IO_URING.isAvailable()) {
+            assertNotEquals(Transport.IO_URING, selected);
+        }
+    }
+    
+    @Test
+    void testNioIgnoresReusePort() {
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        
+        assertDoesNotThrow(() -> Transport.NIO.enableReusePort(bootstrap));
+        assertTrue(bootstrap.config().options().isEmpty());
+    }
+    
+    @Test
+    void testUnknownTransportIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Transport.select("kqueue2"));
+    }
+    
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void testServerAcceptsConnectionsOnEachTransport(Transport transport) throws Exception {
+        assumeTrue(transport.isAvailable(), transport + " is not available on this host");
+        
+        DispatchConfig.ServerConfig serverConfig = new DispatchConfig.ServerConfig();
+        serverConfig.setPort(freePort());
+        serverConfig.setBossThreads(2);
+        serverConfig.setWorkerThreads(2);
+        
+        RouteManager routeManager = new RouteManager(config());
+        NettyServer server = new NettyServer(serverConfig, routeManager, transport, null);
+        try {
+            server.start();
+            for (int i = 0; i < 100 && !server.isRunning(); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(server.isRunning());
+            
+            for (int i = 0; i < 10; i++) {
+                // A new client (and connection) each time so every acceptor gets a chance to run
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/hello")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, response.statusCode());
+                assertEquals("hello", response.body());
+            }
+        } finally {
+            server.shutdown().join();
+            routeManager.shutdown();
+        }
+    }
+    
+    private static DispatchConfig config() {
+        RouteConfig.StaticResponseConfig response = new RouteConfig.StaticResponseConfig();
+        response.setBody("hello");
+        
+        RouteConfig route = new RouteConfig();
+        route.setType("static");
+        route.setPath("/hello");
+        route.setResponse(response);
+        
+        DispatchConfig config = new DispatchConfig();
+        config.setRoutes(List.of(route));
+        return config;
+    }
+    
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
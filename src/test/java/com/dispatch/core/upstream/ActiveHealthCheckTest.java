@@ -0,0 +1,215 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.client.IBackendClient;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveHealthCheckTest {
+    
+    private final UpstreamCluster cluster = new UpstreamCluster("test", List.of("http://a", "http://b"));
+    private final Endpoint a = cluster.allEndpoints()[0];
+    private final Endpoint b = cluster.allEndpoints()[1];
+    private final Map<String, Integer> statuses = new ConcurrentHashMap<>(Map.of("http://a", 200, "http://b", 200));
+    private final List<String> probed = new ArrayList<>();
+    private final ManualTimer timer = new ManualTimer();
+    
+    @Test
+    void testThresholdsMarkEndpointsDownAndUp() {
+        ActiveHealthCheck check = new ActiveHealthCheck(cluster, config(), probingClient(), timer);
+        check.start();
+        
+        statuses.put("http://a", 503);
+        timer.tick();
+        timer.tick();
+        assertTrue(a.isHealthy(), "Two failures are below the threshold");
+        timer.tick();
+        assertFalse(a.isHealthy());
+        assertArrayEquals(new Endpoint[] {b}, cluster.endpoints());
+        assertEquals(1, cluster.healthyCount());
+        
+        statuses.put("http://a", 200);
+        timer.tick();
+        assertFalse(a.isHealthy(), "One pass is below the threshold");
+        timer.tick();
+        assertTrue(a.isHealthy());
+        assertArrayEquals(new Endpoint[] {a, b}, cluster.endpoints());
+        assertEquals(5, probed.stream().filter("http://a/health"::equals).count());
+    }
+    
+    @Test
+    void testFailureStreakIsResetByPass() {
+        ActiveHealthCheck check = new ActiveHealthCheck(cluster, config(), probingClient(), timer);
+        check.start();
+        
+        for (int i = 0; i < 3; i++) {
+            statuses.put("http://a", 500);
+            timer.tick();
+            timer.tick();
+            statuses.put("http://a", 200);
+            timer.tick();
+        }
+        
+        assertTrue(a.isHealthy());
+    }
+    
+    @Test
+    void testAllEndpointsDownRoutesToAll() {
+        cluster.setHealthy(a, false);
+        cluster.setHealthy(b, false);
+        
+        assertEquals(0, cluster.healthyCount());
+        assertArrayEquals(new Endpoint[] {a, b}, cluster.endpoints());
+    }
+    
+    @Test
+    void testStopCancelsFutureProbes() {
+        ActiveHealthCheck check = new ActiveHealthCheck(cluster, config(), probingClient(), timer);
+        check.start();
+        timer.tick();
+        check.stop();
+        
+        timer.tick();
+        timer.tick();
+        
+        assertEquals(2, probed.size());
+    }
+    
+    @Test
+    void testHungProbeTimesOutAndFails() {
+        Set<CompletableFuture<HttpResponse>> hung = ConcurrentHashMap.newKeySet();
+        IBackendClient client = new FakeClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+                hung.add(response);
+                return response;
+            }
+        };
+        DispatchConfig.HealthCheckConfig config = config();
+        config.setUnhealthyThreshold(1);
+        new ActiveHealthCheck(cluster, config, client, timer).start();
+        
+        timer.tick();
+        timer.tick();
+        
+        assertFalse(a.isHealthy());
+        assertFalse(b.isHealthy());
+        assertTrue(hung.stream().allMatch(CompletableFuture::isCancelled));
+    }
+    
+    private static DispatchConfig.HealthCheckConfig config() {
+        DispatchConfig.HealthCheckConfig config = new DispatchConfig.HealthCheckConfig();
+        config.setHealthyThreshold(2);
+        config.setUnhealthyThreshold(3);
+        return config;
+    }
+    
+    private IBackendClient probingClient() {
+        return new FakeClient() {
+            @Override
+            public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+                probed.add(backendUrl + request.uri());
+                return CompletableFuture.completedFuture(new HttpResponse(statuses.get(backendUrl), "ok"));
+            }
+        };
+    }
+    
+    private abstract static class FakeClient implements IBackendClient {
+        @Override
+        public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void shutdown() {
+        }
+    }
+    
+    /**
+     * Timer whose tasks run only when the test ticks it; each tick runs the tasks that
+     * were pending when it started
+     */
+    private static class ManualTimer implements Timer {
+        private List<ManualTimeout> pending = new ArrayList<>();
+        
+        void tick() {
+            List<ManualTimeout> due = pending;
+            pending = new ArrayList<>();
+            for (ManualTimeout timeout : due) {
+                if (!timeout.cancelled) {
+                    try {
+                        timeout.expired = true;
+                        timeout.task.run(timeout);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+        
+        @Override
+        public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+            ManualTimeout timeout = new ManualTimeout(this, task);
+            pending.add(timeout);
+            return timeout;
+        }
+        
+        @Override
+        public Set<Timeout> stop() {
+            return Set.of();
+        }
+    }
+    
+    private static class ManualTimeout implements Timeout {
+        private final Timer timer;
+        private final TimerTask task;
+        private boolean cancelled;
+        private boolean expired;
+        
+        ManualTimeout(Timer timer, TimerTask task) {
+            this.timer = timer;
+            this.task = task;
+        }
+        
+        @Override
+        public Timer timer() {
+            return timer;
+        }
+        
+        @Override
+        public TimerTask task() {
+            return task;
+        }
+        
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            return true;
+        }
+    }
+}
\ No newline at end of file
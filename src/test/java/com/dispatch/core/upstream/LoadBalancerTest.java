@@ -0,0 +1,100 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.core.filter.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadBalancerTest {
+    
+    private final UpstreamCluster cluster = new UpstreamCluster("test", List.of("http://a", "http://b", "http://c"));
+    private final Endpoint[] endpoints = cluster.endpoints();
+    
+    @Test
+    void testRoundRobin() {
+        LoadBalancer balancer = LoadBalancers.create("round-robin");
+        
+        assertSame(endpoints[0], balancer.choose(endpoints));
+        assertSame(endpoints[1], balancer.choose(endpoints));
+        assertSame(endpoints[2], balancer.choose(endpoints));
+        assertSame(endpoints[0], balancer.choose(endpoints));
+    }
+    
+    @Test
+    void testLeastOutstanding() {
+        CompletableFuture<HttpResponse> pendingA = endpoints[0].track(new CompletableFuture<>());
+        endpoints[2].track(new CompletableFuture<>());
+        LoadBalancer balancer = LoadBalancers.create("least-outstanding");
+        
+        for (int i = 0; i < 3; i++) {
+            assertSame(endpoints[1], balancer.choose(endpoints));
+        }
+        
+        pendingA.complete(HttpResponse.ok("done"));
+        assertEquals(0, endpoints[0].outstanding());
+    }
+    
+    @Test
+    void testPowerOfTwoChoicesAvoidsBusiestEndpoint() {
+        for (int i = 0; i < 5; i++) {
+            endpoints[0].track(new CompletableFuture<>());
+        }
+        LoadBalancer balancer = LoadBalancers.create("p2c");
+        
+        Map<Endpoint, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            picks.merge(balancer.choose(endpoints), 1, Integer::sum);
+        }
+        
+        assertNull(picks.get(endpoints[0]));
+        assertTrue(picks.get(endpoints[1]) > 50);
+        assertTrue(picks.get(endpoints[2]) > 50);
+    }
+    
+    @Test
+    void testPeakEwmaPrefersFastEndpoints() {
+        endpoints[0].observeLatency(TimeUnit.MILLISECONDS.toNanos(200));
+        endpoints[1].observeLatency(TimeUnit.MILLISECONDS.toNanos(5));
+        endpoints[2].observeLatency(TimeUnit.MILLISECONDS.toNanos(5));
+        LoadBalancer balancer = LoadBalancers.create("peak-ewma");
+        
+        for (int i = 0; i < 100; i++) {
+            assertNotSame(endpoints[0], balancer.choose(endpoints));
+        }
+    }
+    
+    @Test
+    void testPeakEwmaReactsToLatencySpikes() {
+        Endpoint endpoint = endpoints[0];
+        endpoint.observeLatency(TimeUnit.MILLISECONDS.toNanos(5));
+        endpoint.observeLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), endpoint.latencyEwmaNanos(), 1);
+        
+        endpoint.observeLatency(TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(endpoint.latencyEwmaNanos() > TimeUnit.MILLISECONDS.toNanos(400));
+    }
+    
+    @Test
+    void testCustomBalancerByClassName() {
+        assertInstanceOf(RoundRobinBalancer.class, LoadBalancers.create(RoundRobinBalancer.class.getName()));
+        assertThrows(IllegalArgumentException.class, () -> LoadBalancers.create("random"));
+        assertThrows(IllegalArgumentException.class, () -> LoadBalancers.create(String.class.getName()));
+    }
+    
+    @Test
+    void testSingleEndpointCluster() {
+        Endpoint[] single = new UpstreamCluster("one", List.of("http://only")).endpoints();
+        
+        for (String type : List.of("round-robin", "least-outstanding", "p2c", "peak-ewma")) {
+            assertSame(single[0], LoadBalancers.create(type).choose(single));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new UpstreamCluster("empty", List.of()));
+    }
+}
\ No newline at end of file
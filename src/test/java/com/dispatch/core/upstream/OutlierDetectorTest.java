@@ -0,0 +1,168 @@
+package com.dispatch.core.upstream;
+
+import com.dispatch.core.Timers;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutlierDetectorTest {
+    
+    private final UpstreamCluster cluster = new UpstreamCluster("test", List.of("http://a", "http://b", "http://c", "http://d"));
+    private final Endpoint a = cluster.allEndpoints()[0];
+    private final Endpoint b = cluster.allEndpoints()[1];
+    private final AtomicLong clock = new AtomicLong();
+    private final DispatchConfig.OutlierDetectionConfig config = new DispatchConfig.OutlierDetectionConfig();
+    
+    OutlierDetectorTest() {
+        config.setConsecutive5xx(3);
+        config.setConsecutiveGatewayFailures(2);
+        config.setBaseEjectionTimeMs(1000);
+        config.setMaxEjectionPercent(50);
+        config.setLatencyMinRequests(2);
+    }
+    
+    @Test
+    void testConsecutive5xxEjectsEndpoint() {
+        OutlierDetector detector = detector();
+        
+        respond(detector, a, 500);
+        respond(detector, a, 500);
+        respond(detector, a, 200);
+        respond(detector, a, 500);
+        respond(detector, a, 500);
+        assertFalse(a.isEjected(), "A success resets the streak");
+        
+        respond(detector, a, 500);
+        assertTrue(a.isEjected());
+        assertFalse(List.of(cluster.endpoints()).contains(a));
+        assertEquals(1, detector.getEjections(OutlierDetector.Reason.CONSECUTIVE_5XX));
+    }
+    
+    @Test
+    void testGatewayFailuresEjectEndpoint() {
+        OutlierDetector detector = detector();
+        
+        respond(detector, a, 503);
+        detector.track(a, CompletableFuture.failedFuture(new IOException("Connection refused")));
+        
+        assertTrue(a.isEjected());
+        assertEquals(1, detector.getEjections(OutlierDetector.Reason.CONSECUTIVE_GATEWAY_FAILURES));
+    }
+    
+    @Test
+    void testCancelledRequestsAreIgnored() {
+        OutlierDetector detector = detector();
+        
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<HttpResponse> response = detector.track(a, new CompletableFuture<>());
+            response.cancel(false);
+        }
+        
+        assertFalse(a.isEjected());
+    }
+    
+    @Test
+    void testEjectionTimeDoublesAndExpires() {
+        OutlierDetector detector = detector();
+        
+        eject(detector, a);
+        advanceMillis(999);
+        detector.sweep();
+        assertTrue(a.isEjected());
+        advanceMillis(1);
+        detector.sweep();
+        assertFalse(a.isEjected());
+        
+        eject(detector, a);
+        advanceMillis(1000);
+        detector.sweep();
+        assertTrue(a.isEjected(), "A second ejection lasts twice as long");
+        advanceMillis(1000);
+        detector.sweep();
+        assertFalse(a.isEjected());
+    }
+    
+    @Test
+    void testMaxEjectionPercentCapsEjections() {
+        OutlierDetector detector = detector();
+        
+        eject(detector, a);
+        eject(detector, b);
+        Endpoint c = cluster.allEndpoints()[2];
+        eject(detector, c);
+        
+        assertTrue(a.isEjected());
+        assertTrue(b.isEjected());
+        assertFalse(c.isEjected(), "Half of four endpoints may be ejected");
+        assertEquals(2, cluster.ejectedCount());
+    }
+    
+    @Test
+    void testSlowEndpointIsEjected() {
+        OutlierDetector detector = detector();
+        
+        for (Endpoint endpoint : cluster.allEndpoints()) {
+            long latencyMs = endpoint == b ? 400 : 20;
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<HttpResponse> response = detector.track(endpoint, new CompletableFuture<>());
+                advanceMillis(latencyMs);
+                response.complete(HttpResponse.ok("ok"));
+            }
+        }
+        detector.sweep();
+        
+        assertTrue(b.isEjected());
+        assertFalse(a.isEjected());
+        assertEquals(1, detector.getEjections(OutlierDetector.Reason.LATENCY));
+    }
+    
+    @Test
+    void testStopReturnsEjectedEndpoints() {
+        OutlierDetector detector = detector();
+        eject(detector, a);
+        
+        detector.stop();
+        
+        assertFalse(a.isEjected());
+        assertEquals(4, cluster.healthyCount());
+    }
+    
+    @Test
+    void testEjectionCountsOutliveDetector() {
+        OutlierDetector first = detector();
+        eject(first, a);
+        first.stop();
+        
+        OutlierDetector second = detector();
+        eject(second, b);
+        
+        assertEquals(2, second.getEjections(OutlierDetector.Reason.CONSECUTIVE_5XX));
+        assertEquals(2, cluster.ejectionCount());
+    }
+    
+    private OutlierDetector detector() {
+        return new OutlierDetector(cluster, config, Timers.shared(), clock::get);
+    }
+    
+    private void eject(OutlierDetector detector, Endpoint endpoint) {
+        for (int i = 0; i < config.getConsecutive5xx(); i++) {
+            respond(detector, endpoint, 500);
+        }
+    }
+    
+    private static void respond(OutlierDetector detector, Endpoint endpoint, int status) {
+        detector.track(endpoint, CompletableFuture.completedFuture(new HttpResponse(status, "")));
+    }
+    
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.dispatch.filters.cache;
+
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapResponseStoreTest {
+    
+    private static final int SLAB_SIZE = 4096;
+    
+    private final OffHeapResponseStore store = new OffHeapResponseStore(2 * SLAB_SIZE, SLAB_SIZE);
+    
+    @Test
+    void testServesStoredResponseFromDirectMemory() {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        headers.set("Content-Type", "application/json");
+        headers.add("Link", "</a>; rel=preload");
+        headers.add("Link", "</b>; rel=preload");
+        assertTrue(store.put("a", 200, headers, body(1000, 'x'), Map.of(), 0, 60_000));
+        
+        HttpResponse response = store.get("a", request(), 3_000);
+        assertNotNull(response);
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.getHeader("Content-Type"));
+        assertEquals(2, response.headers().getAll("Link").size());
+        assertEquals("3", response.getHeader("Age"));
+        
+        ByteBuf content = response.content().retainedBuffer();
+        assertTrue(content.isDirect());
+        assertEquals(1000, content.readableBytes());
+        content.release();
+        assertArrayEquals(body(1000, 'x').array(), response.body());
+        response.release();
+        
+        assertNull(store.get("a", request(), 60_000));
+    }
+    
+    @Test
+    void testEvictsOldestSlabWhenFull() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(store.put("k" + i, 200, new DefaultHttpHeaders(), body(1500, 'a'), Map.of(), 0, 60_000));
+        }
+        
+        // Two responses fit in a slab, so the first two slabs filled have made room for the third
+        assertNull(store.get("k0", request(), 0));
+        assertNull(store.get("k1", request(), 0));
+        assertEquals(4, store.size());
+        assertEquals(2, store.evictionCount());
+        assertEquals(2L * SLAB_SIZE, store.allocatedBytes());
+    }
+    
+    @Test
+    void testKeepsSlabMemoryWhileResponseIsInFlight() {
+        assertTrue(store.put("a", 200, new DefaultHttpHeaders(), body(3000, 'a'), Map.of(), 0, 60_000));
+        HttpResponse inFlight = store.get("a", request(), 0);
+        assertTrue(store.put("b", 200, new DefaultHttpHeaders(), body(3000, 'b'), Map.of(), 0, 60_000));
+        
+        // Evicts the first slab, whose memory can't be reused until the response is written
+        assertFalse(store.put("c", 200, new DefaultHttpHeaders(), body(3000, 'c'), Map.of(), 0, 60_000));
+        assertArrayEquals(body(3000, 'a').array(), inFlight.body());
+        
+        inFlight.release();
+        assertTrue(store.put("c", 200, new DefaultHttpHeaders(), body(3000, 'c'), Map.of(), 0, 60_000));
+        assertArrayEquals(body(3000, 'c').array(), store.get("c", request(), 0).body());
+    }
+    
+    @Test
+    void testRejectsResponseLargerThanSlab() {
+        assertFalse(store.put("a", 200, new DefaultHttpHeaders(), body(SLAB_SIZE + 1, 'a'), Map.of(), 0, 60_000));
+        assertEquals(0, store.size());
+    }
+    
+    private static ByteBuffer body(int length, char fill) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) fill);
+        return ByteBuffer.wrap(bytes);
+    }
+    
+    private static HttpRequest request() {
+        return new HttpRequest(HttpMethod.GET, "/", new DefaultHttpHeaders(), new byte[0],
+            new InetSocketAddress("127.0.0.1", 12345));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.dispatch.filters.cache;
+
+import com.dispatch.core.Constants;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.core.filter.StandardAttributes;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+    
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(
+        1024 * 1024, 0, List.of(), Constants.DEFAULT_CREDENTIAL_HEADERS, null, 0, clock::get);
+    
+    @Test
+    void testServesFreshResponseFromCache() {
+        HttpRequest request = request();
+        HttpResponse backendResponse = backendResponse("max-age=60");
+        assertNull(runFilter(request, null, backendResponse));
+        assertEquals("MISS", backendResponse.getHeader("X-Cache"));
+        
+        clock.addAndGet(5_000);
+        HttpResponse hit = fetch(request(), null, "max-age=60");
+        assertNotNull(hit);
+        assertEquals(200, hit.statusCode());
+        assertEquals("cached body", hit.bodyAsString());
+        assertEquals("HIT", hit.getHeader("X-Cache"));
+        assertEquals("5", hit.getHeader("Age"));
+        assertEquals(1, filter.getHitCount());
+        assertEquals(1, filter.getMissCount());
+    }
+    
+    @Test
+    void testExpiresAfterMaxAge() {
+        fetch(request(), null, "max-age=60");
+        
+        clock.addAndGet(60_000);
+        assertNull(fetch(request(), null, "max-age=60"));
+        assertEquals(0, filter.getHitCount());
+    }
+    
+    @Test
+    void testDoesNotStoreNoStoreOrPrivate() {
+        fetch(request(), null, "no-store");
+        assertNull(fetch(request(), null, "private, max-age=60"));
+        assertNull(fetch(request(), null, null));
+        assertEquals(0, filter.getStoreCount());
+    }
+    
+    @Test
+    void testAuthorizedResponsesNeedPublic() {
+        HttpRequest authorized = request();
+        authorized.headers().set("Authorization", "Bearer token");
+        
+        fetch(authorized, null, "max-age=60");
+        assertEquals(0, filter.getStoreCount());
+        
+        fetch(authorized, null, "public, max-age=60");
+        assertEquals(1, filter.getStoreCount());
+    }
+    
+    @Test
+    void testCredentialedResponsesNeedPublic() {
+        HttpRequest withCookie = request();
+        withCookie.headers().set("Cookie", "session=abc");
+        fetch(withCookie, null, "max-age=60");
+        
+        HttpRequest withApiKey = request();
+        withApiKey.headers().set("X-API-Key", "key-1");
+        fetch(withApiKey, null, "max-age=60");
+        assertEquals(0, filter.getStoreCount());
+        
+        fetch(withApiKey, null, "s-maxage=60");
+        assertEquals(1, filter.getStoreCount());
+    }
+    
+    @Test
+    void testCredentialHeadersAreConfigurable() {
+        ResponseCacheFilter custom = new ResponseCacheFilter(1024 * 1024, 0, List.of(), List.of("X-Session"), null, 0,
+            clock::get);
+        HttpRequest request = request();
+        request.headers().set("X-Session", "abc");
+        FilterContext context = new FilterContext(request);
+        
+        assertInstanceOf(FilterResult.Proceed.class, custom.filter(request, context));
+        custom.filterResponse(backendResponse("max-age=60"), context);
+        assertEquals(0, custom.getStoreCount());
+    }
+    
+    @Test
+    void testVaryMismatchMisses() {
+        HttpRequest gzip = request();
+        gzip.headers().set("Accept-Encoding", "gzip");
+        HttpResponse response = backendResponse("max-age=60");
+        response.setHeader("Vary", "Accept-Encoding");
+        runFilter(gzip, null, response);
+        
+        HttpRequest identity = request();
+        identity.headers().set("Accept-Encoding", "identity");
+        assertInstanceOf(FilterResult.Proceed.class, filter.filter(identity, new FilterContext(identity)));
+        
+        HttpRequest gzipAgain = request();
+        gzipAgain.headers().set("Accept-Encoding", "gzip");
+        assertInstanceOf(FilterResult.Respond.class, filter.filter(gzipAgain, new FilterContext(gzipAgain)));
+    }
+    
+    @Test
+    void testRouteTtlOverridesHeaders() {
+        RouteConfig route = new RouteConfig();
+        RouteConfig.CacheConfig cache = new RouteConfig.CacheConfig();
+        cache.setTtlMs(1_000L);
+        route.setCache(cache);
+        
+        fetch(request(), route, "max-age=60");
+        clock.addAndGet(999);
+        assertNotNull(fetch(request(), route, "max-age=60"));
+        clock.addAndGet(1);
+        assertNull(fetch(request(), route, "max-age=60"));
+    }
+    
+    @Test
+    void testRouteCanDisableCache() {
+        RouteConfig route = new RouteConfig();
+        RouteConfig.CacheConfig cache = new RouteConfig.CacheConfig();
+        cache.setEnabled(false);
+        route.setCache(cache);
+        
+        fetch(request(), route, "max-age=60");
+        assertNull(fetch(request(), route, "max-age=60"));
+        assertEquals(0, filter.getStoreCount());
+    }
+    
+    @Test
+    void testRequestNoCacheSkipsLookup() {
+        fetch(request(), null, "max-age=60");
+        
+        HttpRequest noCache = request();
+        noCache.headers().set("Cache-Control", "no-cache");
+        assertNull(fetch(noCache, null, "max-age=60"));
+        assertEquals(2, filter.getStoreCount());
+    }
+    
+    @Test
+    void testLargeResponsesKeptOffHeap() {
+        OffHeapResponseStore offHeap = new OffHeapResponseStore(64 * 1024, 16 * 1024);
+        ResponseCacheFilter tiered = new ResponseCacheFilter(1024 * 1024, 0, List.of(), Constants.DEFAULT_CREDENTIAL_HEADERS,
+            offHeap, 1024, clock::get);
+        HttpHeaders headers = new DefaultHttpHeaders();
+        headers.set("Cache-Control", "max-age=60");
+        byte[] body = new byte[4096];
+        
+        HttpRequest request = request();
+        FilterContext context = new FilterContext(request);
+        tiered.filter(request, context);
+        tiered.filterResponse(new HttpResponse(200, headers, body), context);
+        assertEquals(1, offHeap.size());
+        
+        HttpRequest again = request();
+        FilterResult.Respond hit = assertInstanceOf(FilterResult.Respond.class,
+            tiered.filter(again, new FilterContext(again)));
+        assertEquals("HIT", hit.response().getHeader("X-Cache"));
+        assertEquals(4096, hit.response().bodyLength());
+        assertTrue(hit.response().content().nioBuffer().isDirect());
+        hit.response().release();
+    }
+    
+    /**
+     * Run a request through the filter, returning the cached response on a hit, or
+     * sending a backend response with the given Cache-Control through it on a miss
+     */
+    private HttpResponse fetch(HttpRequest request, RouteConfig route, String cacheControl) {
+        return runFilter(request, route, backendResponse(cacheControl));
+    }
+    
+    private HttpResponse runFilter(HttpRequest request, RouteConfig route, HttpResponse backendResponse) {
+        FilterContext context = new FilterContext(request);
+        if (route != null) {
+            context.set(StandardAttributes.ROUTE_CONFIG, route);
+        }
+        FilterResult result = filter.filter(request, context);
+        if (result instanceof FilterResult.Respond respond) {
+            return respond.response();
+        }
+        filter.filterResponse(backendResponse, context);
+        return null;
+    }
+    
+    private static HttpResponse backendResponse(String cacheControl) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        if (cacheControl != null) {
+            headers.set("Cache-Control", cacheControl);
+        }
+        return new HttpResponse(200, headers, "cached body".getBytes());
+    }
+    
+    private static HttpRequest request() {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        headers.set("Host", "api.test");
+        return new HttpRequest(HttpMethod.GET, "/items/1", headers, new byte[0],
+            new InetSocketAddress("127.0.0.1", 12345));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.dispatch.filters.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+    
+    @Test
+    void testStaysWithinMaximumWeight() {
+        TinyLfuCache<Integer, byte[]> cache = new TinyLfuCache<>(10_000, 100, value -> value.length);
+        
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, new byte[100]);
+        }
+        
+        assertTrue(cache.weightedSize() <= 10_000);
+        assertEquals(cache.size() * 100L, cache.weightedSize());
+        assertEquals(1000 - cache.size(), cache.evictionCount());
+    }
+    
+    @Test
+    void testFrequentEntriesSurviveScan() {
+        TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(10_000, 100, value -> value.length);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, new byte[100]);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertNotNull(cache.get("hot-" + i));
+            }
+        }
+        
+        // A scan of one-off keys twice the cache's size
+        for (int i = 0; i < 200; i++) {
+            cache.put("scan-" + i, new byte[100]);
+        }
+        
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "hot entries evicted by scan: " + (50 - survivors));
+    }
+    
+    @Test
+    void testReplaceUpdatesWeight() {
+        TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(10_000, 100, value -> value.length);
+        
+        cache.put("a", new byte[100]);
+        cache.put("a", new byte[300]);
+        
+        assertEquals(1, cache.size());
+        assertEquals(300, cache.weightedSize());
+        assertEquals(300, cache.get("a").length);
+        
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.weightedSize());
+    }
+    
+    @Test
+    void testRejectsEntryHeavierThanCache() {
+        TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(1000, 10, value -> value.length);
+        
+        cache.put("small", new byte[10]);
+        cache.put("huge", new byte[2000]);
+        
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("small"));
+    }
+}
\ No newline at end of file
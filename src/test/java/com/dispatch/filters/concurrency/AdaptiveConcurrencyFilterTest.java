@@ -0,0 +1,138 @@
+package com.dispatch.filters.concurrency;
+
+import com.dispatch.client.IBackendClient;
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.config.RouteConfig;
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import com.dispatch.core.filter.HttpResponse;
+import com.dispatch.core.route.RouteManager;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyFilterTest {
+    
+    private static final String BACKEND = "http://backend.test";
+    
+    private final Queue<CompletableFuture<HttpResponse>> pending = new ConcurrentLinkedQueue<>();
+    private RouteManager routeManager;
+    
+    @BeforeEach
+    void setUp() {
+        RouteConfig.FilterConfig filter = new RouteConfig.FilterConfig();
+        filter.setName("adaptive-concurrency");
+        filter.setConfig(Map.of("initial-limit", 2, "min-limit", 2, "max-limit", 2));
+        
+        RouteConfig route = new RouteConfig();
+        route.setType("proxy");
+        route.setPath("/api/*");
+        route.setBackend(BACKEND);
+        route.setFilters(List.of(filter));
+        
+        DispatchConfig config = new DispatchConfig();
+        config.setRoutes(List.of(route));
+        routeManager = new RouteManager(config, new PendingBackendClient());
+    }
+    
+    @Test
+    void testShedsRequestsBeyondLimit() {
+        CompletableFuture<FilterResult> first = process();
+        CompletableFuture<FilterResult> second = process();
+        
+        FilterResult.Respond shed = assertInstanceOf(FilterResult.Respond.class, process().join());
+        assertEquals(503, shed.response().statusCode());
+        assertEquals("1", shed.response().getHeader("Retry-After"));
+        
+        pending.poll().complete(new HttpResponse(200, "ok"));
+        assertEquals(200, ((FilterResult.Respond) first.join()).response().statusCode());
+        
+        CompletableFuture<FilterResult> third = process();
+        assertFalse(third.isDone());
+        
+        pending.forEach(response -> response.complete(new HttpResponse(200, "ok")));
+        assertEquals(200, ((FilterResult.Respond) second.join()).response().statusCode());
+        assertEquals(200, ((FilterResult.Respond) third.join()).response().statusCode());
+    }
+    
+    @Test
+    void testBackendFailuresReleaseSlots() {
+        CompletableFuture<FilterResult> first = process();
+        CompletableFuture<FilterResult> second = process();
+        pending.forEach(response -> response.completeExceptionally(new RuntimeException("connection reset")));
+        
+        assertEquals(502, ((FilterResult.Respond) first.join()).response().statusCode());
+        assertEquals(502, ((FilterResult.Respond) second.join()).response().statusCode());
+        
+        pending.clear();
+        
+        assertFalse(process().isDone());
+        assertFalse(process().isDone());
+    }
+    
+    @Test
+    void testSamplesBackendRtt() {
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(2, 1, 10, 4, 0.2, 600);
+        RouteConfig route = new RouteConfig();
+        route.setBackend(BACKEND);
+        HttpRequest request = request();
+        FilterContext context = new FilterContext(request);
+        context.setAttribute("route.config", route);
+        
+        assertInstanceOf(FilterResult.Proceed.class, filter.process(request, context).join());
+        assertEquals(1, filter.getLimit(BACKEND).getInFlight());
+        
+        context.setAttribute("proxy.rtt-nanos", 5_000_000L);
+        context.complete(FilterResult.proceed());
+        
+        assertEquals(0, filter.getLimit(BACKEND).getInFlight());
+        assertEquals(5_000, filter.getLimit(BACKEND).getRttMicros());
+    }
+    
+    @Test
+    void testRoutesWithoutBackendPassThrough() {
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter();
+        HttpRequest request = request();
+        
+        assertInstanceOf(FilterResult.Proceed.class, filter.process(request, new FilterContext(request)).join());
+    }
+    
+    private CompletableFuture<FilterResult> process() {
+        HttpRequest request = request();
+        return routeManager.processRequest(request, new FilterContext(request));
+    }
+    
+    private static HttpRequest request() {
+        return new HttpRequest(HttpMethod.GET, "/api/items", new DefaultHttpHeaders(), 
+            new byte[0], new InetSocketAddress("127.0.0.1", 8080));
+    }
+    
+    private class PendingBackendClient implements IBackendClient {
+        @Override
+        public CompletableFuture<HttpResponse> proxyRequest(HttpRequest request, String backendUrl) {
+            CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+            pending.add(response);
+            return response;
+        }
+        
+        @Override
+        public CompletableFuture<HttpResponse> proxyStreamingRequest(HttpRequest request, String backendUrl) {
+            return proxyRequest(request, backendUrl);
+        }
+        
+        @Override
+        public void shutdown() {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.dispatch.filters.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimitTest {
+    
+    private static final long MILLIS = 1_000_000;
+    
+    @Test
+    void testAdmitsUpToLimit() {
+        GradientLimit limit = new GradientLimit(2, 1, 100, 4, 0.2, 600);
+        
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+        assertEquals(1, limit.getRejectedCount());
+        
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+    
+    @Test
+    void testGrowsWhileLatencyIsSteady() {
+        GradientLimit limit = new GradientLimit(10, 1, 100, 4, 0.2, 600);
+        
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit());
+        }
+        
+        assertTrue(limit.getLimit() > 30, "limit " + limit.getLimit());
+        assertEquals(10_000, limit.getRttMicros());
+    }
+    
+    @Test
+    void testShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(50, 1, 100, 4, 0.2, 600);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit());
+        }
+        int steady = limit.getLimit();
+        
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100 * MILLIS, limit.getLimit());
+        }
+        
+        assertTrue(limit.getLimit() < steady / 2, "limit " + limit.getLimit() + " from " + steady);
+    }
+    
+    @Test
+    void testDoesNotGrowWhenUnderused() {
+        GradientLimit limit = new GradientLimit(20, 1, 100, 4, 0.2, 600);
+        
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, 2);
+        }
+        
+        assertEquals(20, limit.getLimit());
+    }
+    
+    @Test
+    void testLimitStaysWithinBounds() {
+        GradientLimit limit = new GradientLimit(10, 5, 12, 4, 0.5, 600);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit());
+        }
+        assertEquals(12, limit.getLimit());
+        
+        // Without a queue allowance, sustained high latency halves the limit each time
+        GradientLimit shrinking = new GradientLimit(10, 5, 12, 0, 0.5, 600);
+        for (int i = 0; i < 20; i++) {
+            shrinking.onSample(10 * MILLIS, 10);
+        }
+        for (int i = 0; i < 50; i++) {
+            shrinking.onSample(1000 * MILLIS, shrinking.getLimit());
+        }
+        assertEquals(5, shrinking.getLimit());
+    }
+}
\ No newline at end of file
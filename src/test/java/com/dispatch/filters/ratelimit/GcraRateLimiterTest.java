@@ -0,0 +1,81 @@
+package com.dispatch.filters.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+    
+    private AtomicLong clock;
+    private GcraRateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        rateLimiter = new GcraRateLimiter(60, 10, 100, OverflowPolicy.DENY, 60_000, clock::get); // one per second, 10 burst
+    }
+    
+    @Test
+    void testInitialBurstCapacity() {
+        for (int i = 0; i < 10; i++) {
+            RateLimitResult result = rateLimiter.tryAcquire("key");
+            assertTrue(result.isAllowed(), "Request " + (i + 1) + " should be allowed");
+            assertEquals(9 - i, result.getRemainingTokens());
+        }
+        
+        RateLimitResult result = rateLimiter.tryAcquire("key");
+        assertFalse(result.isAllowed());
+        assertEquals(1, result.getRetryAfterSeconds());
+        assertEquals(60, result.getLimit());
+    }
+    
+    @Test
+    void testEmissionInterval() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        }
+        
+        advance(999);
+        assertFalse(rateLimiter.tryAcquire("key").isAllowed());
+        
+        advance(1);
+        assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        assertFalse(rateLimiter.tryAcquire("key").isAllowed());
+    }
+    
+    @Test
+    void testRetryAfterGrowsWithDebt() {
+        GcraRateLimiter slow = new GcraRateLimiter(6, 1, 100, OverflowPolicy.DENY, 60_000, clock::get); // one per 10 seconds
+        
+        assertTrue(slow.tryAcquire("key").isAllowed());
+        assertEquals(10, slow.tryAcquire("key").getRetryAfterSeconds());
+        
+        advance(4000);
+        assertEquals(6, slow.tryAcquire("key").getRetryAfterSeconds());
+    }
+    
+    @Test
+    void testIdleKeysAreEvicted() {
+        GcraRateLimiter limiter = new GcraRateLimiter(60, 10, 100, OverflowPolicy.DENY, 1000, clock::get);
+        assertTrue(limiter.tryAcquire("idle").isAllowed());
+        
+        advance(2000);
+        assertTrue(limiter.tryAcquire("other").isAllowed());
+        
+        assertEquals(1, limiter.getBucketCount());
+        assertEquals(1, limiter.getEvictionCount());
+    }
+    
+    @Test
+    void testInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new GcraRateLimiter(0, 10));
+    }
+    
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
\ No newline at end of file
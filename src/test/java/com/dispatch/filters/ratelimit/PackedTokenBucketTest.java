@@ -0,0 +1,75 @@
+package com.dispatch.filters.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTokenBucketTest {
+    
+    @Test
+    void testPackRoundTrip() {
+        long state = PackedTokenBucket.pack(123_456_789L, 5 * PackedTokenBucket.ONE_TOKEN + 3);
+        
+        assertEquals(123_456_789L, PackedTokenBucket.time(state));
+        assertEquals(5 * PackedTokenBucket.ONE_TOKEN + 3, PackedTokenBucket.tokens(state));
+        assertEquals(5, PackedTokenBucket.remaining(state));
+    }
+    
+    @Test
+    void testFullBucketHasBurstCapacity() {
+        PackedTokenBucket model = new PackedTokenBucket(60, 10);
+        long state = model.full(0);
+        
+        assertEquals(10, PackedTokenBucket.remaining(state));
+        assertTrue(PackedTokenBucket.hasToken(state));
+    }
+    
+    @Test
+    void testRefillAtConfiguredRate() {
+        PackedTokenBucket model = new PackedTokenBucket(60, 10); // one token per second
+        long empty = PackedTokenBucket.pack(0, 0);
+        
+        assertFalse(PackedTokenBucket.hasToken(model.refill(empty, 999_000)));
+        assertEquals(1, PackedTokenBucket.remaining(model.refill(empty, 1_000_000)));
+        assertEquals(3, PackedTokenBucket.remaining(model.refill(empty, 3_500_000)));
+        assertEquals(10, PackedTokenBucket.remaining(model.refill(empty, 60_000_000)));
+    }
+    
+    @Test
+    void testFrequentRefillsDoNotLoseTime() {
+        PackedTokenBucket model = new PackedTokenBucket(60, 10);
+        long state = PackedTokenBucket.pack(0, 0);
+        
+        // Refill every 7µs, far below the ~15.6ms needed for one fixed-point unit
+        for (long now = 7; now <= 2_000_000; now += 7) {
+            state = model.refill(state, now);
+        }
+        
+        assertEquals(1, PackedTokenBucket.remaining(state));
+        assertTrue(PackedTokenBucket.tokens(state) >= 2 * PackedTokenBucket.ONE_TOKEN - 1);
+    }
+    
+    @Test
+    void testRefillAcrossClockWrap() {
+        PackedTokenBucket model = new PackedTokenBucket(60, 10);
+        long state = PackedTokenBucket.pack(PackedTokenBucket.TIME_MASK - 500_000, 0);
+        
+        assertEquals(1, PackedTokenBucket.remaining(model.refill(state, PackedTokenBucket.TIME_MASK + 500_001)));
+    }
+    
+    @Test
+    void testRetryAfterAndResetTime() {
+        PackedTokenBucket model = new PackedTokenBucket(6, 2); // one token every 10 seconds
+        long empty = PackedTokenBucket.pack(0, 0);
+        
+        assertEquals(10, model.retryAfterSeconds(empty));
+        assertEquals(1_020, model.resetTime(empty, 1_000_000));
+        assertEquals(1_060, model.resetTime(model.full(0), 1_000_000));
+    }
+    
+    @Test
+    void testBurstCapacityLimit() {
+        assertDoesNotThrow(() -> new PackedTokenBucket(60, PackedTokenBucket.MAX_CAPACITY));
+        assertThrows(IllegalArgumentException.class, () -> new PackedTokenBucket(60, PackedTokenBucket.MAX_CAPACITY + 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.dispatch.filters.ratelimit;
+
+import com.dispatch.core.config.DispatchConfig;
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingFilterTest {
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"token-bucket", "sliding-window", "gcra"})
+    void testAlgorithmIsSelectable(String algorithm) {
+        RateLimitingFilter filter = new RateLimitingFilter(config(Map.of(
+            "algorithm", algorithm, "requests-per-minute", 2, "burst-capacity", 2)));
+        
+        assertTrue(process(filter) instanceof FilterResult.Proceed);
+        assertTrue(process(filter) instanceof FilterResult.Proceed);
+        
+        FilterResult.Respond respond = assertInstanceOf(FilterResult.Respond.class, process(filter));
+        assertEquals(429, respond.response().statusCode());
+        assertEquals("2", respond.response().getHeader("X-RateLimit-Limit"));
+    }
+    
+    @Test
+    void testUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class, 
+            () -> new RateLimitingFilter(config(Map.of("algorithm", "leaky"))));
+    }
+    
+    private static FilterResult process(RateLimitingFilter filter) {
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "/api", new DefaultHttpHeaders(), 
+            new byte[0], new InetSocketAddress("127.0.0.1", 8080));
+        return filter.process(request, new FilterContext(request)).join();
+    }
+    
+    private static DispatchConfig.FilterConfig config(Map<String, Object> settings) {
+        DispatchConfig.FilterConfig config = new DispatchConfig.FilterConfig();
+        config.setName("rate-limiting");
+        config.setConfig(settings);
+        return config;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.dispatch.filters.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedMemoryRateLimiterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path file;
+    private AtomicLong clock;
+    
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("ratelimit.table");
+        clock = new AtomicLong(1_700_000_000_000_000L);
+    }
+    
+    @Test
+    void testInitialBurstCapacity() {
+        SharedMemoryRateLimiter limiter = limiter(1024, OverflowPolicy.DENY);
+        
+        for (int i = 0; i < 10; i++) {
+            RateLimitResult result = limiter.tryAcquire("key");
+            assertTrue(result.isAllowed(), "Request " + (i + 1) + " should be allowed");
+            assertEquals(9 - i, result.getRemainingTokens());
+        }
+        assertFalse(limiter.tryAcquire("key").isAllowed());
+        assertTrue(limiter.tryAcquire("other").isAllowed());
+        assertEquals(2, limiter.getSlotsInUse());
+    }
+    
+    @Test
+    void testMappingsOfTheSameFileShareLimits() {
+        // Two mappings of one file stand in for two gateway processes on a host
+        SharedMemoryRateLimiter first = limiter(1024, OverflowPolicy.DENY);
+        SharedMemoryRateLimiter second = limiter(1024, OverflowPolicy.DENY);
+        
+        for (int i = 0; i < 5; i++) {
+            assertTrue(first.tryAcquire("key").isAllowed());
+            assertTrue(second.tryAcquire("key").isAllowed());
+        }
+        assertFalse(first.tryAcquire("key").isAllowed());
+        assertFalse(second.tryAcquire("key").isAllowed());
+        
+        clock.addAndGet(1_000_000);
+        assertTrue(second.tryAcquire("key").isAllowed());
+        assertFalse(first.tryAcquire("key").isAllowed());
+    }
+    
+    @Test
+    void testConcurrentClaimsOfNewKeyShareOneAllowance() throws Exception {
+        // Two mappings racing to claim a slot for each new key, as two processes would
+        SharedMemoryRateLimiter[] mappings = {limiter(1 << 16, OverflowPolicy.DENY), limiter(1 << 16, OverflowPolicy.DENY)};
+        int rounds = 2000;
+        AtomicInteger allowed = new AtomicInteger();
+        CyclicBarrier barrier = new CyclicBarrier(mappings.length);
+        List<Thread> threads = new ArrayList<>();
+        for (SharedMemoryRateLimiter mapping : mappings) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int round = 0; round < rounds; round++) {
+                        barrier.await();
+                        for (int i = 0; i < 10; i++) {
+                            if (mapping.tryAcquire("key-" + round).isAllowed()) {
+                                allowed.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        // A key claimed twice may admit a few requests past its burst, but each keeps a
+        // single slot carrying everything it admitted, so it has that much less to give
+        // once ten seconds have refilled a whole burst
+        assertEquals(rounds, mappings[0].getSlotsInUse());
+        clock.addAndGet(10_000_000);
+        int refilled = 0;
+        for (int round = 0; round < rounds; round++) {
+            while (mappings[0].tryAcquire("key-" + round).isAllowed()) {
+                refilled++;
+            }
+        }
+        assertEquals(rounds * 20, allowed.get() + refilled);
+    }
+    
+    @Test
+    void testDuplicateClaimIsFoldedIntoFirstSlot() throws Exception {
+        SharedMemoryRateLimiter first = limiter(1024, OverflowPolicy.DENY);
+        SharedMemoryRateLimiter second = limiter(1024, OverflowPolicy.DENY);
+        long hash = SharedMemoryRateLimiter.hash("key");
+        int slot = (int) hash & 1023;
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            table.order(ByteOrder.nativeOrder());
+            // The second mapping has claimed the key's first slot, taking one second of
+            // allowance, but not yet written the key; the first claims the next slot
+            table.putLong(64 + slot * 16 + 8, (hash >>> 48) << 48 | 1_000_000);
+            assertTrue(first.tryAcquire("key").isAllowed());
+            table.putLong(64 + slot * 16, hash);
+        }
+        second.foldDuplicates("key");
+        
+        assertEquals(1, first.getSlotsInUse());
+        int allowed = 0;
+        while (first.tryAcquire("key").isAllowed()) {
+            allowed++;
+        }
+        assertEquals(8, allowed);
+    }
+    
+    @Test
+    void testIdleSlotsAreReclaimed() {
+        SharedMemoryRateLimiter limiter = limiter(16, OverflowPolicy.DENY);
+        
+        for (int i = 0; i < 16; i++) {
+            assertTrue(limiter.tryAcquire("key-" + i).isAllowed());
+        }
+        assertFalse(limiter.tryAcquire("new-key").isAllowed());
+        assertEquals(1, limiter.getOverflowCount());
+        
+        // One second later every key has earned its token back and its slot is free again
+        clock.addAndGet(1_000_000);
+        assertEquals(0, limiter.getSlotsInUse());
+        assertTrue(limiter.tryAcquire("new-key").isAllowed());
+    }
+    
+    @Test
+    void testSharedOverflowPolicy() {
+        SharedMemoryRateLimiter limiter = limiter(16, OverflowPolicy.SHARED);
+        for (int i = 0; i < 16; i++) {
+            assertTrue(limiter.tryAcquire("key-" + i).isAllowed());
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("untracked-" + i).isAllowed());
+        }
+        assertFalse(limiter.tryAcquire("untracked-10").isAllowed());
+    }
+    
+    @Test
+    void testReset() {
+        SharedMemoryRateLimiter limiter = limiter(1024, OverflowPolicy.DENY);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("key").isAllowed());
+        }
+        
+        limiter.reset("key");
+        assertTrue(limiter.tryAcquire("key").isAllowed());
+        
+        limiter.resetAll();
+        assertEquals(0, limiter.getSlotsInUse());
+    }
+    
+    @Test
+    void testMismatchedTableIsRejected() {
+        limiter(1024, OverflowPolicy.DENY);
+        
+        assertThrows(IllegalStateException.class, () -> limiter(2048, OverflowPolicy.DENY));
+        assertThrows(IllegalArgumentException.class, () -> new SharedMemoryRateLimiter(
+            tempDir.resolve("other.table"), 1000, 60, 10, OverflowPolicy.DENY));
+    }
+    
+    @Test
+    void testHashIsStable() {
+        assertEquals(SharedMemoryRateLimiter.hash("client-1"), SharedMemoryRateLimiter.hash("client-1"));
+        assertNotEquals(SharedMemoryRateLimiter.hash("client-1"), SharedMemoryRateLimiter.hash("client-2"));
+        assertNotEquals(0, SharedMemoryRateLimiter.hash(""));
+    }
+    
+    private SharedMemoryRateLimiter limiter(int slots, OverflowPolicy overflowPolicy) {
+        return new SharedMemoryRateLimiter(file, slots, 60, 10, overflowPolicy, clock::get);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.dispatch.filters.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+    
+    private AtomicLong clock;
+    private SlidingWindowRateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        rateLimiter = new SlidingWindowRateLimiter(10, 100, OverflowPolicy.DENY, 300_000, clock::get);
+    }
+    
+    @Test
+    void testQuotaWithinWindow() {
+        for (int i = 0; i < 10; i++) {
+            RateLimitResult result = rateLimiter.tryAcquire("key");
+            assertTrue(result.isAllowed(), "Request " + (i + 1) + " should be allowed");
+            assertEquals(9 - i, result.getRemainingTokens());
+        }
+        
+        RateLimitResult result = rateLimiter.tryAcquire("key");
+        assertFalse(result.isAllowed());
+        assertEquals(0, result.getRemainingTokens());
+        assertEquals(10, result.getLimit());
+    }
+    
+    @Test
+    void testNoBurstAcrossWindowBoundary() {
+        advance(59_000);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        }
+        
+        // Just after the boundary almost all of the previous window still counts
+        advance(2_000);
+        assertFalse(rateLimiter.tryAcquire("key").isAllowed());
+        
+        // Halfway through, half of it has slid out
+        advance(29_000);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire("key").isAllowed(), "Request " + (i + 1) + " should be allowed");
+        }
+        assertFalse(rateLimiter.tryAcquire("key").isAllowed());
+    }
+    
+    @Test
+    void testRetryAfter() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        }
+        
+        // The quota is spent at the start of the window, so the next request fits once
+        // 10% of the previous window has slid out: 60s + 6s
+        RateLimitResult result = rateLimiter.tryAcquire("key");
+        assertEquals(66, result.getRetryAfterSeconds());
+        
+        advance(66_000);
+        assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+    }
+    
+    @Test
+    void testWindowsRollOver() {
+        long state = SlidingWindowRateLimiter.pack(5, 3, 7);
+        
+        assertEquals(state, SlidingWindowRateLimiter.roll(state, 5 * 60_000_000L + 1));
+        long next = SlidingWindowRateLimiter.roll(state, 6 * 60_000_000L);
+        assertEquals(7, SlidingWindowRateLimiter.previous(next));
+        assertEquals(0, SlidingWindowRateLimiter.current(next));
+        long later = SlidingWindowRateLimiter.roll(state, 8 * 60_000_000L);
+        assertEquals(0, SlidingWindowRateLimiter.previous(later));
+        assertEquals(0, SlidingWindowRateLimiter.current(later));
+    }
+    
+    @Test
+    void testIdleKeysAreEvicted() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, 100, OverflowPolicy.DENY, 1000, clock::get);
+        assertTrue(limiter.tryAcquire("idle").isAllowed());
+        
+        advance(30_000);
+        assertTrue(limiter.tryAcquire("other").isAllowed());
+        assertEquals(0, limiter.getEvictionCount());
+        
+        // Both keys have had two empty windows by now
+        advance(120_000);
+        assertTrue(limiter.tryAcquire("other").isAllowed());
+        assertEquals(2, limiter.getEvictionCount());
+        assertEquals(1, limiter.getBucketCount());
+    }
+    
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
\ No newline at end of file
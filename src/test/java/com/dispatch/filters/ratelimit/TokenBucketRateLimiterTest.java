@@ -3,6 +3,13 @@ package com.dispatch.filters.ratelimit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TokenBucketRateLimiterTest {
@@ -136,4 +143,139 @@ class TokenBucketRateLimiterTest {
         assertTrue(result.getResetTime() > 0);
         assertEquals(0, result.getRetryAfterSeconds());
     }
+    
+    @Test
+    void testConcurrentAcquiresNeverExceedCapacity() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1000);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 64; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryAcquire("hot-key").isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        
+        // 6400 attempts against 1000 tokens; at one token per minute the refill adds at most one more
+        assertTrue(allowed.get() >= 1000, "allowed " + allowed.get());
+        assertTrue(allowed.get() <= 1001, "allowed " + allowed.get());
+    }
+    
+    @Test
+    void testIdleBucketsAreEvicted() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 10, 100, OverflowPolicy.DENY, 1000, clock::get);
+        
+        assertTrue(limiter.tryAcquire("idle").isAllowed());
+        assertEquals(1, limiter.getBucketCount());
+        
+        // One token refills after a second, so the bucket is full again and the sweep drops it
+        clock.set(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire("other").isAllowed());
+        
+        assertEquals(1, limiter.getBucketCount());
+        assertEquals(1, limiter.getEvictionCount());
+    }
+    
+    @Test
+    void testSweepChecksOneBatchPerRequest() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 10, 1000, OverflowPolicy.DENY, 1000, clock::get);
+        for (int i = 0; i < 2 * BoundedRateLimiter.SWEEP_BATCH + 1; i++) {
+            assertTrue(limiter.tryAcquire("idle" + i).isAllowed());
+        }
+        
+        clock.set(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire("busy").isAllowed());
+        assertEquals(BoundedRateLimiter.SWEEP_BATCH, limiter.getEvictionCount());
+        
+        assertTrue(limiter.tryAcquire("busy").isAllowed());
+        assertTrue(limiter.tryAcquire("busy").isAllowed());
+        assertEquals(2 * BoundedRateLimiter.SWEEP_BATCH + 1, limiter.getEvictionCount());
+        assertEquals(1, limiter.getBucketCount());
+    }
+    
+    @Test
+    void testActiveBucketsAreNotEvicted() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 10, 100, OverflowPolicy.DENY, 1000, clock::get);
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("busy").isAllowed());
+        }
+        
+        clock.set(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire("busy").isAllowed());
+        assertTrue(limiter.tryAcquire("busy").isAllowed());
+        assertFalse(limiter.tryAcquire("busy").isAllowed());
+        assertEquals(0, limiter.getEvictionCount());
+    }
+    
+    @Test
+    void testDenyOverflowPolicy() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 10, 2, OverflowPolicy.DENY, 60_000);
+        
+        assertTrue(limiter.tryAcquire("a").isAllowed());
+        assertTrue(limiter.tryAcquire("b").isAllowed());
+        
+        RateLimitResult result = limiter.tryAcquire("c");
+        assertFalse(result.isAllowed());
+        assertEquals(60, result.getRetryAfterSeconds());
+        assertEquals(2, limiter.getBucketCount());
+        assertEquals(1, limiter.getOverflowCount());
+        
+        // Known keys keep their own buckets
+        assertTrue(limiter.tryAcquire("a").isAllowed());
+    }
+    
+    @Test
+    void testAllowOverflowPolicy() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 1, 1, OverflowPolicy.ALLOW, 60_000);
+        
+        assertTrue(limiter.tryAcquire("a").isAllowed());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("untracked-" + i).isAllowed());
+        }
+        assertEquals(1, limiter.getBucketCount());
+    }
+    
+    @Test
+    void testSharedOverflowPolicy() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 3, 1, OverflowPolicy.SHARED, 60_000);
+        
+        assertTrue(limiter.tryAcquire("a").isAllowed());
+        
+        // New keys beyond the cap draw from one shared bucket
+        assertTrue(limiter.tryAcquire("x").isAllowed());
+        assertTrue(limiter.tryAcquire("y").isAllowed());
+        assertTrue(limiter.tryAcquire("z").isAllowed());
+        assertFalse(limiter.tryAcquire("w").isAllowed());
+        assertEquals(1, limiter.getBucketCount());
+    }
+    
+    @Test
+    void testResetFreesCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 10, 1, OverflowPolicy.DENY, 60_000);
+        
+        assertTrue(limiter.tryAcquire("a").isAllowed());
+        assertFalse(limiter.tryAcquire("b").isAllowed());
+        
+        limiter.reset("a");
+        assertEquals(0, limiter.getBucketCount());
+        assertTrue(limiter.tryAcquire("b").isAllowed());
+        
+        limiter.resetAll();
+        assertEquals(0, limiter.getBucketCount());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.dispatch.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    
+    @Test
+    void testPercentileWithinBucketAccuracy() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000, now::get);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        
+        long p95 = histogram.percentileNanos(95);
+        long p50 = histogram.percentileNanos(50);
+        
+        assertEquals(100, histogram.count());
+        assertTrue(p95 >= TimeUnit.MILLISECONDS.toNanos(95) && p95 <= TimeUnit.MILLISECONDS.toNanos(119), "p95 " + p95);
+        assertTrue(p50 >= TimeUnit.MILLISECONDS.toNanos(50) && p50 <= TimeUnit.MILLISECONDS.toNanos(63), "p50 " + p50);
+    }
+    
+    @Test
+    void testOldSamplesLeaveTheWindow() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000, now::get);
+        assertEquals(-1, histogram.percentileNanos(95));
+        
+        histogram.record(TimeUnit.SECONDS.toNanos(1));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(2, histogram.count());
+        
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(2, histogram.count());
+        assertTrue(histogram.percentileNanos(100) < TimeUnit.MILLISECONDS.toNanos(2));
+    }
+    
+    @Test
+    void testBucketBounds() {
+        for (long micros : new long[] {0, 1, 3, 4, 5, 7, 8, 100, 1_000, 123_456, 10_000_000}) {
+            int bucket = LatencyHistogram.bucket(micros);
+            assertTrue(LatencyHistogram.upperBoundMicros(bucket) >= micros, "upper bound for " + micros);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundMicros(bucket - 1) < micros || micros < 4,
+                "lower bound for " + micros);
+        }
+    }
+}
\ No newline at end of file
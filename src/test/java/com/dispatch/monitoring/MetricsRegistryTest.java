@@ -0,0 +1,62 @@
+package com.dispatch.monitoring;
+
+import com.dispatch.core.filter.FilterContext;
+import com.dispatch.core.filter.FilterResult;
+import com.dispatch.core.filter.HttpRequest;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+    
+    @Test
+    void testGaugeReadsSource() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong source = new AtomicLong(5);
+        registry.gauge("test.value", source, AtomicLong::get);
+        
+        assertEquals(5, registry.value("test.value"));
+        source.set(7);
+        assertEquals(7, registry.value("test.value"));
+    }
+    
+    @Test
+    void testGaugesWithSameNameAreSummed() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong first = new AtomicLong(2);
+        AtomicLong second = new AtomicLong(3);
+        registry.gauge("test.value", first, AtomicLong::get);
+        registry.gauge("test.value", second, AtomicLong::get);
+        
+        assertEquals(5, registry.value("test.value"));
+        assertEquals(Map.of("test.value", 5L), registry.snapshot());
+    }
+    
+    @Test
+    void testUnknownGaugeIsZero() {
+        assertEquals(0, new MetricsRegistry().value("missing"));
+    }
+    
+    @Test
+    void testMetricsFilterRendersSnapshot() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong source = new AtomicLong(42);
+        registry.gauge("test.value", source, AtomicLong::get);
+        MetricsFilter filter = new MetricsFilter(registry, "/metrics");
+        
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "/metrics", new DefaultHttpHeaders(), 
+            new byte[0], new InetSocketAddress("127.0.0.1", 8080));
+        assertTrue(filter.shouldApply(request));
+        
+        FilterResult result = filter.process(request, new FilterContext(request)).join();
+        FilterResult.Respond respond = assertInstanceOf(FilterResult.Respond.class, result);
+        assertEquals(200, respond.response().statusCode());
+        assertEquals("{\"test.value\":42}", respond.response().bodyAsString());
+    }
+}
\ No newline at end of file